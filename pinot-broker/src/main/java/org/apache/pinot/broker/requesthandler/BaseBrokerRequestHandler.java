@@ -45,6 +45,7 @@ import org.apache.pinot.broker.api.RequestStatistics;
 import org.apache.pinot.broker.api.RequesterIdentity;
 import org.apache.pinot.broker.broker.AccessControlFactory;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
+import org.apache.pinot.broker.resultcache.BrokerResultCache;
 import org.apache.pinot.broker.routing.RoutingManager;
 import org.apache.pinot.broker.routing.RoutingTable;
 import org.apache.pinot.broker.routing.timeboundary.TimeBoundaryInfo;
@@ -109,6 +110,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
   protected final AtomicLong _requestIdGenerator = new AtomicLong();
   protected final BrokerRequestOptimizer _brokerRequestOptimizer = new BrokerRequestOptimizer();
   protected final BrokerReduceService _brokerReduceService;
+  // Result cache for the offline part of the queries, null if disabled
+  protected final BrokerResultCache _resultCache;
 
   protected final String _brokerId;
   protected final long _brokerTimeoutMs;
@@ -152,6 +155,17 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     _numDroppedLogRateLimiter = RateLimiter.create(1.0);
 
     _brokerReduceService = new BrokerReduceService(_config);
+    long resultCacheMaxSizeInBytes = config.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_IN_BYTES,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_IN_BYTES);
+    if (resultCacheMaxSizeInBytes > 0) {
+      long resultCacheExpireTimeMs = config.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_EXPIRE_TIME_MS,
+          Broker.DEFAULT_BROKER_RESULT_CACHE_EXPIRE_TIME_MS);
+      _resultCache = new BrokerResultCache(resultCacheMaxSizeInBytes, resultCacheExpireTimeMs, brokerMetrics);
+      LOGGER.info("Initialized result cache with max size: {} bytes, expire time: {}ms", resultCacheMaxSizeInBytes,
+          resultCacheExpireTimeMs);
+    } else {
+      _resultCache = null;
+    }
     LOGGER
         .info("Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}, query log max rate: {}qps",
             _brokerId, _brokerTimeoutMs, _queryResponseLimit, _queryLogLength, _queryLogRateLimiter.getRate());
@@ -333,6 +347,7 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     // Calculate routing table for the query
     long routingStartTimeNs = System.nanoTime();
     Map<ServerInstance, List<String>> offlineRoutingTable = null;
+    long offlineRoutingVersion = -1;
     Map<ServerInstance, List<String>> realtimeRoutingTable = null;
     int numUnavailableSegments = 0;
     if (offlineBrokerRequest != null) {
@@ -343,6 +358,7 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
         Map<ServerInstance, List<String>> serverInstanceToSegmentsMap = routingTable.getServerInstanceToSegmentsMap();
         if (!serverInstanceToSegmentsMap.isEmpty()) {
           offlineRoutingTable = serverInstanceToSegmentsMap;
+          offlineRoutingVersion = routingTable.getRoutingVersion();
         } else {
           offlineBrokerRequest = null;
         }
@@ -402,8 +418,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     // Execute the query
     ServerStats serverStats = new ServerStats();
     BrokerResponse brokerResponse =
-        processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
-            realtimeRoutingTable, remainingTimeMs, serverStats, requestStatistics);
+        processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable, offlineRoutingVersion,
+            realtimeBrokerRequest, realtimeRoutingTable, remainingTimeMs, serverStats, requestStatistics);
     long executionEndTimeNs = System.nanoTime();
     _brokerMetrics
         .addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_EXECUTION, executionEndTimeNs - routingEndTimeNs);
@@ -1329,11 +1345,14 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
 
   /**
    * Processes the optimized broker requests for both OFFLINE and REALTIME table.
+   * <p>The offline routing version is the version of the routing read when calculating the offline routing table (see
+   * {@link RoutingTable#getRoutingVersion()}), or {@code -1} if there is no offline routing table.
    */
   protected abstract BrokerResponse processBrokerRequest(long requestId, BrokerRequest originalBrokerRequest,
       @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<ServerInstance, List<String>> offlineRoutingTable,
-      @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable,
-      long timeoutMs, ServerStats serverStats, RequestStatistics requestStatistics)
+      long offlineRoutingVersion, @Nullable BrokerRequest realtimeBrokerRequest,
+      @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable, long timeoutMs, ServerStats serverStats,
+      RequestStatistics requestStatistics)
       throws Exception;
 
   /**
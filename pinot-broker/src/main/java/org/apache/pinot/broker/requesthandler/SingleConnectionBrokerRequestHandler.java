@@ -18,15 +18,20 @@
  */
 package org.apache.pinot.broker.requesthandler;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.broker.api.RequestStatistics;
 import org.apache.pinot.broker.broker.AccessControlFactory;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
+import org.apache.pinot.broker.resultcache.BrokerResultCache;
 import org.apache.pinot.broker.routing.RoutingManager;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.BrokerMeter;
@@ -36,14 +41,18 @@ import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.BrokerResponse;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.response.broker.QueryProcessingException;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.common.utils.helix.TableCache;
+import org.apache.pinot.core.common.datatable.DataTableFactory;
+import org.apache.pinot.core.query.reduce.StreamingBrokerReducer;
 import org.apache.pinot.core.transport.AsyncQueryResponse;
 import org.apache.pinot.core.transport.QueryRouter;
 import org.apache.pinot.core.transport.ServerInstance;
 import org.apache.pinot.core.transport.ServerResponse;
 import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 
@@ -54,13 +63,23 @@ import org.apache.pinot.spi.utils.builder.TableNameBuilder;
  */
 @ThreadSafe
 public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandler {
+  // Execution stats excluded from the cached responses when serving them
+  private static final List<String> CACHED_RESPONSE_EXCLUDED_METADATA_KEYS = Arrays
+      .asList(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY,
+          DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY, DataTable.NUM_SEGMENTS_QUERIED,
+          DataTable.NUM_SEGMENTS_PROCESSED, DataTable.NUM_SEGMENTS_MATCHED, DataTable.TIME_USED_MS_METADATA_KEY,
+          DataTable.NUM_RESIZES_METADATA_KEY, DataTable.RESIZE_TIME_MS_METADATA_KEY);
+
   private final QueryRouter _queryRouter;
+  private final boolean _enableStreamingReduce;
 
   public SingleConnectionBrokerRequestHandler(PinotConfiguration config, RoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache,
       BrokerMetrics brokerMetrics) {
     super(config, routingManager, accessControlFactory, queryQuotaManager, tableCache, brokerMetrics);
     _queryRouter = new QueryRouter(_brokerId, brokerMetrics);
+    _enableStreamingReduce =
+        config.getProperty(Broker.CONFIG_OF_ENABLE_STREAMING_REDUCE, Broker.DEFAULT_ENABLE_STREAMING_REDUCE);
   }
 
   @Override
@@ -76,39 +95,111 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
   @Override
   protected BrokerResponse processBrokerRequest(long requestId, BrokerRequest originalBrokerRequest,
       @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<ServerInstance, List<String>> offlineRoutingTable,
-      @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable,
-      long timeoutMs, ServerStats serverStats, RequestStatistics requestStatistics)
+      long offlineRoutingVersion, @Nullable BrokerRequest realtimeBrokerRequest,
+      @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable, long timeoutMs, ServerStats serverStats,
+      RequestStatistics requestStatistics)
       throws Exception {
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
 
     String rawTableName = TableNameBuilder.extractRawTableName(originalBrokerRequest.getQuerySource().getTableName());
+
+    // Look up the result cache for the offline part of the query
+    // NOTE: The routing version is read before calculating the offline routing table, so the cached responses always
+    //       match the routing table.
+    String offlineTableName = null;
+    String offlineQueryKey = null;
+    Map<ServerRoutingInstance, byte[]> cachedOfflineResponses = null;
+    if (_resultCache != null && offlineBrokerRequest != null && offlineRoutingVersion >= 0
+        && !offlineBrokerRequest.isEnableTrace()) {
+      offlineTableName = offlineBrokerRequest.getQuerySource().getTableName();
+      if (_routingManager.isResultCacheEnabled(offlineTableName)) {
+        offlineQueryKey = BrokerResultCache.getQueryKey(offlineBrokerRequest);
+        cachedOfflineResponses = _resultCache.get(offlineTableName, offlineQueryKey, offlineRoutingVersion);
+        if (cachedOfflineResponses != null) {
+          // Only query the real-time part (if exists)
+          offlineBrokerRequest = null;
+          offlineRoutingTable = null;
+        }
+      }
+    }
+
+    // Reduce the server responses incrementally as they arrive if streaming reduce is enabled and the responses do not
+    // need to be cached
+    StreamingBrokerReducer streamingReducer = null;
+    if (_enableStreamingReduce && offlineQueryKey == null) {
+      streamingReducer = _brokerReduceService.createStreamingReducer(originalBrokerRequest);
+    }
+
     long scatterGatherStartTimeNs = System.nanoTime();
-    AsyncQueryResponse asyncQueryResponse = _queryRouter
-        .submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
-            realtimeRoutingTable, timeoutMs);
-    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    AsyncQueryResponse asyncQueryResponse = null;
+    Map<ServerRoutingInstance, ServerResponse> response;
+    if (offlineBrokerRequest != null || realtimeBrokerRequest != null) {
+      asyncQueryResponse = _queryRouter
+          .submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
+              realtimeRoutingTable, timeoutMs, streamingReducer);
+      response = asyncQueryResponse.getResponse();
+      // TODO Use scatterGatherStats as serverStats
+      serverStats.setServerStats(asyncQueryResponse.getStats());
+    } else {
+      response = Collections.emptyMap();
+    }
     _brokerMetrics
         .addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER, System.nanoTime() - scatterGatherStartTimeNs);
-    // TODO Use scatterGatherStats as serverStats
-    serverStats.setServerStats(asyncQueryResponse.getStats());
 
     int numServersQueried = response.size();
     long totalResponseSize = 0;
     Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>(HashUtil.getHashMapCapacity(numServersQueried));
-    for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : response.entrySet()) {
-      ServerResponse serverResponse = entry.getValue();
-      DataTable dataTable = serverResponse.getDataTable();
-      if (dataTable != null) {
+    // NOTE: Data table is not retained in the server response when it is consumed by the streaming reducer, in which
+    //       case the response size is counted after the reduce for the data tables reduced.
+    if (streamingReducer == null) {
+      for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : response.entrySet()) {
+        ServerResponse serverResponse = entry.getValue();
+        DataTable dataTable = serverResponse.getDataTable();
+        if (dataTable != null) {
+          dataTableMap.put(entry.getKey(), dataTable);
+          totalResponseSize += serverResponse.getResponseSize();
+        }
+      }
+    }
+
+    if (cachedOfflineResponses != null) {
+      numServersQueried += cachedOfflineResponses.size();
+      for (Map.Entry<ServerRoutingInstance, byte[]> entry : cachedOfflineResponses.entrySet()) {
+        DataTable dataTable = DataTableFactory.getDataTable(entry.getValue());
+        // Queries served from the cache do not scan anything, so do not replay the execution stats of the cached query
+        dataTable.getMetadata().keySet().removeAll(CACHED_RESPONSE_EXCLUDED_METADATA_KEYS);
         dataTableMap.put(entry.getKey(), dataTable);
-        totalResponseSize += serverResponse.getResponseSize();
+      }
+    } else if (offlineQueryKey != null && asyncQueryResponse.getBrokerRequestSendException() == null
+        && requestStatistics.getNumUnavailableSegments() == 0) {
+      // NOTE: Serialize the data tables before reducing them because the reducer might not be able to access the data
+      //       tables concurrently.
+      Map<ServerRoutingInstance, byte[]> offlineResponses =
+          getCompleteOfflineResponses(dataTableMap, offlineRoutingTable);
+      // Do not cache the responses if the segments changed while executing the query, in which case they might not
+      // match the latest routing table for the version
+      if (offlineResponses != null && _routingManager.getRoutingVersion(offlineTableName) == offlineRoutingVersion) {
+        _resultCache.put(offlineTableName, offlineQueryKey, offlineRoutingVersion, offlineResponses);
       }
     }
-    int numServersResponded = dataTableMap.size();
+    int numServersResponded;
 
     long reduceStartTimeNs = System.nanoTime();
     long reduceTimeOutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
-    BrokerResponseNative brokerResponse =
-        _brokerReduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, reduceTimeOutMs, _brokerMetrics);
+    BrokerResponseNative brokerResponse;
+    if (streamingReducer != null) {
+      brokerResponse = streamingReducer.reduce(reduceTimeOutMs, _brokerMetrics);
+      // NOTE: Only count the servers whose data table is reduced, and ignore the ones responded after the reduce starts
+      Set<ServerRoutingInstance> serversReduced = streamingReducer.getServersReduced();
+      numServersResponded = serversReduced.size();
+      for (ServerRoutingInstance serverRoutingInstance : serversReduced) {
+        totalResponseSize += response.get(serverRoutingInstance).getResponseSize();
+      }
+    } else {
+      numServersResponded = dataTableMap.size();
+      brokerResponse =
+          _brokerReduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, reduceTimeOutMs, _brokerMetrics);
+    }
     final long reduceTimeNanos = System.nanoTime() - reduceStartTimeNs;
     requestStatistics.setReduceTimeNanos(reduceTimeNanos);
     _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REDUCE, reduceTimeNanos);
@@ -116,7 +207,8 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
     brokerResponse.setNumServersQueried(numServersQueried);
     brokerResponse.setNumServersResponded(numServersResponded);
 
-    Exception brokerRequestSendException = asyncQueryResponse.getBrokerRequestSendException();
+    Exception brokerRequestSendException =
+        asyncQueryResponse != null ? asyncQueryResponse.getBrokerRequestSendException() : null;
     if (brokerRequestSendException != null) {
       String errorMsg = QueryException.getTruncatedStackTrace(brokerRequestSendException);
       brokerResponse
@@ -132,4 +224,29 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
 
     return brokerResponse;
   }
+
+  /**
+   * Returns the serialized offline server responses if all the offline servers responded without exception, or
+   * {@code null} otherwise (the responses should not be cached).
+   */
+  @Nullable
+  private static Map<ServerRoutingInstance, byte[]> getCompleteOfflineResponses(
+      Map<ServerRoutingInstance, DataTable> dataTableMap, Map<ServerInstance, List<String>> offlineRoutingTable)
+      throws IOException {
+    Map<ServerRoutingInstance, byte[]> offlineResponses =
+        new HashMap<>(HashUtil.getHashMapCapacity(offlineRoutingTable.size()));
+    for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTableMap.entrySet()) {
+      ServerRoutingInstance serverRoutingInstance = entry.getKey();
+      if (serverRoutingInstance.getTableType() == TableType.OFFLINE) {
+        DataTable dataTable = entry.getValue();
+        for (String key : dataTable.getMetadata().keySet()) {
+          if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
+            return null;
+          }
+        }
+        offlineResponses.put(serverRoutingInstance, dataTable.toBytes());
+      }
+    }
+    return offlineResponses.size() == offlineRoutingTable.size() ? offlineResponses : null;
+  }
 }
@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.resultcache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+
+
+/**
+ * The {@code BrokerResultCache} caches the serialized server responses for the offline part of the queries, so that
+ * repeated queries against offline data that has not changed can be served without scattering the query to the
+ * servers.
+ * <ul>
+ *   <li>
+ *     The cache is keyed on the table name with type and the normalized broker request (including the PinotQuery for
+ *     SQL queries). The query options that do not affect the result (e.g. the remaining timeout) are excluded.
+ *   </li>
+ *   <li>
+ *     Each entry is associated with the routing version of the table when the query is routed. The entry is
+ *     invalidated on access if the routing version has changed (segment added, removed or refreshed), so stale results
+ *     are never served.
+ *   </li>
+ *   <li>
+ *     The real-time part of the queries is never cached. For hybrid tables, the offline broker request contains the
+ *     time boundary filter, so the entries are automatically keyed on the time boundary.
+ *   </li>
+ *   <li>
+ *     The cache is bounded by the total size of the serialized server responses, and evicts the least recently used
+ *     entries when the size limit is reached.
+ *   </li>
+ * </ul>
+ */
+@ThreadSafe
+public class BrokerResultCache {
+  private final Cache<CacheKey, CacheEntry> _cache;
+  private final BrokerMetrics _brokerMetrics;
+
+  public BrokerResultCache(long maxSizeInBytes, long expireTimeMs, BrokerMetrics brokerMetrics) {
+    _brokerMetrics = brokerMetrics;
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeInBytes)
+        .weigher((CacheKey key, CacheEntry entry) -> (int) Math.min(entry._sizeInBytes, Integer.MAX_VALUE))
+        .expireAfterWrite(expireTimeMs, TimeUnit.MILLISECONDS).removalListener(notification -> {
+          if (notification.getCause() == RemovalCause.SIZE || notification.getCause() == RemovalCause.EXPIRED) {
+            CacheKey key = notification.getKey();
+            if (key != null) {
+              _brokerMetrics.addMeteredTableValue(key._rawTableName, BrokerMeter.RESULT_CACHE_EVICTIONS, 1);
+            }
+          }
+        }).build();
+  }
+
+  /**
+   * Returns the normalized query key for the given broker request (with table name suffix appended).
+   * <p>NOTE: This method does not modify the given broker request.
+   */
+  public static String getQueryKey(BrokerRequest brokerRequest) {
+    BrokerRequest normalizedBrokerRequest = new BrokerRequest(brokerRequest);
+    Map<String, String> queryOptions = normalizedBrokerRequest.getQueryOptions();
+    if (queryOptions != null) {
+      queryOptions.remove(QueryOptionKey.TIMEOUT_MS);
+    }
+    return normalizedBrokerRequest.toString();
+  }
+
+  /**
+   * Returns the cached serialized server responses for the given table and query, or {@code null} if there is no valid
+   * entry cached. The cached entry is invalidated if the routing version does not match the current routing version.
+   */
+  @Nullable
+  public Map<ServerRoutingInstance, byte[]> get(String tableNameWithType, String queryKey, long routingVersion) {
+    CacheKey key = new CacheKey(tableNameWithType, queryKey);
+    String rawTableName = key._rawTableName;
+    CacheEntry entry = _cache.getIfPresent(key);
+    if (entry != null) {
+      if (entry._routingVersion == routingVersion) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1);
+        return entry._serverResponses;
+      }
+      // Segments changed since the entry is cached, invalidate all the stale entries for the table
+      invalidateStaleEntries(tableNameWithType, routingVersion);
+    }
+    _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1);
+    return null;
+  }
+
+  /**
+   * Caches the serialized server responses for the given table and query at the given routing version.
+   * <p>NOTE: The caller should only cache the complete responses (all servers responded without exception).
+   */
+  public void put(String tableNameWithType, String queryKey, long routingVersion,
+      Map<ServerRoutingInstance, byte[]> serverResponses) {
+    long sizeInBytes = queryKey.length();
+    for (byte[] serverResponse : serverResponses.values()) {
+      sizeInBytes += serverResponse.length;
+    }
+    _cache.put(new CacheKey(tableNameWithType, queryKey),
+        new CacheEntry(routingVersion, Collections.unmodifiableMap(serverResponses), sizeInBytes));
+  }
+
+  /**
+   * Invalidates all the cached entries for the given table that are not cached at the given routing version.
+   */
+  private void invalidateStaleEntries(String tableNameWithType, long routingVersion) {
+    int numInvalidatedEntries = 0;
+    String rawTableName = null;
+    Map<CacheKey, CacheEntry> cacheMap = _cache.asMap();
+    for (Map.Entry<CacheKey, CacheEntry> entry : cacheMap.entrySet()) {
+      CacheKey key = entry.getKey();
+      CacheEntry value = entry.getValue();
+      if (key._tableNameWithType.equals(tableNameWithType) && value._routingVersion != routingVersion && cacheMap
+          .remove(key, value)) {
+        rawTableName = key._rawTableName;
+        numInvalidatedEntries++;
+      }
+    }
+    if (numInvalidatedEntries > 0) {
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_INVALIDATIONS, numInvalidatedEntries);
+    }
+  }
+
+  /**
+   * Returns the number of entries in the cache.
+   */
+  public long size() {
+    return _cache.size();
+  }
+
+  private static class CacheKey {
+    final String _tableNameWithType;
+    final String _rawTableName;
+    final String _queryKey;
+
+    CacheKey(String tableNameWithType, String queryKey) {
+      _tableNameWithType = tableNameWithType;
+      _rawTableName = TableNameBuilder.extractRawTableName(tableNameWithType);
+      _queryKey = queryKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return _tableNameWithType.equals(that._tableNameWithType) && _queryKey.equals(that._queryKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_tableNameWithType, _queryKey);
+    }
+  }
+
+  private static class CacheEntry {
+    final long _routingVersion;
+    final Map<ServerRoutingInstance, byte[]> _serverResponses;
+    final long _sizeInBytes;
+
+    CacheEntry(long routingVersion, Map<ServerRoutingInstance, byte[]> serverResponses, long sizeInBytes) {
+      _routingVersion = routingVersion;
+      _serverResponses = serverResponses;
+      _sizeInBytes = sizeInBytes;
+    }
+  }
+}
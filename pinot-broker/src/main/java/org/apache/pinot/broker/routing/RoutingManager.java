@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import org.apache.helix.AccessOption;
 import org.apache.helix.BaseDataAccessor;
@@ -77,6 +78,8 @@ import org.slf4j.LoggerFactory;
  *   <li>{@link #getRoutingTable(BrokerRequest)}: Returns the routing table for a query</li>
  *   <li>{@link #getTimeBoundaryInfo(String)}: Returns the time boundary info for a table</li>
  *   <li>{@link #getQueryTimeoutMs(String)}: Returns the table-level query timeout in milliseconds for a table</li>
+ *   <li>{@link #isResultCacheEnabled(String)}: Returns whether the result cache is enabled for a table</li>
+ *   <li>{@link #getRoutingVersion(String)}: Returns the routing version (changed on segment change) for a table</li>
  * </ul>
  *
  * TODO: Expose RoutingEntry class to get a consistent view in the broker request handler and save the redundant map
@@ -88,6 +91,8 @@ public class RoutingManager implements ClusterChangeHandler {
   private final BrokerMetrics _brokerMetrics;
   private final Map<String, RoutingEntry> _routingEntryMap = new ConcurrentHashMap<>();
   private final Map<String, ServerInstance> _enabledServerInstanceMap = new ConcurrentHashMap<>();
+  // Used to generate the routing version, which is bumped whenever the segments of a table change
+  private final AtomicLong _routingVersionGenerator = new AtomicLong();
 
   private BaseDataAccessor<ZNRecord> _zkDataAccessor;
   private String _externalViewPathPrefix;
@@ -161,7 +166,7 @@ public class RoutingManager implements ClusterChangeHandler {
                   .warn("Failed to find ideal state for table: {}, skipping updating routing entry", tableNameWithType);
               continue;
             }
-            routingEntry.onExternalViewChange(externalView, idealState);
+            routingEntry.onExternalViewChange(externalView, idealState, _routingVersionGenerator.incrementAndGet());
           } catch (Exception e) {
             LOGGER
                 .error("Caught unexpected exception while updating routing entry on external view change for table: {}",
@@ -368,10 +373,12 @@ public class RoutingManager implements ClusterChangeHandler {
 
     QueryConfig queryConfig = tableConfig.getQueryConfig();
     Long queryTimeoutMs = queryConfig != null ? queryConfig.getTimeoutMs() : null;
+    boolean resultCacheEnabled = queryConfig != null && queryConfig.isResultCacheEnabled();
 
     RoutingEntry routingEntry =
         new RoutingEntry(tableNameWithType, segmentPreSelector, segmentSelector, segmentPruners, instanceSelector,
-            externalViewVersion, timeBoundaryManager, queryTimeoutMs);
+            externalViewVersion, timeBoundaryManager, queryTimeoutMs, resultCacheEnabled,
+            _routingVersionGenerator.incrementAndGet());
     if (_routingEntryMap.put(tableNameWithType, routingEntry) == null) {
       LOGGER.info("Built routing for table: {}", tableNameWithType);
     } else {
@@ -426,7 +433,7 @@ public class RoutingManager implements ClusterChangeHandler {
     LOGGER.info("Refreshing segment: {} for table: {}", segment, tableNameWithType);
     RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
     if (routingEntry != null) {
-      routingEntry.refreshSegment(segment);
+      routingEntry.refreshSegment(segment, _routingVersionGenerator.incrementAndGet());
       LOGGER.info("Refreshed segment: {} for table: {}", segment, tableNameWithType);
     } else {
       LOGGER.warn("Routing does not exist for table: {}, skipping refreshing segment", tableNameWithType);
@@ -452,6 +459,9 @@ public class RoutingManager implements ClusterChangeHandler {
     if (routingEntry == null) {
       return null;
     }
+    // NOTE: Read the routing version before calculating the routing so that the routing table is never older than the
+    //       version
+    long routingVersion = routingEntry.getRoutingVersion();
     InstanceSelector.SelectionResult selectionResult = routingEntry.calculateRouting(brokerRequest);
     Map<String, String> segmentToInstanceMap = selectionResult.getSegmentToInstanceMap();
     Map<ServerInstance, List<String>> serverInstanceToSegmentsMap = new HashMap<>();
@@ -464,7 +474,7 @@ public class RoutingManager implements ClusterChangeHandler {
         _brokerMetrics.addMeteredTableValue(tableNameWithType, BrokerMeter.SERVER_MISSING_FOR_ROUTING, 1L);
       }
     }
-    return new RoutingTable(serverInstanceToSegmentsMap, selectionResult.getUnavailableSegments());
+    return new RoutingTable(serverInstanceToSegmentsMap, selectionResult.getUnavailableSegments(), routingVersion);
   }
 
   /**
@@ -492,6 +502,25 @@ public class RoutingManager implements ClusterChangeHandler {
     return routingEntry != null ? routingEntry.getQueryTimeoutMs() : null;
   }
 
+  /**
+   * Returns {@code true} if the result cache is enabled in the table config for the given table, {@code false}
+   * otherwise.
+   */
+  public boolean isResultCacheEnabled(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null && routingEntry.isResultCacheEnabled();
+  }
+
+  /**
+   * Returns the version of the routing for the given table, or {@code -1} if the routing does not exist. The version is
+   * changed whenever the routing is built/rebuilt, the external view of the table changes, or a segment of the table is
+   * refreshed, and can be used to detect the segment changes for the table.
+   */
+  public long getRoutingVersion(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null ? routingEntry.getRoutingVersion() : -1;
+  }
+
   private static class RoutingEntry {
     final String _tableNameWithType;
     final SegmentPreSelector _segmentPreSelector;
@@ -499,15 +528,19 @@ public class RoutingManager implements ClusterChangeHandler {
     final List<SegmentPruner> _segmentPruners;
     final InstanceSelector _instanceSelector;
     final Long _queryTimeoutMs;
+    final boolean _resultCacheEnabled;
 
     // Cache the ExternalView version for the last update
     transient int _lastUpdateExternalViewVersion;
     // Time boundary manager is only available for the offline part of the hybrid table
     transient TimeBoundaryManager _timeBoundaryManager;
+    // Routing version for the last segment change
+    transient volatile long _routingVersion;
 
     RoutingEntry(String tableNameWithType, SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector,
         List<SegmentPruner> segmentPruners, InstanceSelector instanceSelector, int lastUpdateExternalViewVersion,
-        @Nullable TimeBoundaryManager timeBoundaryManager, @Nullable Long queryTimeoutMs) {
+        @Nullable TimeBoundaryManager timeBoundaryManager, @Nullable Long queryTimeoutMs, boolean resultCacheEnabled,
+        long routingVersion) {
       _tableNameWithType = tableNameWithType;
       _segmentPreSelector = segmentPreSelector;
       _segmentSelector = segmentSelector;
@@ -516,6 +549,8 @@ public class RoutingManager implements ClusterChangeHandler {
       _lastUpdateExternalViewVersion = lastUpdateExternalViewVersion;
       _timeBoundaryManager = timeBoundaryManager;
       _queryTimeoutMs = queryTimeoutMs;
+      _resultCacheEnabled = resultCacheEnabled;
+      _routingVersion = routingVersion;
     }
 
     String getTableNameWithType() {
@@ -539,10 +574,18 @@ public class RoutingManager implements ClusterChangeHandler {
       return _queryTimeoutMs;
     }
 
+    boolean isResultCacheEnabled() {
+      return _resultCacheEnabled;
+    }
+
+    long getRoutingVersion() {
+      return _routingVersion;
+    }
+
     // NOTE: The change gets applied in sequence, and before change applied to all components, there could be some
     // inconsistency between components, which is fine because the inconsistency only exists for the newly changed
     // segments and only lasts for a very short time.
-    void onExternalViewChange(ExternalView externalView, IdealState idealState) {
+    void onExternalViewChange(ExternalView externalView, IdealState idealState, long routingVersion) {
       Set<String> onlineSegments = getOnlineSegments(idealState);
       Set<String> preSelectedOnlineSegments = _segmentPreSelector.preSelect(onlineSegments);
       _segmentSelector.onExternalViewChange(externalView, idealState, preSelectedOnlineSegments);
@@ -554,19 +597,21 @@ public class RoutingManager implements ClusterChangeHandler {
         _timeBoundaryManager.onExternalViewChange(externalView, idealState, preSelectedOnlineSegments);
       }
       _lastUpdateExternalViewVersion = externalView.getStat().getVersion();
+      _routingVersion = routingVersion;
     }
 
     void onInstancesChange(Set<String> enabledInstances, List<String> changedInstances) {
       _instanceSelector.onInstancesChange(enabledInstances, changedInstances);
     }
 
-    void refreshSegment(String segment) {
+    void refreshSegment(String segment, long routingVersion) {
       for (SegmentPruner segmentPruner : _segmentPruners) {
         segmentPruner.refreshSegment(segment);
       }
       if (_timeBoundaryManager != null) {
         _timeBoundaryManager.refreshSegment(segment);
       }
+      _routingVersion = routingVersion;
     }
 
     InstanceSelector.SelectionResult calculateRouting(BrokerRequest brokerRequest) {
@@ -26,10 +26,17 @@ import org.apache.pinot.core.transport.ServerInstance;
 public class RoutingTable {
   private final Map<ServerInstance, List<String>> _serverInstanceToSegmentsMap;
   private final List<String> _unavailableSegments;
+  private final long _routingVersion;
 
   public RoutingTable(Map<ServerInstance, List<String>> serverInstanceToSegmentsMap, List<String> unavailableSegments) {
+    this(serverInstanceToSegmentsMap, unavailableSegments, -1);
+  }
+
+  public RoutingTable(Map<ServerInstance, List<String>> serverInstanceToSegmentsMap, List<String> unavailableSegments,
+      long routingVersion) {
     _serverInstanceToSegmentsMap = serverInstanceToSegmentsMap;
     _unavailableSegments = unavailableSegments;
+    _routingVersion = routingVersion;
   }
 
   public Map<ServerInstance, List<String>> getServerInstanceToSegmentsMap() {
@@ -39,4 +46,12 @@ public class RoutingTable {
   public List<String> getUnavailableSegments() {
     return _unavailableSegments;
   }
+
+  /**
+   * Returns the version of the routing (see {@link RoutingManager#getRoutingVersion(String)}) read before calculating
+   * the routing table, or {@code -1} if unknown.
+   */
+  public long getRoutingVersion() {
+    return _routingVersion;
+  }
 }
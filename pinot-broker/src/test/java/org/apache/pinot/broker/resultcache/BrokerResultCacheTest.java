@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.resultcache;
+
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class BrokerResultCacheTest {
+  private static final String OFFLINE_TABLE_NAME = "testTable_OFFLINE";
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable_OFFLINE WHERE foo = 'bar'";
+  private static final ServerRoutingInstance SERVER_ROUTING_INSTANCE =
+      new ServerRoutingInstance("localhost", 12345, TableType.OFFLINE);
+
+  private final BrokerMetrics _brokerMetrics =
+      new BrokerMetrics("", new MetricsRegistry(), true, Collections.emptySet());
+
+  @Test
+  public void testQueryKey() {
+    BrokerRequest brokerRequest = new CalciteSqlCompiler().compileToBrokerRequest(QUERY);
+    String queryKey = BrokerResultCache.getQueryKey(brokerRequest);
+
+    // Timeout should not be part of the key, and the broker request should not be modified
+    Map<String, String> queryOptions = new HashMap<>();
+    queryOptions.put(QueryOptionKey.TIMEOUT_MS, "1000");
+    brokerRequest.setQueryOptions(queryOptions);
+    assertEquals(BrokerResultCache.getQueryKey(brokerRequest), queryKey);
+    assertEquals(brokerRequest.getQueryOptions().get(QueryOptionKey.TIMEOUT_MS), "1000");
+
+    // Other query options should be part of the key
+    queryOptions.put(QueryOptionKey.GROUP_BY_MODE, "sql");
+    assertNotEquals(BrokerResultCache.getQueryKey(brokerRequest), queryKey);
+
+    // Different filter should have different key
+    BrokerRequest otherBrokerRequest =
+        new CalciteSqlCompiler().compileToBrokerRequest("SELECT COUNT(*) FROM testTable_OFFLINE WHERE foo = 'baz'");
+    assertNotEquals(BrokerResultCache.getQueryKey(otherBrokerRequest), queryKey);
+  }
+
+  @Test
+  public void testGetAndPut() {
+    BrokerResultCache resultCache = new BrokerResultCache(1024 * 1024, 3_600_000L, _brokerMetrics);
+    String queryKey = BrokerResultCache.getQueryKey(new CalciteSqlCompiler().compileToBrokerRequest(QUERY));
+    assertNull(resultCache.get(OFFLINE_TABLE_NAME, queryKey, 1));
+
+    byte[] serverResponse = new byte[]{1, 2, 3};
+    resultCache.put(OFFLINE_TABLE_NAME, queryKey, 1, Collections.singletonMap(SERVER_ROUTING_INSTANCE, serverResponse));
+    Map<ServerRoutingInstance, byte[]> cachedResponses = resultCache.get(OFFLINE_TABLE_NAME, queryKey, 1);
+    assertNotNull(cachedResponses);
+    assertEquals(cachedResponses.get(SERVER_ROUTING_INSTANCE), serverResponse);
+
+    // Different table should not share the entry
+    assertNull(resultCache.get("otherTable_OFFLINE", queryKey, 1));
+
+    // Routing version changed (segment change), the stale entries should be invalidated
+    resultCache.put(OFFLINE_TABLE_NAME, "otherQueryKey", 1,
+        Collections.singletonMap(SERVER_ROUTING_INSTANCE, serverResponse));
+    assertEquals(resultCache.size(), 2);
+    assertNull(resultCache.get(OFFLINE_TABLE_NAME, queryKey, 2));
+    assertEquals(resultCache.size(), 0);
+    assertNull(resultCache.get(OFFLINE_TABLE_NAME, queryKey, 1));
+  }
+
+  @Test
+  public void testEviction() {
+    BrokerResultCache resultCache = new BrokerResultCache(1024, 3_600_000L, _brokerMetrics);
+    for (int i = 0; i < 100; i++) {
+      resultCache.put(OFFLINE_TABLE_NAME, "query" + i, 1,
+          Collections.singletonMap(SERVER_ROUTING_INSTANCE, new byte[100]));
+    }
+    // Least recently used entries should be evicted to bound the size
+    assertTrue(resultCache.size() < 10);
+    assertNull(resultCache.get(OFFLINE_TABLE_NAME, "query0", 1));
+    assertNotNull(resultCache.get(OFFLINE_TABLE_NAME, "query99", 1));
+  }
+}
@@ -90,6 +90,12 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
 
   QUERY_QUOTA_EXCEEDED("exceptions", false),
 
+  // These metrics track the result cache for the offline part of the queries.
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+  RESULT_CACHE_EVICTIONS("entries", false),
+  RESULT_CACHE_INVALIDATIONS("entries", false),
+
   // tracks a case a segment is not hosted by any server
   // this is different from NO_SERVER_FOUND_EXCEPTIONS which tracks unavailability across all segments
   NO_SERVING_HOST_FOR_SEGMENT("badResponses", false),
@@ -41,9 +41,15 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   REALTIME_OFFHEAP_MEMORY_USED("bytes", false),
   REALTIME_SEGMENT_NUM_PARTITIONS("realtimeSegmentNumPartitions", false),
   LLC_SIMULTANEOUS_SEGMENT_BUILDS("llcSimultaneousSegmentBuilds", true),
+  REALTIME_CONSUMPTION_MEMORY_BUDGET("bytes", true),
+  REALTIME_CONSUMPTION_DIRECT_MEMORY_USED("bytes", true),
+  REALTIME_CONSUMPTION_MMAP_MEMORY_USED("bytes", true),
+  REALTIME_CONSUMPTION_HEAP_MEMORY_USED("bytes", true),
+  REALTIME_CONSUMPTION_RATE("rowsPerSecond", false),
 
   // Upsert metrics
-  UPSERT_PRIMARY_KEYS_COUNT("upsertPrimaryKeysCount", false);
+  UPSERT_PRIMARY_KEYS_COUNT("upsertPrimaryKeysCount", false),
+  UPSERT_METADATA_STORE_MEMORY_USED("bytes", false);
 
   private final String gaugeName;
   private final String unit;
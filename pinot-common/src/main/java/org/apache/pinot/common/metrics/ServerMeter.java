@@ -38,6 +38,9 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   INVALID_REALTIME_ROWS_DROPPED("rows", false),
   REALTIME_CONSUMPTION_EXCEPTIONS("exceptions", true),
   REALTIME_OFFSET_COMMITS("commits", true),
+  REALTIME_MEMORY_LIMIT_COMMITS("commits", false),
+  REALTIME_CONSUMPTION_THROTTLED_MILLIS("milliseconds", false),
+  REALTIME_PREFETCH_NOT_STARTED("fetches", false),
   REALTIME_OFFSET_COMMIT_EXCEPTIONS("exceptions", false),
   REALTIME_PARTITION_MISMATCH("mismatch", false),
   ROWS_WITH_ERRORS("rows", false),
@@ -64,6 +67,8 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   REFRESH_FAILURES("segments", false),
   UNTAR_FAILURES("segments", false),
   SEGMENT_DOWNLOAD_FAILURES("segments", false),
+  SEGMENT_RESULT_CACHE_HITS("segments", false),
+  SEGMENT_RESULT_CACHE_MISSES("segments", false),
   NUM_RESIZES("numResizes", false),
   RESIZE_TIME_MS("resizeTimeMs", false),
 
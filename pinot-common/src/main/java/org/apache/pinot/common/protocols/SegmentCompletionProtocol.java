@@ -135,6 +135,8 @@ public class SegmentCompletionProtocol {
 
   public static final String REASON_ROW_LIMIT = "rowLimit";  // Stop reason sent by server as max num rows reached
   public static final String REASON_TIME_LIMIT = "timeLimit";  // Stop reason sent by server as max time reached
+  // Stop reason sent by server as the memory used by the consuming segments on the server reached the budget
+  public static final String REASON_MEMORY_LIMIT = "memoryLimit";
 
   // Canned responses
   public static final Response RESP_NOT_LEADER =
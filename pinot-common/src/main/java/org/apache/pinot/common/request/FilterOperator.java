@@ -42,7 +42,8 @@ public enum FilterOperator implements org.apache.thrift.TEnum {
   IN(7),
   IS_NULL(8),
   IS_NOT_NULL(9),
-  TEXT_MATCH(10);
+  TEXT_MATCH(10),
+  JSON_MATCH(11);
 
   private final int value;
 
@@ -86,6 +87,8 @@ public enum FilterOperator implements org.apache.thrift.TEnum {
         return IS_NOT_NULL;
       case 10:
         return TEXT_MATCH;
+      case 11:
+        return JSON_MATCH;
       default:
         return null;
     }
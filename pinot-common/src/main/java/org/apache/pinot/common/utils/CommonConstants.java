@@ -177,6 +177,19 @@ public class CommonConstants {
     public static final String CONFIG_OF_BROKER_GROUPBY_TRIM_THRESHOLD = "pinot.broker.groupby.trim.threshold";
     public static final int DEFAULT_BROKER_GROUPBY_TRIM_THRESHOLD = 1_000_000;
 
+    // Enable to reduce the server responses incrementally as they arrive instead of after all servers responded. Not
+    // applied to the queries that populate the result cache, which requires all the data tables.
+    public static final String CONFIG_OF_ENABLE_STREAMING_REDUCE = "pinot.broker.enable.streaming.reduce";
+    public static final boolean DEFAULT_ENABLE_STREAMING_REDUCE = false;
+
+    // Configs for the result cache of the offline part of the queries (only used for tables with result cache enabled in
+    // the query config). Set the max size to 0 to disable the result cache.
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_IN_BYTES =
+        "pinot.broker.result.cache.max.size.in.bytes";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_IN_BYTES = 64 * 1024 * 1024L;
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_EXPIRE_TIME_MS = "pinot.broker.result.cache.expire.time.ms";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_EXPIRE_TIME_MS = 3_600_000L;
+
     public static class Request {
       public static final String PQL = "pql";
       public static final String SQL = "sql";
@@ -216,6 +229,13 @@ public class CommonConstants {
     public static final int DEFAULT_ADMIN_API_PORT = 8097;
 
     public static final String CONFIG_OF_SEGMENT_FORMAT_VERSION = "pinot.server.instance.segment.format.version";
+    // Version of the data tables sent to the brokers. Upgrade the brokers before setting it to a newer version.
+    public static final String CONFIG_OF_DATA_TABLE_VERSION = "pinot.server.instance.datatable.version";
+    public static final int DEFAULT_DATA_TABLE_VERSION = 2;
+    // Compression type of the data tables sent to the brokers (only applies to data table V3)
+    public static final String CONFIG_OF_DATA_TABLE_COMPRESSION_TYPE =
+        "pinot.server.instance.datatable.compression.type";
+    public static final String DEFAULT_DATA_TABLE_COMPRESSION_TYPE = "PASS_THROUGH";
     public static final String CONFIG_OF_ENABLE_SPLIT_COMMIT = "pinot.server.instance.enable.split.commit";
     public static final String CONFIG_OF_ENABLE_COMMIT_END_WITH_METADATA =
         "pinot.server.instance.enable.commitend.metadata";
@@ -244,7 +244,7 @@ public class TableConfigSerDeTest {
     }
     {
       // with upsert config
-      UpsertConfig upsertConfig = new UpsertConfig(UpsertConfig.Mode.FULL);
+      UpsertConfig upsertConfig = new UpsertConfig(UpsertConfig.Mode.FULL, UpsertConfig.MetadataStoreType.OFF_HEAP);
 
       TableConfig tableConfig = tableConfigBuilder.setUpsertConfig(upsertConfig).build();
 
@@ -495,5 +495,6 @@ public class TableConfigSerDeTest {
     assertNotNull(upsertConfig);
 
     assertEquals(upsertConfig.getMode(), UpsertConfig.Mode.FULL);
+    assertEquals(upsertConfig.getMetadataStoreType(), UpsertConfig.MetadataStoreType.OFF_HEAP);
   }
 }
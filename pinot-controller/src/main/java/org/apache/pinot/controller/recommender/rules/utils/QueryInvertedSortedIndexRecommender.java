@@ -630,8 +630,8 @@ public class QueryInvertedSortedIndexRecommender {
             .setnESIWithIdx(NESI_ZERO).build();
       }
     }
-    // e.g. TEXT_MATCH(a, "...")
-    else if (type == Predicate.Type.TEXT_MATCH) {
+    // e.g. TEXT_MATCH(a, "..."), JSON_MATCH(a, "...")
+    else if (type == Predicate.Type.TEXT_MATCH || type == Predicate.Type.JSON_MATCH) {
       return PredicateParseResult.PredicateParseResultBuilder.aPredicateParseResult()
           .setCandidateDims(FixedLenBitset.IMMUTABLE_EMPTY_SET)
           .setIteratorEvalPriorityEnum(IteratorEvalPriorityEnum.INDEXED)
@@ -23,6 +23,8 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.GeoIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
 import org.apache.pinot.core.segment.index.readers.TextIndexReader;
 
@@ -66,6 +68,18 @@ public interface DataSource {
   @Nullable
   TextIndexReader getTextIndex();
 
+  /**
+   * Returns the json index for the column if exists, or {@code null} if not.
+   */
+  @Nullable
+  JsonIndexReader getJsonIndex();
+
+  /**
+   * Returns the geo index for the column if exists, or {@code null} if not.
+   */
+  @Nullable
+  GeoIndexReader getGeoIndex();
+
   /**
    * Returns the bloom filter for the column if exists, or {@code null} if not.
    */
@@ -24,9 +24,11 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
 import org.apache.pinot.spi.utils.ByteArray;
 
 
@@ -76,10 +78,15 @@ import org.apache.pinot.spi.utils.ByteArray;
 // TODO:   2. Use one dictionary for all columns (save space).
 // TODO:   3. Given a data schema, write all values one by one instead of using rowId and colId to position (save time).
 // TODO:   4. Store bytes as variable size data instead of String
+// NOTE: Optimizations 1, 2 and 4 are applied to data table V3 (columnar), which is built when the data table version
+//       is set to 3 in the DataTableFactory.
 public class DataTableBuilder {
   private final DataSchema _dataSchema;
   private final int[] _columnOffsets;
   private final int _rowSizeInBytes;
+  // Whether to build the columnar data table V3
+  private final boolean _columnar;
+  private final ChunkCompressorFactory.CompressionType _compressionType;
   private final Map<String, Map<String, Integer>> _dictionaryMap = new HashMap<>();
   private final Map<String, Map<Integer, String>> _reverseDictionaryMap = new HashMap<>();
   private final ByteArrayOutputStream _fixedSizeDataByteArrayOutputStream = new ByteArrayOutputStream();
@@ -87,21 +94,77 @@ public class DataTableBuilder {
   private final DataOutputStream _variableSizeDataOutputStream =
       new DataOutputStream(_variableSizeDataByteArrayOutputStream);
 
+  // For data table V3: dictionary shared by all columns, per-column fixed size data and variable size data
+  private final Map<String, Integer> _sharedDictionary = new HashMap<>();
+  private final int[] _columnValueSizes;
+  private final ByteBuffer[] _columnFixedSizeData;
+  private final ByteArrayOutputStream[] _columnVariableSizeDataByteArrayOutputStreams;
+  private final DataOutputStream[] _columnVariableSizeDataOutputStreams;
+
   private int _numRows;
   private ByteBuffer _currentRowDataByteBuffer;
 
   public DataTableBuilder(DataSchema dataSchema) {
+    this(dataSchema, DataTableFactory.getDataTableVersion(), DataTableFactory.getCompressionType());
+  }
+
+  /**
+   * Constructs a builder for the given data table version and compression type (only applies to data table V3)
+   * instead of the ones configured in {@link DataTableFactory}.
+   */
+  public DataTableBuilder(DataSchema dataSchema, int dataTableVersion,
+      ChunkCompressorFactory.CompressionType compressionType) {
     _dataSchema = dataSchema;
-    _columnOffsets = new int[dataSchema.size()];
+    int numColumns = dataSchema.size();
+    _columnOffsets = new int[numColumns];
     _rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, _columnOffsets);
+    _columnar = dataTableVersion == DataTableFactory.VERSION_3;
+    _compressionType = compressionType;
+    if (_columnar) {
+      _columnValueSizes = new int[numColumns];
+      _columnFixedSizeData = new ByteBuffer[numColumns];
+      _columnVariableSizeDataByteArrayOutputStreams = new ByteArrayOutputStream[numColumns];
+      _columnVariableSizeDataOutputStreams = new DataOutputStream[numColumns];
+      for (int i = 0; i < numColumns; i++) {
+        _columnValueSizes[i] = DataTableUtils.getColumnValueSizeV3(dataSchema.getColumnDataType(i));
+        _columnFixedSizeData[i] = ByteBuffer.allocate(0);
+        _columnVariableSizeDataByteArrayOutputStreams[i] = new ByteArrayOutputStream();
+        _columnVariableSizeDataOutputStreams[i] =
+            new DataOutputStream(_columnVariableSizeDataByteArrayOutputStreams[i]);
+      }
+    } else {
+      _columnValueSizes = null;
+      _columnFixedSizeData = null;
+      _columnVariableSizeDataByteArrayOutputStreams = null;
+      _columnVariableSizeDataOutputStreams = null;
+    }
   }
 
   public void startRow() {
     _numRows++;
-    _currentRowDataByteBuffer = ByteBuffer.allocate(_rowSizeInBytes);
+    if (_columnar) {
+      // Expand the column buffers if needed (double the capacity to amortize the cost)
+      int numColumns = _columnFixedSizeData.length;
+      for (int i = 0; i < numColumns; i++) {
+        ByteBuffer fixedSizeData = _columnFixedSizeData[i];
+        int requiredCapacity = _numRows * _columnValueSizes[i];
+        if (fixedSizeData.capacity() < requiredCapacity) {
+          ByteBuffer expandedFixedSizeData =
+              ByteBuffer.allocate(Math.max(requiredCapacity, fixedSizeData.capacity() * 2));
+          expandedFixedSizeData.put(fixedSizeData.array());
+          _columnFixedSizeData[i] = expandedFixedSizeData;
+        }
+      }
+    } else {
+      _currentRowDataByteBuffer = ByteBuffer.allocate(_rowSizeInBytes);
+    }
   }
 
   public void setColumn(int colId, boolean value) {
+    if (_columnar) {
+      setColumn(colId, value ? 1 : 0);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     if (value) {
       _currentRowDataByteBuffer.put((byte) 1);
@@ -111,41 +174,73 @@ public class DataTableBuilder {
   }
 
   public void setColumn(int colId, byte value) {
+    if (_columnar) {
+      setColumn(colId, (int) value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.put(value);
   }
 
   public void setColumn(int colId, char value) {
+    if (_columnar) {
+      setColumn(colId, (int) value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putChar(value);
   }
 
   public void setColumn(int colId, short value) {
+    if (_columnar) {
+      setColumn(colId, (int) value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putShort(value);
   }
 
   public void setColumn(int colId, int value) {
+    if (_columnar) {
+      _columnFixedSizeData[colId].putInt((_numRows - 1) * Integer.BYTES, value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(value);
   }
 
   public void setColumn(int colId, long value) {
+    if (_columnar) {
+      _columnFixedSizeData[colId].putLong((_numRows - 1) * Long.BYTES, value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putLong(value);
   }
 
   public void setColumn(int colId, float value) {
+    if (_columnar) {
+      _columnFixedSizeData[colId].putFloat((_numRows - 1) * Float.BYTES, value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putFloat(value);
   }
 
   public void setColumn(int colId, double value) {
+    if (_columnar) {
+      _columnFixedSizeData[colId].putDouble((_numRows - 1) * Double.BYTES, value);
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putDouble(value);
   }
 
   public void setColumn(int colId, String value) {
+    if (_columnar) {
+      _columnFixedSizeData[colId].putInt((_numRows - 1) * Integer.BYTES, getSharedDictId(value));
+      return;
+    }
     String columnName = _dataSchema.getColumnName(colId);
     Map<String, Integer> dictionary = _dictionaryMap.get(columnName);
     if (dictionary == null) {
@@ -166,6 +261,14 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, ByteArray value)
       throws IOException {
+    if (_columnar) {
+      // NOTE: Data table V3 stores bytes value as variable size data
+      DataOutputStream variableSizeDataOutputStream = _columnVariableSizeDataOutputStreams[colId];
+      byte[] bytes = value.getBytes();
+      setOffsetAndLength(colId, variableSizeDataOutputStream.size(), bytes.length);
+      variableSizeDataOutputStream.write(bytes);
+      return;
+    }
     // NOTE: Use String to store bytes value in DataTable V2 for backward-compatibility
     setColumn(colId, value.toHexString());
 
@@ -183,10 +286,17 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, Object value)
       throws IOException {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     int objectTypeValue = ObjectSerDeUtils.ObjectType.getObjectType(value).getValue();
     byte[] bytes = ObjectSerDeUtils.serialize(value, objectTypeValue);
+    if (_columnar) {
+      DataOutputStream variableSizeDataOutputStream = _columnVariableSizeDataOutputStreams[colId];
+      setOffsetAndLength(colId, variableSizeDataOutputStream.size(), bytes.length);
+      variableSizeDataOutputStream.writeInt(objectTypeValue);
+      variableSizeDataOutputStream.write(bytes);
+      return;
+    }
+    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
+    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(bytes.length);
     _variableSizeDataOutputStream.writeInt(objectTypeValue);
     _variableSizeDataByteArrayOutputStream.write(bytes);
@@ -194,6 +304,14 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, int[] values)
       throws IOException {
+    if (_columnar) {
+      DataOutputStream variableSizeDataOutputStream = _columnVariableSizeDataOutputStreams[colId];
+      setOffsetAndLength(colId, variableSizeDataOutputStream.size(), values.length);
+      for (int value : values) {
+        variableSizeDataOutputStream.writeInt(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -204,6 +322,14 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, long[] values)
       throws IOException {
+    if (_columnar) {
+      DataOutputStream variableSizeDataOutputStream = _columnVariableSizeDataOutputStreams[colId];
+      setOffsetAndLength(colId, variableSizeDataOutputStream.size(), values.length);
+      for (long value : values) {
+        variableSizeDataOutputStream.writeLong(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -214,6 +340,14 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, float[] values)
       throws IOException {
+    if (_columnar) {
+      DataOutputStream variableSizeDataOutputStream = _columnVariableSizeDataOutputStreams[colId];
+      setOffsetAndLength(colId, variableSizeDataOutputStream.size(), values.length);
+      for (float value : values) {
+        variableSizeDataOutputStream.writeFloat(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -224,6 +358,14 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, double[] values)
       throws IOException {
+    if (_columnar) {
+      DataOutputStream variableSizeDataOutputStream = _columnVariableSizeDataOutputStreams[colId];
+      setOffsetAndLength(colId, variableSizeDataOutputStream.size(), values.length);
+      for (double value : values) {
+        variableSizeDataOutputStream.writeDouble(value);
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -234,6 +376,14 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, String[] values)
       throws IOException {
+    if (_columnar) {
+      DataOutputStream variableSizeDataOutputStream = _columnVariableSizeDataOutputStreams[colId];
+      setOffsetAndLength(colId, variableSizeDataOutputStream.size(), values.length);
+      for (String value : values) {
+        variableSizeDataOutputStream.writeInt(getSharedDictId(value));
+      }
+      return;
+    }
     _currentRowDataByteBuffer.position(_columnOffsets[colId]);
     _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     _currentRowDataByteBuffer.putInt(values.length);
@@ -257,12 +407,51 @@ public class DataTableBuilder {
     }
   }
 
+  /**
+   * Data table V3 only. Sets the (OFFSET|LENGTH) of the variable size value into the fixed size data of the column.
+   */
+  private void setOffsetAndLength(int colId, int offset, int length) {
+    ByteBuffer fixedSizeData = _columnFixedSizeData[colId];
+    int position = (_numRows - 1) * 2 * Integer.BYTES;
+    fixedSizeData.putInt(position, offset);
+    fixedSizeData.putInt(position + Integer.BYTES, length);
+  }
+
+  /**
+   * Data table V3 only. Returns the dictionary id of the value in the dictionary shared by all columns.
+   */
+  private int getSharedDictId(String value) {
+    Integer dictId = _sharedDictionary.get(value);
+    if (dictId == null) {
+      dictId = _sharedDictionary.size();
+      _sharedDictionary.put(value, dictId);
+    }
+    return dictId;
+  }
+
   public void finishRow()
       throws IOException {
-    _fixedSizeDataByteArrayOutputStream.write(_currentRowDataByteBuffer.array());
+    if (!_columnar) {
+      _fixedSizeDataByteArrayOutputStream.write(_currentRowDataByteBuffer.array());
+    }
   }
 
   public DataTable build() {
+    if (_columnar) {
+      int numColumns = _columnFixedSizeData.length;
+      ByteBuffer[] fixedSizeData = new ByteBuffer[numColumns];
+      ByteBuffer[] variableSizeData = new ByteBuffer[numColumns];
+      for (int i = 0; i < numColumns; i++) {
+        fixedSizeData[i] = ByteBuffer.wrap(_columnFixedSizeData[i].array(), 0, _numRows * _columnValueSizes[i]);
+        variableSizeData[i] = ByteBuffer.wrap(_columnVariableSizeDataByteArrayOutputStreams[i].toByteArray());
+      }
+      String[] dictionary = new String[_sharedDictionary.size()];
+      for (Entry<String, Integer> entry : _sharedDictionary.entrySet()) {
+        dictionary[entry.getValue()] = entry.getKey();
+      }
+      return new DataTableImplV3(_numRows, _dataSchema, dictionary, fixedSizeData, variableSizeData,
+          _compressionType);
+    }
     return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
         _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
   }
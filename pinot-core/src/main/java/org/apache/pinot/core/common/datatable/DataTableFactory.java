@@ -18,21 +18,79 @@
  */
 package org.apache.pinot.core.common.datatable;
 
+import com.google.common.base.Preconditions;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
 
 
+/**
+ * Factory for the data tables.
+ * <p>The deserialization supports all the data table versions, and the version of the data tables built on the server
+ * side is configurable. For rolling upgrade, the brokers should be upgraded first so that they can deserialize the
+ * new version before the servers start sending it.
+ * <p>The configuration is set once with {@link #init(int, ChunkCompressorFactory.CompressionType)} on server startup
+ * and is immutable afterwards.
+ */
 public class DataTableFactory {
+  public static final int VERSION_2 = 2;
+  public static final int VERSION_3 = 3;
+
+  private static final Object INIT_LOCK = new Object();
+
+  private static volatile boolean _initialized;
+  private static volatile int _dataTableVersion = VERSION_2;
+  private static volatile ChunkCompressorFactory.CompressionType _compressionType =
+      ChunkCompressorFactory.CompressionType.PASS_THROUGH;
+
   private DataTableFactory() {
   }
 
+  /**
+   * Initializes the version and the compression type (only applies to data table V3) of the data tables built on the
+   * server side. Can only be called once, except with the same configuration (e.g. multiple servers in one JVM).
+   */
+  public static void init(int dataTableVersion, ChunkCompressorFactory.CompressionType compressionType) {
+    Preconditions.checkArgument(dataTableVersion == VERSION_2 || dataTableVersion == VERSION_3,
+        "Unsupported data table version: %s", dataTableVersion);
+    Preconditions.checkNotNull(compressionType);
+    synchronized (INIT_LOCK) {
+      if (_initialized) {
+        Preconditions.checkState(_dataTableVersion == dataTableVersion && _compressionType == compressionType,
+            "DataTableFactory is already initialized with version: %s, compression type: %s", _dataTableVersion,
+            _compressionType);
+        return;
+      }
+      _dataTableVersion = dataTableVersion;
+      _compressionType = compressionType;
+      _initialized = true;
+    }
+  }
+
+  public static int getDataTableVersion() {
+    return _dataTableVersion;
+  }
+
+  public static ChunkCompressorFactory.CompressionType getCompressionType() {
+    return _compressionType;
+  }
+
+  /**
+   * Returns an empty data table (no data schema) of the configured version.
+   */
+  public static DataTable getEmptyDataTable() {
+    return _dataTableVersion == VERSION_3 ? new DataTableImplV3() : new DataTableImplV2();
+  }
+
   public static DataTable getDataTable(ByteBuffer byteBuffer)
       throws IOException {
     int version = byteBuffer.getInt();
     switch (version) {
-      case 2:
+      case VERSION_2:
         return new DataTableImplV2(byteBuffer);
+      case VERSION_3:
+        return new DataTableImplV3(byteBuffer);
       default:
         throw new UnsupportedOperationException("Unsupported data table version: " + version);
     }
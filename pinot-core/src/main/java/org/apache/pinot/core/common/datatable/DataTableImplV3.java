@@ -0,0 +1,520 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.common.datatable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.io.compression.ChunkCompressor;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.compression.ChunkDecompressor;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+/**
+ * Columnar data table.
+ * <p>Compared to {@link DataTableImplV2} (row-major), the values of each column are stored in a separate typed buffer,
+ * where the fixed size values (or the (OFFSET|LENGTH) of the variable size values) are stored in the fixed size data
+ * buffer, and the variable size values are stored in the variable size data buffer of the column. The STRING values of
+ * all the columns share one dictionary.
+ * <ul>
+ *   <li>All the values are read with absolute positions, so the data table is thread-safe for reads.</li>
+ *   <li>When deserializing the data table, the uncompressed blocks are slices of the given buffer (no copy).</li>
+ *   <li>The dictionary and column buffers (blocks) can be optionally compressed with a
+ *   {@link ChunkCompressorFactory.CompressionType}, where only the blocks larger than
+ *   {@link #MIN_BLOCK_SIZE_TO_COMPRESS} are compressed.</li>
+ *   <li>FLOAT values take 4 bytes, and BYTES values are stored as variable size data instead of hex String.</li>
+ * </ul>
+ */
+public class DataTableImplV3 implements DataTable {
+  public static final int VERSION = 3;
+  public static final int MIN_BLOCK_SIZE_TO_COMPRESS = 1024;
+
+  // VERSION
+  // NUM_ROWS
+  // NUM_COLUMNS
+  // COMPRESSION_TYPE
+  // METADATA (START|SIZE)
+  // DATA_SCHEMA (START|SIZE)
+  // DICTIONARY (START|SIZE|UNCOMPRESSED_SIZE)
+  // For each column:
+  //   FIXED_SIZE_DATA (START|SIZE|UNCOMPRESSED_SIZE)
+  //   VARIABLE_SIZE_DATA (START|SIZE|UNCOMPRESSED_SIZE)
+  private static final int FIXED_HEADER_SIZE = Integer.BYTES * 8;
+  private static final int BLOCK_HEADER_SIZE = Integer.BYTES * 3;
+
+  private final int _numRows;
+  private final int _numColumns;
+  private final DataSchema _dataSchema;
+  private final String[] _dictionary;
+  private final ByteBuffer[] _fixedSizeData;
+  private final ByteBuffer[] _variableSizeData;
+  private final Map<String, String> _metadata;
+  private final ChunkCompressorFactory.CompressionType _compressionType;
+
+  /**
+   * Construct data table with results. (Server side)
+   */
+  public DataTableImplV3(int numRows, DataSchema dataSchema, String[] dictionary, ByteBuffer[] fixedSizeData,
+      ByteBuffer[] variableSizeData, ChunkCompressorFactory.CompressionType compressionType) {
+    _numRows = numRows;
+    _numColumns = dataSchema.size();
+    _dataSchema = dataSchema;
+    _dictionary = dictionary;
+    _fixedSizeData = fixedSizeData;
+    _variableSizeData = variableSizeData;
+    _metadata = new HashMap<>();
+    _compressionType = compressionType;
+  }
+
+  /**
+   * Construct empty data table. (Server side)
+   */
+  public DataTableImplV3() {
+    _numRows = 0;
+    _numColumns = 0;
+    _dataSchema = null;
+    _dictionary = null;
+    _fixedSizeData = null;
+    _variableSizeData = null;
+    _metadata = new HashMap<>();
+    _compressionType = ChunkCompressorFactory.CompressionType.PASS_THROUGH;
+  }
+
+  /**
+   * Construct data table from byte buffer. (broker side)
+   * <p>The position of the byte buffer should be right after the version. The uncompressed column buffers reference the
+   * given byte buffer without copying, so the caller should not modify or release the byte buffer afterwards.
+   */
+  public DataTableImplV3(ByteBuffer byteBuffer)
+      throws IOException {
+    int baseOffset = byteBuffer.position() - Integer.BYTES;
+
+    // Read header.
+    _numRows = byteBuffer.getInt();
+    _numColumns = byteBuffer.getInt();
+    _compressionType = ChunkCompressorFactory.CompressionType.values()[byteBuffer.getInt()];
+    int metadataStart = byteBuffer.getInt();
+    int metadataLength = byteBuffer.getInt();
+    int dataSchemaStart = byteBuffer.getInt();
+    int dataSchemaLength = byteBuffer.getInt();
+    ChunkDecompressor decompressor = _compressionType != ChunkCompressorFactory.CompressionType.PASS_THROUGH
+        ? ChunkCompressorFactory.getDecompressor(_compressionType) : null;
+
+    // Read metadata.
+    _metadata = deserializeMetadata(getSlice(byteBuffer, baseOffset + metadataStart, metadataLength));
+
+    // Read data schema.
+    if (dataSchemaLength != 0) {
+      byte[] schemaBytes = new byte[dataSchemaLength];
+      getSlice(byteBuffer, baseOffset + dataSchemaStart, dataSchemaLength).get(schemaBytes);
+      _dataSchema = DataSchema.fromBytes(schemaBytes);
+    } else {
+      _dataSchema = null;
+    }
+
+    // Read dictionary.
+    ByteBuffer dictionaryBlock = readBlock(byteBuffer, baseOffset, decompressor);
+    _dictionary = dictionaryBlock.hasRemaining() ? deserializeDictionary(dictionaryBlock) : null;
+
+    // Read column data.
+    if (_numColumns != 0) {
+      _fixedSizeData = new ByteBuffer[_numColumns];
+      _variableSizeData = new ByteBuffer[_numColumns];
+      for (int i = 0; i < _numColumns; i++) {
+        _fixedSizeData[i] = readBlock(byteBuffer, baseOffset, decompressor);
+        _variableSizeData[i] = readBlock(byteBuffer, baseOffset, decompressor);
+      }
+    } else {
+      _fixedSizeData = null;
+      _variableSizeData = null;
+    }
+  }
+
+  /**
+   * Reads the next block header from the byte buffer, and returns the (decompressed) block.
+   */
+  private static ByteBuffer readBlock(ByteBuffer byteBuffer, int baseOffset, ChunkDecompressor decompressor)
+      throws IOException {
+    int start = byteBuffer.getInt();
+    int size = byteBuffer.getInt();
+    int uncompressedSize = byteBuffer.getInt();
+    ByteBuffer block = getSlice(byteBuffer, baseOffset + start, size);
+    if (size == uncompressedSize) {
+      return block;
+    }
+
+    // NOTE: Compressor requires direct buffers
+    ByteBuffer compressedBlock = block;
+    if (!compressedBlock.isDirect()) {
+      compressedBlock = ByteBuffer.allocateDirect(size);
+      compressedBlock.put(block);
+      compressedBlock.flip();
+    }
+    ByteBuffer uncompressedBlock = ByteBuffer.allocateDirect(uncompressedSize);
+    decompressor.decompress(compressedBlock, uncompressedBlock);
+    return uncompressedBlock;
+  }
+
+  private static ByteBuffer getSlice(ByteBuffer byteBuffer, int start, int size) {
+    ByteBuffer duplicate = byteBuffer.duplicate();
+    duplicate.limit(start + size);
+    duplicate.position(start);
+    return duplicate.slice();
+  }
+
+  private static Map<String, String> deserializeMetadata(ByteBuffer byteBuffer) {
+    int numEntries = byteBuffer.getInt();
+    Map<String, String> metadata = new HashMap<>(numEntries);
+    for (int i = 0; i < numEntries; i++) {
+      String key = decodeString(byteBuffer);
+      String value = decodeString(byteBuffer);
+      metadata.put(key, value);
+    }
+    return metadata;
+  }
+
+  private static String[] deserializeDictionary(ByteBuffer byteBuffer) {
+    int numValues = byteBuffer.getInt();
+    String[] dictionary = new String[numValues];
+    for (int i = 0; i < numValues; i++) {
+      dictionary[i] = decodeString(byteBuffer);
+    }
+    return dictionary;
+  }
+
+  private static String decodeString(ByteBuffer byteBuffer) {
+    int length = byteBuffer.getInt();
+    byte[] bytes = new byte[length];
+    byteBuffer.get(bytes);
+    return StringUtil.decodeUtf8(bytes);
+  }
+
+  @Override
+  public void addException(ProcessingException processingException) {
+    _metadata.put(EXCEPTION_METADATA_KEY + processingException.getErrorCode(), processingException.getMessage());
+  }
+
+  @Override
+  public byte[] toBytes()
+      throws IOException {
+    byte[] metadataBytes = serializeMetadata();
+    byte[] dataSchemaBytes = _dataSchema != null ? _dataSchema.toBytes() : null;
+    int dataSchemaLength = dataSchemaBytes != null ? dataSchemaBytes.length : 0;
+
+    // Prepare the blocks (dictionary and column data).
+    int numBlocks = 1 + 2 * _numColumns;
+    ByteBuffer[] blocks = new ByteBuffer[numBlocks];
+    blocks[0] = _dictionary != null ? serializeDictionary() : null;
+    for (int i = 0; i < _numColumns; i++) {
+      blocks[1 + 2 * i] = _fixedSizeData[i];
+      blocks[2 + 2 * i] = _variableSizeData[i];
+    }
+    int[] uncompressedSizes = new int[numBlocks];
+    ChunkCompressor compressor = _compressionType != ChunkCompressorFactory.CompressionType.PASS_THROUGH
+        ? ChunkCompressorFactory.getCompressor(_compressionType) : null;
+    for (int i = 0; i < numBlocks; i++) {
+      ByteBuffer block = blocks[i];
+      if (block != null) {
+        // NOTE: Use duplicate so that the position of the original buffer is not changed
+        block = block.duplicate();
+        block.rewind();
+        blocks[i] = block;
+        int uncompressedSize = block.limit();
+        uncompressedSizes[i] = uncompressedSize;
+        if (compressor != null && uncompressedSize >= MIN_BLOCK_SIZE_TO_COMPRESS) {
+          blocks[i] = compressBlock(compressor, block);
+        }
+      }
+    }
+
+    // Compute the offsets and write the header.
+    int headerSize = FIXED_HEADER_SIZE + numBlocks * BLOCK_HEADER_SIZE;
+    int totalSize = headerSize + metadataBytes.length + dataSchemaLength;
+    for (ByteBuffer block : blocks) {
+      if (block != null) {
+        totalSize += block.remaining();
+      }
+    }
+    byte[] bytes = new byte[totalSize];
+    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    byteBuffer.putInt(VERSION);
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
+    byteBuffer.putInt(_compressionType.getValue());
+    int dataOffset = headerSize;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(metadataBytes.length);
+    dataOffset += metadataBytes.length;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dataSchemaLength);
+    dataOffset += dataSchemaLength;
+    for (int i = 0; i < numBlocks; i++) {
+      ByteBuffer block = blocks[i];
+      int size = block != null ? block.remaining() : 0;
+      byteBuffer.putInt(dataOffset);
+      byteBuffer.putInt(size);
+      byteBuffer.putInt(uncompressedSizes[i]);
+      dataOffset += size;
+    }
+
+    // Write actual data.
+    byteBuffer.put(metadataBytes);
+    if (dataSchemaBytes != null) {
+      byteBuffer.put(dataSchemaBytes);
+    }
+    for (ByteBuffer block : blocks) {
+      if (block != null) {
+        byteBuffer.put(block);
+      }
+    }
+
+    return bytes;
+  }
+
+  /**
+   * Compresses the given block, returns the compressed block, or the original block if the compressed block is not
+   * smaller than the original one (so that SIZE == UNCOMPRESSED_SIZE always indicates an uncompressed block).
+   */
+  private static ByteBuffer compressBlock(ChunkCompressor compressor, ByteBuffer block)
+      throws IOException {
+    // NOTE: Compressor requires direct buffers
+    int uncompressedSize = block.remaining();
+    ByteBuffer uncompressedBlock = ByteBuffer.allocateDirect(uncompressedSize);
+    uncompressedBlock.put(block.duplicate());
+    uncompressedBlock.flip();
+    ByteBuffer compressedBlock = ByteBuffer.allocateDirect(uncompressedSize * 2);
+    int compressedSize = compressor.compress(uncompressedBlock, compressedBlock);
+    return compressedSize < uncompressedSize ? compressedBlock : block;
+  }
+
+  private ByteBuffer serializeDictionary() {
+    byte[][] valueBytes = new byte[_dictionary.length][];
+    int size = Integer.BYTES;
+    for (int i = 0; i < _dictionary.length; i++) {
+      valueBytes[i] = StringUtil.encodeUtf8(_dictionary[i]);
+      size += Integer.BYTES + valueBytes[i].length;
+    }
+    ByteBuffer byteBuffer = ByteBuffer.allocate(size);
+    byteBuffer.putInt(_dictionary.length);
+    for (byte[] bytes : valueBytes) {
+      byteBuffer.putInt(bytes.length);
+      byteBuffer.put(bytes);
+    }
+    byteBuffer.flip();
+    return byteBuffer;
+  }
+
+  private byte[] serializeMetadata() {
+    int numEntries = _metadata.size();
+    byte[][] keyBytes = new byte[numEntries][];
+    byte[][] valueBytes = new byte[numEntries][];
+    int size = Integer.BYTES;
+    int index = 0;
+    for (Map.Entry<String, String> entry : _metadata.entrySet()) {
+      keyBytes[index] = StringUtil.encodeUtf8(entry.getKey());
+      valueBytes[index] = StringUtil.encodeUtf8(entry.getValue());
+      size += 2 * Integer.BYTES + keyBytes[index].length + valueBytes[index].length;
+      index++;
+    }
+    ByteBuffer byteBuffer = ByteBuffer.allocate(size);
+    byteBuffer.putInt(numEntries);
+    for (int i = 0; i < numEntries; i++) {
+      byteBuffer.putInt(keyBytes[i].length);
+      byteBuffer.put(keyBytes[i]);
+      byteBuffer.putInt(valueBytes[i].length);
+      byteBuffer.put(valueBytes[i]);
+    }
+    return byteBuffer.array();
+  }
+
+  @Override
+  public Map<String, String> getMetadata() {
+    return _metadata;
+  }
+
+  @Override
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  @Override
+  public int getNumberOfRows() {
+    return _numRows;
+  }
+
+  @Override
+  public int getInt(int rowId, int colId) {
+    return _fixedSizeData[colId].getInt(rowId * Integer.BYTES);
+  }
+
+  @Override
+  public long getLong(int rowId, int colId) {
+    return _fixedSizeData[colId].getLong(rowId * Long.BYTES);
+  }
+
+  @Override
+  public float getFloat(int rowId, int colId) {
+    return _fixedSizeData[colId].getFloat(rowId * Float.BYTES);
+  }
+
+  @Override
+  public double getDouble(int rowId, int colId) {
+    return _fixedSizeData[colId].getDouble(rowId * Double.BYTES);
+  }
+
+  @Override
+  public String getString(int rowId, int colId) {
+    return _dictionary[_fixedSizeData[colId].getInt(rowId * Integer.BYTES)];
+  }
+
+  @Override
+  public ByteArray getBytes(int rowId, int colId) {
+    ByteBuffer fixedSizeData = _fixedSizeData[colId];
+    int offset = fixedSizeData.getInt(rowId * 2 * Integer.BYTES);
+    int length = fixedSizeData.getInt(rowId * 2 * Integer.BYTES + Integer.BYTES);
+    byte[] bytes = new byte[length];
+    ByteBuffer variableSizeData = _variableSizeData[colId].duplicate();
+    variableSizeData.position(offset);
+    variableSizeData.get(bytes);
+    return new ByteArray(bytes);
+  }
+
+  @Override
+  public <T> T getObject(int rowId, int colId) {
+    ByteBuffer fixedSizeData = _fixedSizeData[colId];
+    int offset = fixedSizeData.getInt(rowId * 2 * Integer.BYTES);
+    int size = fixedSizeData.getInt(rowId * 2 * Integer.BYTES + Integer.BYTES);
+    ByteBuffer variableSizeData = _variableSizeData[colId];
+    int objectTypeValue = variableSizeData.getInt(offset);
+    return ObjectSerDeUtils.deserialize(getSlice(variableSizeData, offset + Integer.BYTES, size), objectTypeValue);
+  }
+
+  @Override
+  public int[] getIntArray(int rowId, int colId) {
+    ByteBuffer fixedSizeData = _fixedSizeData[colId];
+    int offset = fixedSizeData.getInt(rowId * 2 * Integer.BYTES);
+    int length = fixedSizeData.getInt(rowId * 2 * Integer.BYTES + Integer.BYTES);
+    ByteBuffer variableSizeData = _variableSizeData[colId];
+    int[] ints = new int[length];
+    for (int i = 0; i < length; i++) {
+      ints[i] = variableSizeData.getInt(offset + i * Integer.BYTES);
+    }
+    return ints;
+  }
+
+  @Override
+  public long[] getLongArray(int rowId, int colId) {
+    ByteBuffer fixedSizeData = _fixedSizeData[colId];
+    int offset = fixedSizeData.getInt(rowId * 2 * Integer.BYTES);
+    int length = fixedSizeData.getInt(rowId * 2 * Integer.BYTES + Integer.BYTES);
+    ByteBuffer variableSizeData = _variableSizeData[colId];
+    long[] longs = new long[length];
+    for (int i = 0; i < length; i++) {
+      longs[i] = variableSizeData.getLong(offset + i * Long.BYTES);
+    }
+    return longs;
+  }
+
+  @Override
+  public float[] getFloatArray(int rowId, int colId) {
+    ByteBuffer fixedSizeData = _fixedSizeData[colId];
+    int offset = fixedSizeData.getInt(rowId * 2 * Integer.BYTES);
+    int length = fixedSizeData.getInt(rowId * 2 * Integer.BYTES + Integer.BYTES);
+    ByteBuffer variableSizeData = _variableSizeData[colId];
+    float[] floats = new float[length];
+    for (int i = 0; i < length; i++) {
+      floats[i] = variableSizeData.getFloat(offset + i * Float.BYTES);
+    }
+    return floats;
+  }
+
+  @Override
+  public double[] getDoubleArray(int rowId, int colId) {
+    ByteBuffer fixedSizeData = _fixedSizeData[colId];
+    int offset = fixedSizeData.getInt(rowId * 2 * Integer.BYTES);
+    int length = fixedSizeData.getInt(rowId * 2 * Integer.BYTES + Integer.BYTES);
+    ByteBuffer variableSizeData = _variableSizeData[colId];
+    double[] doubles = new double[length];
+    for (int i = 0; i < length; i++) {
+      doubles[i] = variableSizeData.getDouble(offset + i * Double.BYTES);
+    }
+    return doubles;
+  }
+
+  @Override
+  public String[] getStringArray(int rowId, int colId) {
+    ByteBuffer fixedSizeData = _fixedSizeData[colId];
+    int offset = fixedSizeData.getInt(rowId * 2 * Integer.BYTES);
+    int length = fixedSizeData.getInt(rowId * 2 * Integer.BYTES + Integer.BYTES);
+    ByteBuffer variableSizeData = _variableSizeData[colId];
+    String[] strings = new String[length];
+    for (int i = 0; i < length; i++) {
+      strings[i] = _dictionary[variableSizeData.getInt(offset + i * Integer.BYTES)];
+    }
+    return strings;
+  }
+
+  @Override
+  public String toString() {
+    if (_dataSchema == null) {
+      return _metadata.toString();
+    }
+
+    StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(_dataSchema.toString()).append('\n');
+    stringBuilder.append("numRows: ").append(_numRows).append('\n');
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      for (int colId = 0; colId < _numColumns; colId++) {
+        switch (_dataSchema.getColumnDataType(colId)) {
+          case INT:
+            stringBuilder.append(getInt(rowId, colId));
+            break;
+          case LONG:
+            stringBuilder.append(getLong(rowId, colId));
+            break;
+          case FLOAT:
+            stringBuilder.append(getFloat(rowId, colId));
+            break;
+          case DOUBLE:
+            stringBuilder.append(getDouble(rowId, colId));
+            break;
+          case STRING:
+            stringBuilder.append(getString(rowId, colId));
+            break;
+          // Bytes, object and array.
+          default:
+            ByteBuffer fixedSizeData = _fixedSizeData[colId];
+            stringBuilder.append(String.format("(%s:%s)", fixedSizeData.getInt(rowId * 2 * Integer.BYTES),
+                fixedSizeData.getInt(rowId * 2 * Integer.BYTES + Integer.BYTES)));
+            break;
+        }
+        stringBuilder.append("\t");
+      }
+      stringBuilder.append("\n");
+    }
+    return stringBuilder.toString();
+  }
+}
@@ -81,6 +81,25 @@ public class DataTableUtils {
     return rowSizeInBytes;
   }
 
+  /**
+   * Returns the size in bytes of each value in the fixed size data of a column with the given data type in the columnar
+   * data table V3.
+   */
+  public static int getColumnValueSizeV3(DataSchema.ColumnDataType columnDataType) {
+    switch (columnDataType) {
+      case INT:
+      case FLOAT:
+      case STRING:
+        return 4;
+      case LONG:
+      case DOUBLE:
+        return 8;
+      // Bytes, object and array. (OFFSET|LENGTH)
+      default:
+        return 8;
+    }
+  }
+
   /**
    * Builds an empty data table based on the broker request.
    */
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.aggregator;
+
+import org.apache.datasketches.theta.SetOperationBuilder;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.datasketches.theta.Union;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+public class DistinctCountThetaSketchValueAggregator implements ValueAggregator<Object, Union> {
+  public static final DataType AGGREGATED_VALUE_TYPE = DataType.BYTES;
+
+  private final SetOperationBuilder _setOperationBuilder = new SetOperationBuilder();
+
+  private int _maxByteSize;
+
+  @Override
+  public AggregationFunctionType getAggregationType() {
+    return AggregationFunctionType.DISTINCTCOUNTTHETASKETCH;
+  }
+
+  @Override
+  public DataType getAggregatedValueType() {
+    return AGGREGATED_VALUE_TYPE;
+  }
+
+  @Override
+  public Union getInitialAggregatedValue(Object rawValue) {
+    Union initialValue = _setOperationBuilder.buildUnion();
+    if (rawValue instanceof byte[]) {
+      byte[] bytes = (byte[]) rawValue;
+      initialValue.update(ObjectSerDeUtils.DATA_SKETCH_SER_DE.deserialize(bytes));
+      _maxByteSize = Math.max(_maxByteSize, bytes.length);
+    } else {
+      // NOTE: Byte size for sketches created from raw values is tracked when they are serialized
+      updateRawValue(initialValue, rawValue);
+    }
+    return initialValue;
+  }
+
+  @Override
+  public Union applyRawValue(Union value, Object rawValue) {
+    if (rawValue instanceof byte[]) {
+      value.update(ObjectSerDeUtils.DATA_SKETCH_SER_DE.deserialize((byte[]) rawValue));
+    } else {
+      updateRawValue(value, rawValue);
+    }
+    return value;
+  }
+
+  private static void updateRawValue(Union union, Object rawValue) {
+    if (rawValue instanceof Integer || rawValue instanceof Long) {
+      union.update(((Number) rawValue).longValue());
+    } else if (rawValue instanceof Float || rawValue instanceof Double) {
+      union.update(((Number) rawValue).doubleValue());
+    } else {
+      union.update(rawValue.toString());
+    }
+  }
+
+  @Override
+  public Union applyAggregatedValue(Union value, Union aggregatedValue) {
+    value.update(aggregatedValue.getResult());
+    return value;
+  }
+
+  @Override
+  public Union cloneAggregatedValue(Union value) {
+    return deserializeAggregatedValue(serializeAggregatedValue(value));
+  }
+
+  @Override
+  public int getMaxAggregatedValueByteSize() {
+    return _maxByteSize;
+  }
+
+  @Override
+  public byte[] serializeAggregatedValue(Union value) {
+    byte[] bytes = ObjectSerDeUtils.DATA_SKETCH_SER_DE.serialize(value.getResult());
+    _maxByteSize = Math.max(_maxByteSize, bytes.length);
+    return bytes;
+  }
+
+  @Override
+  public Union deserializeAggregatedValue(byte[] bytes) {
+    Union union = _setOperationBuilder.buildUnion();
+    Sketch sketch = ObjectSerDeUtils.DATA_SKETCH_SER_DE.deserialize(bytes);
+    union.update(sketch);
+    return union;
+  }
+}
@@ -50,4 +50,12 @@ public interface InstanceDataManagerConfig {
   boolean isDirectRealtimeOffHeapAllocation();
 
   int getMaxParallelSegmentBuilds();
+
+  int getSegmentBuildNumThreads();
+
+  String getRealtimeConsumptionMemoryBudget();
+
+  int getRealtimeConsumptionMaxConcurrentPartitions();
+
+  double getRealtimeConsumptionMaxRowsPerSecond();
 }
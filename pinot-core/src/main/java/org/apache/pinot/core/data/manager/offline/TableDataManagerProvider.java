@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.core.data.manager.offline;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import javax.annotation.Nonnull;
 import org.apache.helix.HelixManager;
@@ -27,8 +30,11 @@ import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.data.manager.TableDataManager;
 import org.apache.pinot.core.data.manager.config.InstanceDataManagerConfig;
 import org.apache.pinot.core.data.manager.config.TableDataManagerConfig;
+import org.apache.pinot.core.data.manager.realtime.RealtimeConsumptionMemoryGovernor;
+import org.apache.pinot.core.data.manager.realtime.RealtimeConsumptionThrottler;
 import org.apache.pinot.core.data.manager.realtime.RealtimeTableDataManager;
 import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.utils.DataSizeUtils;
 
 
 /**
@@ -36,15 +42,32 @@ import org.apache.pinot.spi.config.table.TableType;
  */
 public class TableDataManagerProvider {
   private static Semaphore _segmentBuildSemaphore;
+  private static ExecutorService _segmentBuildExecutor;
+  private static RealtimeConsumptionMemoryGovernor _memoryGovernor;
+  private static RealtimeConsumptionThrottler _consumptionThrottler;
 
   private TableDataManagerProvider() {
   }
 
-  public static void init(InstanceDataManagerConfig instanceDataManagerConfig) {
+  public static void init(InstanceDataManagerConfig instanceDataManagerConfig, ServerMetrics serverMetrics) {
     int maxParallelBuilds = instanceDataManagerConfig.getMaxParallelSegmentBuilds();
     if (maxParallelBuilds > 0) {
       _segmentBuildSemaphore = new Semaphore(maxParallelBuilds, true);
     }
+    int segmentBuildNumThreads = instanceDataManagerConfig.getSegmentBuildNumThreads();
+    if (segmentBuildNumThreads > 0 && _segmentBuildExecutor == null) {
+      _segmentBuildExecutor = Executors.newFixedThreadPool(segmentBuildNumThreads,
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("segment-build-%d").build());
+    }
+    String memoryBudget = instanceDataManagerConfig.getRealtimeConsumptionMemoryBudget();
+    if (memoryBudget != null) {
+      _memoryGovernor = new RealtimeConsumptionMemoryGovernor(DataSizeUtils.toBytes(memoryBudget), serverMetrics);
+    }
+    int maxConcurrentPartitions = instanceDataManagerConfig.getRealtimeConsumptionMaxConcurrentPartitions();
+    double maxRowsPerSecond = instanceDataManagerConfig.getRealtimeConsumptionMaxRowsPerSecond();
+    if (maxConcurrentPartitions > 0 || maxRowsPerSecond > 0) {
+      _consumptionThrottler = new RealtimeConsumptionThrottler(maxConcurrentPartitions, maxRowsPerSecond);
+    }
   }
 
   public static TableDataManager getTableDataManager(@Nonnull TableDataManagerConfig tableDataManagerConfig,
@@ -56,7 +79,8 @@ public class TableDataManagerProvider {
         tableDataManager = new OfflineTableDataManager();
         break;
       case REALTIME:
-        tableDataManager = new RealtimeTableDataManager(_segmentBuildSemaphore);
+        tableDataManager = new RealtimeTableDataManager(_segmentBuildSemaphore, _segmentBuildExecutor, _memoryGovernor,
+            _consumptionThrottler);
         break;
       default:
         throw new IllegalStateException();
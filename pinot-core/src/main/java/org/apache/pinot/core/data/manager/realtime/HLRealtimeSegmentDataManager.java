@@ -191,7 +191,9 @@ public class HLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
             .setCapacity(capacity).setAvgNumMultiValues(indexLoadingConfig.getRealtimeAvgMultiValueCount())
             .setNoDictionaryColumns(indexLoadingConfig.getNoDictionaryColumns())
             .setVarLengthDictionaryColumns(indexLoadingConfig.getVarLengthDictionaryColumns())
-            .setInvertedIndexColumns(invertedIndexColumns).setRealtimeSegmentZKMetadata(realtimeSegmentZKMetadata)
+            .setInvertedIndexColumns(invertedIndexColumns).setJsonIndexColumns(indexLoadingConfig.getJsonIndexColumns())
+            .setGeoIndexResolutions(indexLoadingConfig.getGeoIndexResolutions())
+            .setRealtimeSegmentZKMetadata(realtimeSegmentZKMetadata)
             .setOffHeap(indexLoadingConfig.isRealtimeOffHeapAllocation()).setMemoryManager(
             getMemoryManager(realtimeTableDataManager.getConsumerDir(), _segmentName,
                 indexLoadingConfig.isRealtimeOffHeapAllocation(),
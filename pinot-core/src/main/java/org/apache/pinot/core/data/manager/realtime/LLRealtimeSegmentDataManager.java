@@ -30,12 +30,18 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.Utils;
@@ -54,6 +60,7 @@ import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.indexsegment.mutable.MutableSegment;
 import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.indexsegment.mutable.PartiallyIndexedBatchException;
 import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
 import org.apache.pinot.core.realtime.converter.RealtimeSegmentConverter;
 import org.apache.pinot.core.realtime.impl.RealtimeSegmentConfig;
@@ -202,6 +209,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private static final int MSG_COUNT_THRESHOLD_FOR_LOG = 100000;
   private static final int BUILD_TIME_LEASE_SECONDS = 30;
   private static final int MAX_CONSECUTIVE_ERROR_COUNT = 5;
+  // Number of messages decoded and transformed by each task when decoding in parallel with indexing
+  private static final int NUM_MESSAGES_PER_DECODE_TASK = 100;
+  private static final long CONSUMPTION_SLOT_WAIT_TIMEOUT_MS = 100;
 
   private final LLCRealtimeSegmentZKMetadata _segmentZKMetadata;
   private final TableConfig _tableConfig;
@@ -274,10 +284,27 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private int _lastConsumedCount = 0;
   private String _stopReason = null;
   private final Semaphore _segBuildSemaphore;
+  private final ExecutorService _segmentBuildExecutor;
+  private final RealtimeConsumptionMemoryGovernor _memoryGovernor;
+  private final RealtimeConsumptionThrottler _consumptionThrottler;
   private final boolean _isOffHeap;
   private final boolean _nullHandlingEnabled;
   private final SegmentCommitterFactory _segmentCommitterFactory;
 
+  // When decode threads are configured, messages are decoded and transformed on _decodeExecutor and the next batch is
+  // prefetched on _fetchExecutor, while the consumer thread remains the single writer to the realtime segment. Both
+  // executors are shared by all the consuming segments of the table and owned by the RealtimeTableDataManager, so they
+  // outlive the stream consumers of this segment. As decoders and transformers are not thread-safe, each decode task
+  // borrows its own from _messageDecodersPool. All of them are null otherwise.
+  // NOTE: The fetch executor is shared, so the prefetch might still be queued behind the prefetches of other partitions
+  //       when the consumer thread needs it. In that case the prefetch is cancelled and the batch is fetched inline
+  //       instead of waiting for a fetch thread.
+  private final ExecutorService _decodeExecutor;
+  private final ExecutorService _fetchExecutor;
+  private final Queue<MessageDecoders> _messageDecodersPool;
+  private final Supplier<MessageDecoders> _messageDecodersSupplier;
+  private PrefetchTask _prefetchTask;
+
   // TODO each time this method is called, we print reason for stop. Good to print only once.
   private boolean endCriteriaReached() {
     Preconditions.checkState(_state.shouldConsume(), "Incorrect state %s", _state);
@@ -303,6 +330,12 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
               _numRowsIndexed, _numRowsConsumed, _segmentMaxRowCount);
           _stopReason = SegmentCompletionProtocol.REASON_ROW_LIMIT;
           return true;
+        } else if (_memoryGovernor != null && _memoryGovernor.shouldCommit(_segmentNameStr)) {
+          segmentLogger.info("Stopping consumption due to memory limit memoryUsedBytes={} numRowsIndexed={}",
+              _memoryManager.getTotalAllocatedBytes(), _numRowsIndexed);
+          _stopReason = SegmentCompletionProtocol.REASON_MEMORY_LIMIT;
+          _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_MEMORY_LIMIT_COMMITS, 1L);
+          return true;
         }
         return false;
 
@@ -379,8 +412,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       // Update _currentOffset upon return from this method
       MessageBatch messageBatch;
       try {
-        messageBatch = _partitionLevelConsumer
-            .fetchMessages(_currentOffset, null, _partitionLevelStreamConfig.getFetchTimeoutMillis());
+        messageBatch = fetchMessageBatch();
         consecutiveErrorCount = 0;
       } catch (TimeoutException e) {
         handleTransientStreamErrors(e);
@@ -398,7 +430,41 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
         continue;
       }
 
-      processStreamEvents(messageBatch, idlePipeSleepTimeMillis);
+      // Do not hold a consumption slot for an empty batch
+      boolean slotAcquired = false;
+      if (messageBatch.getMessageCount() > 0) {
+        if (!acquireConsumptionSlot()) {
+          break;
+        }
+        slotAcquired = true;
+      }
+      int numRowsConsumedBefore = _numRowsConsumed;
+      try {
+        List<Future<DecodedMessage[]>> decodeTasks = submitDecodeTasks(messageBatch);
+        prefetchNextMessageBatch(messageBatch);
+        if (decodeTasks == null) {
+          processStreamEvents(messageBatch);
+        } else {
+          try {
+            processDecodedStreamEvents(messageBatch, decodeTasks);
+          } finally {
+            for (Future<DecodedMessage[]> decodeTask : decodeTasks) {
+              decodeTask.cancel(false);
+            }
+          }
+        }
+        // Make the sketch metrics aggregated in place for the batch visible to the queries
+        _realtimeSegment.publishAggregatedMetrics();
+      } finally {
+        if (slotAcquired) {
+          releaseConsumptionSlot(_numRowsConsumed - numRowsConsumedBefore);
+        }
+      }
+      if (_numRowsConsumed == numRowsConsumedBefore) {
+        // If there were no messages to be fetched from stream, wait for a little bit as to avoid hammering the stream
+        // NOTE: Wait without holding the consumption slot so that the idle partition does not block the other ones
+        Uninterruptibles.sleepUninterruptibly(idlePipeSleepTimeMillis, TimeUnit.MILLISECONDS);
+      }
 
       if (_currentOffset.compareTo(lastUpdatedOffset) != 0) {
         consecutiveIdleCount = 0;
@@ -426,7 +492,263 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     return true;
   }
 
-  private void processStreamEvents(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis) {
+  /**
+   * Waits for the consumption throttler (if configured) to allow indexing the next batch of messages. Returns
+   * {@code false} if the consumption is stopped while waiting.
+   */
+  private boolean acquireConsumptionSlot()
+      throws InterruptedException {
+    if (_consumptionThrottler == null) {
+      return true;
+    }
+    long startTimeMs = now();
+    while (!_consumptionThrottler.acquire(CONSUMPTION_SLOT_WAIT_TIMEOUT_MS)) {
+      if (_shouldStop) {
+        return false;
+      }
+    }
+    long waitTimeMs = now() - startTimeMs;
+    if (waitTimeMs > 0) {
+      _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_CONSUMPTION_THROTTLED_MILLIS, waitTimeMs);
+    }
+    return true;
+  }
+
+  /**
+   * Releases the slot acquired from the consumption throttler (if configured), then waits to keep the consumption
+   * under the configured rate.
+   */
+  private void releaseConsumptionSlot(int numRowsConsumed) {
+    if (_consumptionThrottler == null) {
+      return;
+    }
+    _consumptionThrottler.release(numRowsConsumed);
+    long waitTimeMs = _consumptionThrottler.throttle(numRowsConsumed, () -> _shouldStop);
+    if (waitTimeMs > 0) {
+      _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_CONSUMPTION_THROTTLED_MILLIS, waitTimeMs);
+    }
+  }
+
+  /**
+   * Fetches the next batch of messages starting from the current offset, using the prefetched batch if it starts from
+   * the current offset.
+   */
+  private MessageBatch fetchMessageBatch()
+      throws Exception {
+    if (_prefetchTask != null) {
+      PrefetchTask prefetchTask = _prefetchTask;
+      _prefetchTask = null;
+      if (prefetchTask.cancelIfNotStarted()) {
+        // The prefetch is still queued, fetch inline instead of waiting for it
+        _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_PREFETCH_NOT_STARTED, 1);
+      } else if (prefetchTask._startOffset.compareTo(_currentOffset) == 0) {
+        try {
+          return Uninterruptibles.getUninterruptibly(prefetchTask._future);
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof Exception) {
+            throw (Exception) cause;
+          }
+          throw e;
+        }
+      } else {
+        discardPrefetchedMessageBatch(prefetchTask);
+      }
+    }
+    return _partitionLevelConsumer
+        .fetchMessages(_currentOffset, null, _partitionLevelStreamConfig.getFetchTimeoutMillis());
+  }
+
+  /**
+   * Starts fetching the batch of messages following the given one while it is being indexed.
+   */
+  private void prefetchNextMessageBatch(MessageBatch messageBatch) {
+    int messageCount = messageBatch.getMessageCount();
+    if (_fetchExecutor == null || messageCount == 0) {
+      return;
+    }
+    StreamPartitionMsgOffset startOffset = messageBatch.getNextStreamParitionMsgOffsetAtIndex(messageCount - 1);
+    PartitionLevelConsumer partitionLevelConsumer = _partitionLevelConsumer;
+    int fetchTimeoutMillis = _partitionLevelStreamConfig.getFetchTimeoutMillis();
+    PrefetchTask prefetchTask = new PrefetchTask(startOffset);
+    prefetchTask._future = _fetchExecutor.submit(
+        () -> prefetchTask.start() ? partitionLevelConsumer.fetchMessages(startOffset, null, fetchTimeoutMillis)
+            : null);
+    _prefetchTask = prefetchTask;
+  }
+
+  /**
+   * Cancels the pending prefetch (if any) if it has not started, or waits for it to finish and drops its result. This
+   * must be done before the stream consumer is closed or accessed from the consumer thread because the stream
+   * consumers are not thread-safe.
+   */
+  private void discardPrefetchedMessageBatch() {
+    if (_prefetchTask != null) {
+      if (!_prefetchTask.cancelIfNotStarted()) {
+        discardPrefetchedMessageBatch(_prefetchTask);
+      }
+      _prefetchTask = null;
+    }
+  }
+
+  private void discardPrefetchedMessageBatch(PrefetchTask prefetchTask) {
+    try {
+      Uninterruptibles.getUninterruptibly(prefetchTask._future);
+    } catch (Exception e) {
+      segmentLogger.debug("Caught exception while prefetching messages, ignoring it", e);
+    }
+  }
+
+  /**
+   * Prefetch of the next message batch on the fetch executor. Either the fetch thread starts the prefetch, or the
+   * consumer thread cancels it before it starts, but not both.
+   */
+  private static class PrefetchTask {
+    final StreamPartitionMsgOffset _startOffset;
+    final AtomicBoolean _startedOrCancelled = new AtomicBoolean();
+    volatile Future<MessageBatch> _future;
+
+    PrefetchTask(StreamPartitionMsgOffset startOffset) {
+      _startOffset = startOffset;
+    }
+
+    /**
+     * Called on the fetch thread, returns {@code true} if the prefetch can start, {@code false} if it is cancelled.
+     */
+    boolean start() {
+      return _startedOrCancelled.compareAndSet(false, true);
+    }
+
+    /**
+     * Called on the consumer thread, returns {@code true} if the prefetch is cancelled before it starts, {@code false}
+     * if it has already started.
+     */
+    boolean cancelIfNotStarted() {
+      if (_startedOrCancelled.compareAndSet(false, true)) {
+        _future.cancel(false);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Submits tasks to decode and transform the messages in the given batch, or returns {@code null} if the messages
+   * should be decoded on the consumer thread.
+   */
+  @Nullable
+  private List<Future<DecodedMessage[]>> submitDecodeTasks(MessageBatch messageBatch) {
+    if (_decodeExecutor == null) {
+      return null;
+    }
+    int messageCount = messageBatch.getMessageCount();
+    List<Future<DecodedMessage[]>> decodeTasks = new ArrayList<>();
+    for (int startIndex = 0; startIndex < messageCount; startIndex += NUM_MESSAGES_PER_DECODE_TASK) {
+      int from = startIndex;
+      int to = Math.min(startIndex + NUM_MESSAGES_PER_DECODE_TASK, messageCount);
+      decodeTasks.add(_decodeExecutor.submit(() -> decodeMessages(messageBatch, from, to)));
+    }
+    return decodeTasks;
+  }
+
+  /**
+   * Decodes and transforms the messages within the given index range. Rows are filtered the same way as on the consumer
+   * thread, so that only indexing is left to the consumer thread.
+   */
+  private DecodedMessage[] decodeMessages(MessageBatch messageBatch, int from, int to) {
+    MessageDecoders messageDecoders = _messageDecodersPool.poll();
+    if (messageDecoders == null) {
+      messageDecoders = _messageDecodersSupplier.get();
+    }
+    try {
+      return decodeMessages(messageBatch, from, to, messageDecoders._messageDecoder,
+          messageDecoders._recordTransformer);
+    } finally {
+      _messageDecodersPool.offer(messageDecoders);
+    }
+  }
+
+  private DecodedMessage[] decodeMessages(MessageBatch messageBatch, int from, int to,
+      StreamMessageDecoder messageDecoder, RecordTransformer recordTransformer) {
+    DecodedMessage[] decodedMessages = new DecodedMessage[to - from];
+    for (int index = from; index < to; index++) {
+      DecodedMessage decodedMessage = new DecodedMessage();
+      decodedMessages[index - from] = decodedMessage;
+      GenericRow decodedRow;
+      try {
+        decodedRow = messageDecoder
+            .decode(messageBatch.getMessageAtIndex(index), messageBatch.getMessageOffsetAtIndex(index),
+                messageBatch.getMessageLengthAtIndex(index), new GenericRow());
+      } catch (RuntimeException e) {
+        // Surface the exception when the consumer thread reaches this message
+        decodedMessage._decodeException = e;
+        break;
+      }
+      if (decodedRow == null) {
+        decodedMessage._numDroppedRows = 1;
+        continue;
+      }
+      decodedMessage._decodedRow = decodedRow;
+      try {
+        if (decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY) != null) {
+          for (Object singleRow : (Collection) decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY)) {
+            addTransformedRow(recordTransformer.transform((GenericRow) singleRow), decodedMessage);
+          }
+        } else {
+          addTransformedRow(recordTransformer.transform(decodedRow), decodedMessage);
+        }
+      } catch (Exception e) {
+        decodedMessage._transformException = e;
+      }
+    }
+    return decodedMessages;
+  }
+
+  private static void addTransformedRow(@Nullable GenericRow transformedRow, DecodedMessage decodedMessage) {
+    if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
+      decodedMessage._transformedRows.add(transformedRow);
+    } else {
+      decodedMessage._numDroppedRows++;
+    }
+  }
+
+  private static DecodedMessage[] getDecodeTaskResult(Future<DecodedMessage[]> decodeTask) {
+    try {
+      return Uninterruptibles.getUninterruptibly(decodeTask);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException("Caught exception while decoding messages", cause);
+    }
+  }
+
+  /**
+   * Message decoder and record transformer to be used by one decode task at a time.
+   */
+  private static class MessageDecoders {
+    final StreamMessageDecoder _messageDecoder;
+    final RecordTransformer _recordTransformer;
+
+    MessageDecoders(StreamMessageDecoder messageDecoder, RecordTransformer recordTransformer) {
+      _messageDecoder = messageDecoder;
+      _recordTransformer = recordTransformer;
+    }
+  }
+
+  /**
+   * Result of decoding and transforming a single stream message.
+   */
+  private static class DecodedMessage {
+    final List<GenericRow> _transformedRows = new ArrayList<>(1);
+    int _numDroppedRows;
+    GenericRow _decodedRow;
+    Exception _transformException;
+    RuntimeException _decodeException;
+  }
+
+  private void processStreamEvents(MessageBatch messagesAndOffsets) {
     Meter realtimeRowsConsumedMeter = null;
     Meter realtimeRowsDroppedMeter = null;
 
@@ -519,12 +841,149 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     if (streamMessageCount != 0) {
       segmentLogger.debug("Indexed {} messages ({} messages read from stream) current offset {}", indexedMessageCount,
           streamMessageCount, _currentOffset);
-    } else {
-      // If there were no messages to be fetched from stream, wait for a little bit as to avoid hammering the stream
-      Uninterruptibles.sleepUninterruptibly(idlePipeSleepTimeMillis, TimeUnit.MILLISECONDS);
     }
   }
 
+  /**
+   * Indexes the messages decoded and transformed by the decode tasks. The rows of consecutive messages are indexed as a
+   * batch as long as the end criteria cannot be reached within the batch, and messages that failed to transform are
+   * indexed on their own. If the segment does not support batch indexing (e.g. metrics aggregation or partial upsert),
+   * all the messages are indexed on their own with their own metadata, and a bad message is only counted as errored.
+   */
+  private void processDecodedStreamEvents(MessageBatch messagesAndOffsets,
+      List<Future<DecodedMessage[]>> decodeTasks) {
+    int indexedMessageCount = 0;
+    int streamMessageCount = 0;
+    boolean canTakeMore = true;
+
+    int messageCount = messagesAndOffsets.getMessageCount();
+    boolean batchIndexingSupported = _realtimeSegment.isBatchIndexingSupported();
+    List<GenericRow> rowsToIndex = new ArrayList<>();
+    int index = 0;
+    while (index < messageCount) {
+      if (_shouldStop || endCriteriaReached()) {
+        break;
+      }
+      if (!canTakeMore) {
+        segmentLogger
+            .error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed, _numRowsIndexed,
+                _segmentMaxRowCount);
+        throw new RuntimeException("Realtime segment full");
+      }
+
+      int taskId = index / NUM_MESSAGES_PER_DECODE_TASK;
+      int taskStartIndex = taskId * NUM_MESSAGES_PER_DECODE_TASK;
+      int taskEndIndex = Math.min(taskStartIndex + NUM_MESSAGES_PER_DECODE_TASK, messageCount);
+      DecodedMessage[] decodedMessages = getDecodeTaskResult(decodeTasks.get(taskId));
+      DecodedMessage decodedMessage = decodedMessages[index - taskStartIndex];
+      if (decodedMessage._decodeException != null) {
+        throw decodedMessage._decodeException;
+      }
+      if (decodedMessage._transformException != null || !batchIndexingSupported) {
+        indexedMessageCount += decodedMessage._transformedRows.size();
+        canTakeMore = indexDecodedMessage(messagesAndOffsets, index, decodedMessage);
+        index++;
+        streamMessageCount++;
+        continue;
+      }
+
+      // Collect the rows of the consecutive messages that can be indexed without checking the end criteria in between
+      rowsToIndex.clear();
+      int numDroppedRows = 0;
+      int batchEndIndex = index;
+      while (batchEndIndex < taskEndIndex) {
+        DecodedMessage nextDecodedMessage = decodedMessages[batchEndIndex - taskStartIndex];
+        if (batchEndIndex > index && (nextDecodedMessage._decodeException != null
+            || nextDecodedMessage._transformException != null || !canIndexInBatch(messagesAndOffsets, batchEndIndex,
+            rowsToIndex.size()))) {
+          break;
+        }
+        rowsToIndex.addAll(nextDecodedMessage._transformedRows);
+        numDroppedRows += nextDecodedMessage._numDroppedRows;
+        batchEndIndex++;
+      }
+
+      try {
+        canTakeMore = _realtimeSegment.index(rowsToIndex, messagesAndOffsets.getMetadataAtIndex(batchEndIndex - 1));
+        if (!rowsToIndex.isEmpty()) {
+          _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, rowsToIndex.size());
+        }
+        if (numDroppedRows > 0) {
+          _serverMetrics
+              .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, numDroppedRows);
+        }
+        _currentOffset = messagesAndOffsets.getNextStreamParitionMsgOffsetAtIndex(batchEndIndex - 1);
+        _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
+        _numRowsConsumed += batchEndIndex - index;
+      } catch (PartiallyIndexedBatchException e) {
+        // Some indexes were already modified for the batch, so the messages cannot be indexed again into this segment
+        segmentLogger.error("Caught exception while indexing {} messages as a batch after modifying the indexes",
+            batchEndIndex - index, e);
+        throw e;
+      } catch (Exception e) {
+        // None of the rows in the batch is indexed, index the messages one by one to only skip the bad ones
+        segmentLogger.warn("Caught exception while indexing {} messages as a batch, indexing them one by one",
+            batchEndIndex - index, e);
+        for (int i = index; i < batchEndIndex; i++) {
+          canTakeMore = indexDecodedMessage(messagesAndOffsets, i, decodedMessages[i - taskStartIndex]);
+        }
+      }
+      indexedMessageCount += rowsToIndex.size();
+      streamMessageCount += batchEndIndex - index;
+      index = batchEndIndex;
+    }
+    updateCurrentDocumentCountMetrics();
+    if (streamMessageCount != 0) {
+      segmentLogger.debug("Indexed {} messages ({} messages read from stream) current offset {}", indexedMessageCount,
+          streamMessageCount, _currentOffset);
+    }
+  }
+
+  /**
+   * Returns whether the message at the given index can be indexed in the same batch as the previous messages (with the
+   * given number of rows), i.e. the end criteria cannot be reached before the message.
+   */
+  private boolean canIndexInBatch(MessageBatch messagesAndOffsets, int index, int numRowsInBatch) {
+    switch (_state) {
+      case INITIAL_CONSUMING:
+        // NOTE: Time limit is checked once per batch
+        return _numRowsIndexed + numRowsInBatch < _segmentMaxRowCount;
+      case CATCHING_UP:
+      case CONSUMING_TO_ONLINE:
+        return messagesAndOffsets.getNextStreamParitionMsgOffsetAtIndex(index - 1).compareTo(_finalOffset) < 0;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Indexes the rows of a single decoded message, and counts the message as errored if any of its rows fails to be
+   * transformed or indexed. Returns whether the segment can take more rows.
+   */
+  private boolean indexDecodedMessage(MessageBatch messagesAndOffsets, int index, DecodedMessage decodedMessage) {
+    boolean canTakeMore = true;
+    try {
+      for (GenericRow transformedRow : decodedMessage._transformedRows) {
+        _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1);
+        canTakeMore = _realtimeSegment.index(transformedRow, messagesAndOffsets.getMetadataAtIndex(index));
+      }
+      if (decodedMessage._transformException != null) {
+        throw decodedMessage._transformException;
+      }
+    } catch (Exception e) {
+      segmentLogger.error("Caught exception while transforming the record: {}", decodedMessage._decodedRow, e);
+      _numRowsErrored++;
+    }
+    if (decodedMessage._numDroppedRows > 0) {
+      _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED,
+          decodedMessage._numDroppedRows);
+    }
+    _currentOffset = messagesAndOffsets.getNextStreamParitionMsgOffsetAtIndex(index);
+    _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
+    _numRowsConsumed++;
+    return canTakeMore;
+  }
+
   public class PartitionConsumer implements Runnable {
     public void run() {
       long initialConsumptionEnd = 0L;
@@ -542,6 +1001,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
           }
 
           if (_state == State.INITIAL_CONSUMING) {
+            if (_memoryGovernor != null) {
+              _memoryGovernor.stopConsuming(_segmentNameStr);
+            }
             initialConsumptionEnd = now();
             _serverMetrics.setValueOfTableGauge(_metricKeyName,
                 ServerGauge.LAST_REALTIME_SEGMENT_INITIAL_CONSUMPTION_DURATION_SECONDS,
@@ -744,7 +1206,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
               _nullHandlingEnabled);
       segmentLogger.info("Trying to build segment");
       try {
-        converter.build(_segmentVersion, _serverMetrics);
+        converter.build(_segmentVersion, _serverMetrics, _segmentBuildExecutor);
       } catch (Exception e) {
         segmentLogger.error("Could not build segment", e);
         FileUtils.deleteQuietly(tempSegmentFolder);
@@ -879,6 +1341,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   }
 
   private void closePartitionLevelConsumer() {
+    discardPrefetchedMessageBatch();
     try {
       _partitionLevelConsumer.close();
     } catch (Exception e) {
@@ -1053,6 +1516,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       segmentLogger.error("Could not stop consumer thread");
     }
     _realtimeSegment.destroy();
+    if (_memoryGovernor != null) {
+      _memoryGovernor.unregister(_segmentNameStr);
+    }
     closeKafkaConsumers();
   }
 
@@ -1087,6 +1553,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       Schema schema, LLCSegmentName llcSegmentName, Semaphore partitionConsumerSemaphore, ServerMetrics serverMetrics,
       @Nullable PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
     _segBuildSemaphore = realtimeTableDataManager.getSegmentBuildSemaphore();
+    _segmentBuildExecutor = realtimeTableDataManager.getSegmentBuildExecutor();
+    _memoryGovernor = realtimeTableDataManager.getMemoryGovernor();
+    _consumptionThrottler = realtimeTableDataManager.getConsumptionThrottler();
     _segmentZKMetadata = (LLCRealtimeSegmentZKMetadata) segmentZKMetadata;
     _tableConfig = tableConfig;
     _tableNameWithType = _tableConfig.getTableName();
@@ -1178,9 +1647,13 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
             .setNoDictionaryColumns(indexLoadingConfig.getNoDictionaryColumns())
             .setVarLengthDictionaryColumns(indexLoadingConfig.getVarLengthDictionaryColumns())
             .setInvertedIndexColumns(invertedIndexColumns).setTextIndexColumns(textIndexColumns)
+            .setJsonIndexColumns(indexLoadingConfig.getJsonIndexColumns())
+            .setGeoIndexResolutions(indexLoadingConfig.getGeoIndexResolutions())
             .setRealtimeSegmentZKMetadata(segmentZKMetadata).setOffHeap(_isOffHeap).setMemoryManager(_memoryManager)
             .setStatsHistory(realtimeTableDataManager.getStatsHistory())
-            .setAggregateMetrics(indexingConfig.isAggregateMetrics()).setNullHandlingEnabled(_nullHandlingEnabled)
+            .setAggregateMetrics(indexingConfig.isAggregateMetrics())
+            .setMetricsAggregators(indexingConfig.getMetricsAggregators())
+            .setNullHandlingEnabled(_nullHandlingEnabled)
             .setConsumerDir(consumerDir).setUpsertMode(tableConfig.getUpsertMode())
             .setPartitionUpsertMetadataManager(partitionUpsertMetadataManager);
 
@@ -1192,6 +1665,22 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     // Create record transformer
     _recordTransformer = CompositeTransformer.getDefaultTransformer(tableConfig, schema);
 
+    ExecutorService consumerDecodeExecutor = realtimeTableDataManager.getConsumerDecodeExecutor();
+    if (_partitionLevelStreamConfig.getConsumerDecodeNumThreads() > 0 && consumerDecodeExecutor != null) {
+      segmentLogger.info("Decoding messages on the table decode executor in parallel with indexing");
+      _decodeExecutor = consumerDecodeExecutor;
+      _fetchExecutor = realtimeTableDataManager.getConsumerFetchExecutor();
+      _messageDecodersPool = new ConcurrentLinkedQueue<>();
+      _messageDecodersSupplier =
+          () -> new MessageDecoders(StreamDecoderProvider.create(_partitionLevelStreamConfig, fieldsToRead),
+              CompositeTransformer.getDefaultTransformer(tableConfig, schema));
+    } else {
+      _decodeExecutor = null;
+      _fetchExecutor = null;
+      _messageDecodersPool = null;
+      _messageDecodersSupplier = null;
+    }
+
     // Acquire semaphore to create Kafka consumers
     try {
       _partitionConsumerSemaphore.acquire();
@@ -1245,6 +1734,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
 
     _realtimeSegment = new MutableSegmentImpl(realtimeSegmentConfigBuilder.build(), serverMetrics);
+    if (_memoryGovernor != null) {
+      _memoryGovernor.register(_segmentNameStr, _memoryManager, _realtimeSegment::getEstimatedOnHeapBytes);
+    }
     _startOffset = _streamPartitionMsgOffsetFactory.create(_segmentZKMetadata.getStartOffset());
     _currentOffset = _streamPartitionMsgOffsetFactory.create(_startOffset);
     _resourceTmpDir = new File(resourceDataDir, "_tmp");
@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.io.writer.impl.MmapMemoryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Server-wide governor of the memory (direct, mmap and the tracked on-heap memory) used by the consuming segments.
+ * <p>Each consuming segment registers its memory manager (and optionally the estimated size of the values it keeps on
+ * heap) when created and unregisters it when destroyed. The consuming
+ * threads periodically ask the governor whether they should stop consuming and commit early. When the total memory
+ * used by all the consuming segments reaches {@link #FORCE_COMMIT_THRESHOLD_RATIO} of the budget, the largest
+ * consuming segments are picked to commit early until the memory that will be released brings the usage back under the
+ * threshold. The memory of the segments that already stopped consuming is considered as released because it will be
+ * freed once the segments are built.
+ * <p>NOTE: Memory allocated on heap is only tracked when reported by the consuming segment (e.g. sketch metrics
+ *       aggregated in place), other on-heap memory (e.g. on-heap dictionaries) is not tracked.
+ */
+@ThreadSafe
+public class RealtimeConsumptionMemoryGovernor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeConsumptionMemoryGovernor.class);
+
+  // Start forcing early commits when the memory usage reaches this ratio of the budget
+  public static final double FORCE_COMMIT_THRESHOLD_RATIO = 0.9;
+  // Minimum interval between two evaluations of the memory usage
+  private static final long CHECK_INTERVAL_MS = 1000L;
+
+  private final long _budgetBytes;
+  private final long _thresholdBytes;
+  private final ServerMetrics _serverMetrics;
+  private final Map<String, ConsumingSegment> _consumingSegments = new ConcurrentHashMap<>();
+
+  private volatile Set<String> _segmentsToCommit = Collections.emptySet();
+  private volatile long _lastCheckTimeMs = 0L;
+
+  public RealtimeConsumptionMemoryGovernor(long budgetBytes, ServerMetrics serverMetrics) {
+    Preconditions.checkArgument(budgetBytes > 0, "Memory budget must be positive, got: %s", budgetBytes);
+    _budgetBytes = budgetBytes;
+    _thresholdBytes = (long) (budgetBytes * FORCE_COMMIT_THRESHOLD_RATIO);
+    _serverMetrics = serverMetrics;
+    _serverMetrics.setValueOfGlobalGauge(ServerGauge.REALTIME_CONSUMPTION_MEMORY_BUDGET, budgetBytes);
+    LOGGER.info("Initialized memory governor for consuming segments with budget: {} bytes, threshold: {} bytes",
+        _budgetBytes, _thresholdBytes);
+  }
+
+  public long getBudgetBytes() {
+    return _budgetBytes;
+  }
+
+  /**
+   * Registers a consuming segment with its memory manager.
+   */
+  public void register(String segmentName, PinotDataBufferMemoryManager memoryManager) {
+    register(segmentName, memoryManager, () -> 0L);
+  }
+
+  /**
+   * Registers a consuming segment with its memory manager and the supplier of the estimated size of its values on heap.
+   */
+  public void register(String segmentName, PinotDataBufferMemoryManager memoryManager,
+      LongSupplier onHeapBytesSupplier) {
+    _consumingSegments.put(segmentName, new ConsumingSegment(segmentName, memoryManager, onHeapBytesSupplier));
+  }
+
+  /**
+   * Marks a segment as no longer consuming. Its memory is still tracked until it is unregistered, but is not counted
+   * towards the memory to be released by forcing early commits.
+   */
+  public void stopConsuming(String segmentName) {
+    ConsumingSegment consumingSegment = _consumingSegments.get(segmentName);
+    if (consumingSegment != null) {
+      consumingSegment._consuming = false;
+    }
+  }
+
+  /**
+   * Unregisters a segment when its memory is released.
+   */
+  public void unregister(String segmentName) {
+    _consumingSegments.remove(segmentName);
+  }
+
+  /**
+   * Returns {@code true} if the given consuming segment should stop consuming and commit early to release memory.
+   */
+  public boolean shouldCommit(String segmentName) {
+    long currentTimeMs = System.currentTimeMillis();
+    if (currentTimeMs - _lastCheckTimeMs >= CHECK_INTERVAL_MS) {
+      synchronized (this) {
+        if (currentTimeMs - _lastCheckTimeMs >= CHECK_INTERVAL_MS) {
+          updateSegmentsToCommit();
+          _lastCheckTimeMs = currentTimeMs;
+        }
+      }
+    }
+    return _segmentsToCommit.contains(segmentName);
+  }
+
+  /**
+   * Re-evaluates the memory usage, updates the gauges and picks the segments to commit early.
+   */
+  @VisibleForTesting
+  synchronized void updateSegmentsToCommit() {
+    long directBytes = 0;
+    long mmapBytes = 0;
+    long heapBytes = 0;
+    long releasingBytes = 0;
+    List<ConsumingSegment> consumingSegments = new ArrayList<>(_consumingSegments.size());
+    for (ConsumingSegment consumingSegment : _consumingSegments.values()) {
+      long offHeapBytes = consumingSegment._memoryManager.getTotalAllocatedBytes();
+      if (consumingSegment._memoryManager instanceof MmapMemoryManager) {
+        mmapBytes += offHeapBytes;
+      } else {
+        directBytes += offHeapBytes;
+      }
+      long onHeapBytes = consumingSegment._onHeapBytesSupplier.getAsLong();
+      heapBytes += onHeapBytes;
+      long bytes = offHeapBytes + onHeapBytes;
+      consumingSegment._allocatedBytes = bytes;
+      if (consumingSegment._consuming) {
+        consumingSegments.add(consumingSegment);
+      } else {
+        releasingBytes += bytes;
+      }
+    }
+    long usedBytes = directBytes + mmapBytes + heapBytes;
+    _serverMetrics.setValueOfGlobalGauge(ServerGauge.REALTIME_CONSUMPTION_DIRECT_MEMORY_USED, directBytes);
+    _serverMetrics.setValueOfGlobalGauge(ServerGauge.REALTIME_CONSUMPTION_MMAP_MEMORY_USED, mmapBytes);
+    _serverMetrics.setValueOfGlobalGauge(ServerGauge.REALTIME_CONSUMPTION_HEAP_MEMORY_USED, heapBytes);
+
+    long bytesToRelease = usedBytes - releasingBytes - _thresholdBytes;
+    if (bytesToRelease <= 0) {
+      _segmentsToCommit = Collections.emptySet();
+      return;
+    }
+    // Pick the largest consuming segments first
+    consumingSegments.sort((o1, o2) -> Long.compare(o2._allocatedBytes, o1._allocatedBytes));
+    Set<String> segmentsToCommit = new HashSet<>();
+    for (ConsumingSegment consumingSegment : consumingSegments) {
+      if (bytesToRelease <= 0) {
+        break;
+      }
+      segmentsToCommit.add(consumingSegment._segmentName);
+      bytesToRelease -= consumingSegment._allocatedBytes;
+    }
+    LOGGER.warn("Memory used by consuming segments: {} bytes (direct: {}, mmap: {}, heap: {}, releasing: {}) exceeds "
+            + "threshold: {} bytes (budget: {} bytes), forcing early commit of segments: {}", usedBytes, directBytes,
+        mmapBytes, heapBytes, releasingBytes, _thresholdBytes, _budgetBytes, segmentsToCommit);
+    _segmentsToCommit = segmentsToCommit;
+  }
+
+  private static class ConsumingSegment {
+    final String _segmentName;
+    final PinotDataBufferMemoryManager _memoryManager;
+    final LongSupplier _onHeapBytesSupplier;
+    volatile boolean _consuming = true;
+    // Snapshot of the allocated bytes, only accessed while holding the lock of the governor
+    long _allocatedBytes;
+
+    ConsumingSegment(String segmentName, PinotDataBufferMemoryManager memoryManager,
+        LongSupplier onHeapBytesSupplier) {
+      _segmentName = segmentName;
+      _memoryManager = memoryManager;
+      _onHeapBytesSupplier = onHeapBytesSupplier;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Throttler of the consumption of the consuming segments sharing it, which are all the partitions of a table (table
+ * level throttler), or all the partitions of all the tables on the server (server level throttler).
+ * <p>The consuming threads cooperatively call {@link #acquire(long)} before indexing each batch of messages and
+ * {@link #release(int)} after indexing it, so that at most the configured number of partitions index at the same time
+ * and the partitions beyond the limit yield between the batches. After releasing the slot,
+ * {@link #throttle(int, BooleanSupplier)} blocks the consuming thread to keep the consumption under the configured
+ * number of rows per second. A table level throttler
+ * also applies the server level throttler (if configured), and reports the consumption rate of the table.
+ */
+@ThreadSafe
+public class RealtimeConsumptionThrottler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeConsumptionThrottler.class);
+
+  // Minimum interval between two updates of the consumption rate gauge
+  private static final long RATE_UPDATE_INTERVAL_MS = 1000L;
+  // Interval to check whether the consumption is stopped while being throttled
+  private static final long THROTTLE_CHECK_INTERVAL_MS = 100L;
+
+  private final String _name;
+  private final Semaphore _semaphore;
+  private final RateLimiter _rateLimiter;
+  private final RealtimeConsumptionThrottler _parent;
+  private final ServerMetrics _serverMetrics;
+
+  private final AtomicLong _numRowsConsumed = new AtomicLong();
+  private volatile long _rateWindowStartMs = System.currentTimeMillis();
+
+  /**
+   * Constructor for the server level throttler.
+   *
+   * @param maxConcurrentPartitions Maximum number of partitions indexing at the same time, non-positive for no limit
+   * @param maxRowsPerSecond Maximum number of rows consumed per second, non-positive for no limit
+   */
+  public RealtimeConsumptionThrottler(int maxConcurrentPartitions, double maxRowsPerSecond) {
+    this("server", maxConcurrentPartitions, maxRowsPerSecond, null, null);
+  }
+
+  /**
+   * Constructor for the table level throttler.
+   *
+   * @param tableNameWithType Table name with type, used as the key of the consumption rate gauge
+   * @param maxConcurrentPartitions Maximum number of partitions indexing at the same time, non-positive for no limit
+   * @param maxRowsPerSecond Maximum number of rows consumed per second, non-positive for no limit
+   * @param parent Server level throttler, or {@code null} if not configured
+   * @param serverMetrics Server metrics to report the consumption rate
+   */
+  public RealtimeConsumptionThrottler(String tableNameWithType, int maxConcurrentPartitions, double maxRowsPerSecond,
+      @Nullable RealtimeConsumptionThrottler parent, @Nullable ServerMetrics serverMetrics) {
+    _name = tableNameWithType;
+    _semaphore = maxConcurrentPartitions > 0 ? new Semaphore(maxConcurrentPartitions, true) : null;
+    _rateLimiter = maxRowsPerSecond > 0 ? RateLimiter.create(maxRowsPerSecond) : null;
+    _parent = parent;
+    _serverMetrics = serverMetrics;
+    if (_semaphore != null || _rateLimiter != null) {
+      LOGGER.info("Throttling consumption for: {} with max concurrent partitions: {}, max rows per second: {}", _name,
+          maxConcurrentPartitions, maxRowsPerSecond);
+    }
+  }
+
+  /**
+   * Tries to acquire a slot to index a batch of messages, waiting up to the given timeout for another partition to
+   * release its slot. Returns {@code true} if the slot is acquired, in which case {@link #release(int)} must be called
+   * after indexing the batch.
+   */
+  public boolean acquire(long timeoutMs)
+      throws InterruptedException {
+    if (_semaphore != null && !_semaphore.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+      return false;
+    }
+    if (_parent != null && !_parent.acquire(timeoutMs)) {
+      if (_semaphore != null) {
+        _semaphore.release();
+      }
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Releases the slot acquired to index a batch of messages, and records the number of rows consumed in the batch.
+   */
+  public void release(int numRowsConsumed) {
+    if (_parent != null) {
+      _parent.release(numRowsConsumed);
+    }
+    if (_semaphore != null) {
+      _semaphore.release();
+    }
+    if (_serverMetrics != null) {
+      _numRowsConsumed.addAndGet(numRowsConsumed);
+      updateConsumptionRate();
+    }
+  }
+
+  /**
+   * Blocks the consuming thread until the given number of rows can be consumed without exceeding the maximum rate, or
+   * the consumption is stopped (checked periodically with the given supplier), and returns the time blocked in
+   * milliseconds. Should be called without holding a slot so that the throttled partition does not block the other
+   * partitions.
+   */
+  public long throttle(int numRowsConsumed, BooleanSupplier shouldStop) {
+    if (numRowsConsumed <= 0) {
+      return 0L;
+    }
+    long waitTimeMs = 0;
+    if (_rateLimiter != null && !_rateLimiter.tryAcquire(numRowsConsumed)) {
+      long startTimeNs = System.nanoTime();
+      // NOTE: RateLimiter.tryAcquire() returns immediately if the permits cannot be acquired within the timeout, and
+      //       waits for the permits otherwise
+      while (!_rateLimiter.tryAcquire(numRowsConsumed, THROTTLE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        if (shouldStop.getAsBoolean()) {
+          return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNs);
+        }
+        Uninterruptibles.sleepUninterruptibly(THROTTLE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      }
+      waitTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNs);
+    }
+    if (_parent != null) {
+      waitTimeMs += _parent.throttle(numRowsConsumed, shouldStop);
+    }
+    return waitTimeMs;
+  }
+
+  private void updateConsumptionRate() {
+    long currentTimeMs = System.currentTimeMillis();
+    long windowStartMs = _rateWindowStartMs;
+    long elapsedMs = currentTimeMs - windowStartMs;
+    if (elapsedMs >= RATE_UPDATE_INTERVAL_MS) {
+      synchronized (this) {
+        if (_rateWindowStartMs == windowStartMs) {
+          long numRowsConsumed = _numRowsConsumed.getAndSet(0);
+          _rateWindowStartMs = currentTimeMs;
+          _serverMetrics.setValueOfTableGauge(_name, ServerGauge.REALTIME_CONSUMPTION_RATE,
+              numRowsConsumed * 1000 / elapsedMs);
+        }
+      }
+    }
+  }
+}
@@ -33,6 +33,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
@@ -56,12 +57,15 @@ import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentImpl;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
-import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.core.realtime.impl.SnapshotMutableRoaringBitmap;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.core.segment.index.loader.LoaderUtils;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
 import org.apache.pinot.core.segment.virtualcolumn.VirtualColumnProviderFactory;
+import org.apache.pinot.core.upsert.PartialUpsertHandler;
 import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager;
 import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager.RecordInfo;
+import org.apache.pinot.core.upsert.PrimaryKeySnapshot;
 import org.apache.pinot.core.upsert.TableUpsertMetadataManager;
 import org.apache.pinot.core.util.IngestionUtils;
 import org.apache.pinot.core.util.PeerServerSegmentFinder;
@@ -72,7 +76,9 @@ import org.apache.pinot.spi.config.table.UpsertConfig;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.stream.StreamConfig;
 import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.spi.utils.IngestionConfigUtils;
 
 import static org.apache.pinot.common.utils.CommonConstants.Segment.METADATA_URI_FOR_PEER_DOWNLOAD;
 
@@ -84,6 +90,17 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   private SegmentBuildTimeLeaseExtender _leaseExtender;
   private RealtimeSegmentStatsHistory _statsHistory;
   private final Semaphore _segmentBuildSemaphore;
+  // Executor shared across all realtime tables to build the indexes of different columns in parallel
+  private final ExecutorService _segmentBuildExecutor;
+  // Memory governor shared across all realtime tables to bound the memory used by the consuming segments
+  private final RealtimeConsumptionMemoryGovernor _memoryGovernor;
+  // Consumption throttler shared across all realtime tables, which is the parent of the per-table throttler
+  private final RealtimeConsumptionThrottler _serverConsumptionThrottler;
+  private RealtimeConsumptionThrottler _consumptionThrottler;
+  // Executors shared by all the consuming segments of the table to decode messages and prefetch the next message batch
+  // when decode threads are configured, which are bounded by the configured number of decode threads
+  private ExecutorService _consumerDecodeExecutor;
+  private ExecutorService _consumerFetchExecutor;
   // Maintains a map of partitionIds to semaphores.
   // The semaphore ensures that exactly one PartitionConsumer instance consumes from any stream partition.
   // In some streams, it's possible that having multiple consumers (with the same consumer name on the same host) consuming from the same stream partition can lead to bugs.
@@ -115,7 +132,16 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   private String _timeColumnName;
 
   public RealtimeTableDataManager(Semaphore segmentBuildSemaphore) {
+    this(segmentBuildSemaphore, null, null, null);
+  }
+
+  public RealtimeTableDataManager(Semaphore segmentBuildSemaphore, @Nullable ExecutorService segmentBuildExecutor,
+      @Nullable RealtimeConsumptionMemoryGovernor memoryGovernor,
+      @Nullable RealtimeConsumptionThrottler consumptionThrottler) {
     _segmentBuildSemaphore = segmentBuildSemaphore;
+    _segmentBuildExecutor = segmentBuildExecutor;
+    _memoryGovernor = memoryGovernor;
+    _serverConsumptionThrottler = consumptionThrottler;
   }
 
   @Override
@@ -155,10 +181,31 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, _tableNameWithType);
     Preconditions.checkState(tableConfig != null, "Failed to find table config for table: %s", _tableNameWithType);
     _upsertMode = tableConfig.getUpsertMode();
+    StreamConfig streamConfig =
+        new StreamConfig(_tableNameWithType, IngestionConfigUtils.getStreamConfigMap(tableConfig));
+    int maxConcurrentPartitions = streamConfig.getConsumerMaxConcurrentPartitions();
+    double maxRowsPerSecond = streamConfig.getConsumerMaxRowsPerSecond();
+    if (maxConcurrentPartitions > 0 || maxRowsPerSecond > 0 || _serverConsumptionThrottler != null) {
+      _consumptionThrottler =
+          new RealtimeConsumptionThrottler(_tableNameWithType, maxConcurrentPartitions, maxRowsPerSecond,
+              _serverConsumptionThrottler, _serverMetrics);
+    }
+    int numDecodeThreads = streamConfig.getConsumerDecodeNumThreads();
+    if (numDecodeThreads > 0) {
+      _consumerDecodeExecutor = Executors.newFixedThreadPool(numDecodeThreads,
+          new NamedThreadFactory(_tableNameWithType + "-consumer-decode"));
+      _consumerFetchExecutor = Executors.newFixedThreadPool(numDecodeThreads,
+          new NamedThreadFactory(_tableNameWithType + "-consumer-fetch"));
+    }
     if (isUpsertEnabled()) {
       Schema schema = ZKMetadataProvider.getTableSchema(_propertyStore, _tableNameWithType);
       Preconditions.checkState(schema != null, "Failed to find schema for table: %s", _tableNameWithType);
-      _tableUpsertMetadataManager = new TableUpsertMetadataManager(_tableNameWithType, _serverMetrics);
+      UpsertConfig upsertConfig = tableConfig.getUpsertConfig();
+      PartialUpsertHandler partialUpsertHandler = _upsertMode == UpsertConfig.Mode.PARTIAL
+          ? new PartialUpsertHandler(upsertConfig.getPartialUpsertStrategies()) : null;
+      _tableUpsertMetadataManager =
+          new TableUpsertMetadataManager(_tableNameWithType, _serverMetrics, upsertConfig.getMetadataStoreType(),
+              partialUpsertHandler);
       _primaryKeyColumns = schema.getPrimaryKeyColumns();
       Preconditions.checkState(!CollectionUtils.isEmpty(_primaryKeyColumns),
           "Primary key columns must be configured for upsert");
@@ -192,9 +239,20 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     for (SegmentDataManager segmentDataManager : _segmentDataManagerMap.values()) {
       segmentDataManager.destroy();
     }
+    if (_consumerDecodeExecutor != null) {
+      _consumerDecodeExecutor.shutdown();
+      _consumerFetchExecutor.shutdown();
+    }
     if (_leaseExtender != null) {
       _leaseExtender.shutDown();
     }
+    if (_tableUpsertMetadataManager != null) {
+      try {
+        _tableUpsertMetadataManager.close();
+      } catch (IOException e) {
+        _logger.warn("Caught exception while closing upsert metadata manager", e);
+      }
+    }
   }
 
   public RealtimeSegmentStatsHistory getStatsHistory() {
@@ -205,6 +263,31 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     return _segmentBuildSemaphore;
   }
 
+  @Nullable
+  public ExecutorService getSegmentBuildExecutor() {
+    return _segmentBuildExecutor;
+  }
+
+  @Nullable
+  public RealtimeConsumptionMemoryGovernor getMemoryGovernor() {
+    return _memoryGovernor;
+  }
+
+  @Nullable
+  public RealtimeConsumptionThrottler getConsumptionThrottler() {
+    return _consumptionThrottler;
+  }
+
+  @Nullable
+  public ExecutorService getConsumerDecodeExecutor() {
+    return _consumerDecodeExecutor;
+  }
+
+  @Nullable
+  public ExecutorService getConsumerFetchExecutor() {
+    return _consumerFetchExecutor;
+  }
+
   public String getConsumerDir() {
     String consumerDirPath = _tableDataManagerConfig.getConsumerDir();
     File consumerDir;
@@ -329,16 +412,39 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   }
 
   private void handleUpsert(ImmutableSegmentImpl immutableSegment) {
+    String segmentName = immutableSegment.getSegmentName();
+    int partitionId = new LLCSegmentName(segmentName).getPartitionId();
+    PartitionUpsertMetadataManager partitionUpsertMetadataManager =
+        _tableUpsertMetadataManager.getOrCreatePartitionManager(partitionId);
+    SnapshotMutableRoaringBitmap validDocIds =
+        partitionUpsertMetadataManager.addSegment(immutableSegment, getPrimaryKeySnapshot(immutableSegment));
+    immutableSegment.enableUpsert(partitionUpsertMetadataManager, validDocIds);
+  }
+
+  /**
+   * Returns the primary key snapshot of the given segment. Loads the snapshot persisted in the segment directory if it
+   * exists, otherwise builds the snapshot by reading the primary key and time columns of the segment, and persists it so
+   * that the columns do not need to be read again the next time the segment is loaded.
+   */
+  private PrimaryKeySnapshot getPrimaryKeySnapshot(ImmutableSegmentImpl immutableSegment) {
+    SegmentMetadata segmentMetadata = immutableSegment.getSegmentMetadata();
+    File indexDir = segmentMetadata.getIndexDir();
+    String crc = segmentMetadata.getCrc();
+    int numTotalDocs = segmentMetadata.getTotalDocs();
+    boolean canPersist = indexDir != null && crc != null;
+    if (canPersist) {
+      PrimaryKeySnapshot primaryKeySnapshot =
+          PrimaryKeySnapshot.load(indexDir, crc, _primaryKeyColumns, _timeColumnName, numTotalDocs);
+      if (primaryKeySnapshot != null) {
+        return primaryKeySnapshot;
+      }
+    }
+
     Map<String, PinotSegmentColumnReader> columnToReaderMap = new HashMap<>();
     for (String primaryKeyColumn : _primaryKeyColumns) {
       columnToReaderMap.put(primaryKeyColumn, new PinotSegmentColumnReader(immutableSegment, primaryKeyColumn));
     }
     columnToReaderMap.put(_timeColumnName, new PinotSegmentColumnReader(immutableSegment, _timeColumnName));
-    int numTotalDocs = immutableSegment.getSegmentMetadata().getTotalDocs();
-    String segmentName = immutableSegment.getSegmentName();
-    int partitionId = new LLCSegmentName(immutableSegment.getSegmentName()).getPartitionId();
-    PartitionUpsertMetadataManager partitionUpsertMetadataManager =
-        _tableUpsertMetadataManager.getOrCreatePartitionManager(partitionId);
     int numPrimaryKeyColumns = _primaryKeyColumns.size();
     Iterator<RecordInfo> recordInfoIterator = new Iterator<RecordInfo>() {
       private int _docId = 0;
@@ -365,9 +471,16 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
         return new RecordInfo(primaryKey, _docId++, timestamp);
       }
     };
-    ThreadSafeMutableRoaringBitmap validDocIds =
-        partitionUpsertMetadataManager.addSegment(segmentName, recordInfoIterator);
-    immutableSegment.enableUpsert(partitionUpsertMetadataManager, validDocIds);
+    PrimaryKeySnapshot primaryKeySnapshot = PrimaryKeySnapshot.build(recordInfoIterator, numTotalDocs);
+    if (canPersist) {
+      try {
+        primaryKeySnapshot.persist(indexDir, crc, _primaryKeyColumns, _timeColumnName);
+      } catch (Exception e) {
+        _logger.warn("Caught exception while persisting primary key snapshot for segment: {}",
+            immutableSegment.getSegmentName(), e);
+      }
+    }
+    return primaryKeySnapshot;
   }
 
   public void downloadAndReplaceSegment(String segmentName, LLCRealtimeSegmentZKMetadata llcSegmentMetadata,
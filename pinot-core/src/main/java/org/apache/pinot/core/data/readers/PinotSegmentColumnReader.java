@@ -20,11 +20,14 @@ package org.apache.pinot.core.data.readers;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.common.DataSource;
-import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReaderContext;
+import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
 
 
 @SuppressWarnings({"rawtypes", "unchecked"})
@@ -32,13 +35,15 @@ public class PinotSegmentColumnReader implements Closeable {
   private final ForwardIndexReader _reader;
   private final ForwardIndexReaderContext _readerContext;
   private final Dictionary _dictionary;
+  private final NullValueVectorReader _nullValueVector;
   private final int[] _dictIdBuffer;
 
-  public PinotSegmentColumnReader(ImmutableSegment immutableSegment, String column) {
-    DataSource dataSource = immutableSegment.getDataSource(column);
+  public PinotSegmentColumnReader(IndexSegment indexSegment, String column) {
+    DataSource dataSource = indexSegment.getDataSource(column);
     _reader = dataSource.getForwardIndex();
     _readerContext = _reader.createContext();
     _dictionary = dataSource.getDictionary();
+    _nullValueVector = dataSource.getNullValueVector();
     if (_reader.isSingleValue()) {
       _dictIdBuffer = null;
     } else {
@@ -50,10 +55,27 @@ public class PinotSegmentColumnReader implements Closeable {
     return _dictionary != null;
   }
 
+  @Nullable
+  public Dictionary getDictionary() {
+    return _dictionary;
+  }
+
   public int getDictId(int docId) {
     return _reader.getDictId(docId, _readerContext);
   }
 
+  /**
+   * Returns the dictionary ids for the given multi-value document in a newly allocated array.
+   */
+  public int[] getDictIdMV(int docId) {
+    int numValues = _reader.getDictIdMV(docId, _dictIdBuffer, _readerContext);
+    return Arrays.copyOf(_dictIdBuffer, numValues);
+  }
+
+  public boolean isNull(int docId) {
+    return _nullValueVector != null && _nullValueVector.isNull(docId);
+  }
+
   public Object getValue(int docId) {
     if (_dictionary != null) {
       if (_reader.isSingleValue()) {
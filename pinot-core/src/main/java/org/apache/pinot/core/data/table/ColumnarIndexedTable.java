@@ -0,0 +1,674 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * {@link Table} implementation for aggregating records with fixed-width (INT, LONG, FLOAT, DOUBLE) group-by columns,
+ * which stores the group keys and the aggregation results in per-column primitive arrays instead of a {@link Key} and
+ * a {@link Record} per group.
+ * <p>Each key value is encoded into a long (the int bits for FLOAT, the long bits for DOUBLE), and the encoded keys are
+ * mapped to the group ids with an open addressing hash table. The results of SUM, MIN, MAX and COUNT are stored in
+ * primitive arrays and merged without boxing, and the results of the other aggregation functions are stored as Objects
+ * and merged with the aggregation function. The records are only materialized when trimming and finishing the table.
+ * <p>Use {@link #isSupported(DataSchema, int)} to check whether the table can be used for the data schema.
+ */
+@NotThreadSafe
+@SuppressWarnings("unchecked")
+public class ColumnarIndexedTable extends IndexedTable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarIndexedTable.class);
+
+  // Group id returned when the group does not exist and no more new groups are accepted
+  public static final int INVALID_GROUP_ID = -1;
+
+  private static final int INITIAL_CAPACITY = 128;
+  private static final int EMPTY_SLOT = -1;
+
+  private enum MergeType {
+    SUM, MIN, MAX, COUNT, OBJECT
+  }
+
+  private final ColumnDataType[] _keyTypes;
+  private final int _numAggregationFunctions;
+  private final MergeType[] _mergeTypes;
+  private final ColumnDataType[] _resultTypes;
+  private final long[] _keyBuffer;
+
+  // Max number of groups before expanding the arrays
+  private int _capacity;
+  private long[] _keys;
+  private final double[][] _doubleResults;
+  private final long[][] _longResults;
+  private final Object[][] _objectResults;
+  // Open addressing hash table from the slot to the group id, with size of twice the capacity
+  private int[] _hashTable;
+  private int _hashMask;
+  private int _numGroups;
+
+  private boolean _noMoreNewRecords;
+  private int _numResizes;
+  private long _resizeTimeMs;
+  private Collection<Record> _records;
+  private Iterator<Record> _iterator;
+
+  public ColumnarIndexedTable(DataSchema dataSchema, QueryContext queryContext, int trimSize, int trimThreshold) {
+    super(dataSchema, queryContext, trimSize, trimThreshold);
+    Preconditions.checkArgument(isSupported(dataSchema, _numKeyColumns),
+        "Unsupported data schema for columnar indexed table: %s", dataSchema);
+    ColumnDataType[] columnDataTypes = dataSchema.getColumnDataTypes();
+    _keyTypes = Arrays.copyOf(columnDataTypes, _numKeyColumns);
+    _numAggregationFunctions = _numColumns - _numKeyColumns;
+    _mergeTypes = new MergeType[_numAggregationFunctions];
+    _resultTypes = new ColumnDataType[_numAggregationFunctions];
+    _keyBuffer = new long[_numKeyColumns];
+
+    _capacity = INITIAL_CAPACITY;
+    _keys = new long[_capacity * _numKeyColumns];
+    _doubleResults = new double[_numAggregationFunctions][];
+    _longResults = new long[_numAggregationFunctions][];
+    _objectResults = new Object[_numAggregationFunctions][];
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      ColumnDataType resultType = columnDataTypes[_numKeyColumns + i];
+      MergeType mergeType = getMergeType(i, resultType);
+      _mergeTypes[i] = mergeType;
+      _resultTypes[i] = resultType;
+      switch (mergeType) {
+        case SUM:
+        case MIN:
+        case MAX:
+          _doubleResults[i] = new double[_capacity];
+          break;
+        case COUNT:
+          _longResults[i] = new long[_capacity];
+          break;
+        default:
+          _objectResults[i] = new Object[_capacity];
+          break;
+      }
+    }
+    _hashTable = new int[_capacity << 1];
+    Arrays.fill(_hashTable, EMPTY_SLOT);
+    _hashMask = _hashTable.length - 1;
+  }
+
+  /**
+   * Returns whether the columnar indexed table can be used for the given data schema, i.e. all the group-by columns are
+   * fixed-width (INT, LONG, FLOAT, DOUBLE).
+   */
+  public static boolean isSupported(DataSchema dataSchema, int numKeyColumns) {
+    for (int i = 0; i < numKeyColumns; i++) {
+      switch (dataSchema.getColumnDataType(i)) {
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the merge type of the aggregation function, where the primitive merge types are only used when the
+   * intermediate result has the expected type.
+   */
+  private MergeType getMergeType(int aggregationIndex, ColumnDataType resultType) {
+    switch (_aggregationFunctions[aggregationIndex].getType()) {
+      case SUM:
+      case SUMMV:
+        return resultType == ColumnDataType.DOUBLE ? MergeType.SUM : MergeType.OBJECT;
+      case MIN:
+      case MINMV:
+        return resultType == ColumnDataType.DOUBLE ? MergeType.MIN : MergeType.OBJECT;
+      case MAX:
+      case MAXMV:
+        return resultType == ColumnDataType.DOUBLE ? MergeType.MAX : MergeType.OBJECT;
+      case COUNT:
+      case COUNTMV:
+        return resultType == ColumnDataType.LONG ? MergeType.COUNT : MergeType.OBJECT;
+      default:
+        return MergeType.OBJECT;
+    }
+  }
+
+  /**
+   * Returns the group id for the given encoded keys, or {@link #INVALID_GROUP_ID} if the group does not exist and no
+   * more new groups are accepted. Creates a new group (and trims the table if reaching the trim threshold) if the group
+   * does not exist. The group id is valid until the next call of this method.
+   */
+  public int getGroupId(long[] encodedKeys) {
+    int slot = getSlot(encodedKeys);
+    int groupId = _hashTable[slot];
+    if (groupId != EMPTY_SLOT) {
+      return groupId;
+    }
+    if (_noMoreNewRecords) {
+      return INVALID_GROUP_ID;
+    }
+    if (_numGroups >= _trimThreshold) {
+      if (_hasOrderBy) {
+        // reached capacity, resize
+        resize(_trimSize);
+        slot = getSlot(encodedKeys);
+      } else {
+        // reached capacity and no order by. No more new records will be accepted
+        _noMoreNewRecords = true;
+        return INVALID_GROUP_ID;
+      }
+    }
+    if (_numGroups == _capacity) {
+      expand();
+      slot = getSlot(encodedKeys);
+    }
+    groupId = _numGroups++;
+    System.arraycopy(encodedKeys, 0, _keys, groupId * _numKeyColumns, _numKeyColumns);
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      switch (_mergeTypes[i]) {
+        case SUM:
+          _doubleResults[i][groupId] = 0;
+          break;
+        case MIN:
+          _doubleResults[i][groupId] = Double.POSITIVE_INFINITY;
+          break;
+        case MAX:
+          _doubleResults[i][groupId] = Double.NEGATIVE_INFINITY;
+          break;
+        case COUNT:
+          _longResults[i][groupId] = 0;
+          break;
+        default:
+          _objectResults[i][groupId] = null;
+          break;
+      }
+    }
+    _hashTable[slot] = groupId;
+    return groupId;
+  }
+
+  /**
+   * Returns the slot of the hash table for the encoded keys, which either contains the group id of the keys or is
+   * empty.
+   */
+  private int getSlot(long[] encodedKeys) {
+    int slot = hash(encodedKeys) & _hashMask;
+    while (true) {
+      int groupId = _hashTable[slot];
+      if (groupId == EMPTY_SLOT || keysEqual(groupId, encodedKeys)) {
+        return slot;
+      }
+      slot = (slot + 1) & _hashMask;
+    }
+  }
+
+  private boolean keysEqual(int groupId, long[] encodedKeys) {
+    int offset = groupId * _numKeyColumns;
+    for (int i = 0; i < _numKeyColumns; i++) {
+      if (_keys[offset + i] != encodedKeys[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int hash(long[] encodedKeys) {
+    long hash = 1;
+    for (long encodedKey : encodedKeys) {
+      hash = 31 * hash + encodedKey;
+    }
+    // Mix the bits so that the low bits used for the slot depend on all the bits
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return (int) hash;
+  }
+
+  /**
+   * Doubles the capacity of the arrays and rehashes the groups.
+   */
+  private void expand() {
+    _capacity <<= 1;
+    _keys = Arrays.copyOf(_keys, _capacity * _numKeyColumns);
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      switch (_mergeTypes[i]) {
+        case SUM:
+        case MIN:
+        case MAX:
+          _doubleResults[i] = Arrays.copyOf(_doubleResults[i], _capacity);
+          break;
+        case COUNT:
+          _longResults[i] = Arrays.copyOf(_longResults[i], _capacity);
+          break;
+        default:
+          _objectResults[i] = Arrays.copyOf(_objectResults[i], _capacity);
+          break;
+      }
+    }
+    _hashTable = new int[_capacity << 1];
+    Arrays.fill(_hashTable, EMPTY_SLOT);
+    _hashMask = _hashTable.length - 1;
+    long[] encodedKeys = new long[_numKeyColumns];
+    for (int groupId = 0; groupId < _numGroups; groupId++) {
+      System.arraycopy(_keys, groupId * _numKeyColumns, encodedKeys, 0, _numKeyColumns);
+      int slot = hash(encodedKeys) & _hashMask;
+      while (_hashTable[slot] != EMPTY_SLOT) {
+        slot = (slot + 1) & _hashMask;
+      }
+      _hashTable[slot] = groupId;
+    }
+  }
+
+  private void mergeDouble(int aggregationIndex, int groupId, double value) {
+    double[] results = _doubleResults[aggregationIndex];
+    switch (_mergeTypes[aggregationIndex]) {
+      case SUM:
+        results[groupId] += value;
+        break;
+      case MIN:
+        if (value < results[groupId]) {
+          results[groupId] = value;
+        }
+        break;
+      case MAX:
+        if (value > results[groupId]) {
+          results[groupId] = value;
+        }
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private void mergeLong(int aggregationIndex, int groupId, long value) {
+    _longResults[aggregationIndex][groupId] += value;
+  }
+
+  private void mergeObject(int aggregationIndex, int groupId, Object value) {
+    Object[] results = _objectResults[aggregationIndex];
+    Object existingValue = results[groupId];
+    results[groupId] =
+        existingValue == null ? value : _aggregationFunctions[aggregationIndex].merge(existingValue, value);
+  }
+
+  /**
+   * Merges the value of the given aggregation into the group.
+   */
+  private void merge(int aggregationIndex, int groupId, Object value) {
+    switch (_mergeTypes[aggregationIndex]) {
+      case SUM:
+      case MIN:
+      case MAX:
+        mergeDouble(aggregationIndex, groupId, ((Number) value).doubleValue());
+        break;
+      case COUNT:
+        mergeLong(aggregationIndex, groupId, ((Number) value).longValue());
+        break;
+      default:
+        mergeObject(aggregationIndex, groupId, value);
+        break;
+    }
+  }
+
+  /**
+   * Non thread safe implementation of upsert to insert {@link Record} into the {@link Table}
+   * <p>NOTE: The key values are read from the front of the record, and the key is not used.
+   */
+  @Override
+  public boolean upsert(Key key, Record record) {
+    Preconditions.checkNotNull(key, "Cannot upsert record with null keys");
+    upsert(record);
+    return true;
+  }
+
+  @Override
+  public boolean upsert(Record record) {
+    Object[] values = record.getValues();
+    long[] encodedKeys = _keyBuffer;
+    for (int i = 0; i < _numKeyColumns; i++) {
+      encodedKeys[i] = encodeKey(_keyTypes[i], values[i]);
+    }
+    int groupId = getGroupId(encodedKeys);
+    if (groupId != INVALID_GROUP_ID) {
+      for (int i = 0; i < _numAggregationFunctions; i++) {
+        merge(i, groupId, values[_numKeyColumns + i]);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Upserts the row of the given data table, where the data table has the same data schema as the table.
+   */
+  public void upsert(DataTable dataTable, int rowId) {
+    long[] encodedKeys = _keyBuffer;
+    for (int i = 0; i < _numKeyColumns; i++) {
+      switch (_keyTypes[i]) {
+        case INT:
+          encodedKeys[i] = dataTable.getInt(rowId, i);
+          break;
+        case LONG:
+          encodedKeys[i] = dataTable.getLong(rowId, i);
+          break;
+        case FLOAT:
+          encodedKeys[i] = Float.floatToIntBits(dataTable.getFloat(rowId, i));
+          break;
+        case DOUBLE:
+          encodedKeys[i] = Double.doubleToLongBits(dataTable.getDouble(rowId, i));
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+    int groupId = getGroupId(encodedKeys);
+    if (groupId == INVALID_GROUP_ID) {
+      return;
+    }
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      int colId = _numKeyColumns + i;
+      switch (_mergeTypes[i]) {
+        case SUM:
+        case MIN:
+        case MAX:
+          mergeDouble(i, groupId, dataTable.getDouble(rowId, colId));
+          break;
+        case COUNT:
+          mergeLong(i, groupId, dataTable.getLong(rowId, colId));
+          break;
+        default:
+          mergeObject(i, groupId, getValue(dataTable, rowId, colId, _resultTypes[i]));
+          break;
+      }
+    }
+  }
+
+  private static Object getValue(DataTable dataTable, int rowId, int colId, ColumnDataType columnDataType) {
+    switch (columnDataType) {
+      case INT:
+        return dataTable.getInt(rowId, colId);
+      case LONG:
+        return dataTable.getLong(rowId, colId);
+      case FLOAT:
+        return dataTable.getFloat(rowId, colId);
+      case DOUBLE:
+        return dataTable.getDouble(rowId, colId);
+      case STRING:
+        return dataTable.getString(rowId, colId);
+      case BYTES:
+        return dataTable.getBytes(rowId, colId);
+      case OBJECT:
+        return dataTable.getObject(rowId, colId);
+      // Add other aggregation intermediate result types here
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * Upserts the group of the given segment level group-by result, where the group-by result has the same aggregation
+   * functions as the table.
+   */
+  public void upsert(GroupKeyGenerator.GroupKey groupKey, AggregationGroupByResult aggregationGroupByResult) {
+    long[] encodedKeys = _keyBuffer;
+    if (_numKeyColumns == 1) {
+      encodedKeys[0] = encodeKey(_keyTypes[0], groupKey._stringKey);
+    } else {
+      String[] stringKeys = groupKey.getKeys();
+      for (int i = 0; i < _numKeyColumns; i++) {
+        encodedKeys[i] = encodeKey(_keyTypes[i], stringKeys[i]);
+      }
+    }
+    int groupId = getGroupId(encodedKeys);
+    if (groupId == INVALID_GROUP_ID) {
+      return;
+    }
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      switch (_mergeTypes[i]) {
+        case SUM:
+        case MIN:
+        case MAX:
+          mergeDouble(i, groupId, aggregationGroupByResult.getDoubleResultForKey(groupKey, i));
+          break;
+        case COUNT:
+          mergeLong(i, groupId, (long) aggregationGroupByResult.getDoubleResultForKey(groupKey, i));
+          break;
+        default:
+          mergeObject(i, groupId, aggregationGroupByResult.getResultForKey(groupKey, i));
+          break;
+      }
+    }
+  }
+
+  @Override
+  public boolean merge(Table table) {
+    if (!(table instanceof ColumnarIndexedTable)) {
+      return super.merge(table);
+    }
+    ColumnarIndexedTable columnarTable = (ColumnarIndexedTable) table;
+    if (columnarTable._records != null) {
+      // Already finished
+      return super.merge(table);
+    }
+    long[] encodedKeys = _keyBuffer;
+    int numGroups = columnarTable._numGroups;
+    for (int groupIdToMerge = 0; groupIdToMerge < numGroups; groupIdToMerge++) {
+      System.arraycopy(columnarTable._keys, groupIdToMerge * _numKeyColumns, encodedKeys, 0, _numKeyColumns);
+      int groupId = getGroupId(encodedKeys);
+      if (groupId == INVALID_GROUP_ID) {
+        continue;
+      }
+      for (int i = 0; i < _numAggregationFunctions; i++) {
+        switch (_mergeTypes[i]) {
+          case SUM:
+          case MIN:
+          case MAX:
+            mergeDouble(i, groupId, columnarTable._doubleResults[i][groupIdToMerge]);
+            break;
+          case COUNT:
+            mergeLong(i, groupId, columnarTable._longResults[i][groupIdToMerge]);
+            break;
+          default:
+            Object value = columnarTable._objectResults[i][groupIdToMerge];
+            if (value != null) {
+              mergeObject(i, groupId, value);
+            }
+            break;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static long encodeKey(ColumnDataType keyType, Object value) {
+    switch (keyType) {
+      case INT:
+        return ((Number) value).intValue();
+      case LONG:
+        return ((Number) value).longValue();
+      case FLOAT:
+        return Float.floatToIntBits(((Number) value).floatValue());
+      case DOUBLE:
+        return Double.doubleToLongBits(((Number) value).doubleValue());
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private static long encodeKey(ColumnDataType keyType, String value) {
+    switch (keyType) {
+      case INT:
+        return Integer.parseInt(value);
+      case LONG:
+        return Long.parseLong(value);
+      case FLOAT:
+        return Float.floatToIntBits(Float.parseFloat(value));
+      case DOUBLE:
+        return Double.doubleToLongBits(Double.parseDouble(value));
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private static Object decodeKey(ColumnDataType keyType, long encodedKey) {
+    switch (keyType) {
+      case INT:
+        return (int) encodedKey;
+      case LONG:
+        return encodedKey;
+      case FLOAT:
+        return Float.intBitsToFloat((int) encodedKey);
+      case DOUBLE:
+        return Double.longBitsToDouble(encodedKey);
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private Record getRecord(int groupId) {
+    Object[] values = new Object[_numColumns];
+    int keyOffset = groupId * _numKeyColumns;
+    for (int i = 0; i < _numKeyColumns; i++) {
+      values[i] = decodeKey(_keyTypes[i], _keys[keyOffset + i]);
+    }
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      switch (_mergeTypes[i]) {
+        case SUM:
+        case MIN:
+        case MAX:
+          values[_numKeyColumns + i] = _doubleResults[i][groupId];
+          break;
+        case COUNT:
+          values[_numKeyColumns + i] = _longResults[i][groupId];
+          break;
+        default:
+          values[_numKeyColumns + i] = _objectResults[i][groupId];
+          break;
+      }
+    }
+    return new Record(values);
+  }
+
+  /**
+   * Materializes the groups into a map from the key to the record.
+   */
+  private Map<Key, Record> getRecordsMap() {
+    Map<Key, Record> recordsMap = new HashMap<>(HashUtil.getHashMapCapacity(_numGroups));
+    for (int groupId = 0; groupId < _numGroups; groupId++) {
+      Record record = getRecord(groupId);
+      recordsMap.put(new Key(Arrays.copyOf(record.getValues(), _numKeyColumns)), record);
+    }
+    return recordsMap;
+  }
+
+  /**
+   * Trims the table to the given size by materializing the groups into records, and rebuilding the table with the
+   * retained records.
+   */
+  private void resize(int trimToSize) {
+    long startTime = System.currentTimeMillis();
+    Collection<Record> retainedRecords = _tableResizer.resizeRecordsMap(getRecordsMap(), trimToSize).values();
+    _numGroups = 0;
+    Arrays.fill(_hashTable, EMPTY_SLOT);
+    // NOTE: Use a separate buffer because this method can be invoked while the key buffer is in use
+    long[] encodedKeys = new long[_numKeyColumns];
+    for (Record record : retainedRecords) {
+      Object[] values = record.getValues();
+      for (int i = 0; i < _numKeyColumns; i++) {
+        encodedKeys[i] = encodeKey(_keyTypes[i], values[i]);
+      }
+      int groupId = getGroupId(encodedKeys);
+      for (int i = 0; i < _numAggregationFunctions; i++) {
+        merge(i, groupId, values[_numKeyColumns + i]);
+      }
+    }
+    long endTime = System.currentTimeMillis();
+    long timeElapsed = endTime - startTime;
+    _numResizes++;
+    _resizeTimeMs += timeElapsed;
+  }
+
+  @Override
+  public int size() {
+    if (_sortedRecords != null) {
+      return _sortedRecords.size();
+    }
+    return _records != null ? _records.size() : _numGroups;
+  }
+
+  @Override
+  public Iterator<Record> iterator() {
+    return _iterator;
+  }
+
+  @Override
+  public void finish(boolean sort) {
+    if (_hasOrderBy) {
+      long startTime = System.currentTimeMillis();
+      Map<Key, Record> recordsMap = getRecordsMap();
+      if (sort) {
+        _sortedRecords = _tableResizer.sortRecordsMap(recordsMap, _trimSize);
+        _records = _sortedRecords;
+      } else {
+        _records = _tableResizer.resizeRecordsMap(recordsMap, _trimSize).values();
+      }
+      long endTime = System.currentTimeMillis();
+      _numResizes++;
+      _resizeTimeMs += endTime - startTime;
+      LOGGER.debug(
+          "Num resizes : {}, Total time spent in resizing : {}, Avg resize time : {}, trimSize: {}, trimThreshold: {}",
+          _numResizes, _resizeTimeMs, _resizeTimeMs / _numResizes, _trimSize, _trimThreshold);
+    } else {
+      List<Record> records = new ArrayList<>(_numGroups);
+      for (int groupId = 0; groupId < _numGroups; groupId++) {
+        records.add(getRecord(groupId));
+      }
+      _records = records;
+    }
+    _iterator = _records.iterator();
+  }
+
+  @Override
+  public int getNumResizes() {
+    return _numResizes;
+  }
+
+  @Override
+  public long getResizeTimeMs() {
+    return _resizeTimeMs;
+  }
+}
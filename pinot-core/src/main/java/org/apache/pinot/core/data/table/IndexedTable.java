@@ -84,6 +84,16 @@ public abstract class IndexedTable extends BaseTable {
     return upsert(new Key(keyValues), record);
   }
 
+  /**
+   * Upserts a batch of records with the given keys (one key per record).
+   */
+  public void upsert(List<Key> keys, List<Record> records) {
+    int numRecords = keys.size();
+    for (int i = 0; i < numRecords; i++) {
+      upsert(keys.get(i), records.get(i));
+    }
+  }
+
   public abstract int getNumResizes();
 
   public abstract long getResizeTimeMs();
@@ -0,0 +1,345 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import com.google.common.base.Preconditions;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Thread safe {@link Table} implementation for aggregating Records based on combination of keys, where the records are
+ * hash partitioned on the keys. Each partition is a separate map guarded by its own lock and trimmed independently, so
+ * that a trim only blocks the threads merging into the same partition instead of all the threads (as in
+ * {@link ConcurrentIndexedTable}).
+ * <p>Use {@link #upsert(List, List)} to merge a batch of records, where each partition is locked only once for all the
+ * records of the batch, and the partitions being merged by other threads are skipped and merged after the free ones.
+ */
+@ThreadSafe
+public class PartitionedIndexedTable extends IndexedTable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedIndexedTable.class);
+
+  private final Partition[] _partitions;
+  private final int _partitionMask;
+  // The size with added buffer for each partition, which is trimmed to the trim size when reaching the threshold
+  private final int _partitionTrimThreshold;
+  // Number of records across all partitions, only tracked without order by to stop accepting new records
+  private final AtomicInteger _numRecords = new AtomicInteger();
+  private final AtomicInteger _numResizes = new AtomicInteger();
+  private final AtomicLong _resizeTimeMs = new AtomicLong();
+
+  private volatile boolean _noMoreNewRecords;
+  private Map<Key, Record> _lookupMap;
+  private Iterator<Record> _iterator;
+
+  /**
+   * Constructor for the partitioned indexed table. The number of partitions is rounded up to a power of 2, and capped
+   * by {@link #getMaxNumPartitions(int, int)} for queries with order by.
+   */
+  public PartitionedIndexedTable(DataSchema dataSchema, QueryContext queryContext, int trimSize, int trimThreshold,
+      int numPartitions) {
+    super(dataSchema, queryContext, trimSize, trimThreshold);
+    Preconditions.checkArgument(numPartitions > 0, "Number of partitions must be positive, got: %s", numPartitions);
+    int numPartitionsPowerOf2 = Integer.highestOneBit(numPartitions);
+    if (numPartitionsPowerOf2 < numPartitions) {
+      numPartitionsPowerOf2 <<= 1;
+    }
+    if (_hasOrderBy) {
+      numPartitionsPowerOf2 = Math.min(numPartitionsPowerOf2, getMaxNumPartitions(_trimSize, _trimThreshold));
+    }
+    _partitions = new Partition[numPartitionsPowerOf2];
+    for (int i = 0; i < numPartitionsPowerOf2; i++) {
+      _partitions[i] = new Partition();
+    }
+    _partitionMask = numPartitionsPowerOf2 - 1;
+    // NOTE: The number of partitions is capped so that the partition trim threshold is at least twice the trim size
+    _partitionTrimThreshold = _trimThreshold / numPartitionsPowerOf2;
+  }
+
+  /**
+   * Returns the max number of partitions (power of 2) for the given trim size and trim threshold with order by.
+   * <p>Each partition has to keep at least trim size records because all the top records might be in the same
+   * partition, and keeps at least twice the trim size to avoid trimming too frequently. The number of partitions is
+   * capped so that the total size of all the partitions does not exceed the trim threshold, where a single partition
+   * (max number of partitions of 1) is equivalent to a non-partitioned table.
+   */
+  public static int getMaxNumPartitions(int trimSize, int trimThreshold) {
+    // NOTE: Same as IndexedTable, trim size is bound by trim threshold / 2
+    long minPartitionTrimThreshold = 2L * Math.max(Math.min(trimSize, trimThreshold / 2), 1);
+    return Integer.highestOneBit((int) Math.max(trimThreshold / minPartitionTrimThreshold, 1));
+  }
+
+  /**
+   * Thread safe implementation of upsert for inserting {@link Record} into {@link Table}
+   */
+  @Override
+  public boolean upsert(Key key, Record newRecord) {
+    Preconditions.checkNotNull(key, "Cannot upsert record with null keys");
+    Partition partition = _partitions[getPartitionId(key)];
+    partition._lock.lock();
+    try {
+      upsert(partition, key, newRecord);
+    } finally {
+      partition._lock.unlock();
+    }
+    return true;
+  }
+
+  /**
+   * Merges a batch of records with the given keys. Records are grouped by partition, and each partition is locked once
+   * to merge all the records of the batch falling into it.
+   */
+  @Override
+  public void upsert(List<Key> keys, List<Record> records) {
+    int numRecords = keys.size();
+    if (numRecords == 0) {
+      return;
+    }
+    int numPartitions = _partitions.length;
+
+    // Sort the record indexes by partition
+    int[] partitionIds = new int[numRecords];
+    int[] partitionEnds = new int[numPartitions];
+    for (int i = 0; i < numRecords; i++) {
+      int partitionId = getPartitionId(keys.get(i));
+      partitionIds[i] = partitionId;
+      partitionEnds[partitionId]++;
+    }
+    int[] pendingPartitionIds = new int[numPartitions];
+    int numPendingPartitions = 0;
+    int[] partitionStarts = new int[numPartitions];
+    int numRecordsInPreviousPartitions = 0;
+    for (int i = 0; i < numPartitions; i++) {
+      int numRecordsInPartition = partitionEnds[i];
+      if (numRecordsInPartition > 0) {
+        pendingPartitionIds[numPendingPartitions++] = i;
+      }
+      partitionStarts[i] = numRecordsInPreviousPartitions;
+      numRecordsInPreviousPartitions += numRecordsInPartition;
+      partitionEnds[i] = partitionStarts[i];
+    }
+    int[] sortedRecordIndexes = new int[numRecords];
+    for (int i = 0; i < numRecords; i++) {
+      sortedRecordIndexes[partitionEnds[partitionIds[i]]++] = i;
+    }
+
+    // Merge the free partitions first, and only block on a partition when all the pending partitions are being merged
+    // by other threads
+    while (numPendingPartitions > 0) {
+      int numRemainingPartitions = 0;
+      for (int i = 0; i < numPendingPartitions; i++) {
+        int partitionId = pendingPartitionIds[i];
+        Partition partition = _partitions[partitionId];
+        if (partition._lock.tryLock()) {
+          try {
+            upsert(partition, keys, records, sortedRecordIndexes, partitionStarts[partitionId],
+                partitionEnds[partitionId]);
+          } finally {
+            partition._lock.unlock();
+          }
+        } else {
+          pendingPartitionIds[numRemainingPartitions++] = partitionId;
+        }
+      }
+      if (numRemainingPartitions == numPendingPartitions) {
+        int partitionId = pendingPartitionIds[--numRemainingPartitions];
+        Partition partition = _partitions[partitionId];
+        partition._lock.lock();
+        try {
+          upsert(partition, keys, records, sortedRecordIndexes, partitionStarts[partitionId],
+              partitionEnds[partitionId]);
+        } finally {
+          partition._lock.unlock();
+        }
+      }
+      numPendingPartitions = numRemainingPartitions;
+    }
+  }
+
+  private int getPartitionId(Key key) {
+    int hashCode = key.hashCode();
+    return (hashCode ^ (hashCode >>> 16)) & _partitionMask;
+  }
+
+  /**
+   * Merges the records of the given indexes into the partition. Should be called while holding the partition lock.
+   */
+  private void upsert(Partition partition, List<Key> keys, List<Record> records, int[] sortedRecordIndexes,
+      int startIndex, int endIndex) {
+    for (int i = startIndex; i < endIndex; i++) {
+      int recordIndex = sortedRecordIndexes[i];
+      upsert(partition, keys.get(recordIndex), records.get(recordIndex));
+    }
+  }
+
+  /**
+   * Merges the record into the partition. Should be called while holding the partition lock.
+   */
+  private void upsert(Partition partition, Key key, Record newRecord) {
+    if (_noMoreNewRecords) { // allow only existing record updates
+      Record existingRecord = partition._recordsMap.get(key);
+      if (existingRecord != null) {
+        mergeValues(existingRecord, newRecord);
+      }
+    } else { // allow all records
+      Record existingRecord = partition._recordsMap.putIfAbsent(key, newRecord);
+      if (existingRecord != null) {
+        mergeValues(existingRecord, newRecord);
+      } else if (_hasOrderBy) {
+        // reached partition capacity, resize the partition
+        if (partition._recordsMap.size() >= _partitionTrimThreshold) {
+          resize(partition);
+        }
+      } else {
+        // reached capacity and no order by. No more new records will be accepted
+        if (_numRecords.incrementAndGet() >= _trimThreshold) {
+          _noMoreNewRecords = true;
+        }
+      }
+    }
+  }
+
+  private void mergeValues(Record existingRecord, Record newRecord) {
+    Object[] existingValues = existingRecord.getValues();
+    Object[] newValues = newRecord.getValues();
+    int aggNum = 0;
+    for (int i = _numKeyColumns; i < _numColumns; i++) {
+      existingValues[i] = _aggregationFunctions[aggNum++].merge(existingValues[i], newValues[i]);
+    }
+  }
+
+  private void resize(Partition partition) {
+    long startTime = System.currentTimeMillis();
+    partition._recordsMap = _tableResizer.resizeRecordsMap(partition._recordsMap, _trimSize);
+    long endTime = System.currentTimeMillis();
+    long timeElapsed = endTime - startTime;
+    _numResizes.incrementAndGet();
+    _resizeTimeMs.addAndGet(timeElapsed);
+  }
+
+  private void resize(int trimToSize) {
+    long startTime = System.currentTimeMillis();
+    _lookupMap = _tableResizer.resizeRecordsMap(_lookupMap, trimToSize);
+    long endTime = System.currentTimeMillis();
+    long timeElapsed = endTime - startTime;
+    _numResizes.incrementAndGet();
+    _resizeTimeMs.addAndGet(timeElapsed);
+  }
+
+  private List<Record> resizeAndSort(int trimToSize) {
+    long startTime = System.currentTimeMillis();
+    List<Record> sortedRecords = _tableResizer.sortRecordsMap(_lookupMap, trimToSize);
+    long endTime = System.currentTimeMillis();
+    long timeElapsed = endTime - startTime;
+    _numResizes.incrementAndGet();
+    _resizeTimeMs.addAndGet(timeElapsed);
+    return sortedRecords;
+  }
+
+  @Override
+  public int size() {
+    if (_sortedRecords != null) {
+      return _sortedRecords.size();
+    }
+    if (_lookupMap != null) {
+      return _lookupMap.size();
+    }
+    int size = 0;
+    for (Partition partition : _partitions) {
+      partition._lock.lock();
+      try {
+        size += partition._recordsMap.size();
+      } finally {
+        partition._lock.unlock();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public Iterator<Record> iterator() {
+    return _iterator;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Should be called after all the records are merged. The partitions are combined into a single map (keys are
+   * disjoint across partitions) before the final trim and sort.
+   */
+  @Override
+  public void finish(boolean sort) {
+    if (_partitions.length == 1) {
+      _lookupMap = _partitions[0]._recordsMap;
+    } else {
+      int numRecords = 0;
+      for (Partition partition : _partitions) {
+        numRecords += partition._recordsMap.size();
+      }
+      _lookupMap = new HashMap<>(HashUtil.getHashMapCapacity(numRecords));
+      for (Partition partition : _partitions) {
+        _lookupMap.putAll(partition._recordsMap);
+        partition._recordsMap = null;
+      }
+    }
+    if (_hasOrderBy) {
+      if (sort) {
+        _sortedRecords = resizeAndSort(_trimSize);
+        _iterator = _sortedRecords.iterator();
+      } else {
+        resize(_trimSize);
+      }
+      int numResizes = _numResizes.get();
+      long resizeTime = _resizeTimeMs.get();
+      LOGGER.debug(
+          "Num partitions: {}, num resizes : {}, Total time spent in resizing : {}, Avg resize time : {}, trimSize: {}, "
+              + "trimThreshold: {}, partitionTrimThreshold: {}", _partitions.length, numResizes, resizeTime,
+          numResizes == 0 ? 0 : resizeTime / numResizes, _trimSize, _trimThreshold, _partitionTrimThreshold);
+    }
+    if (_iterator == null) {
+      _iterator = _lookupMap.values().iterator();
+    }
+  }
+
+  @Override
+  public int getNumResizes() {
+    return _numResizes.get();
+  }
+
+  @Override
+  public long getResizeTimeMs() {
+    return _resizeTimeMs.get();
+  }
+
+  private static class Partition {
+    final ReentrantLock _lock = new ReentrantLock();
+    Map<Key, Record> _recordsMap = new HashMap<>();
+  }
+}
@@ -34,6 +34,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.segment.creator.impl.geo.GeoIndexUtils;
 import org.apache.pinot.core.segment.name.FixedSegmentNameGenerator;
 import org.apache.pinot.core.segment.name.SegmentNameGenerator;
 import org.apache.pinot.core.segment.name.SimpleSegmentNameGenerator;
@@ -70,6 +71,8 @@ public class SegmentGeneratorConfig {
   private Map<String, ChunkCompressorFactory.CompressionType> _rawIndexCompressionType = new HashMap<>();
   private List<String> _invertedIndexCreationColumns = new ArrayList<>();
   private List<String> _textIndexCreationColumns = new ArrayList<>();
+  private List<String> _jsonIndexCreationColumns = new ArrayList<>();
+  private Map<String, Integer> _geoIndexCreationResolutions = new HashMap<>();
   private List<String> _columnSortOrder = new ArrayList<>();
   private List<String> _varLengthDictionaryColumns = new ArrayList<>();
   private String _inputFilePath = null;
@@ -154,6 +157,9 @@ public class SegmentGeneratorConfig {
       if (indexingConfig.getVarLengthDictionaryColumns() != null) {
         setVarLengthDictionaryColumns(indexingConfig.getVarLengthDictionaryColumns());
       }
+      if (indexingConfig.getJsonIndexColumns() != null) {
+        setJsonIndexCreationColumns(indexingConfig.getJsonIndexColumns());
+      }
       _segmentPartitionConfig = indexingConfig.getSegmentPartitionConfig();
 
       // Star-tree configs
@@ -174,6 +180,14 @@ public class SegmentGeneratorConfig {
       if (fieldConfigList != null) {
         for (FieldConfig fieldConfig : fieldConfigList) {
           _columnProperties.put(fieldConfig.getName(), fieldConfig.getProperties());
+          // Compression codec configured in the field config takes precedence over the one in the no-dictionary config
+          // NOTE: Only apply it to raw columns, because columns with compression type configured are treated as raw
+          FieldConfig.CompressionCodec compressionCodec = fieldConfig.getCompressionCodec();
+          if (compressionCodec != null && (fieldConfig.getEncodingType() == FieldConfig.EncodingType.RAW
+              || _rawIndexCreationColumns.contains(fieldConfig.getName()))) {
+            _rawIndexCompressionType.put(fieldConfig.getName(),
+                ChunkCompressorFactory.CompressionType.valueOf(compressionCodec.name()));
+          }
         }
       }
 
@@ -220,6 +234,9 @@ public class SegmentGeneratorConfig {
         if (fieldConfig.getIndexType() == FieldConfig.IndexType.TEXT) {
           _textIndexCreationColumns.add(fieldConfig.getName());
         }
+        if (fieldConfig.getIndexType() == FieldConfig.IndexType.GEO) {
+          _geoIndexCreationResolutions.put(fieldConfig.getName(), GeoIndexUtils.getResolution(fieldConfig));
+        }
       }
     }
   }
@@ -273,6 +290,17 @@ public class SegmentGeneratorConfig {
     return _textIndexCreationColumns;
   }
 
+  public List<String> getJsonIndexCreationColumns() {
+    return _jsonIndexCreationColumns;
+  }
+
+  /**
+   * Returns a map from the geo index columns to the resolution of the geo index.
+   */
+  public Map<String, Integer> getGeoIndexCreationResolutions() {
+    return _geoIndexCreationResolutions;
+  }
+
   public List<String> getColumnSortOrder() {
     return _columnSortOrder;
   }
@@ -300,6 +328,16 @@ public class SegmentGeneratorConfig {
     }
   }
 
+  public void setJsonIndexCreationColumns(List<String> jsonIndexCreationColumns) {
+    Preconditions.checkNotNull(jsonIndexCreationColumns);
+    _jsonIndexCreationColumns.addAll(jsonIndexCreationColumns);
+  }
+
+  public void setGeoIndexCreationResolutions(Map<String, Integer> geoIndexCreationResolutions) {
+    Preconditions.checkNotNull(geoIndexCreationResolutions);
+    _geoIndexCreationResolutions.putAll(geoIndexCreationResolutions);
+  }
+
   @VisibleForTesting
   public void setColumnProperties(Map<String, Map<String, String>> columnProperties) {
     _columnProperties = columnProperties;
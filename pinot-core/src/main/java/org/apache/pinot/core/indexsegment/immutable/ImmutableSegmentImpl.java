@@ -20,12 +20,14 @@ package org.apache.pinot.core.indexsegment.immutable;
 
 import com.google.common.base.Preconditions;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.common.DataSource;
-import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.core.data.readers.PinotSegmentColumnReader;
+import org.apache.pinot.core.realtime.impl.SnapshotMutableRoaringBitmap;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
 import org.apache.pinot.core.segment.index.datasource.ImmutableDataSource;
 import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
@@ -54,8 +56,10 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
 
   // For upsert
   private PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
-  private ThreadSafeMutableRoaringBitmap _validDocIds;
+  private SnapshotMutableRoaringBitmap _validDocIds;
   private ValidDocIndexReader _validDocIndex;
+  // Column readers to read the records (e.g. for partial upsert), created on first use
+  private Map<String, PinotSegmentColumnReader> _columnReaderMap;
 
   public ImmutableSegmentImpl(SegmentDirectory segmentDirectory, SegmentMetadataImpl segmentMetadata,
       Map<String, ColumnIndexContainer> columnIndexContainerMap,
@@ -70,7 +74,7 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
    * Enables upsert for this segment. It should be called before the segment getting queried.
    */
   public void enableUpsert(PartitionUpsertMetadataManager partitionUpsertMetadataManager,
-      ThreadSafeMutableRoaringBitmap validDocIds) {
+      SnapshotMutableRoaringBitmap validDocIds) {
     _partitionUpsertMetadataManager = partitionUpsertMetadataManager;
     _validDocIds = validDocIds;
     _validDocIndex = new ValidDocIndexReaderImpl(validDocIds);
@@ -132,6 +136,23 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
   public void destroy() {
     String segmentName = getSegmentName();
     LOGGER.info("Trying to destroy segment : {}", segmentName);
+    // Remove the upsert metadata before closing the indexes so that partial upsert no longer reads the records from
+    // this segment. Removing the upsert metadata waits for the ongoing read of the previous record (if any) to finish.
+    if (_partitionUpsertMetadataManager != null) {
+      _partitionUpsertMetadataManager.removeSegment(segmentName, _validDocIds);
+    }
+    synchronized (this) {
+      if (_columnReaderMap != null) {
+        for (PinotSegmentColumnReader columnReader : _columnReaderMap.values()) {
+          try {
+            columnReader.close();
+          } catch (IOException e) {
+            LOGGER.error("Failed to close column reader. Continuing with error.", e);
+          }
+        }
+        _columnReaderMap = null;
+      }
+    }
     for (Map.Entry<String, ColumnIndexContainer> entry : _indexContainerMap.entrySet()) {
       try {
         entry.getValue().close();
@@ -151,9 +172,6 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
         LOGGER.error("Failed to close star-tree. Continuing with error.", e);
       }
     }
-    if (_partitionUpsertMetadataManager != null) {
-      _partitionUpsertMetadataManager.removeSegment(segmentName, _validDocIds);
-    }
   }
 
   @Override
@@ -168,9 +186,26 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
   }
 
   @Override
-  public GenericRow getRecord(int docId, GenericRow reuse) {
-    // NOTE: Use PinotSegmentRecordReader to read immutable segment
-    throw new UnsupportedOperationException();
+  public synchronized GenericRow getRecord(int docId, GenericRow reuse) {
+    // NOTE: Use PinotSegmentRecordReader to scan all the records in the immutable segment
+    if (_columnReaderMap == null) {
+      Set<String> columns = getPhysicalColumnNames();
+      _columnReaderMap = new HashMap<>(columns.size());
+      for (String column : columns) {
+        _columnReaderMap.put(column, new PinotSegmentColumnReader(this, column));
+      }
+    }
+    for (Map.Entry<String, PinotSegmentColumnReader> entry : _columnReaderMap.entrySet()) {
+      String column = entry.getKey();
+      PinotSegmentColumnReader columnReader = entry.getValue();
+      Object value = columnReader.getValue(docId);
+      if (columnReader.isNull(docId)) {
+        reuse.putDefaultNullValue(column, value);
+      } else {
+        reuse.putValue(column, value);
+      }
+    }
+    return reuse;
   }
 
   public Map<String, ColumnIndexContainer> getIndexContainerMap() {
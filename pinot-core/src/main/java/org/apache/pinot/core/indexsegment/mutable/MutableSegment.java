@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.indexsegment.mutable;
 
+import java.util.List;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager;
@@ -37,6 +38,44 @@ public interface MutableSegment extends IndexSegment {
    */
   boolean index(GenericRow row, @Nullable RowMetadata rowMetadata);
 
+  /**
+   * Indexes a batch of records into the segment with optionally provided metadata (of the last record in the batch).
+   * The records are indexed in order, and become queryable no later than this method returns.
+   * <p>If any record of the batch is invalid, none of the records is indexed and the exception is thrown as is. If the
+   * batch fails after the indexes have been modified, a {@link PartiallyIndexedBatchException} is thrown and the
+   * segment should not be used to index more records.
+   *
+   * @param rows Records represented as {@link GenericRow}s
+   * @param rowMetadata the metadata associated with the last message of the batch
+   * @return Whether the segment is full (i.e. cannot index more record into it)
+   */
+  default boolean index(List<GenericRow> rows, @Nullable RowMetadata rowMetadata) {
+    boolean canTakeMore = true;
+    int numRows = rows.size();
+    for (int i = 0; i < numRows; i++) {
+      try {
+        canTakeMore = index(rows.get(i), rowMetadata);
+      } catch (RuntimeException e) {
+        if (i == 0) {
+          throw e;
+        }
+        throw new PartiallyIndexedBatchException(
+            "Failed to index record: " + i + " after indexing the previous records of the batch", e);
+      }
+    }
+    return canTakeMore;
+  }
+
+  /**
+   * Returns {@code true} if the segment indexes a batch of records in bulk with {@link #index(List, RowMetadata)},
+   * {@code false} if the records are indexed one by one (e.g. when a record might be merged into an existing record).
+   * In the latter case, the caller should index the records with {@link #index(GenericRow, RowMetadata)} so that a bad
+   * record only fails itself instead of the whole batch.
+   */
+  default boolean isBatchIndexingSupported() {
+    return false;
+  }
+
   /**
    * Returns the number of records already indexed into the segment.
    *
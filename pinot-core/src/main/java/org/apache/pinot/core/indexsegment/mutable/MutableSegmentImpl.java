@@ -34,17 +34,20 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nullable;
+import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.common.metrics.ServerMeter;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.data.aggregator.ValueAggregatorFactory;
 import org.apache.pinot.core.data.partition.PartitionFunction;
 import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
 import org.apache.pinot.core.realtime.impl.RealtimeSegmentConfig;
 import org.apache.pinot.core.realtime.impl.RealtimeSegmentStatsHistory;
-import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.core.realtime.impl.SnapshotMutableRoaringBitmap;
 import org.apache.pinot.core.segment.index.readers.MutableDictionary;
 import org.apache.pinot.core.realtime.impl.dictionary.BaseOffHeapMutableDictionary;
 import org.apache.pinot.core.realtime.impl.dictionary.MutableDictionaryFactory;
+import org.apache.pinot.core.realtime.impl.forward.AggregatedBytesSVMutableForwardIndex;
 import org.apache.pinot.core.realtime.impl.forward.FixedByteMVMutableForwardIndex;
 import org.apache.pinot.core.realtime.impl.forward.FixedByteSVMutableForwardIndex;
 import org.apache.pinot.core.realtime.impl.forward.VarByteSVMutableForwardIndex;
@@ -52,8 +55,11 @@ import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeInvertedIndexRe
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneTextIndexReader;
+import org.apache.pinot.core.realtime.impl.geo.MutableGeoIndex;
+import org.apache.pinot.core.realtime.impl.json.MutableJsonIndex;
 import org.apache.pinot.core.realtime.impl.nullvalue.MutableNullValueVector;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.json.JsonIndexUtils;
 import org.apache.pinot.core.segment.index.datasource.ImmutableDataSource;
 import org.apache.pinot.core.segment.index.datasource.MutableDataSource;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
@@ -124,6 +130,10 @@ public class MutableSegmentImpl implements MutableSegment {
 
   private final IdMap<FixedIntArray> _recordIdMap;
   private boolean _aggregateMetrics;
+  // Aggregation type for each physical metric column when metrics aggregation is configured
+  private final Map<String, AggregationFunctionType> _metricAggregationTypes;
+  // Forward indexes of the sketch metric columns aggregated in place
+  private final List<AggregatedBytesSVMutableForwardIndex> _aggregatedBytesForwardIndexes = new ArrayList<>();
 
   private volatile int _numDocsIndexed = 0;
   private final int _numKeyColumns;
@@ -153,7 +163,7 @@ public class MutableSegmentImpl implements MutableSegment {
   // FIXME: There is a corner case for this approach which could cause inconsistency. When there is segment load during
   //        consumption with newer timestamp (late event in consuming segment), the record location will be updated, but
   //        the valid doc ids won't be updated.
-  private final ThreadSafeMutableRoaringBitmap _validDocIds;
+  private final SnapshotMutableRoaringBitmap _validDocIds;
   private final ValidDocIndexReader _validDocIndex;
 
   public MutableSegmentImpl(RealtimeSegmentConfig config, @Nullable ServerMetrics serverMetrics) {
@@ -214,12 +224,26 @@ public class MutableSegmentImpl implements MutableSegment {
 
     _numKeyColumns = _physicalDimensionFieldSpecs.size() + _physicalTimeColumnNames.size();
 
+    _metricAggregationTypes = new HashMap<>();
+    if (_aggregateMetrics) {
+      // Metrics without configured aggregator are summed
+      Map<String, String> metricsAggregators = config.getMetricsAggregators();
+      for (MetricFieldSpec metricFieldSpec : _physicalMetricFieldSpecs) {
+        String metric = metricFieldSpec.getName();
+        String aggregator = metricsAggregators.get(metric);
+        _metricAggregationTypes.put(metric, aggregator != null ? AggregationFunctionType
+            .getAggregationFunctionType(aggregator) : AggregationFunctionType.SUM);
+      }
+    }
+
     _logger =
         LoggerFactory.getLogger(MutableSegmentImpl.class.getName() + "_" + _segmentName + "_" + config.getStreamName());
 
     Set<String> noDictionaryColumns = config.getNoDictionaryColumns();
     Set<String> invertedIndexColumns = config.getInvertedIndexColumns();
     Set<String> textIndexColumns = config.getTextIndexColumns();
+    Set<String> jsonIndexColumns = config.getJsonIndexColumns();
+    Map<String, Integer> geoIndexResolutions = config.getGeoIndexResolutions();
 
     int avgNumMultiValues = config.getAvgNumMultiValues();
 
@@ -255,9 +279,16 @@ public class MutableSegmentImpl implements MutableSegment {
         dictionary = null;
         String allocationContext =
             buildAllocationContext(_segmentName, column, V1Constants.Indexes.RAW_SV_FORWARD_INDEX_FILE_EXTENSION);
+        AggregationFunctionType aggregationType = _metricAggregationTypes.get(column);
         if (isFixedWidthColumn) {
           forwardIndex =
               new FixedByteSVMutableForwardIndex(false, dataType, _capacity, _memoryManager, allocationContext);
+        } else if (isSketchAggregationType(aggregationType) && dataType == DataType.BYTES) {
+          // Sketch metrics are aggregated in place, which cannot be done with the append-only var-byte forward index
+          AggregatedBytesSVMutableForwardIndex aggregatedBytesForwardIndex = new AggregatedBytesSVMutableForwardIndex(
+              ValueAggregatorFactory.getValueAggregator(aggregationType), _capacity);
+          _aggregatedBytesForwardIndexes.add(aggregatedBytesForwardIndex);
+          forwardIndex = aggregatedBytesForwardIndex;
         } else {
           // RealtimeSegmentStatsHistory does not have the stats for no-dictionary columns from previous consuming
           // segments
@@ -322,13 +353,20 @@ public class MutableSegmentImpl implements MutableSegment {
         textIndex = null;
       }
 
+      // Json index
+      MutableJsonIndex jsonIndex = jsonIndexColumns.contains(column) ? new MutableJsonIndex() : null;
+
+      // Geo index
+      Integer geoIndexResolution = geoIndexResolutions.get(column);
+      MutableGeoIndex geoIndex = geoIndexResolution != null ? new MutableGeoIndex(geoIndexResolution) : null;
+
       // Null value vector
       MutableNullValueVector nullValueVector = _nullHandlingEnabled ? new MutableNullValueVector() : null;
 
       // TODO: Support range index and bloom filter for mutable segment
       _indexContainerMap.put(column,
           new IndexContainer(fieldSpec, partitionFunction, partitions, new NumValuesInfo(), forwardIndex, dictionary,
-              invertedIndexReader, null, textIndex, null, nullValueVector));
+              invertedIndexReader, null, textIndex, jsonIndex, geoIndex, null, nullValueVector));
     }
 
     if (_realtimeLuceneReaders != null) {
@@ -345,7 +383,7 @@ public class MutableSegmentImpl implements MutableSegment {
     _upsertMode = config.getUpsertMode();
     if (isUpsertEnabled()) {
       _partitionUpsertMetadataManager = config.getPartitionUpsertMetadataManager();
-      _validDocIds = new ThreadSafeMutableRoaringBitmap();
+      _validDocIds = new SnapshotMutableRoaringBitmap();
       _validDocIndex = new ValidDocIndexReaderImpl(_validDocIds);
     } else {
       _partitionUpsertMetadataManager = null;
@@ -441,6 +479,15 @@ public class MutableSegmentImpl implements MutableSegment {
   @SuppressWarnings("NonAtomicOperationOnVolatileField")
   @Override
   public boolean index(GenericRow row, @Nullable RowMetadata rowMetadata) {
+    RecordInfo recordInfo = null;
+    if (isUpsertEnabled()) {
+      // NOTE: Metrics aggregation cannot be used with upsert, so the new row always gets the next doc id
+      recordInfo = getRecordInfo(row, _numDocsIndexed);
+      if (_partitionUpsertMetadataManager.isPartialUpsertEnabled()) {
+        row = _partitionUpsertMetadataManager.mergeWithPreviousRecord(recordInfo, row);
+      }
+    }
+
     // Update dictionary first
     updateDictionary(row);
 
@@ -451,12 +498,16 @@ public class MutableSegmentImpl implements MutableSegment {
     boolean canTakeMore;
     if (docId == _numDocsIndexed) {
       // New row
+      if (_aggregateMetrics) {
+        initializeCountMetrics(row);
+      }
       addNewRow(row);
       // Update number of documents indexed at last to make the latest row queryable
       canTakeMore = _numDocsIndexed++ < _capacity;
 
       if (isUpsertEnabled()) {
-        handleUpsert(row, docId);
+        _partitionUpsertMetadataManager.updateRecord(this, recordInfo, _validDocIds);
+        _partitionUpsertMetadataManager.publishValidDocIdsSnapshots();
       }
     } else {
       Preconditions.checkArgument(!isUpsertEnabled(), "metrics aggregation cannot be used with upsert");
@@ -474,17 +525,299 @@ public class MutableSegmentImpl implements MutableSegment {
     return canTakeMore;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>The rows are indexed column by column: dictionary ids are resolved in bulk per column, forward and inverted
+   * indexes are appended in bulk, and the number of documents indexed (i.e. the queryable documents) is advanced once
+   * for the whole batch. With metrics aggregation or partial upsert, the rows are indexed one by one as each row might
+   * be merged into an existing document or the previous record of the same primary key.
+   * <p>All the columns are prepared (values validated, dictionary ids resolved and index keys computed) before any
+   * index is modified, so that an invalid row fails the batch without leaving any partially indexed document behind.
+   */
+  // NOTE: Okay for single-writer
+  @Override
+  public boolean index(List<GenericRow> rows, @Nullable RowMetadata rowMetadata) {
+    if (!isBatchIndexingSupported()) {
+      return MutableSegment.super.index(rows, rowMetadata);
+    }
+    int numRows = rows.size();
+    if (numRows == 0) {
+      return true;
+    }
+
+    // Prepare all the columns without modifying the indexes
+    // NOTE: Adding values to the dictionary is safe because dictionary ids are not referenced before being indexed
+    List<BatchColumn> batchColumns = new ArrayList<>(_indexContainerMap.size());
+    for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
+      batchColumns.add(prepareBatchColumn(entry.getKey(), entry.getValue(), rows));
+    }
+    int startDocId = _numDocsIndexed;
+    RecordInfo[] recordInfos = null;
+    if (isUpsertEnabled()) {
+      recordInfos = new RecordInfo[numRows];
+      for (int i = 0; i < numRows; i++) {
+        recordInfos[i] = getRecordInfo(rows.get(i), startDocId + i);
+      }
+    }
+
+    // Update the indexes
+    int[] docIds = new int[numRows];
+    for (int i = 0; i < numRows; i++) {
+      docIds[i] = startDocId + i;
+    }
+    try {
+      for (BatchColumn batchColumn : batchColumns) {
+        if (batchColumn._indexContainer._fieldSpec.isSingleValueField()) {
+          addSVColumnValues(batchColumn, startDocId, docIds);
+        } else {
+          addMVColumnValues(batchColumn, startDocId);
+        }
+
+        // Update null value vector
+        if (_nullHandlingEnabled) {
+          String column = batchColumn._column;
+          for (int i = 0; i < numRows; i++) {
+            if (rows.get(i).isNullValue(column)) {
+              batchColumn._indexContainer._nullValueVector.setNull(startDocId + i);
+            }
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      throw new PartiallyIndexedBatchException("Failed to update the indexes for the batch of: " + numRows + " rows",
+          e);
+    }
+
+    // Update number of documents indexed at last to make all the rows queryable at once
+    _numDocsIndexed = startDocId + numRows;
+    boolean canTakeMore = startDocId + numRows - 1 < _capacity;
+
+    if (recordInfos != null) {
+      try {
+        for (RecordInfo recordInfo : recordInfos) {
+          _partitionUpsertMetadataManager.updateRecord(this, recordInfo, _validDocIds);
+        }
+        _partitionUpsertMetadataManager.publishValidDocIdsSnapshots();
+      } catch (RuntimeException e) {
+        throw new PartiallyIndexedBatchException("Failed to update the upsert metadata for the batch of: " + numRows
+            + " rows", e);
+      }
+    }
+
+    // Update last indexed time and latest ingestion time
+    // NOTE: Only the metadata of the last record of the batch is needed because the latest ingestion time only keeps
+    //       the max ingestion time, and the records of the batch are indexed at once (the rows of the earlier records
+    //       do not become queryable before the last one)
+    _lastIndexedTimeMs = System.currentTimeMillis();
+    if (rowMetadata != null) {
+      _latestIngestionTimeMs = Math.max(_latestIngestionTimeMs, rowMetadata.getIngestionTimeMs());
+    }
+
+    return canTakeMore;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>With metrics aggregation or partial upsert, the records are indexed one by one because each record might be
+   * merged into an existing document or the previous record of the same primary key.
+   */
+  @Override
+  public boolean isBatchIndexingSupported() {
+    return !_aggregateMetrics && !(isUpsertEnabled() && _partitionUpsertMetadataManager.isPartialUpsertEnabled());
+  }
+
+  /**
+   * Collects the values of the column for the batch, resolves the dictionary ids and computes the keys of the value
+   * based indexes. Throws exception if any value cannot be indexed, before any index of the column is modified.
+   */
+  @SuppressWarnings("unchecked")
+  private BatchColumn prepareBatchColumn(String column, IndexContainer indexContainer, List<GenericRow> rows) {
+    int numRows = rows.size();
+    Object[] values = new Object[numRows];
+    for (int i = 0; i < numRows; i++) {
+      values[i] = rows.get(i).getValue(column);
+    }
+    BatchColumn batchColumn = new BatchColumn(column, indexContainer, values);
+
+    MutableDictionary dictionary = indexContainer._dictionary;
+    FieldSpec fieldSpec = indexContainer._fieldSpec;
+    if (!fieldSpec.isSingleValueField()) {
+      // Multi-value column (always dictionary-encoded)
+      int[][] dictIdsPerRow = new int[numRows][];
+      for (int i = 0; i < numRows; i++) {
+        dictIdsPerRow[i] = dictionary.index((Object[]) values[i]);
+      }
+      batchColumn._dictIdsPerRow = dictIdsPerRow;
+      return batchColumn;
+    }
+
+    // Check partitions
+    if (column.equals(_partitionColumn)) {
+      for (Object value : values) {
+        updatePartition(column, indexContainer, value);
+      }
+    }
+
+    if (dictionary != null) {
+      // Dictionary-encoded single-value column
+      batchColumn._dictIds = dictionary.index(values);
+    } else {
+      // Single-value column with raw index
+      DataType dataType = fieldSpec.getDataType();
+      for (Object value : values) {
+        Preconditions.checkArgument(getRawValueClass(column, dataType).isInstance(value),
+            "Invalid value: %s for no-dictionary column: %s of type: %s", value, column, dataType);
+      }
+    }
+
+    // Compute the keys for text, json and geo index
+    if (indexContainer._textIndex != null) {
+      for (Object value : values) {
+        Preconditions.checkArgument(value instanceof String, "Invalid value: %s for text index column: %s", value,
+            column);
+      }
+    }
+    if (indexContainer._jsonIndex != null) {
+      List<String>[] jsonKeys = new List[numRows];
+      for (int i = 0; i < numRows; i++) {
+        jsonKeys[i] = JsonIndexUtils.flatten((String) values[i]);
+      }
+      batchColumn._jsonKeys = jsonKeys;
+    }
+    MutableGeoIndex geoIndex = indexContainer._geoIndex;
+    if (geoIndex != null) {
+      long[] geoCellIds = new long[numRows];
+      for (int i = 0; i < numRows; i++) {
+        geoCellIds[i] = geoIndex.getCellId((byte[]) values[i]);
+      }
+      batchColumn._geoCellIds = geoCellIds;
+    }
+    return batchColumn;
+  }
+
+  private static Class<?> getRawValueClass(String column, DataType dataType) {
+    switch (dataType) {
+      case INT:
+        return Integer.class;
+      case LONG:
+        return Long.class;
+      case FLOAT:
+        return Float.class;
+      case DOUBLE:
+        return Double.class;
+      case STRING:
+        return String.class;
+      case BYTES:
+        return byte[].class;
+      default:
+        throw new UnsupportedOperationException(
+            "Unsupported data type: " + dataType + " for no-dictionary column: " + column);
+    }
+  }
+
+  private void addSVColumnValues(BatchColumn batchColumn, int startDocId, int[] docIds) {
+    IndexContainer indexContainer = batchColumn._indexContainer;
+    Object[] values = batchColumn._values;
+    int numRows = values.length;
+
+    // Update numValues info
+    indexContainer._numValuesInfo.updateSVEntries(numRows);
+
+    int[] dictIds = batchColumn._dictIds;
+    if (dictIds != null) {
+      // Dictionary-encoded single-value column
+      MutableDictionary dictionary = indexContainer._dictionary;
+      indexContainer._minValue = dictionary.getMinVal();
+      indexContainer._maxValue = dictionary.getMaxVal();
+
+      // Update forward index
+      indexContainer._forwardIndex.setDictIds(startDocId, dictIds, numRows);
+
+      // Update inverted index
+      RealtimeInvertedIndexReader invertedIndex = indexContainer._invertedIndex;
+      if (invertedIndex != null) {
+        invertedIndex.add(dictIds, docIds, numRows);
+      }
+    } else {
+      // Single-value column with raw index
+      for (int i = 0; i < numRows; i++) {
+        addRawValue(batchColumn._column, indexContainer, startDocId + i, values[i]);
+      }
+    }
+
+    // Update text index
+    RealtimeLuceneTextIndexReader textIndex = indexContainer._textIndex;
+    if (textIndex != null) {
+      for (Object value : values) {
+        textIndex.add((String) value);
+      }
+    }
+
+    // Update json index
+    List<String>[] jsonKeys = batchColumn._jsonKeys;
+    if (jsonKeys != null) {
+      MutableJsonIndex jsonIndex = indexContainer._jsonIndex;
+      for (int i = 0; i < numRows; i++) {
+        jsonIndex.add(jsonKeys[i], startDocId + i);
+      }
+    }
+
+    // Update geo index
+    long[] geoCellIds = batchColumn._geoCellIds;
+    if (geoCellIds != null) {
+      MutableGeoIndex geoIndex = indexContainer._geoIndex;
+      for (int i = 0; i < numRows; i++) {
+        geoIndex.add(geoCellIds[i], startDocId + i);
+      }
+    }
+  }
+
+  private void addMVColumnValues(BatchColumn batchColumn, int startDocId) {
+    IndexContainer indexContainer = batchColumn._indexContainer;
+    int[][] dictIdsPerRow = batchColumn._dictIdsPerRow;
+    int numRows = dictIdsPerRow.length;
+    MutableDictionary dictionary = indexContainer._dictionary;
+    MutableForwardIndex forwardIndex = indexContainer._forwardIndex;
+    int numValues = 0;
+    for (int i = 0; i < numRows; i++) {
+      int[] dictIds = dictIdsPerRow[i];
+      numValues += dictIds.length;
+
+      // Update numValues info
+      indexContainer._numValuesInfo.updateMVEntry(dictIds.length);
+
+      // Update forward index
+      forwardIndex.setDictIdMV(startDocId + i, dictIds);
+    }
+    indexContainer._minValue = dictionary.getMinVal();
+    indexContainer._maxValue = dictionary.getMaxVal();
+
+    // Update inverted index
+    RealtimeInvertedIndexReader invertedIndex = indexContainer._invertedIndex;
+    if (invertedIndex != null) {
+      int[] dictIds = new int[numValues];
+      int[] docIds = new int[numValues];
+      int index = 0;
+      for (int i = 0; i < numRows; i++) {
+        for (int dictId : dictIdsPerRow[i]) {
+          dictIds[index] = dictId;
+          docIds[index++] = startDocId + i;
+        }
+      }
+      invertedIndex.add(dictIds, docIds, numValues);
+    }
+  }
+
   private boolean isUpsertEnabled() {
     return _upsertMode != UpsertConfig.Mode.NONE;
   }
 
-  private void handleUpsert(GenericRow row, int docId) {
+  private RecordInfo getRecordInfo(GenericRow row, int docId) {
     PrimaryKey primaryKey = row.getPrimaryKey(_schema.getPrimaryKeyColumns());
     Object timeValue = row.getValue(_timeColumnName);
     Preconditions.checkArgument(timeValue instanceof Comparable, "time column shall be comparable");
     long timestamp = IngestionUtils.extractTimeValue((Comparable) timeValue);
-    _partitionUpsertMetadataManager
-        .updateRecord(_segmentName, new RecordInfo(primaryKey, docId, timestamp), _validDocIds);
+    return new RecordInfo(primaryKey, docId, timestamp);
   }
 
   private void updateDictionary(GenericRow row) {
@@ -519,13 +852,7 @@ public class MutableSegmentImpl implements MutableSegment {
 
         // Check partitions
         if (column.equals(_partitionColumn)) {
-          int partition = _partitionFunction.getPartition(value);
-          if (indexContainer._partitions.add(partition)) {
-            _logger.warn("Found new partition: {} from partition column: {}, value: {}", partition, column, value);
-            if (_serverMetrics != null) {
-              _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.REALTIME_PARTITION_MISMATCH, 1);
-            }
-          }
+          updatePartition(column, indexContainer, value);
         }
 
         // Update numValues info
@@ -547,61 +874,11 @@ public class MutableSegmentImpl implements MutableSegment {
           }
         } else {
           // Single-value column with raw index
-
-          // Update forward index
-          DataType dataType = fieldSpec.getDataType();
-          switch (dataType) {
-            case INT:
-              forwardIndex.setInt(docId, (Integer) value);
-              break;
-            case LONG:
-              forwardIndex.setLong(docId, (Long) value);
-              break;
-            case FLOAT:
-              forwardIndex.setFloat(docId, (Float) value);
-              break;
-            case DOUBLE:
-              forwardIndex.setDouble(docId, (Double) value);
-              break;
-            case STRING:
-              forwardIndex.setString(docId, (String) value);
-              break;
-            case BYTES:
-              forwardIndex.setBytes(docId, (byte[]) value);
-              break;
-            default:
-              throw new UnsupportedOperationException(
-                  "Unsupported data type: " + dataType + " for no-dictionary column: " + column);
-          }
-
-          // Update min/max value from raw value
-          // NOTE: Skip updating min/max value for aggregated metrics because the value will change over time.
-          if (!_aggregateMetrics || fieldSpec.getFieldType() != FieldSpec.FieldType.METRIC) {
-            Comparable comparable;
-            if (dataType == DataType.BYTES) {
-              comparable = new ByteArray((byte[]) value);
-            } else {
-              comparable = (Comparable) value;
-            }
-            if (indexContainer._minValue == null) {
-              indexContainer._minValue = comparable;
-              indexContainer._maxValue = comparable;
-            } else {
-              if (comparable.compareTo(indexContainer._minValue) < 0) {
-                indexContainer._minValue = comparable;
-              }
-              if (comparable.compareTo(indexContainer._maxValue) > 0) {
-                indexContainer._maxValue = comparable;
-              }
-            }
-          }
+          addRawValue(column, indexContainer, docId, value);
         }
 
-        // Update text index
-        RealtimeLuceneTextIndexReader textIndex = indexContainer._textIndex;
-        if (textIndex != null) {
-          textIndex.add((String) value);
-        }
+        // Update text, json and geo index
+        updateValueBasedIndexes(indexContainer, docId, value);
       } else {
         // Multi-value column (always dictionary-encoded)
 
@@ -629,32 +906,245 @@ public class MutableSegmentImpl implements MutableSegment {
     }
   }
 
-  private void aggregateMetrics(GenericRow row, int docId) {
+  private void updatePartition(String column, IndexContainer indexContainer, Object value) {
+    int partition = _partitionFunction.getPartition(value);
+    if (indexContainer._partitions.add(partition)) {
+      _logger.warn("Found new partition: {} from partition column: {}, value: {}", partition, column, value);
+      if (_serverMetrics != null) {
+        _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.REALTIME_PARTITION_MISMATCH, 1);
+      }
+    }
+  }
+
+  private void addRawValue(String column, IndexContainer indexContainer, int docId, Object value) {
+    FieldSpec fieldSpec = indexContainer._fieldSpec;
+    MutableForwardIndex forwardIndex = indexContainer._forwardIndex;
+
+    // Update forward index
+    DataType dataType = fieldSpec.getDataType();
+    switch (dataType) {
+      case INT:
+        forwardIndex.setInt(docId, (Integer) value);
+        break;
+      case LONG:
+        forwardIndex.setLong(docId, (Long) value);
+        break;
+      case FLOAT:
+        forwardIndex.setFloat(docId, (Float) value);
+        break;
+      case DOUBLE:
+        forwardIndex.setDouble(docId, (Double) value);
+        break;
+      case STRING:
+        forwardIndex.setString(docId, (String) value);
+        break;
+      case BYTES:
+        forwardIndex.setBytes(docId, (byte[]) value);
+        break;
+      default:
+        throw new UnsupportedOperationException(
+            "Unsupported data type: " + dataType + " for no-dictionary column: " + column);
+    }
+
+    // Update min/max value from raw value
+    // NOTE: Skip updating min/max value for aggregated metrics because the value will change over time.
+    if (!_aggregateMetrics || fieldSpec.getFieldType() != FieldSpec.FieldType.METRIC) {
+      Comparable comparable;
+      if (dataType == DataType.BYTES) {
+        comparable = new ByteArray((byte[]) value);
+      } else {
+        comparable = (Comparable) value;
+      }
+      if (indexContainer._minValue == null) {
+        indexContainer._minValue = comparable;
+        indexContainer._maxValue = comparable;
+      } else {
+        if (comparable.compareTo(indexContainer._minValue) < 0) {
+          indexContainer._minValue = comparable;
+        }
+        if (comparable.compareTo(indexContainer._maxValue) > 0) {
+          indexContainer._maxValue = comparable;
+        }
+      }
+    }
+  }
+
+  private void updateValueBasedIndexes(IndexContainer indexContainer, int docId, Object value) {
+    // Update text index
+    RealtimeLuceneTextIndexReader textIndex = indexContainer._textIndex;
+    if (textIndex != null) {
+      textIndex.add((String) value);
+    }
+
+    // Update json index
+    MutableJsonIndex jsonIndex = indexContainer._jsonIndex;
+    if (jsonIndex != null) {
+      jsonIndex.add((String) value, docId);
+    }
+
+    // Update geo index
+    MutableGeoIndex geoIndex = indexContainer._geoIndex;
+    if (geoIndex != null) {
+      geoIndex.add((byte[]) value, docId);
+    }
+  }
+
+  /**
+   * Sets the value of the COUNT metrics to 1 for a row that does not match any existing document.
+   */
+  private void initializeCountMetrics(GenericRow row) {
     for (MetricFieldSpec metricFieldSpec : _physicalMetricFieldSpecs) {
       String column = metricFieldSpec.getName();
-      Object value = row.getValue(column);
-      MutableForwardIndex forwardIndex = _indexContainerMap.get(column)._forwardIndex;
+      if (_metricAggregationTypes.get(column) != AggregationFunctionType.COUNT) {
+        continue;
+      }
       DataType dataType = metricFieldSpec.getDataType();
       switch (dataType) {
         case INT:
-          forwardIndex.setInt(docId, (Integer) value + forwardIndex.getInt(docId));
+          row.putValue(column, 1);
           break;
         case LONG:
-          forwardIndex.setLong(docId, (Long) value + forwardIndex.getLong(docId));
+          row.putValue(column, 1L);
           break;
         case FLOAT:
-          forwardIndex.setFloat(docId, (Float) value + forwardIndex.getFloat(docId));
+          row.putValue(column, 1f);
           break;
         case DOUBLE:
-          forwardIndex.setDouble(docId, (Double) value + forwardIndex.getDouble(docId));
+          row.putValue(column, 1d);
           break;
         default:
           throw new UnsupportedOperationException(
-              "Unsupported data type: " + dataType + " for aggregate metric column: " + column);
+              "Unsupported data type: " + dataType + " for COUNT aggregate metric column: " + column);
       }
     }
   }
 
+  private void aggregateMetrics(GenericRow row, int docId) {
+    for (MetricFieldSpec metricFieldSpec : _physicalMetricFieldSpecs) {
+      String column = metricFieldSpec.getName();
+      Object value = row.getValue(column);
+      MutableForwardIndex forwardIndex = _indexContainerMap.get(column)._forwardIndex;
+      AggregationFunctionType aggregationType = _metricAggregationTypes.get(column);
+      DataType dataType = metricFieldSpec.getDataType();
+      switch (aggregationType) {
+        case SUM:
+          aggregateSum(forwardIndex, docId, dataType, (Number) value, column);
+          break;
+        case MIN:
+          aggregateMin(forwardIndex, docId, dataType, (Number) value, column);
+          break;
+        case MAX:
+          aggregateMax(forwardIndex, docId, dataType, (Number) value, column);
+          break;
+        case COUNT:
+          aggregateSum(forwardIndex, docId, dataType, 1, column);
+          break;
+        case DISTINCTCOUNTHLL:
+        case DISTINCTCOUNTTHETASKETCH:
+          ((AggregatedBytesSVMutableForwardIndex) forwardIndex).aggregate(docId, value);
+          break;
+        default:
+          throw new UnsupportedOperationException(
+              "Unsupported aggregation type: " + aggregationType + " for aggregate metric column: " + column);
+      }
+    }
+  }
+
+  private static void aggregateSum(MutableForwardIndex forwardIndex, int docId, DataType dataType, Number value,
+      String column) {
+    switch (dataType) {
+      case INT:
+        forwardIndex.setInt(docId, value.intValue() + forwardIndex.getInt(docId));
+        break;
+      case LONG:
+        forwardIndex.setLong(docId, value.longValue() + forwardIndex.getLong(docId));
+        break;
+      case FLOAT:
+        forwardIndex.setFloat(docId, value.floatValue() + forwardIndex.getFloat(docId));
+        break;
+      case DOUBLE:
+        forwardIndex.setDouble(docId, value.doubleValue() + forwardIndex.getDouble(docId));
+        break;
+      default:
+        throw new UnsupportedOperationException(
+            "Unsupported data type: " + dataType + " for aggregate metric column: " + column);
+    }
+  }
+
+  private static void aggregateMin(MutableForwardIndex forwardIndex, int docId, DataType dataType, Number value,
+      String column) {
+    switch (dataType) {
+      case INT:
+        forwardIndex.setInt(docId, Math.min(value.intValue(), forwardIndex.getInt(docId)));
+        break;
+      case LONG:
+        forwardIndex.setLong(docId, Math.min(value.longValue(), forwardIndex.getLong(docId)));
+        break;
+      case FLOAT:
+        forwardIndex.setFloat(docId, Math.min(value.floatValue(), forwardIndex.getFloat(docId)));
+        break;
+      case DOUBLE:
+        forwardIndex.setDouble(docId, Math.min(value.doubleValue(), forwardIndex.getDouble(docId)));
+        break;
+      default:
+        throw new UnsupportedOperationException(
+            "Unsupported data type: " + dataType + " for aggregate metric column: " + column);
+    }
+  }
+
+  private static void aggregateMax(MutableForwardIndex forwardIndex, int docId, DataType dataType, Number value,
+      String column) {
+    switch (dataType) {
+      case INT:
+        forwardIndex.setInt(docId, Math.max(value.intValue(), forwardIndex.getInt(docId)));
+        break;
+      case LONG:
+        forwardIndex.setLong(docId, Math.max(value.longValue(), forwardIndex.getLong(docId)));
+        break;
+      case FLOAT:
+        forwardIndex.setFloat(docId, Math.max(value.floatValue(), forwardIndex.getFloat(docId)));
+        break;
+      case DOUBLE:
+        forwardIndex.setDouble(docId, Math.max(value.doubleValue(), forwardIndex.getDouble(docId)));
+        break;
+      default:
+        throw new UnsupportedOperationException(
+            "Unsupported data type: " + dataType + " for aggregate metric column: " + column);
+    }
+  }
+
+  private static boolean isNumericAggregationType(AggregationFunctionType aggregationType) {
+    return aggregationType == AggregationFunctionType.SUM || aggregationType == AggregationFunctionType.MIN
+        || aggregationType == AggregationFunctionType.MAX || aggregationType == AggregationFunctionType.COUNT;
+  }
+
+  private static boolean isSketchAggregationType(@Nullable AggregationFunctionType aggregationType) {
+    return aggregationType == AggregationFunctionType.DISTINCTCOUNTHLL
+        || aggregationType == AggregationFunctionType.DISTINCTCOUNTTHETASKETCH;
+  }
+
+  /**
+   * Publishes the values of the sketch metrics aggregated in place since the last publish, so that they become visible
+   * to the queries. Should be called by the consuming thread, e.g. after indexing each batch of messages and before
+   * building the immutable segment.
+   */
+  public void publishAggregatedMetrics() {
+    for (AggregatedBytesSVMutableForwardIndex forwardIndex : _aggregatedBytesForwardIndexes) {
+      forwardIndex.publishAggregatedValues();
+    }
+  }
+
+  /**
+   * Returns the estimated size in bytes of the sketch metrics aggregated in place on heap.
+   */
+  public long getEstimatedOnHeapBytes() {
+    long estimatedOnHeapBytes = 0;
+    for (AggregatedBytesSVMutableForwardIndex forwardIndex : _aggregatedBytesForwardIndexes) {
+      estimatedOnHeapBytes += forwardIndex.getEstimatedOnHeapBytes();
+    }
+    return estimatedOnHeapBytes;
+  }
+
   @Override
   public int getNumDocsIndexed() {
     return _numDocsIndexed;
@@ -773,6 +1263,8 @@ public class MutableSegmentImpl implements MutableSegment {
           return forwardIndex.getDouble(docId);
         case STRING:
           return forwardIndex.getString(docId);
+        case BYTES:
+          return forwardIndex.getBytes(docId);
         default:
           throw new IllegalStateException();
       }
@@ -783,6 +1275,11 @@ public class MutableSegmentImpl implements MutableSegment {
   public void destroy() {
     _logger.info("Trying to close RealtimeSegmentImpl : {}", _segmentName);
 
+    // Stop reading the records from this segment for partial upsert before closing the indexes
+    if (isUpsertEnabled() && _partitionUpsertMetadataManager.isPartialUpsertEnabled()) {
+      _partitionUpsertMetadataManager.untrackSegment(this);
+    }
+
     // Gather statistics for off-heap mode
     if (_offHeap) {
       if (_numDocsIndexed > 0) {
@@ -922,6 +1419,8 @@ public class MutableSegmentImpl implements MutableSegment {
    *   <li> All dimensions and time are dictionary encoded. This is because an integer array containing dictionary id's
    *        is used as key for dimensions to record Id map. </li>
    *   <li> None of the metrics are dictionary encoded. </li>
+   *   <li> The aggregation type of each metric is supported for its data type: SUM, MIN, MAX and COUNT for numeric
+   *        metrics, DISTINCTCOUNTHLL and DISTINCTCOUNTTHETASKETCH for BYTES metrics holding serialized sketches. </li>
    *   <li> All columns should be single-valued (see https://github.com/apache/incubator-pinot/issues/3867)</li>
    * </ul>
    *
@@ -956,6 +1455,17 @@ public class MutableSegmentImpl implements MutableSegment {
         _aggregateMetrics = false;
         break;
       }
+
+      AggregationFunctionType aggregationType = _metricAggregationTypes.get(metric);
+      DataType dataType = fieldSpec.getDataType();
+      boolean isSupported = isSketchAggregationType(aggregationType) ? dataType == DataType.BYTES
+          : isNumericAggregationType(aggregationType) && dataType.isNumeric();
+      if (!isSupported) {
+        _logger.warn("Metrics aggregation cannot be turned ON with aggregation type: {} on {} metric column: {}",
+            aggregationType, dataType, metric);
+        _aggregateMetrics = false;
+        break;
+      }
     }
 
     // All dimension columns should be dictionary encoded.
@@ -1020,12 +1530,41 @@ public class MutableSegmentImpl implements MutableSegment {
       _numValues++;
     }
 
+    void updateSVEntries(int numEntries) {
+      _numValues += numEntries;
+    }
+
     void updateMVEntry(int numValuesInMVEntry) {
       _numValues += numValuesInMVEntry;
       _maxNumValuesPerMVEntry = Math.max(_maxNumValuesPerMVEntry, numValuesInMVEntry);
     }
   }
 
+  /**
+   * Values of a column for a batch of rows, with the dictionary ids and index keys resolved before the indexes are
+   * modified.
+   */
+  private static class BatchColumn {
+    final String _column;
+    final IndexContainer _indexContainer;
+    final Object[] _values;
+
+    // Dictionary ids for the dictionary-encoded single-value column
+    int[] _dictIds;
+    // Dictionary ids for the multi-value column
+    int[][] _dictIdsPerRow;
+    // Flattened keys for the json index
+    List<String>[] _jsonKeys;
+    // Cell ids for the geo index
+    long[] _geoCellIds;
+
+    BatchColumn(String column, IndexContainer indexContainer, Object[] values) {
+      _column = column;
+      _indexContainer = indexContainer;
+      _values = values;
+    }
+  }
+
   private class IndexContainer implements Closeable {
     final FieldSpec _fieldSpec;
     final PartitionFunction _partitionFunction;
@@ -1036,6 +1575,8 @@ public class MutableSegmentImpl implements MutableSegment {
     final RealtimeInvertedIndexReader _invertedIndex;
     final InvertedIndexReader _rangeIndex;
     final RealtimeLuceneTextIndexReader _textIndex;
+    final MutableJsonIndex _jsonIndex;
+    final MutableGeoIndex _geoIndex;
     final BloomFilterReader _bloomFilter;
     final MutableNullValueVector _nullValueVector;
 
@@ -1050,6 +1591,7 @@ public class MutableSegmentImpl implements MutableSegment {
         @Nullable Set<Integer> partitions, NumValuesInfo numValuesInfo, MutableForwardIndex forwardIndex,
         @Nullable MutableDictionary dictionary, @Nullable RealtimeInvertedIndexReader invertedIndex,
         @Nullable InvertedIndexReader rangeIndex, @Nullable RealtimeLuceneTextIndexReader textIndex,
+        @Nullable MutableJsonIndex jsonIndex, @Nullable MutableGeoIndex geoIndex,
         @Nullable BloomFilterReader bloomFilter, @Nullable MutableNullValueVector nullValueVector) {
       _fieldSpec = fieldSpec;
       _partitionFunction = partitionFunction;
@@ -1060,6 +1602,8 @@ public class MutableSegmentImpl implements MutableSegment {
       _invertedIndex = invertedIndex;
       _rangeIndex = rangeIndex;
       _textIndex = textIndex;
+      _jsonIndex = jsonIndex;
+      _geoIndex = geoIndex;
       _bloomFilter = bloomFilter;
       _nullValueVector = nullValueVector;
     }
@@ -1067,7 +1611,8 @@ public class MutableSegmentImpl implements MutableSegment {
     DataSource toDataSource() {
       return new MutableDataSource(_fieldSpec, _numDocsIndexed, _numValuesInfo._numValues,
           _numValuesInfo._maxNumValuesPerMVEntry, _partitionFunction, _partitions, _minValue, _maxValue, _forwardIndex,
-          _dictionary, _invertedIndex, _rangeIndex, _textIndex, _bloomFilter, _nullValueVector);
+          _dictionary, _invertedIndex, _rangeIndex, _textIndex, _jsonIndex, _geoIndex, _bloomFilter,
+          _nullValueVector);
     }
 
     @Override
@@ -1107,6 +1652,20 @@ public class MutableSegmentImpl implements MutableSegment {
           _logger.error("Caught exception while closing text index for column: {}, continuing with error", column, e);
         }
       }
+      if (_jsonIndex != null) {
+        try {
+          _jsonIndex.close();
+        } catch (Exception e) {
+          _logger.error("Caught exception while closing json index for column: {}, continuing with error", column, e);
+        }
+      }
+      if (_geoIndex != null) {
+        try {
+          _geoIndex.close();
+        } catch (Exception e) {
+          _logger.error("Caught exception while closing geo index for column: {}, continuing with error", column, e);
+        }
+      }
       if (_bloomFilter != null) {
         try {
           _bloomFilter.close();
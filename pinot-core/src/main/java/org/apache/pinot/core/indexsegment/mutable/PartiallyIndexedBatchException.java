@@ -0,0 +1,31 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.indexsegment.mutable;
+
+/**
+ * Exception thrown by {@link MutableSegment#index(java.util.List, org.apache.pinot.spi.stream.RowMetadata)} when a
+ * batch of records fails after some of the indexes have already been modified. The segment is left in an inconsistent
+ * state, so the records must not be indexed again into the same segment.
+ */
+public class PartiallyIndexedBatchException extends RuntimeException {
+
+  public PartiallyIndexedBatchException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -43,7 +43,8 @@ public abstract class RealtimeIndexOffHeapMemoryManager implements PinotDataBuff
   private final List<PinotDataBuffer> _buffers = new LinkedList<>();
   private final String _segmentName;
   private final ServerMetrics _serverMetrics;
-  private long _totalAllocatedBytes = 0;
+  // Updated by the consuming thread, and read by the RealtimeConsumptionMemoryGovernor
+  private volatile long _totalAllocatedBytes = 0;
   private final String _tableName;
 
   protected RealtimeIndexOffHeapMemoryManager(ServerMetrics serverMetrics, String segmentName) {
@@ -26,6 +26,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseOperator;
@@ -72,10 +73,13 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
     // deleted/refreshed, the segment will be released after the main thread returns, which would lead to undefined
     // behavior (even JVM crash) when processing queries against it.
     Phaser phaser = new Phaser(1);
+    // Use a shared cursor to dispatch the operators to the worker threads, so that a thread finished with its current
+    // segment picks up the next unprocessed one instead of waiting for a statically assigned segment. This prevents a
+    // thread stuck on a few large segments from becoming the tail of the query while the other threads are idle.
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
 
     Future[] futures = new Future[numThreads];
     for (int i = 0; i < numThreads; i++) {
-      int threadIndex = i;
       futures[i] = _executorService.submit(new TraceRunnable() {
         @Override
         public void runJob() {
@@ -88,7 +92,8 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
               return;
             }
 
-            for (int operatorIndex = threadIndex; operatorIndex < numOperators; operatorIndex += numThreads) {
+            int operatorIndex;
+            while ((operatorIndex = nextOperatorIndex.getAndIncrement()) < numOperators) {
               try {
                 IntermediateResultsBlock resultsBlock =
                     (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
@@ -49,9 +49,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Combine operator for aggregation group-by queries with PQL semantic.
- * TODO:
- *   - Use CombineOperatorUtils.getNumThreadsForQuery() to get the parallelism of the query instead of using all threads
- *   - Try to extend BaseCombineOperator to reduce duplicate code
+ * TODO: Try to extend BaseCombineOperator to reduce duplicate code
  */
 @SuppressWarnings("rawtypes")
 public class GroupByCombineOperator extends BaseOperator<IntermediateResultsBlock> {
@@ -123,9 +121,12 @@ public class GroupByCombineOperator extends BaseOperator<IntermediateResultsBloc
     CountDownLatch operatorLatch = new CountDownLatch(numOperators);
     Phaser phaser = new Phaser(1);
 
-    Future[] futures = new Future[numOperators];
-    for (int i = 0; i < numOperators; i++) {
-      int index = i;
+    // Use a shared cursor to dispatch the operators to the worker threads (see BaseCombineOperator for details)
+    int numThreads = CombineOperatorUtils.getNumThreadsForQuery(numOperators);
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
+
+    Future[] futures = new Future[numThreads];
+    for (int i = 0; i < numThreads; i++) {
       futures[i] = _executorService.submit(new TraceRunnable() {
         @SuppressWarnings("unchecked")
         @Override
@@ -139,49 +140,59 @@ public class GroupByCombineOperator extends BaseOperator<IntermediateResultsBloc
               return;
             }
 
-            IntermediateResultsBlock intermediateResultsBlock =
-                (IntermediateResultsBlock) _operators.get(index).nextBlock();
-
-            // Merge processing exceptions.
-            List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
-            if (processingExceptionsToMerge != null) {
-              mergedProcessingExceptions.addAll(processingExceptionsToMerge);
-            }
-
-            // Merge aggregation group-by result.
-            AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
-            if (aggregationGroupByResult != null) {
-              // Iterate over the group-by keys, for each key, update the group-by result in the resultsMap.
-              Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-              while (groupKeyIterator.hasNext()) {
-                GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                resultsMap.compute(groupKey._stringKey, (key, value) -> {
-                  if (value == null) {
-                    if (numGroups.getAndIncrement() < _interSegmentNumGroupsLimit) {
-                      value = new Object[numAggregationFunctions];
-                      for (int i = 0; i < numAggregationFunctions; i++) {
-                        value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+            int operatorIndex;
+            while ((operatorIndex = nextOperatorIndex.getAndIncrement()) < numOperators) {
+              try {
+                IntermediateResultsBlock intermediateResultsBlock =
+                    (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
+
+                // Merge processing exceptions.
+                List<ProcessingException> processingExceptionsToMerge =
+                    intermediateResultsBlock.getProcessingExceptions();
+                if (processingExceptionsToMerge != null) {
+                  mergedProcessingExceptions.addAll(processingExceptionsToMerge);
+                }
+
+                // Merge aggregation group-by result.
+                AggregationGroupByResult aggregationGroupByResult =
+                    intermediateResultsBlock.getAggregationGroupByResult();
+                if (aggregationGroupByResult != null) {
+                  // Iterate over the group-by keys, for each key, update the group-by result in the resultsMap.
+                  Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator =
+                      aggregationGroupByResult.getGroupKeyIterator();
+                  while (groupKeyIterator.hasNext()) {
+                    GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+                    resultsMap.compute(groupKey._stringKey, (key, value) -> {
+                      if (value == null) {
+                        if (numGroups.getAndIncrement() < _interSegmentNumGroupsLimit) {
+                          value = new Object[numAggregationFunctions];
+                          for (int i = 0; i < numAggregationFunctions; i++) {
+                            value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+                          }
+                        }
+                      } else {
+                        for (int i = 0; i < numAggregationFunctions; i++) {
+                          value[i] = aggregationFunctions[i]
+                              .merge(value[i], aggregationGroupByResult.getResultForKey(groupKey, i));
+                        }
                       }
-                    }
-                  } else {
-                    for (int i = 0; i < numAggregationFunctions; i++) {
-                      value[i] = aggregationFunctions[i]
-                          .merge(value[i], aggregationGroupByResult.getResultForKey(groupKey, i));
-                    }
+                      return value;
+                    });
                   }
-                  return value;
-                });
+                }
+              } catch (EarlyTerminationException e) {
+                // Early-terminated because query times out or is already satisfied
+                return;
+              } catch (Exception e) {
+                LOGGER.error("Caught exception while processing and combining group-by for index: {}, operator: {}, "
+                        + "queryContext: {}", operatorIndex, _operators.get(operatorIndex).getClass().getName(),
+                    _queryContext, e);
+                mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
+              } finally {
+                operatorLatch.countDown();
               }
             }
-          } catch (EarlyTerminationException e) {
-            // Early-terminated because query times out or is already satisfied
-          } catch (Exception e) {
-            LOGGER.error(
-                "Caught exception while processing and combining group-by for index: {}, operator: {}, queryContext: {}",
-                index, _operators.get(index).getClass().getName(), _queryContext, e);
-            mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
           } finally {
-            operatorLatch.countDown();
             phaser.arriveAndDeregister();
           }
         }
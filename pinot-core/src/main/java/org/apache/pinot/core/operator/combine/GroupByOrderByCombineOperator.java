@@ -28,6 +28,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
@@ -35,8 +36,11 @@ import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.data.table.ColumnarIndexedTable;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
+import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
 import org.apache.pinot.core.operator.BaseOperator;
@@ -55,15 +59,16 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Combine operator for aggregation group-by queries with SQL semantic.
- * TODO:
- *   - Use CombineOperatorUtils.getNumThreadsForQuery() to get the parallelism of the query instead of using all threads
- *   - Try to extend BaseCombineOperator to reduce duplicate code
+ * TODO: Try to extend BaseCombineOperator to reduce duplicate code
  */
 @SuppressWarnings("rawtypes")
 public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResultsBlock> {
   private static final Logger LOGGER = LoggerFactory.getLogger(GroupByOrderByCombineOperator.class);
   private static final String OPERATOR_NAME = "GroupByOrderByCombineOperator";
   public static final int MAX_TRIM_THRESHOLD = 1_000_000_000;
+  // Number of partitions of the indexed table per combine thread, where more partitions reduce the chance of multiple
+  // threads merging into the same partition
+  private static final int NUM_PARTITIONS_PER_THREAD = 4;
 
   private final List<Operator> _operators;
   private final QueryContext _queryContext;
@@ -71,9 +76,17 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
   private final long _endTimeMs;
   private final int _trimSize;
   private final int _trimThreshold;
+  // Trim threshold of the per-thread columnar indexed tables so that the total size of all the tables is bounded by the
+  // trim threshold
+  private final int _perThreadTrimThreshold;
+  private final int _numPartitions;
   private final Lock _initLock;
   private DataSchema _dataSchema;
-  private ConcurrentIndexedTable _indexedTable;
+  private IndexedTable _indexedTable;
+  // When all the group-by columns are fixed-width, each thread merges into its own columnar indexed table, and the
+  // tables are merged after all the operators are processed
+  private boolean _useColumnarIndexedTable;
+  private ColumnarIndexedTable[] _columnarIndexedTables;
 
   public GroupByOrderByCombineOperator(List<Operator> operators, QueryContext queryContext,
       ExecutorService executorService, long endTimeMs, int trimThreshold) {
@@ -84,6 +97,9 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
     _initLock = new ReentrantLock();
     _trimSize = GroupByUtils.getTableCapacity(_queryContext);
     _trimThreshold = trimThreshold;
+    int numThreads = CombineOperatorUtils.getNumThreadsForQuery(operators.size());
+    _perThreadTrimThreshold = GroupByUtils.getPerThreadTrimThreshold(_trimSize, trimThreshold, numThreads);
+    _numPartitions = numThreads * NUM_PARTITIONS_PER_THREAD;
   }
 
   /**
@@ -121,11 +137,15 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
     CountDownLatch operatorLatch = new CountDownLatch(numOperators);
     Phaser phaser = new Phaser(1);
 
-    Future[] futures = new Future[numOperators];
-    for (int i = 0; i < numOperators; i++) {
-      int index = i;
+    // Use a shared cursor to dispatch the operators to the worker threads (see BaseCombineOperator for details)
+    int numThreads = CombineOperatorUtils.getNumThreadsForQuery(numOperators);
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
+
+    _columnarIndexedTables = new ColumnarIndexedTable[numThreads];
+    Future[] futures = new Future[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      int threadIndex = i;
       futures[i] = _executorService.submit(new TraceRunnable() {
-        @SuppressWarnings("unchecked")
         @Override
         public void runJob() {
           try {
@@ -137,95 +157,24 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
               return;
             }
 
-            IntermediateResultsBlock intermediateResultsBlock =
-                (IntermediateResultsBlock) _operators.get(index).nextBlock();
-
-            _initLock.lock();
-            try {
-              if (_dataSchema == null) {
-                _dataSchema = intermediateResultsBlock.getDataSchema();
-                if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
-                  // special case of trim threshold where it is set to max value.
-                  // there won't be any trimming during upsert in this case.
-                  // thus we can avoid the overhead of read-lock and write-lock
-                  // in the upsert method.
-                  _indexedTable = new UnboundedConcurrentIndexedTable(_dataSchema, _queryContext,
-                      _trimSize, _trimThreshold);
-                } else {
-                  _indexedTable = new ConcurrentIndexedTable(_dataSchema, _queryContext, _trimSize, _trimThreshold);
-                }
+            int operatorIndex;
+            while ((operatorIndex = nextOperatorIndex.getAndIncrement()) < numOperators) {
+              try {
+                processOperator(threadIndex, operatorIndex, numGroupByExpressions, numAggregationFunctions,
+                    numColumns, mergedProcessingExceptions);
+              } catch (EarlyTerminationException e) {
+                // Early-terminated because query times out or is already satisfied
+                return;
+              } catch (Exception e) {
+                LOGGER.error("Caught exception while processing and combining group-by order-by for index: {}, "
+                        + "operator: {}, queryContext: {}", operatorIndex,
+                    _operators.get(operatorIndex).getClass().getName(), _queryContext, e);
+                mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
+              } finally {
+                operatorLatch.countDown();
               }
-            } finally {
-              _initLock.unlock();
-            }
-
-            // Merge processing exceptions.
-            List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
-            if (processingExceptionsToMerge != null) {
-              mergedProcessingExceptions.addAll(processingExceptionsToMerge);
             }
-
-            // Merge aggregation group-by result.
-            AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
-            if (aggregationGroupByResult != null) {
-              if (numGroupByExpressions == 1) {
-                // Get converter function
-                Function converterFunction = getConverterFunction(_dataSchema.getColumnDataType(0));
-
-                // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
-                Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-                while (groupKeyIterator.hasNext()) {
-                  Object[] values = new Object[numColumns];
-                  GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                  Object convertedKey = converterFunction.apply(groupKey._stringKey);
-                  values[0] = convertedKey;
-                  for (int i = 0; i < numAggregationFunctions; i++) {
-                    values[i + 1] = aggregationGroupByResult.getResultForKey(groupKey, i);
-                  }
-                  Key key = new Key(new Object[]{convertedKey});
-                  Record record = new Record(values);
-                  _indexedTable.upsert(key, record);
-                }
-              } else {
-                // Get converter functions
-                Function[] converterFunctions = new Function[numGroupByExpressions];
-                for (int i = 0; i < numGroupByExpressions; i++) {
-                  converterFunctions[i] = getConverterFunction(_dataSchema.getColumnDataType(i));
-                }
-
-                // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
-                Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-                while (groupKeyIterator.hasNext()) {
-                  Object[] values = new Object[numColumns];
-                  int columnIndex = 0;
-                  GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                  String[] stringKeys = groupKey.getKeys();
-                  Object[] objectKeys = new Object[numGroupByExpressions];
-                  for (int i = 0; i < numGroupByExpressions; i++) {
-                    Object convertedKey = converterFunctions[i].apply(stringKeys[i]);
-                    objectKeys[columnIndex] = convertedKey;
-                    values[columnIndex] = convertedKey;
-                    columnIndex++;
-                  }
-                  for (int i = 0; i < numAggregationFunctions; i++) {
-                    values[columnIndex] = aggregationGroupByResult.getResultForKey(groupKey, i);
-                    columnIndex++;
-                  }
-                  Key key = new Key(objectKeys);
-                  Record record = new Record(values);
-                  _indexedTable.upsert(key, record);
-                }
-              }
-            }
-          } catch (EarlyTerminationException e) {
-            // Early-terminated because query times out or is already satisfied
-          } catch (Exception e) {
-            LOGGER.error(
-                "Caught exception while processing and combining group-by order-by for index: {}, operator: {}, queryContext: {}",
-                index, _operators.get(index).getClass().getName(), _queryContext, e);
-            mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
           } finally {
-            operatorLatch.countDown();
             phaser.arriveAndDeregister();
           }
         }
@@ -244,8 +193,9 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
         return new IntermediateResultsBlock(new TimeoutException(errorMessage));
       }
 
-      _indexedTable.finish(false);
-      IntermediateResultsBlock mergedBlock = new IntermediateResultsBlock(_indexedTable);
+      IndexedTable indexedTable = _useColumnarIndexedTable ? mergeColumnarIndexedTables() : _indexedTable;
+      indexedTable.finish(false);
+      IntermediateResultsBlock mergedBlock = new IntermediateResultsBlock(indexedTable);
 
       // Set the processing exceptions.
       if (!mergedProcessingExceptions.isEmpty()) {
@@ -254,8 +204,21 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
 
       // Set the execution statistics.
       CombineOperatorUtils.setExecutionStatistics(mergedBlock, _operators);
-      mergedBlock.setNumResizes(_indexedTable.getNumResizes());
-      mergedBlock.setResizeTimeMs(_indexedTable.getResizeTimeMs());
+      if (_useColumnarIndexedTable) {
+        int numResizes = 0;
+        long resizeTimeMs = 0;
+        for (ColumnarIndexedTable columnarIndexedTable : _columnarIndexedTables) {
+          if (columnarIndexedTable != null) {
+            numResizes += columnarIndexedTable.getNumResizes();
+            resizeTimeMs += columnarIndexedTable.getResizeTimeMs();
+          }
+        }
+        mergedBlock.setNumResizes(numResizes);
+        mergedBlock.setResizeTimeMs(resizeTimeMs);
+      } else {
+        mergedBlock.setNumResizes(_indexedTable.getNumResizes());
+        mergedBlock.setResizeTimeMs(_indexedTable.getResizeTimeMs());
+      }
 
       // TODO - set numGroupsLimitReached
 
@@ -274,6 +237,136 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
     }
   }
 
+  /**
+   * Merges the columnar indexed tables of all the threads into one table.
+   */
+  private IndexedTable mergeColumnarIndexedTables() {
+    ColumnarIndexedTable mergedTable = null;
+    for (ColumnarIndexedTable columnarIndexedTable : _columnarIndexedTables) {
+      if (columnarIndexedTable != null) {
+        if (mergedTable == null) {
+          mergedTable = columnarIndexedTable;
+        } else {
+          mergedTable.merge(columnarIndexedTable);
+        }
+      }
+    }
+    return mergedTable != null ? mergedTable
+        : new ColumnarIndexedTable(_dataSchema, _queryContext, _trimSize, _trimThreshold);
+  }
+
+  /**
+   * Processes the operator of the given index, and merges its results block into the indexed table.
+   */
+  @SuppressWarnings("unchecked")
+  private void processOperator(int threadIndex, int operatorIndex, int numGroupByExpressions,
+      int numAggregationFunctions, int numColumns,
+      ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions) {
+    IntermediateResultsBlock intermediateResultsBlock =
+        (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
+
+    _initLock.lock();
+    try {
+      if (_dataSchema == null) {
+        _dataSchema = intermediateResultsBlock.getDataSchema();
+        if (ColumnarIndexedTable.isSupported(_dataSchema, numGroupByExpressions)) {
+          _useColumnarIndexedTable = true;
+        } else if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
+          // special case of trim threshold where it is set to max value.
+          // there won't be any trimming during upsert in this case.
+          // thus we can avoid the overhead of read-lock and write-lock
+          // in the upsert method.
+          _indexedTable = new UnboundedConcurrentIndexedTable(_dataSchema, _queryContext,
+              _trimSize, _trimThreshold);
+        } else if (_queryContext.getOrderByExpressions() != null
+            && PartitionedIndexedTable.getMaxNumPartitions(_trimSize, _trimThreshold) == 1) {
+          // The trim threshold is too small to be split into partitions
+          _indexedTable = new ConcurrentIndexedTable(_dataSchema, _queryContext, _trimSize, _trimThreshold);
+        } else {
+          // Partition the records so that the trim of a partition does not block the threads merging into the other
+          // partitions
+          _indexedTable =
+              new PartitionedIndexedTable(_dataSchema, _queryContext, _trimSize, _trimThreshold, _numPartitions);
+        }
+      }
+    } finally {
+      _initLock.unlock();
+    }
+
+    // Merge processing exceptions.
+    List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
+    if (processingExceptionsToMerge != null) {
+      mergedProcessingExceptions.addAll(processingExceptionsToMerge);
+    }
+
+    // Merge aggregation group-by result.
+    AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
+    if (aggregationGroupByResult != null && _useColumnarIndexedTable) {
+      // The columnar indexed table is only accessed by the current thread
+      ColumnarIndexedTable columnarIndexedTable = _columnarIndexedTables[threadIndex];
+      if (columnarIndexedTable == null) {
+        columnarIndexedTable =
+            new ColumnarIndexedTable(_dataSchema, _queryContext, _trimSize, _perThreadTrimThreshold);
+        _columnarIndexedTables[threadIndex] = columnarIndexedTable;
+      }
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        columnarIndexedTable.upsert(groupKeyIterator.next(), aggregationGroupByResult);
+      }
+    } else if (aggregationGroupByResult != null) {
+      // Collect the records and upsert them as a batch
+      List<Key> keys = new ArrayList<>();
+      List<Record> records = new ArrayList<>();
+      if (numGroupByExpressions == 1) {
+        // Get converter function
+        Function converterFunction = getConverterFunction(_dataSchema.getColumnDataType(0));
+
+        // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
+        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+        while (groupKeyIterator.hasNext()) {
+          Object[] values = new Object[numColumns];
+          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+          Object convertedKey = converterFunction.apply(groupKey._stringKey);
+          values[0] = convertedKey;
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            values[i + 1] = aggregationGroupByResult.getResultForKey(groupKey, i);
+          }
+          keys.add(new Key(new Object[]{convertedKey}));
+          records.add(new Record(values));
+        }
+      } else {
+        // Get converter functions
+        Function[] converterFunctions = new Function[numGroupByExpressions];
+        for (int i = 0; i < numGroupByExpressions; i++) {
+          converterFunctions[i] = getConverterFunction(_dataSchema.getColumnDataType(i));
+        }
+
+        // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
+        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+        while (groupKeyIterator.hasNext()) {
+          Object[] values = new Object[numColumns];
+          int columnIndex = 0;
+          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+          String[] stringKeys = groupKey.getKeys();
+          Object[] objectKeys = new Object[numGroupByExpressions];
+          for (int i = 0; i < numGroupByExpressions; i++) {
+            Object convertedKey = converterFunctions[i].apply(stringKeys[i]);
+            objectKeys[columnIndex] = convertedKey;
+            values[columnIndex] = convertedKey;
+            columnIndex++;
+          }
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            values[columnIndex] = aggregationGroupByResult.getResultForKey(groupKey, i);
+            columnIndex++;
+          }
+          keys.add(new Key(objectKeys));
+          records.add(new Record(values));
+        }
+      }
+      _indexedTable.upsert(keys, records);
+    }
+  }
+
   private Function<String, Object> getConverterFunction(DataSchema.ColumnDataType columnDataType) {
     switch (columnDataType) {
       case INT:
@@ -30,9 +30,19 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
 /**
  * The {@code SVScanDocIdIterator} is the scan-based iterator for SVScanDocIdSet to scan a single-value column for the
  * matching document ids.
+ * <p>The scan is performed in blocks of {@link #BLOCK_SIZE} documents: the values (dictionary ids or raw values) of a
+ * block are bulk read from the forward index into a primitive array, then evaluated in a tight loop via the batch
+ * {@link PredicateEvaluator} APIs, which compact the matching document ids into the document id buffer.
+ * <p>{@link #advance(int)} to a target beyond the current block evaluates the documents one by one from the target (up
+ * to {@link #BLOCK_SIZE} documents before falling back to the block scan), so that sparse advances (e.g. from an AND
+ * iterator) do not evaluate a whole block for each target.
+ * <p>The number of entries scanned only counts the documents up to the returned document, independent of the block
+ * size.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
+  public static final int BLOCK_SIZE = 256;
+
   private final PredicateEvaluator _predicateEvaluator;
   private final ForwardIndexReader _reader;
   // TODO: Figure out a way to close the reader context
@@ -40,7 +50,13 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private final ForwardIndexReaderContext _readerContext;
   private final int _numDocs;
   private final ValueMatcher _valueMatcher;
+  private final int[] _docIdBuffer = new int[BLOCK_SIZE];
 
+  // Matching document ids of the current block are stored in the document id buffer from index 0 to
+  // _numMatchingDocsInBlock
+  private int _numMatchingDocsInBlock = 0;
+  private int _nextMatchingDocIndex = 0;
+  private int _blockEndDocId = 0;
   private int _nextDocId = 0;
   private long _numEntriesScanned = 0L;
 
@@ -54,36 +70,96 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
 
   @Override
   public int next() {
-    while (_nextDocId < _numDocs) {
-      int nextDocId = _nextDocId++;
-      _numEntriesScanned++;
-      if (_valueMatcher.doesValueMatch(nextDocId)) {
-        return nextDocId;
+    while (true) {
+      while (_nextMatchingDocIndex < _numMatchingDocsInBlock) {
+        int docId = _docIdBuffer[_nextMatchingDocIndex++];
+        if (docId >= _nextDocId) {
+          // NOTE: Only count the entries up to the returned document as scanned to keep the stats independent of the
+          //       block size
+          _numEntriesScanned += docId - _nextDocId + 1;
+          _nextDocId = docId + 1;
+          return docId;
+        }
+      }
+      if (_nextDocId < _blockEndDocId) {
+        _numEntriesScanned += _blockEndDocId - _nextDocId;
+        _nextDocId = _blockEndDocId;
       }
+      if (_nextDocId >= _numDocs) {
+        return Constants.EOF;
+      }
+      scanBlock(_nextDocId);
     }
-    return Constants.EOF;
   }
 
   @Override
   public int advance(int targetDocId) {
-    _nextDocId = targetDocId;
+    if (targetDocId >= _nextDocId && targetDocId < _blockEndDocId) {
+      // Target is within the current block, use the matching document ids already scanned
+      _nextDocId = targetDocId;
+      return next();
+    }
+
+    // Discard the current block, and evaluate the documents one by one from the target
+    _numMatchingDocsInBlock = 0;
+    _nextMatchingDocIndex = 0;
+    int endDocId = Math.min(targetDocId + BLOCK_SIZE, _numDocs);
+    for (int docId = targetDocId; docId < endDocId; docId++) {
+      _numEntriesScanned++;
+      if (_valueMatcher.matchValue(docId)) {
+        _nextDocId = docId + 1;
+        _blockEndDocId = _nextDocId;
+        return docId;
+      }
+    }
+    _nextDocId = endDocId;
+    _blockEndDocId = endDocId;
     return next();
   }
 
+  /**
+   * Scans the block of documents starting from the given document id, and fills the document id buffer with the
+   * matching document ids.
+   */
+  private void scanBlock(int startDocId) {
+    int endDocId = Math.min(startDocId + BLOCK_SIZE, _numDocs);
+    int length = endDocId - startDocId;
+    for (int i = 0; i < length; i++) {
+      _docIdBuffer[i] = startDocId + i;
+    }
+    _numMatchingDocsInBlock = _valueMatcher.matchValues(length, _docIdBuffer);
+    _nextMatchingDocIndex = 0;
+    _blockEndDocId = endDocId;
+  }
+
   @Override
   public MutableRoaringBitmap applyAnd(ImmutableRoaringBitmap docIds) {
     MutableRoaringBitmap result = new MutableRoaringBitmap();
+    int[] docIdBuffer = new int[BLOCK_SIZE];
     IntIterator docIdIterator = docIds.getIntIterator();
     int nextDocId;
+    int length = 0;
     while (docIdIterator.hasNext() && (nextDocId = docIdIterator.next()) < _numDocs) {
-      _numEntriesScanned++;
-      if (_valueMatcher.doesValueMatch(nextDocId)) {
-        result.add(nextDocId);
+      docIdBuffer[length++] = nextDocId;
+      if (length == BLOCK_SIZE) {
+        addMatchingDocIds(docIdBuffer, length, result);
+        length = 0;
       }
     }
+    if (length > 0) {
+      addMatchingDocIds(docIdBuffer, length, result);
+    }
     return result;
   }
 
+  private void addMatchingDocIds(int[] docIdBuffer, int length, MutableRoaringBitmap result) {
+    _numEntriesScanned += length;
+    int numMatchingDocs = _valueMatcher.matchValues(length, docIdBuffer);
+    for (int i = 0; i < numMatchingDocs; i++) {
+      result.add(docIdBuffer[i]);
+    }
+  }
+
   @Override
   public long getNumEntriesScanned() {
     return _numEntriesScanned;
@@ -115,64 +191,129 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private interface ValueMatcher {
 
     /**
-     * Returns {@code true} if the value for the given document id matches the predicate, {@code false} Otherwise.
+     * Returns {@code true} if the value for the given document id matches the predicate, {@code false} otherwise.
      */
-    boolean doesValueMatch(int docId);
+    boolean matchValue(int docId);
+
+    /**
+     * Matches the values for the given document ids against the predicate, compacts the matching document ids to the
+     * head of the document id array and returns the number of matching documents.
+     */
+    int matchValues(int limit, int[] docIds);
   }
 
   private class DictIdMatcher implements ValueMatcher {
+    private final int[] _dictIdBuffer = new int[BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
+    public boolean matchValue(int docId) {
       return _predicateEvaluator.applySV(_reader.getDictId(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readDictIds(docIds, limit, _dictIdBuffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _dictIdBuffer);
+    }
   }
 
   private class IntMatcher implements ValueMatcher {
+    private final int[] _valueBuffer = new int[BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
+    public boolean matchValue(int docId) {
       return _predicateEvaluator.applySV(_reader.getInt(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _valueBuffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _valueBuffer);
+    }
   }
 
   private class LongMatcher implements ValueMatcher {
+    private final long[] _valueBuffer = new long[BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
+    public boolean matchValue(int docId) {
       return _predicateEvaluator.applySV(_reader.getLong(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _valueBuffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _valueBuffer);
+    }
   }
 
   private class FloatMatcher implements ValueMatcher {
+    private final float[] _valueBuffer = new float[BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
+    public boolean matchValue(int docId) {
       return _predicateEvaluator.applySV(_reader.getFloat(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _valueBuffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _valueBuffer);
+    }
   }
 
   private class DoubleMatcher implements ValueMatcher {
+    private final double[] _valueBuffer = new double[BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
+    public boolean matchValue(int docId) {
       return _predicateEvaluator.applySV(_reader.getDouble(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _valueBuffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _valueBuffer);
+    }
   }
 
   private class StringMatcher implements ValueMatcher {
 
     @Override
-    public boolean doesValueMatch(int docId) {
+    public boolean matchValue(int docId) {
       return _predicateEvaluator.applySV(_reader.getString(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        int docId = docIds[i];
+        if (matchValue(docId)) {
+          docIds[numMatchingDocs++] = docId;
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 
   private class BytesMatcher implements ValueMatcher {
 
     @Override
-    public boolean doesValueMatch(int docId) {
+    public boolean matchValue(int docId) {
       return _predicateEvaluator.applySV(_reader.getBytes(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        int docId = docIds[i];
+        if (matchValue(docId)) {
+          docIds[numMatchingDocs++] = docId;
+        }
+      }
+      return numMatchingDocs;
+    }
   }
 }
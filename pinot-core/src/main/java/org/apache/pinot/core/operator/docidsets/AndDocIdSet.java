@@ -24,6 +24,7 @@ import org.apache.pinot.common.utils.Pairs.IntPair;
 import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.AndDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.BitmapBasedDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.EmptyDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.RangelessBitmapDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.SortedDocIdIterator;
@@ -42,7 +43,8 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
  *     at least one ScanBasedDocIdIterator, or more than one index-based BlockDocIdIterator, merge them and construct a
  *     RangelessBitmapDocIdIterator from the merged document ids. If there is no remaining BlockDocIdIterator, directly
  *     return the merged RangelessBitmapDocIdIterator; otherwise, construct and return an AndDocIdIterator with the
- *     merged RangelessBitmapDocIdIterator and the remaining BlockDocIdIterators.
+ *     merged RangelessBitmapDocIdIterator and the remaining BlockDocIdIterators. The ScanBasedDocIdIterators are
+ *     applied in order, and the remaining ones are skipped as soon as no document matches.
  *   </li>
  *   <li>
  *     Otherwise, construct and return an AndDocIdIterator with all BlockDocIdIterators.
@@ -124,8 +126,15 @@ public final class AndDocIdSet implements FilterBlockDocIdSet {
           docIds = mutableDocIds;
         }
       }
+      // Short-circuit when no document matches the filters applied so far
+      if (docIds.isEmpty()) {
+        return EmptyDocIdIterator.getInstance();
+      }
       for (ScanBasedDocIdIterator scanBasedDocIdIterator : scanBasedDocIdIterators) {
         docIds = scanBasedDocIdIterator.applyAnd(docIds);
+        if (docIds.isEmpty()) {
+          return EmptyDocIdIterator.getInstance();
+        }
       }
       RangelessBitmapDocIdIterator rangelessBitmapDocIdIterator = new RangelessBitmapDocIdIterator(docIds);
       if (numRemainingDocIdIterators == 0) {
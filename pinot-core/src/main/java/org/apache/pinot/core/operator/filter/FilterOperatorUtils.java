@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.filter;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -131,15 +132,36 @@ public class FilterOperatorUtils {
   /**
    * For AND filter operator, reorders its child filter operators based on the their cost and puts the ones with
    * inverted index first in order to reduce the number of documents to be processed.
+   * <p>The scan-based filter operators are evaluated one after another on the documents matching the previous ones, so
+   * they are ordered by their estimated cost and selectivity (see {@link #getScanRank(ScanBasedFilterOperator)}).
    * <p>Special filter operators such as {@link MatchAllFilterOperator} and {@link EmptyFilterOperator} should be
    * removed from the list before calling this method.
    */
-  private static void reorderAndFilterChildOperators(List<BaseFilterOperator> filterOperators,
+  @VisibleForTesting
+  static void reorderAndFilterChildOperators(List<BaseFilterOperator> filterOperators,
       @Nullable Map<String, String> debugOptions) {
+    boolean useScanReorderOptimization = debugOptions == null
+        || StringUtils.compareIgnoreCase(debugOptions.get(USE_SCAN_REORDER_OPTIMIZATION), "false") != 0;
     filterOperators.sort(new Comparator<BaseFilterOperator>() {
       @Override
       public int compare(BaseFilterOperator o1, BaseFilterOperator o2) {
-        return getPriority(o1) - getPriority(o2);
+        int priority1 = getPriority(o1);
+        int priority2 = getPriority(o2);
+        if (priority1 != priority2) {
+          return priority1 - priority2;
+        }
+        if (useScanReorderOptimization && o1 instanceof ScanBasedFilterOperator) {
+          ScanBasedFilterOperator scanBasedFilterOperator1 = (ScanBasedFilterOperator) o1;
+          ScanBasedFilterOperator scanBasedFilterOperator2 = (ScanBasedFilterOperator) o2;
+          int result = Double.compare(getScanRank(scanBasedFilterOperator1), getScanRank(scanBasedFilterOperator2));
+          if (result != 0) {
+            return result;
+          }
+          // Multi-value column evaluation is costly, put single-value column first
+          return Boolean.compare(!scanBasedFilterOperator1.getDataSourceMetadata().isSingleValue(),
+              !scanBasedFilterOperator2.getDataSourceMetadata().isSingleValue());
+        }
+        return 0;
       }
 
       int getPriority(BaseFilterOperator filterOperator) {
@@ -152,7 +174,7 @@ public class FilterOperatorUtils {
         if (filterOperator instanceof RangeIndexBasedFilterOperator) {
           return 2;
         }
-        if (filterOperator instanceof TextMatchFilterOperator) {
+        if (filterOperator instanceof TextMatchFilterOperator || filterOperator instanceof JsonMatchFilterOperator) {
           return 3;
         }
         if (filterOperator instanceof AndFilterOperator) {
@@ -162,7 +184,7 @@ public class FilterOperatorUtils {
           return 5;
         }
         if (filterOperator instanceof ScanBasedFilterOperator) {
-          return getScanBasedFilterPriority((ScanBasedFilterOperator) filterOperator, 6, debugOptions);
+          return 6;
         }
         if (filterOperator instanceof ExpressionFilterOperator) {
           return 10;
@@ -174,27 +196,15 @@ public class FilterOperatorUtils {
   }
 
   /**
-   * Returns the priority for scan based filtering. Multivalue column evaluation is costly, so
-   * reorder such that multivalue columns are evaluated after single value columns.
-   *
-   * TODO: additional cost based prioritization to be added
-   *
-   * @param scanBasedFilterOperator the filter operator to prioritize
-   * @param debugOptions  debug-options to enable/disable the optimization
-   * @return the priority to be associated with the filter
+   * Returns the rank of the scan-based filter operator, where operators with lower rank should be evaluated first.
+   * <p>When evaluating a chain of filters, the expected cost is minimized by ordering the filters by
+   * {@code costPerDoc / (1 - selectivity)}, i.e. cheap and selective filters first.
    */
-  private static int getScanBasedFilterPriority(ScanBasedFilterOperator scanBasedFilterOperator, int basePriority,
-      @Nullable Map<String, String> debugOptions) {
-    if (debugOptions != null
-        && StringUtils.compareIgnoreCase(debugOptions.get(USE_SCAN_REORDER_OPTIMIZATION), "false") == 0) {
-      return basePriority;
-    }
-
-    if (scanBasedFilterOperator.getDataSourceMetadata().isSingleValue()) {
-      return basePriority;
-    } else {
-      // Lower priority for multi-value column
-      return basePriority + 1;
+  private static double getScanRank(ScanBasedFilterOperator scanBasedFilterOperator) {
+    double selectivity = scanBasedFilterOperator.getEstimatedSelectivity();
+    if (selectivity >= 1.0) {
+      return Double.POSITIVE_INFINITY;
     }
+    return scanBasedFilterOperator.getEstimatedCostPerDoc() / (1.0 - selectivity);
   }
 }
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.geospatial.GeometryUtils;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.FunctionContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.query.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.segment.creator.impl.geo.GeoIndexUtils;
+import org.apache.pinot.core.segment.index.readers.GeoIndexReader;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.WKTReader;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Utility class to prune the documents for the geospatial predicates with the geo index. The following predicates are
+ * supported, where {@code col} has geo index and {@code literal} is a constant geometry (e.g.
+ * {@code ST_GeogFromText('POINT (-122 37)')}, {@code ST_Point(1, 2)}):
+ * <ul>
+ *   <li>ST_Distance(col, literal) &lt; distance (also &lt;=, BETWEEN and the swapped arguments)</li>
+ *   <li>ST_Contains(literal, col) = 1</li>
+ * </ul>
+ * The candidate documents are a superset of the matching documents, so the exact predicate still needs to be applied.
+ */
+public class GeoIndexFilterUtils {
+  private GeoIndexFilterUtils() {
+  }
+
+  private static final String ST_DISTANCE = "stdistance";
+  private static final String ST_CONTAINS = "stcontains";
+  private static final String ST_POINT = "stpoint";
+  private static final String ST_GEOG_FROM_TEXT = "stgeogfromtext";
+  private static final String ST_GEOM_FROM_TEXT = "stgeomfromtext";
+  private static final String ST_POLYGON = "stpolygon";
+
+  /**
+   * Returns the candidate document ids for the given predicate on a function, or {@code null} if the predicate cannot
+   * be solved with the geo index.
+   */
+  @Nullable
+  public static MutableRoaringBitmap getCandidateDocIds(IndexSegment indexSegment, Predicate predicate) {
+    FunctionContext function = predicate.getLhs().getFunction();
+    String functionName = canonicalize(function.getFunctionName());
+    List<ExpressionContext> arguments = function.getArguments();
+    if (arguments.size() != 2) {
+      return null;
+    }
+    try {
+      if (functionName.equals(ST_DISTANCE) && predicate.getType() == Predicate.Type.RANGE) {
+        String upperBound = ((RangePredicate) predicate).getUpperBound();
+        if (upperBound.equals(RangePredicate.UNBOUNDED)) {
+          return null;
+        }
+        double distance = Double.parseDouble(upperBound);
+        GeoIndexReader geoIndex = getGeoIndex(indexSegment, arguments.get(0));
+        Geometry geometry = getLiteralGeometry(arguments.get(1));
+        if (geoIndex == null || geometry == null) {
+          geoIndex = getGeoIndex(indexSegment, arguments.get(1));
+          geometry = getLiteralGeometry(arguments.get(0));
+        }
+        if (geoIndex == null || geometry == null || geometry.isEmpty()) {
+          return null;
+        }
+        return getCandidateDocIds(geoIndex, GeoIndexUtils.getDistanceEnvelope(geometry, distance));
+      }
+      if (functionName.equals(ST_CONTAINS) && predicate.getType() == Predicate.Type.EQ && ((EqPredicate) predicate)
+          .getValue().equals("1")) {
+        Geometry geometry = getLiteralGeometry(arguments.get(0));
+        GeoIndexReader geoIndex = getGeoIndex(indexSegment, arguments.get(1));
+        if (geoIndex == null || geometry == null || geometry.isEmpty()) {
+          return null;
+        }
+        return getCandidateDocIds(geoIndex, geometry.getEnvelopeInternal());
+      }
+    } catch (Exception e) {
+      // Fall back to scan if the predicate or the literal cannot be parsed
+      return null;
+    }
+    return null;
+  }
+
+  private static MutableRoaringBitmap getCandidateDocIds(GeoIndexReader geoIndex, Envelope envelope) {
+    return geoIndex.getCandidateDocIds(envelope.getMinX(), envelope.getMinY(), envelope.getMaxX(), envelope.getMaxY());
+  }
+
+  @Nullable
+  private static GeoIndexReader getGeoIndex(IndexSegment indexSegment, ExpressionContext expression) {
+    if (expression.getType() != ExpressionContext.Type.IDENTIFIER) {
+      return null;
+    }
+    DataSource dataSource = indexSegment.getDataSource(expression.getIdentifier());
+    return dataSource != null ? dataSource.getGeoIndex() : null;
+  }
+
+  /**
+   * Returns the geometry for the given constant geometry constructor expression, or {@code null} if the expression is
+   * not a constant geometry.
+   */
+  @Nullable
+  private static Geometry getLiteralGeometry(ExpressionContext expression)
+      throws Exception {
+    if (expression.getType() != ExpressionContext.Type.FUNCTION) {
+      return null;
+    }
+    FunctionContext function = expression.getFunction();
+    List<ExpressionContext> arguments = function.getArguments();
+    for (ExpressionContext argument : arguments) {
+      if (argument.getType() != ExpressionContext.Type.LITERAL) {
+        return null;
+      }
+    }
+    switch (canonicalize(function.getFunctionName())) {
+      case ST_POINT:
+        if (arguments.size() != 2) {
+          return null;
+        }
+        return GeometryUtils.GEOMETRY_FACTORY.createPoint(
+            new Coordinate(Double.parseDouble(arguments.get(0).getLiteral()),
+                Double.parseDouble(arguments.get(1).getLiteral())));
+      case ST_GEOG_FROM_TEXT:
+        return readWKT(GeometryUtils.GEOGRAPHY_FACTORY, arguments);
+      case ST_GEOM_FROM_TEXT:
+      case ST_POLYGON:
+        return readWKT(GeometryUtils.GEOMETRY_FACTORY, arguments);
+      default:
+        return null;
+    }
+  }
+
+  @Nullable
+  private static Geometry readWKT(GeometryFactory geometryFactory, List<ExpressionContext> arguments)
+      throws Exception {
+    if (arguments.size() != 1) {
+      return null;
+    }
+    return new WKTReader(geometryFactory).read(arguments.get(0).getLiteral());
+  }
+
+  private static String canonicalize(String functionName) {
+    return StringUtils.remove(functionName, '_').toLowerCase();
+  }
+}
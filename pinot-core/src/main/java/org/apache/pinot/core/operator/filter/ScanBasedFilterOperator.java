@@ -24,11 +24,22 @@ import org.apache.pinot.core.operator.blocks.FilterBlock;
 import org.apache.pinot.core.operator.docidsets.MVScanDocIdSet;
 import org.apache.pinot.core.operator.docidsets.SVScanDocIdSet;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.DoubleRawValueBasedRangePredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.FloatRawValueBasedRangePredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.IntRawValueBasedRangePredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.LongRawValueBasedRangePredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.SortedDictionaryBasedRangePredicateEvaluator;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
 
 
 public class ScanBasedFilterOperator extends BaseFilterOperator {
   private static final String OPERATOR_NAME = "ScanBasedFilterOperator";
 
+  // Default selectivity when it cannot be estimated from the segment statistics
+  private static final double DEFAULT_EQ_SELECTIVITY = 0.1;
+  private static final double DEFAULT_RANGE_SELECTIVITY = 0.5;
+
   private final PredicateEvaluator _predicateEvaluator;
   private final DataSource _dataSource;
   private final int _numDocs;
@@ -57,9 +68,114 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
 
   /**
    * Returns the metadata of the data source associated with the scan filter.
-   * TODO: Replace this with a priority method for all filter operators
    */
   public DataSourceMetadata getDataSourceMetadata() {
     return _dataSource.getDataSourceMetadata();
   }
+
+  /**
+   * Returns the estimated cost of scanning one document, measured as the average number of entries per document (1 for
+   * single-value column).
+   */
+  public double getEstimatedCostPerDoc() {
+    DataSourceMetadata dataSourceMetadata = _dataSource.getDataSourceMetadata();
+    if (dataSourceMetadata.isSingleValue()) {
+      return 1.0;
+    }
+    int numDocs = dataSourceMetadata.getNumDocs();
+    int numValues = dataSourceMetadata.getNumValues();
+    return numDocs > 0 && numValues > numDocs ? (double) numValues / numDocs : 1.0;
+  }
+
+  /**
+   * Returns the estimated fraction of the documents matching the predicate (between 0 and 1), based on the cheap
+   * per-segment statistics:
+   * <ul>
+   *   <li>For dictionary-based EQ/NOT_EQ/IN/NOT_IN and sorted dictionary RANGE, the fraction of the matching
+   *   dictionary ids, assuming each value appears in the same number of documents</li>
+   *   <li>For raw value based numeric RANGE, the overlap of the range with the column min/max value, assuming values
+   *   are uniformly distributed</li>
+   *   <li>Otherwise, a default selectivity based on the predicate type</li>
+   * </ul>
+   */
+  public double getEstimatedSelectivity() {
+    Predicate.Type predicateType = _predicateEvaluator.getPredicateType();
+    if (predicateType == Predicate.Type.REGEXP_LIKE) {
+      // NOTE: Do not compute the matching dictionary ids for REGEXP_LIKE because it requires scanning the dictionary
+      return DEFAULT_RANGE_SELECTIVITY;
+    }
+    Dictionary dictionary = _dataSource.getDictionary();
+    if (_predicateEvaluator.isDictionaryBased() && dictionary != null) {
+      int cardinality = dictionary.length();
+      if (cardinality > 0) {
+        switch (predicateType) {
+          case EQ:
+          case IN:
+            return (double) _predicateEvaluator.getNumMatchingDictIds() / cardinality;
+          case NOT_EQ:
+          case NOT_IN:
+            return 1.0 - (double) _predicateEvaluator.getNumNonMatchingDictIds() / cardinality;
+          case RANGE:
+            if (_predicateEvaluator instanceof SortedDictionaryBasedRangePredicateEvaluator) {
+              return (double) _predicateEvaluator.getNumMatchingDictIds() / cardinality;
+            }
+            break;
+          default:
+            break;
+        }
+      }
+    }
+    switch (predicateType) {
+      case EQ:
+      case IN:
+        return DEFAULT_EQ_SELECTIVITY;
+      case NOT_EQ:
+      case NOT_IN:
+        return 1.0 - DEFAULT_EQ_SELECTIVITY;
+      case RANGE:
+        return estimateRawRangeSelectivity();
+      default:
+        return DEFAULT_RANGE_SELECTIVITY;
+    }
+  }
+
+  private double estimateRawRangeSelectivity() {
+    double lowerBound;
+    double upperBound;
+    if (_predicateEvaluator instanceof IntRawValueBasedRangePredicateEvaluator) {
+      IntRawValueBasedRangePredicateEvaluator evaluator = (IntRawValueBasedRangePredicateEvaluator) _predicateEvaluator;
+      lowerBound = evaluator.geLowerBound();
+      upperBound = evaluator.getUpperBound();
+    } else if (_predicateEvaluator instanceof LongRawValueBasedRangePredicateEvaluator) {
+      LongRawValueBasedRangePredicateEvaluator evaluator =
+          (LongRawValueBasedRangePredicateEvaluator) _predicateEvaluator;
+      lowerBound = evaluator.geLowerBound();
+      upperBound = evaluator.getUpperBound();
+    } else if (_predicateEvaluator instanceof FloatRawValueBasedRangePredicateEvaluator) {
+      FloatRawValueBasedRangePredicateEvaluator evaluator =
+          (FloatRawValueBasedRangePredicateEvaluator) _predicateEvaluator;
+      lowerBound = evaluator.geLowerBound();
+      upperBound = evaluator.getUpperBound();
+    } else if (_predicateEvaluator instanceof DoubleRawValueBasedRangePredicateEvaluator) {
+      DoubleRawValueBasedRangePredicateEvaluator evaluator =
+          (DoubleRawValueBasedRangePredicateEvaluator) _predicateEvaluator;
+      lowerBound = evaluator.geLowerBound();
+      upperBound = evaluator.getUpperBound();
+    } else {
+      return DEFAULT_RANGE_SELECTIVITY;
+    }
+    DataSourceMetadata dataSourceMetadata = _dataSource.getDataSourceMetadata();
+    Comparable minValue = dataSourceMetadata.getMinValue();
+    Comparable maxValue = dataSourceMetadata.getMaxValue();
+    if (!(minValue instanceof Number) || !(maxValue instanceof Number)) {
+      return DEFAULT_RANGE_SELECTIVITY;
+    }
+    double min = ((Number) minValue).doubleValue();
+    double max = ((Number) maxValue).doubleValue();
+    if (max <= min) {
+      return lowerBound <= min && upperBound >= max ? 1.0 : 0.0;
+    }
+    double overlap = Math.min(upperBound, max) - Math.max(lowerBound, min);
+    return Math.max(0.0, Math.min(1.0, overlap / (max - min)));
+  }
 }
@@ -99,6 +99,17 @@ public class EqualsPredicateEvaluatorFactory {
       return _matchingDictId == dictId;
     }
 
+    @Override
+    public int applySV(int limit, int[] docIds, int[] values) {
+      int matchingDictId = _matchingDictId;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        docIds[numMatchingDocs] = docIds[i];
+        numMatchingDocs += values[i] == matchingDictId ? 1 : 0;
+      }
+      return numMatchingDocs;
+    }
+
     @Override
     public int[] getMatchingDictIds() {
       return _matchingDictIds;
@@ -126,6 +137,17 @@ public class EqualsPredicateEvaluatorFactory {
     public boolean applySV(int value) {
       return _matchingValue == value;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, int[] values) {
+      int matchingValue = _matchingValue;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        docIds[numMatchingDocs] = docIds[i];
+        numMatchingDocs += values[i] == matchingValue ? 1 : 0;
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class LongRawValueBasedEqPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -149,6 +171,17 @@ public class EqualsPredicateEvaluatorFactory {
     public boolean applySV(long value) {
       return (_matchingValue == value);
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, long[] values) {
+      long matchingValue = _matchingValue;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        docIds[numMatchingDocs] = docIds[i];
+        numMatchingDocs += values[i] == matchingValue ? 1 : 0;
+      }
+      return numMatchingDocs;
+    }
   }
 
   private static final class FloatRawValueBasedEqPredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
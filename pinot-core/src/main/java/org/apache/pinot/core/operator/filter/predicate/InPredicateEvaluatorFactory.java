@@ -85,9 +85,14 @@ public class InPredicateEvaluatorFactory {
   }
 
   private static final class DictionaryBasedInPredicateEvaluator extends BaseDictionaryBasedPredicateEvaluator {
+    // Only use bitset for batch evaluation when the max matching dictionary id is within this limit (128KB bitset)
+    static final int MAX_BITSET_SIZE = 1 << 20;
+
     final IntSet _matchingDictIdSet;
     final int _numMatchingDictIds;
     int[] _matchingDictIds;
+    // Lazily built for batch evaluation, empty array if the bitset cannot be used
+    long[] _matchingDictIdBitSet;
 
     DictionaryBasedInPredicateEvaluator(InPredicate inPredicate, Dictionary dictionary) {
       List<String> values = inPredicate.getValues();
@@ -116,6 +121,41 @@ public class InPredicateEvaluatorFactory {
       return _matchingDictIdSet.contains(dictId);
     }
 
+    @Override
+    public int applySV(int limit, int[] docIds, int[] values) {
+      long[] bitSet = getMatchingDictIdBitSet();
+      if (bitSet.length == 0) {
+        return super.applySV(limit, docIds, values);
+      }
+      int bitSetSize = bitSet.length << 6;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        int dictId = values[i];
+        docIds[numMatchingDocs] = docIds[i];
+        numMatchingDocs += (dictId < bitSetSize && (bitSet[dictId >>> 6] & (1L << dictId)) != 0) ? 1 : 0;
+      }
+      return numMatchingDocs;
+    }
+
+    private long[] getMatchingDictIdBitSet() {
+      if (_matchingDictIdBitSet == null) {
+        int maxDictId = -1;
+        for (int dictId : getMatchingDictIds()) {
+          maxDictId = Math.max(maxDictId, dictId);
+        }
+        if (maxDictId >= 0 && maxDictId < MAX_BITSET_SIZE) {
+          long[] bitSet = new long[(maxDictId >>> 6) + 1];
+          for (int dictId : getMatchingDictIds()) {
+            bitSet[dictId >>> 6] |= 1L << dictId;
+          }
+          _matchingDictIdBitSet = bitSet;
+        } else {
+          _matchingDictIdBitSet = new long[0];
+        }
+      }
+      return _matchingDictIdBitSet;
+    }
+
     @Override
     public int getNumMatchingDictIds() {
       return _numMatchingDictIds;
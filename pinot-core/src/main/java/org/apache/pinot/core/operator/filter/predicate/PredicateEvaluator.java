@@ -75,6 +75,25 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(int[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the document ids of the matching entries to the
+   * head of the document id array.
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Array of document ids, where the matching document ids are written back in order
+   * @param values Array of dictionary ids or raw values, where values[i] is the entry for docIds[i]
+   * @return Number of matching entries
+   */
+  default int applySV(int limit, int[] docIds, int[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
   /**
    * APIs for dictionary based predicate evaluator
    */
@@ -120,6 +139,25 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(long[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the document ids of the matching entries to the
+   * head of the document id array.
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Array of document ids, where the matching document ids are written back in order
+   * @param values Array of raw values, where values[i] is the entry for docIds[i]
+   * @return Number of matching entries
+   */
+  default int applySV(int limit, int[] docIds, long[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -137,6 +175,25 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(float[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the document ids of the matching entries to the
+   * head of the document id array.
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Array of document ids, where the matching document ids are written back in order
+   * @param values Array of raw values, where values[i] is the entry for docIds[i]
+   * @return Number of matching entries
+   */
+  default int applySV(int limit, int[] docIds, float[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -154,6 +211,25 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(double[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the document ids of the matching entries to the
+   * head of the document id array.
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Array of document ids, where the matching document ids are written back in order
+   * @param values Array of raw values, where values[i] is the entry for docIds[i]
+   * @return Number of matching entries
+   */
+  default int applySV(int limit, int[] docIds, double[] values) {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocs++] = docIds[i];
+      }
+    }
+    return numMatchingDocs;
+  }
+
   /**
    * Apply a single-value entry to the predicate.
    *
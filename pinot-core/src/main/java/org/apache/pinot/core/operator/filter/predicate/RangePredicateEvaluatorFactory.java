@@ -146,6 +146,20 @@ public class RangePredicateEvaluatorFactory {
       return _startDictId <= dictId && _endDictId > dictId;
     }
 
+    @Override
+    public int applySV(int limit, int[] docIds, int[] values) {
+      // NOTE: Always write the document id and only advance the index on match to avoid branching in the loop
+      int startDictId = _startDictId;
+      int endDictId = _endDictId;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        int dictId = values[i];
+        docIds[numMatchingDocs] = docIds[i];
+        numMatchingDocs += (startDictId <= dictId && endDictId > dictId) ? 1 : 0;
+      }
+      return numMatchingDocs;
+    }
+
     @Override
     public int getNumMatchingDictIds() {
       return _numMatchingDictIds;
@@ -310,6 +324,20 @@ public class RangePredicateEvaluatorFactory {
       }
       return result;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, int[] values) {
+      // Convert the bounds to inclusive ones (in long to avoid overflow) to avoid branching in the loop
+      long lowerBound = _lowerInclusive ? _lowerBound : (long) _lowerBound + 1;
+      long upperBound = _upperInclusive ? _upperBound : (long) _upperBound - 1;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        int value = values[i];
+        docIds[numMatchingDocs] = docIds[i];
+        numMatchingDocs += (lowerBound <= value && upperBound >= value) ? 1 : 0;
+      }
+      return numMatchingDocs;
+    }
   }
 
   public static final class LongRawValueBasedRangePredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
@@ -363,6 +391,23 @@ public class RangePredicateEvaluatorFactory {
       }
       return result;
     }
+
+    @Override
+    public int applySV(int limit, int[] docIds, long[] values) {
+      // Convert the bounds to inclusive ones to avoid branching in the loop
+      if ((!_lowerInclusive && _lowerBound == Long.MAX_VALUE) || (!_upperInclusive && _upperBound == Long.MIN_VALUE)) {
+        return 0;
+      }
+      long lowerBound = _lowerInclusive ? _lowerBound : _lowerBound + 1;
+      long upperBound = _upperInclusive ? _upperBound : _upperBound - 1;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        long value = values[i];
+        docIds[numMatchingDocs] = docIds[i];
+        numMatchingDocs += (lowerBound <= value && upperBound >= value) ? 1 : 0;
+      }
+      return numMatchingDocs;
+    }
   }
 
   public static final class FloatRawValueBasedRangePredicateEvaluator extends BaseRawValueBasedPredicateEvaluator {
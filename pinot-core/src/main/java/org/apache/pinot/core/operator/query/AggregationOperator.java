@@ -64,6 +64,10 @@ public class AggregationOperator extends BaseOperator<IntermediateResultsBlock>
     while ((transformBlock = _transformOperator.nextBlock()) != null) {
       _numDocsScanned += transformBlock.getNumDocs();
       aggregationExecutor.aggregate(transformBlock);
+      // Stop scanning once the result cannot change (e.g. DISTINCT without order-by reached the LIMIT)
+      if (aggregationExecutor.isSatisfied()) {
+        break;
+      }
     }
 
     // Build intermediate result block based on aggregation result from the executor
@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
+
+
+/**
+ * The <code>CachedAggregationOperator</code> class provides the operator for aggregation only query on a single segment
+ * with the {@link SegmentResultCache}.
+ * <ul>
+ *   <li>On cache hit, returns the cached aggregation result without processing the segment.</li>
+ *   <li>On cache miss, processes the segment with the underlying operator and caches the aggregation result.</li>
+ * </ul>
+ */
+@SuppressWarnings("rawtypes")
+public class CachedAggregationOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final String OPERATOR_NAME = "CachedAggregationOperator";
+
+  private final AggregationFunction[] _aggregationFunctions;
+  private final List<Object> _cachedAggregationResult;
+  private final Operator<IntermediateResultsBlock> _operator;
+  private final SegmentResultCache _segmentResultCache;
+  private final String _tableNameWithType;
+  private final IndexSegment _indexSegment;
+  private final String _queryFingerprint;
+
+  /**
+   * Constructor for cache hit.
+   */
+  public CachedAggregationOperator(AggregationFunction[] aggregationFunctions, List<Object> cachedAggregationResult,
+      IndexSegment indexSegment) {
+    this(aggregationFunctions, cachedAggregationResult, null, null, null, indexSegment, null);
+  }
+
+  /**
+   * Constructor for cache miss.
+   */
+  public CachedAggregationOperator(AggregationFunction[] aggregationFunctions,
+      Operator<IntermediateResultsBlock> operator, SegmentResultCache segmentResultCache, String tableNameWithType,
+      IndexSegment indexSegment, String queryFingerprint) {
+    this(aggregationFunctions, null, operator, segmentResultCache, tableNameWithType, indexSegment, queryFingerprint);
+  }
+
+  private CachedAggregationOperator(AggregationFunction[] aggregationFunctions,
+      @Nullable List<Object> cachedAggregationResult, @Nullable Operator<IntermediateResultsBlock> operator,
+      @Nullable SegmentResultCache segmentResultCache, @Nullable String tableNameWithType, IndexSegment indexSegment,
+      @Nullable String queryFingerprint) {
+    _aggregationFunctions = aggregationFunctions;
+    _cachedAggregationResult = cachedAggregationResult;
+    _operator = operator;
+    _segmentResultCache = segmentResultCache;
+    _tableNameWithType = tableNameWithType;
+    _indexSegment = indexSegment;
+    _queryFingerprint = queryFingerprint;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    if (_cachedAggregationResult != null) {
+      return new IntermediateResultsBlock(_aggregationFunctions, _cachedAggregationResult, false);
+    }
+
+    IntermediateResultsBlock resultsBlock = _operator.nextBlock();
+    List<Object> aggregationResult = resultsBlock.getAggregationResult();
+    // NOTE: Cache the result before returning it because the result can be modified when merging with the results from
+    //       the other segments.
+    if (resultsBlock.getProcessingExceptions() == null && aggregationResult != null) {
+      _segmentResultCache.putAggregationResult(_tableNameWithType, _indexSegment, _queryFingerprint, aggregationResult);
+    }
+    return resultsBlock;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    if (_cachedAggregationResult != null) {
+      // No document scanned on cache hit
+      return new ExecutionStatistics(0, 0, 0, _indexSegment.getSegmentMetadata().getTotalDocs());
+    } else {
+      return _operator.getExecutionStatistics();
+    }
+  }
+}
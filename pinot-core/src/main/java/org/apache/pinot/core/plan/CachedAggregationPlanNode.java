@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import java.util.List;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.operator.query.CachedAggregationOperator;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * The <code>CachedAggregationPlanNode</code> class provides the execution plan for aggregation only query on a single
+ * immutable segment with the {@link SegmentResultCache}.
+ * <p>The cache is looked up when running the plan, and the underlying {@link AggregationPlanNode} is only created on
+ * cache miss so that no filter or transform operator is created for the segment on cache hit.
+ */
+public class CachedAggregationPlanNode implements PlanNode {
+  private final IndexSegment _indexSegment;
+  private final QueryContext _queryContext;
+  private final SegmentResultCache _segmentResultCache;
+
+  public CachedAggregationPlanNode(IndexSegment indexSegment, QueryContext queryContext,
+      SegmentResultCache segmentResultCache) {
+    _indexSegment = indexSegment;
+    _queryContext = queryContext;
+    _segmentResultCache = segmentResultCache;
+  }
+
+  @Override
+  public CachedAggregationOperator run() {
+    AggregationFunction[] aggregationFunctions = _queryContext.getAggregationFunctions();
+    assert aggregationFunctions != null;
+    // NOTE: On the server side, the table name in the query is the table name with type
+    String tableNameWithType = _queryContext.getTableName();
+    String queryFingerprint = SegmentResultCache.getAggregationQueryFingerprint(_queryContext);
+    List<Object> cachedAggregationResult =
+        _segmentResultCache.getAggregationResult(tableNameWithType, _indexSegment, queryFingerprint);
+    if (cachedAggregationResult != null) {
+      return new CachedAggregationOperator(aggregationFunctions, cachedAggregationResult, _indexSegment);
+    } else {
+      return new CachedAggregationOperator(aggregationFunctions,
+          new AggregationPlanNode(_indexSegment, _queryContext).run(), _segmentResultCache, tableNameWithType,
+          _indexSegment, queryFingerprint);
+    }
+  }
+}
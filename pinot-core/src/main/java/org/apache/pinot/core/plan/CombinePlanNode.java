@@ -20,7 +20,7 @@ package org.apache.pinot.core.plan;
 
 import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -40,7 +40,7 @@ import org.apache.pinot.core.query.exception.BadQueryRequestException;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
 import org.apache.pinot.core.util.QueryOptions;
-import org.apache.pinot.core.util.trace.TraceCallable;
+import org.apache.pinot.core.util.trace.TraceRunnable;
 
 
 /**
@@ -112,26 +112,27 @@ public class CombinePlanNode implements PlanNode {
       Phaser phaser = new Phaser(1);
 
       // Submit all jobs
+      // NOTE: Put the operators into an array indexed by the plan node index to preserve the order of the plan nodes,
+      //       which decides the order of the segments being processed in the combine operator.
+      Operator[] operatorArray = new Operator[numPlanNodes];
       Future[] futures = new Future[numThreads];
       for (int i = 0; i < numThreads; i++) {
         int index = i;
-        futures[i] = _executorService.submit(new TraceCallable<List<Operator>>() {
+        futures[i] = _executorService.submit(new TraceRunnable() {
           @Override
-          public List<Operator> callJob() {
+          public void runJob() {
             try {
               // Register the thread to the phaser.
               // If the phaser is terminated (returning negative value) when trying to register the thread, that means
               // the query execution has timed out, and the main thread has deregistered itself and returned the result.
               // Directly return as no execution result will be taken.
               if (phaser.register() < 0) {
-                return Collections.emptyList();
+                return;
               }
 
-              List<Operator> operators = new ArrayList<>();
               for (int i = index; i < numPlanNodes; i += numThreads) {
-                operators.add(_planNodes.get(i).run());
+                operatorArray[i] = _planNodes.get(i).run();
               }
-              return operators;
             } finally {
               phaser.arriveAndDeregister();
             }
@@ -142,10 +143,9 @@ public class CombinePlanNode implements PlanNode {
       // Get all results
       try {
         for (Future future : futures) {
-          List<Operator> ops =
-              (List<Operator>) future.get(_endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
-          operators.addAll(ops);
+          future.get(_endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
         }
+        operators.addAll(Arrays.asList(operatorArray));
       } catch (Exception e) {
         // Future object will throw ExecutionException for execution exception, need to check the cause to determine
         // whether it is caused by bad query
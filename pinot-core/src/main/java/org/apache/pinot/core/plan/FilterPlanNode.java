@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.plan;
 
+import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -30,6 +31,8 @@ import org.apache.pinot.core.operator.filter.BitmapBasedFilterOperator;
 import org.apache.pinot.core.operator.filter.EmptyFilterOperator;
 import org.apache.pinot.core.operator.filter.ExpressionFilterOperator;
 import org.apache.pinot.core.operator.filter.FilterOperatorUtils;
+import org.apache.pinot.core.operator.filter.GeoIndexFilterUtils;
+import org.apache.pinot.core.operator.filter.JsonMatchFilterOperator;
 import org.apache.pinot.core.operator.filter.MatchAllFilterOperator;
 import org.apache.pinot.core.operator.filter.TextMatchFilterOperator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
@@ -37,11 +40,14 @@ import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvide
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.FilterContext;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.predicate.JsonMatchPredicate;
 import org.apache.pinot.core.query.request.context.predicate.Predicate;
 import org.apache.pinot.core.query.request.context.predicate.TextMatchPredicate;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
 import org.apache.pinot.core.segment.index.readers.ValidDocIndexReader;
 import org.apache.pinot.core.util.QueryOptions;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 public class FilterPlanNode implements PlanNode {
@@ -121,14 +127,33 @@ public class FilterPlanNode implements PlanNode {
         ExpressionContext lhs = predicate.getLhs();
         if (lhs.getType() == ExpressionContext.Type.FUNCTION) {
           // TODO: ExpressionFilterOperator does not support predicate types without PredicateEvaluator (IS_NULL,
-          //       IS_NOT_NULL, TEXT_MATCH)
-          return new ExpressionFilterOperator(_indexSegment, predicate, _numDocs);
+          //       IS_NOT_NULL, TEXT_MATCH, JSON_MATCH)
+          BaseFilterOperator expressionFilterOperator =
+              new ExpressionFilterOperator(_indexSegment, predicate, _numDocs);
+          // Prune the documents with the geo index so that the expression is only evaluated on the candidates
+          MutableRoaringBitmap candidateDocIds = GeoIndexFilterUtils.getCandidateDocIds(_indexSegment, predicate);
+          if (candidateDocIds != null) {
+            if (candidateDocIds.isEmpty()) {
+              return EmptyFilterOperator.getInstance();
+            }
+            BaseFilterOperator candidateFilterOperator =
+                new BitmapBasedFilterOperator(candidateDocIds, false, _numDocs);
+            return FilterOperatorUtils
+                .getAndFilterOperator(Arrays.asList(candidateFilterOperator, expressionFilterOperator), _numDocs,
+                    debugOptions);
+          }
+          return expressionFilterOperator;
         } else {
           DataSource dataSource = _indexSegment.getDataSource(lhs.getIdentifier());
           switch (predicate.getType()) {
             case TEXT_MATCH:
               return new TextMatchFilterOperator(dataSource.getTextIndex(), ((TextMatchPredicate) predicate).getValue(),
                   _numDocs);
+            case JSON_MATCH:
+              JsonIndexReader jsonIndex = dataSource.getJsonIndex();
+              Preconditions.checkState(jsonIndex != null, "Cannot apply JSON_MATCH on column: %s without json index",
+                  lhs.getIdentifier());
+              return new JsonMatchFilterOperator(jsonIndex, ((JsonMatchPredicate) predicate).getFilter(), _numDocs);
             case IS_NULL:
               NullValueVectorReader nullValueVector = dataSource.getNullValueVector();
               if (nullValueVector != null) {
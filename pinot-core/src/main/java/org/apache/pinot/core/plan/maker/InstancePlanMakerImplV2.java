@@ -22,14 +22,17 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.proto.Server;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.plan.AggregationGroupByOrderByPlanNode;
 import org.apache.pinot.core.plan.AggregationGroupByPlanNode;
 import org.apache.pinot.core.plan.AggregationPlanNode;
+import org.apache.pinot.core.plan.CachedAggregationPlanNode;
 import org.apache.pinot.core.plan.CombinePlanNode;
 import org.apache.pinot.core.plan.DictionaryBasedAggregationPlanNode;
 import org.apache.pinot.core.plan.GlobalPlanImplV0;
@@ -40,6 +43,7 @@ import org.apache.pinot.core.plan.PlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.plan.StreamingSelectionPlanNode;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
 import org.apache.pinot.core.query.config.QueryExecutorConfig;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.FunctionContext;
@@ -66,17 +70,32 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public static final String GROUPBY_TRIM_THRESHOLD = "groupby.trim.threshold";
   public static final int DEFAULT_GROUPBY_TRIM_THRESHOLD = 1_000_000;
 
+  // set as pinot.server.query.executor.order.segments.by.size
+  public static final String ORDER_SEGMENTS_BY_SIZE = "order.segments.by.size";
+  public static final boolean DEFAULT_ORDER_SEGMENTS_BY_SIZE = false;
+
+  // set as pinot.server.query.executor.segment.result.cache.max.size.in.bytes (non-positive value disables the cache)
+  public static final String SEGMENT_RESULT_CACHE_MAX_SIZE_IN_BYTES = "segment.result.cache.max.size.in.bytes";
+  public static final long DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE_IN_BYTES = 0L;
+
   private final int _maxInitialResultHolderCapacity;
   // Limit on number of groups stored for each segment, beyond which no new group will be created
   private final int _numGroupsLimit;
   // Used for SQL GROUP BY (server combine)
   private final int _groupByTrimThreshold;
+  // Whether to order the segments by size (largest first) so that the combine operator processes the largest segments
+  // first, which reduces the tail latency when the segment sizes are skewed
+  private final boolean _orderSegmentsBySize;
+  // Cache for the per-segment aggregation results on immutable segments, null if disabled
+  private final SegmentResultCache _segmentResultCache;
 
   @VisibleForTesting
   public InstancePlanMakerImplV2() {
     _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
     _numGroupsLimit = DEFAULT_NUM_GROUPS_LIMIT;
     _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+    _orderSegmentsBySize = DEFAULT_ORDER_SEGMENTS_BY_SIZE;
+    _segmentResultCache = null;
   }
 
   @VisibleForTesting
@@ -84,6 +103,8 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
     _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+    _orderSegmentsBySize = DEFAULT_ORDER_SEGMENTS_BY_SIZE;
+    _segmentResultCache = null;
   }
 
   /**
@@ -91,28 +112,38 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
    * <ul>
    *   <li>Set limit on the initial result holder capacity</li>
    *   <li>Set limit on number of groups returned from each segment and combined result</li>
+   *   <li>Set whether to order the segments by size before combining</li>
+   *   <li>Set the max size of the per-segment result cache</li>
    * </ul>
    *
    * @param queryExecutorConfig Query executor configuration
+   * @param serverMetrics Server metrics
    */
-  public InstancePlanMakerImplV2(QueryExecutorConfig queryExecutorConfig) {
+  public InstancePlanMakerImplV2(QueryExecutorConfig queryExecutorConfig, ServerMetrics serverMetrics) {
     _maxInitialResultHolderCapacity = queryExecutorConfig.getConfig()
         .getProperty(MAX_INITIAL_RESULT_HOLDER_CAPACITY_KEY, DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
     _numGroupsLimit = queryExecutorConfig.getConfig().getProperty(NUM_GROUPS_LIMIT, DEFAULT_NUM_GROUPS_LIMIT);
     _groupByTrimThreshold =
         queryExecutorConfig.getConfig().getProperty(GROUPBY_TRIM_THRESHOLD, DEFAULT_GROUPBY_TRIM_THRESHOLD);
+    _orderSegmentsBySize =
+        queryExecutorConfig.getConfig().getProperty(ORDER_SEGMENTS_BY_SIZE, DEFAULT_ORDER_SEGMENTS_BY_SIZE);
+    long segmentResultCacheMaxSizeInBytes = queryExecutorConfig.getConfig()
+        .getProperty(SEGMENT_RESULT_CACHE_MAX_SIZE_IN_BYTES, DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE_IN_BYTES);
+    _segmentResultCache = segmentResultCacheMaxSizeInBytes > 0 ? new SegmentResultCache(
+        segmentResultCacheMaxSizeInBytes, serverMetrics) : null;
     Preconditions.checkState(_maxInitialResultHolderCapacity <= _numGroupsLimit,
         "Invalid configuration: maxInitialResultHolderCapacity: %d must be smaller or equal to numGroupsLimit: %d",
         _maxInitialResultHolderCapacity, _numGroupsLimit);
-    LOGGER.info("Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}",
-        _maxInitialResultHolderCapacity, _numGroupsLimit);
+    LOGGER.info("Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}, "
+            + "orderSegmentsBySize: {}, segmentResultCacheMaxSizeInBytes: {}", _maxInitialResultHolderCapacity,
+        _numGroupsLimit, _orderSegmentsBySize, segmentResultCacheMaxSizeInBytes);
   }
 
   @Override
   public Plan makeInstancePlan(List<IndexSegment> indexSegments, QueryContext queryContext,
       ExecutorService executorService, long endTimeMs) {
     List<PlanNode> planNodes = new ArrayList<>(indexSegments.size());
-    for (IndexSegment indexSegment : indexSegments) {
+    for (IndexSegment indexSegment : getOrderedSegments(indexSegments)) {
       planNodes.add(makeSegmentPlanNode(indexSegment, queryContext));
     }
     CombinePlanNode combinePlanNode =
@@ -148,6 +179,10 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
             return new DictionaryBasedAggregationPlanNode(indexSegment, queryContext);
           }
         }
+        // Use the per-segment result cache for immutable segments if enabled
+        if (_segmentResultCache != null && SegmentResultCache.isCacheable(indexSegment)) {
+          return new CachedAggregationPlanNode(indexSegment, queryContext, _segmentResultCache);
+        }
         return new AggregationPlanNode(indexSegment, queryContext);
       }
     } else {
@@ -160,7 +195,7 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public Plan makeStreamingInstancePlan(List<IndexSegment> indexSegments, QueryContext queryContext,
       ExecutorService executorService, StreamObserver<Server.ServerResponse> streamObserver, long endTimeMs) {
     List<PlanNode> planNodes = new ArrayList<>(indexSegments.size());
-    for (IndexSegment indexSegment : indexSegments) {
+    for (IndexSegment indexSegment : getOrderedSegments(indexSegments)) {
       planNodes.add(makeStreamingSegmentPlanNode(indexSegment, queryContext));
     }
     CombinePlanNode combinePlanNode =
@@ -179,6 +214,21 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
   }
 
+  /**
+   * Returns the segments in the order to be processed. When ordering by size is enabled, returns the segments sorted by
+   * the number of documents in descending order so that the combine operator (which dispatches the segments to the
+   * worker threads in order) schedules the largest segments first.
+   */
+  private List<IndexSegment> getOrderedSegments(List<IndexSegment> indexSegments) {
+    if (!_orderSegmentsBySize || indexSegments.size() <= 1) {
+      return indexSegments;
+    }
+    List<IndexSegment> orderedSegments = new ArrayList<>(indexSegments);
+    orderedSegments.sort(Comparator.comparingInt(
+        (IndexSegment indexSegment) -> indexSegment.getSegmentMetadata().getTotalDocs()).reversed());
+    return orderedSegments;
+  }
+
   /**
    * Returns {@code true} if the given aggregation-only without filter QueryContext can be solved with segment metadata,
    * {@code false} otherwise.
@@ -35,6 +35,13 @@ public interface AggregationExecutor {
    */
   void aggregate(TransformBlock transformBlock);
 
+  /**
+   * Returns {@code true} if the aggregation result can no longer change with more transform blocks (e.g. DISTINCT
+   * without order-by that already collected LIMIT unique records), {@code false} otherwise.
+   * <p>When satisfied, the caller can stop fetching transform blocks.
+   */
+  boolean isSatisfied();
+
   /**
    * Returns the result of aggregation.
    * <p>Should be called after all transform blocks has been aggregated.
@@ -49,6 +49,17 @@ public class DefaultAggregationExecutor implements AggregationExecutor {
     }
   }
 
+  @Override
+  public boolean isSatisfied() {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      if (!_aggregationFunctions[i].isSatisfied(_aggregationResultHolders[i])) {
+        return false;
+      }
+    }
+    return numAggregationFunctions > 0;
+  }
+
   @Override
   public List<Object> getResult() {
     int numFunctions = _aggregationFunctions.length;
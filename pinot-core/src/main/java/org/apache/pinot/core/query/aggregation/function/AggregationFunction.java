@@ -78,6 +78,14 @@ public interface AggregationFunction<IntermediateResult, FinalResult extends Com
   void aggregate(int length, AggregationResultHolder aggregationResultHolder,
       Map<ExpressionContext, BlockValSet> blockValSetMap);
 
+  /**
+   * Returns {@code true} if the aggregation result in the given result holder cannot be changed by aggregating more
+   * blocks, in which case the remaining blocks do not need to be scanned (aggregation only), {@code false} otherwise.
+   */
+  default boolean isSatisfied(AggregationResultHolder aggregationResultHolder) {
+    return false;
+  }
+
   /**
    * Performs aggregation on the given group key array and block value sets (aggregation group-by on single-value
    * columns).
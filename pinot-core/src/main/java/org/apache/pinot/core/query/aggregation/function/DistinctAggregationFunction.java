@@ -35,10 +35,18 @@ import org.apache.pinot.core.query.aggregation.function.customobject.DistinctTab
 import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.OrderByExpressionContext;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 
 
 /**
  * The DISTINCT clause in SQL is executed as the DISTINCT aggregation function.
+ * <p>For single dictionary-encoded column, the dictionary ids are collected into a bitmap during the aggregation, and
+ * are converted to values only when extracting the aggregation result.
  * TODO: Support group-by
  */
 @SuppressWarnings("rawtypes")
@@ -119,6 +127,16 @@ public class DistinctAggregationFunction implements AggregationFunction<Distinct
       blockValSets[i] = blockValSetMap.get(_expressions.get(i));
     }
 
+    // For single dictionary-encoded column, store dictionary ids into the bitmap
+    if (numExpressions == 1) {
+      BlockValSet blockValSet = blockValSets[0];
+      Dictionary dictionary = blockValSet.getDictionary();
+      if (dictionary != null && blockValSet.isSingleValue()) {
+        aggregateDictIds(length, aggregationResultHolder, blockValSet, dictionary);
+        return;
+      }
+    }
+
     DistinctTable distinctTable = aggregationResultHolder.getResult();
     if (distinctTable == null) {
       ColumnDataType[] columnDataTypes = new ColumnDataType[numExpressions];
@@ -153,9 +171,60 @@ public class DistinctAggregationFunction implements AggregationFunction<Distinct
     }
   }
 
+  /**
+   * Helper method to store the dictionary ids into the bitmap for single dictionary-encoded column.
+   */
+  private void aggregateDictIds(int length, AggregationResultHolder aggregationResultHolder, BlockValSet blockValSet,
+      Dictionary dictionary) {
+    DictIdsWrapper dictIdsWrapper = aggregationResultHolder.getResult();
+    if (dictIdsWrapper == null) {
+      dictIdsWrapper = new DictIdsWrapper(dictionary);
+      aggregationResultHolder.setValue(dictIdsWrapper);
+    }
+    RoaringBitmap dictIdBitmap = dictIdsWrapper._dictIdBitmap;
+
+    if (_orderByExpressions != null) {
+      // With order-by, collect all the dictionary ids and pick the values when extracting the result
+      dictIdBitmap.addN(blockValSet.getDictionaryIdsSV(), 0, length);
+    } else {
+      // Without order-by, early-terminate when enough distinct dictionary ids are collected (before reading the
+      // dictionary ids for the block)
+      if (dictIdsWrapper._numDictIds >= _limit) {
+        return;
+      }
+      int[] dictIds = blockValSet.getDictionaryIdsSV();
+      for (int i = 0; i < length; i++) {
+        if (dictIdBitmap.checkedAdd(dictIds[i]) && ++dictIdsWrapper._numDictIds == _limit) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns {@code true} if the DISTINCT without order-by has already collected enough unique records, in which case
+   * the remaining blocks cannot change the result and do not need to be scanned, {@code false} otherwise.
+   */
+  @Override
+  public boolean isSatisfied(AggregationResultHolder aggregationResultHolder) {
+    if (_orderByExpressions != null) {
+      return false;
+    }
+    Object result = aggregationResultHolder.getResult();
+    if (result instanceof DictIdsWrapper) {
+      return ((DictIdsWrapper) result)._numDictIds >= _limit;
+    }
+    return result != null && ((DistinctTable) result).isSatisfied();
+  }
+
   @Override
   public DistinctTable extractAggregationResult(AggregationResultHolder aggregationResultHolder) {
-    DistinctTable distinctTable = aggregationResultHolder.getResult();
+    Object result = aggregationResultHolder.getResult();
+    if (result instanceof DictIdsWrapper) {
+      // For single dictionary-encoded column, convert dictionary ids to values
+      return convertToDistinctTable((DictIdsWrapper) result);
+    }
+    DistinctTable distinctTable = (DistinctTable) result;
     if (distinctTable != null) {
       return distinctTable;
     } else {
@@ -223,4 +292,70 @@ public class DistinctAggregationFunction implements AggregationFunction<Distinct
   public Comparable extractFinalResult(DistinctTable intermediateResult) {
     throw new UnsupportedOperationException("Operation not supported for DISTINCT aggregation function");
   }
+
+  /**
+   * Helper method to convert the dictionary ids in the bitmap into a DistinctTable of values.
+   * <p>When ordering on the column with a sorted dictionary, the order of the dictionary ids is the same as the order
+   * of the values, so only the first {@code limit} dictionary ids (in the order-by direction) need to be converted.
+   */
+  private DistinctTable convertToDistinctTable(DictIdsWrapper dictIdsWrapper) {
+    Dictionary dictionary = dictIdsWrapper._dictionary;
+    RoaringBitmap dictIdBitmap = dictIdsWrapper._dictIdBitmap;
+    DataType valueType = dictionary.getValueType();
+    DataSchema dataSchema = new DataSchema(_columns, new ColumnDataType[]{ColumnDataType.fromDataTypeSV(valueType)});
+    DistinctTable distinctTable = new DistinctTable(dataSchema, _orderByExpressions, _limit);
+
+    if (_orderByExpressions == null) {
+      PeekableIntIterator iterator = dictIdBitmap.getIntIterator();
+      while (iterator.hasNext()) {
+        if (distinctTable.addWithoutOrderBy(getRecord(dictionary, valueType, iterator.next()))) {
+          break;
+        }
+      }
+    } else if (dictionary.isSorted() && isOrderByOnDistinctColumn()) {
+      IntIterator iterator =
+          _orderByExpressions.get(0).isAsc() ? dictIdBitmap.getIntIterator() : dictIdBitmap.getReverseIntIterator();
+      for (int i = 0; i < _limit && iterator.hasNext(); i++) {
+        distinctTable.addWithOrderBy(getRecord(dictionary, valueType, iterator.next()));
+      }
+    } else {
+      PeekableIntIterator iterator = dictIdBitmap.getIntIterator();
+      while (iterator.hasNext()) {
+        distinctTable.addWithOrderBy(getRecord(dictionary, valueType, iterator.next()));
+      }
+    }
+    return distinctTable;
+  }
+
+  /**
+   * Returns {@code true} if the query only orders on the single distinct column.
+   */
+  private boolean isOrderByOnDistinctColumn() {
+    return _orderByExpressions.size() == 1 && _orderByExpressions.get(0).getExpression().equals(_expressions.get(0));
+  }
+
+  /**
+   * Helper method to create a record with the value of the given dictionary id, where BYTES value is wrapped into
+   * {@link ByteArray} to be consistent with the values read from the block.
+   */
+  private static Record getRecord(Dictionary dictionary, DataType valueType, int dictId) {
+    Object value;
+    if (valueType == DataType.BYTES) {
+      value = new ByteArray(dictionary.getBytesValue(dictId));
+    } else {
+      value = dictionary.get(dictId);
+    }
+    return new Record(new Object[]{value});
+  }
+
+  private static final class DictIdsWrapper {
+    final Dictionary _dictionary;
+    final RoaringBitmap _dictIdBitmap;
+    int _numDictIds;
+
+    private DictIdsWrapper(Dictionary dictionary) {
+      _dictionary = dictionary;
+      _dictIdBitmap = new RoaringBitmap();
+    }
+  }
 }
@@ -67,4 +67,12 @@ public class AggregationGroupByResult {
   public Object getResultForKey(GroupKeyGenerator.GroupKey groupKey, int index) {
     return _aggregationFunctions[index].extractGroupByResult(_resultHolders[index], groupKey._groupId);
   }
+
+  /**
+   * Given a group-by key and an index into the result holder array, returns the corresponding aggregation result stored
+   * as a double in the result holder (e.g. for SUM, MIN, MAX, COUNT) without boxing.
+   */
+  public double getDoubleResultForKey(GroupKeyGenerator.GroupKey groupKey, int index) {
+    return _resultHolders[index].getDoubleResult(groupKey._groupId);
+  }
 }
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code SegmentResultCache} caches the per-segment intermediate results of the queries on immutable segments.
+ * <p>Immutable segments never change, so the per-segment intermediate result of the same query can be reused as long as
+ * the segment is not replaced. The cache is keyed on the table name with type, the segment name and CRC (changed when
+ * the segment is refreshed) plus the canonical fingerprint of the query.
+ * <p>The results are serialized into heap buffers (so that the evicted entries are reclaimed by GC), and the cache is
+ * bounded by the total size of the serialized results, where the least recently used entries are evicted when the size
+ * limit is reached. The cache hits and misses are reported as table level server meters.
+ * <p>Currently only the aggregation-only query results are cached.
+ */
+@ThreadSafe
+public class SegmentResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCache.class);
+
+  private final Cache<CacheKey, ByteBuffer> _cache;
+  private final ServerMetrics _serverMetrics;
+  private final AtomicLong _numHits = new AtomicLong();
+  private final AtomicLong _numMisses = new AtomicLong();
+
+  public SegmentResultCache(long maxSizeInBytes, ServerMetrics serverMetrics) {
+    _serverMetrics = serverMetrics;
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeInBytes)
+        .weigher((CacheKey key, ByteBuffer value) -> value.capacity()).build();
+  }
+
+  /**
+   * Returns the canonical fingerprint of the aggregation-only query, which contains all the parts of the query that can
+   * affect the per-segment intermediate result (aggregations and filter).
+   */
+  public static String getAggregationQueryFingerprint(QueryContext queryContext) {
+    return queryContext.getSelectExpressions() + "|" + queryContext.getFilter();
+  }
+
+  /**
+   * Returns {@code true} if the results of the given segment can be cached, {@code false} otherwise.
+   * <p>Only immutable segments with CRC and without valid doc index (upsert) can be cached.
+   */
+  public static boolean isCacheable(IndexSegment indexSegment) {
+    return indexSegment instanceof ImmutableSegment && indexSegment.getValidDocIndex() == null
+        && indexSegment.getSegmentMetadata().getCrc() != null;
+  }
+
+  /**
+   * Returns the cached aggregation result for the given table, segment and query fingerprint, or {@code null} if the
+   * result is not cached. A new copy of the result is deserialized for each call, so the result can be modified by the
+   * caller.
+   */
+  @Nullable
+  public List<Object> getAggregationResult(String tableNameWithType, IndexSegment indexSegment,
+      String queryFingerprint) {
+    ByteBuffer cachedResult = _cache.getIfPresent(new CacheKey(tableNameWithType, indexSegment, queryFingerprint));
+    if (cachedResult == null) {
+      _numMisses.getAndIncrement();
+      _serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.SEGMENT_RESULT_CACHE_MISSES, 1);
+      return null;
+    }
+    _numHits.getAndIncrement();
+    _serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.SEGMENT_RESULT_CACHE_HITS, 1);
+
+    // NOTE: Use a duplicate of the buffer so that concurrent readers do not share the position
+    ByteBuffer byteBuffer = cachedResult.duplicate();
+    int numResults = byteBuffer.getInt();
+    List<Object> aggregationResult = new ArrayList<>(numResults);
+    for (int i = 0; i < numResults; i++) {
+      int objectType = byteBuffer.getInt();
+      byte[] bytes = new byte[byteBuffer.getInt()];
+      byteBuffer.get(bytes);
+      aggregationResult.add(ObjectSerDeUtils.deserialize(bytes, objectType));
+    }
+    return aggregationResult;
+  }
+
+  /**
+   * Caches the aggregation result for the given table, segment and query fingerprint.
+   * <p>NOTE: The result should be cached before it is merged with the results from the other segments.
+   */
+  public void putAggregationResult(String tableNameWithType, IndexSegment indexSegment, String queryFingerprint,
+      List<Object> aggregationResult) {
+    int numResults = aggregationResult.size();
+    int[] objectTypes = new int[numResults];
+    byte[][] serializedResults = new byte[numResults][];
+    int sizeInBytes = Integer.BYTES;
+    try {
+      for (int i = 0; i < numResults; i++) {
+        Object result = aggregationResult.get(i);
+        objectTypes[i] = ObjectSerDeUtils.ObjectType.getObjectType(result).getValue();
+        serializedResults[i] = ObjectSerDeUtils.serialize(result, objectTypes[i]);
+        sizeInBytes += 2 * Integer.BYTES + serializedResults[i].length;
+      }
+    } catch (Exception e) {
+      // Result type not supported for serialization, skip caching
+      LOGGER.debug("Caught exception while serializing the aggregation result for segment: {}, skipping caching",
+          indexSegment.getSegmentName(), e);
+      return;
+    }
+
+    ByteBuffer byteBuffer = ByteBuffer.allocate(sizeInBytes);
+    byteBuffer.putInt(numResults);
+    for (int i = 0; i < numResults; i++) {
+      byteBuffer.putInt(objectTypes[i]);
+      byteBuffer.putInt(serializedResults[i].length);
+      byteBuffer.put(serializedResults[i]);
+    }
+    byteBuffer.flip();
+    _cache.put(new CacheKey(tableNameWithType, indexSegment, queryFingerprint), byteBuffer);
+  }
+
+  public long getNumEntries() {
+    return _cache.size();
+  }
+
+  public long getNumHits() {
+    return _numHits.get();
+  }
+
+  public long getNumMisses() {
+    return _numMisses.get();
+  }
+
+  private static class CacheKey {
+    final String _tableNameWithType;
+    final String _segmentName;
+    final String _crc;
+    final String _queryFingerprint;
+
+    CacheKey(String tableNameWithType, IndexSegment indexSegment, String queryFingerprint) {
+      _tableNameWithType = tableNameWithType;
+      _segmentName = indexSegment.getSegmentName();
+      _crc = indexSegment.getSegmentMetadata().getCrc();
+      _queryFingerprint = queryFingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return _tableNameWithType.equals(that._tableNameWithType) && _segmentName.equals(that._segmentName) && _crc
+          .equals(that._crc) && _queryFingerprint.equals(that._queryFingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_tableNameWithType, _segmentName, _crc, _queryFingerprint);
+    }
+  }
+}
@@ -41,12 +41,15 @@ import org.apache.pinot.core.util.QueryOptions;
  * Helper class to reduce and set Aggregation results into the BrokerResponseNative
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
-public class AggregationDataTableReducer implements DataTableReducer {
+public class AggregationDataTableReducer implements StreamingDataTableReducer {
   private final QueryContext _queryContext;
   private final AggregationFunction[] _aggregationFunctions;
   private final boolean _preserveType;
   private final boolean _responseFormatSql;
 
+  // Partially reduced intermediate results for streaming reduce
+  private Object[] _intermediateResults;
+
   AggregationDataTableReducer(QueryContext queryContext) {
     _queryContext = queryContext;
     _aggregationFunctions = queryContext.getAggregationFunctions();
@@ -65,42 +68,76 @@ public class AggregationDataTableReducer implements DataTableReducer {
       Map<ServerRoutingInstance, DataTable> dataTableMap, BrokerResponseNative brokerResponseNative,
       DataTableReducerContext reducerContext, BrokerMetrics brokerMetrics) {
     if (dataTableMap.isEmpty()) {
-      if (_responseFormatSql) {
-        DataSchema resultTableSchema =
-            new PostAggregationHandler(_queryContext, getPrePostAggregationDataSchema()).getResultDataSchema();
-        brokerResponseNative.setResultTable(new ResultTable(resultTableSchema, Collections.emptyList()));
-      }
+      setEmptyResults(brokerResponseNative);
       return;
     }
 
     // Merge results from all data tables
-    int numAggregationFunctions = _aggregationFunctions.length;
-    Object[] intermediateResults = new Object[numAggregationFunctions];
+    Object[] intermediateResults = new Object[_aggregationFunctions.length];
     for (DataTable dataTable : dataTableMap.values()) {
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        Object intermediateResultToMerge;
-        ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
-        switch (columnDataType) {
-          case LONG:
-            intermediateResultToMerge = dataTable.getLong(0, i);
-            break;
-          case DOUBLE:
-            intermediateResultToMerge = dataTable.getDouble(0, i);
-            break;
-          case OBJECT:
-            intermediateResultToMerge = dataTable.getObject(0, i);
-            break;
-          default:
-            throw new IllegalStateException("Illegal column data type in aggregation results: " + columnDataType);
-        }
-        Object mergedIntermediateResult = intermediateResults[i];
-        if (mergedIntermediateResult == null) {
-          intermediateResults[i] = intermediateResultToMerge;
-        } else {
-          intermediateResults[i] = _aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
-        }
+      mergeDataTable(dataSchema, dataTable, intermediateResults);
+    }
+    setFinalResults(dataSchema, intermediateResults, brokerResponseNative);
+  }
+
+  @Override
+  public void reduceDataTable(DataTable dataTable) {
+    if (_intermediateResults == null) {
+      _intermediateResults = new Object[_aggregationFunctions.length];
+    }
+    mergeDataTable(dataTable.getDataSchema(), dataTable, _intermediateResults);
+  }
+
+  @Override
+  public void setResults(DataSchema dataSchema, BrokerResponseNative brokerResponseNative) {
+    if (_intermediateResults == null) {
+      setEmptyResults(brokerResponseNative);
+    } else {
+      setFinalResults(dataSchema, _intermediateResults, brokerResponseNative);
+    }
+  }
+
+  private void setEmptyResults(BrokerResponseNative brokerResponseNative) {
+    if (_responseFormatSql) {
+      DataSchema resultTableSchema =
+          new PostAggregationHandler(_queryContext, getPrePostAggregationDataSchema()).getResultDataSchema();
+      brokerResponseNative.setResultTable(new ResultTable(resultTableSchema, Collections.emptyList()));
+    }
+  }
+
+  /**
+   * Merges the intermediate results from the data table into the given intermediate results.
+   */
+  private void mergeDataTable(DataSchema dataSchema, DataTable dataTable, Object[] intermediateResults) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Object intermediateResultToMerge;
+      ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
+      switch (columnDataType) {
+        case LONG:
+          intermediateResultToMerge = dataTable.getLong(0, i);
+          break;
+        case DOUBLE:
+          intermediateResultToMerge = dataTable.getDouble(0, i);
+          break;
+        case OBJECT:
+          intermediateResultToMerge = dataTable.getObject(0, i);
+          break;
+        default:
+          throw new IllegalStateException("Illegal column data type in aggregation results: " + columnDataType);
+      }
+      Object mergedIntermediateResult = intermediateResults[i];
+      if (mergedIntermediateResult == null) {
+        intermediateResults[i] = intermediateResultToMerge;
+      } else {
+        intermediateResults[i] = _aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
       }
     }
+  }
+
+  private void setFinalResults(DataSchema dataSchema, Object[] intermediateResults,
+      BrokerResponseNative brokerResponseNative) {
+    int numAggregationFunctions = _aggregationFunctions.length;
     Serializable[] finalResults = new Serializable[numAggregationFunctions];
     for (int i = 0; i < numAggregationFunctions; i++) {
       finalResults[i] = AggregationFunctionUtils
@@ -25,15 +25,11 @@ import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
-import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
-import org.apache.pinot.common.metrics.BrokerTimer;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
-import org.apache.pinot.common.response.broker.QueryProcessingException;
 import org.apache.pinot.common.response.broker.ResultTable;
 import org.apache.pinot.common.utils.CommonConstants;
 import org.apache.pinot.common.utils.DataSchema;
@@ -86,6 +82,15 @@ public class BrokerReduceService {
     _reduceExecutorService = Executors.newFixedThreadPool(numThreadsInExecutorService, reduceThreadFactory);
   }
 
+  /**
+   * Creates a {@link StreamingBrokerReducer} for the given broker request, which reduces the server responses
+   * incrementally as they arrive. The returned reducer should be attached to a single query.
+   */
+  public StreamingBrokerReducer createStreamingReducer(BrokerRequest brokerRequest) {
+    return new StreamingBrokerReducer(brokerRequest, _reduceExecutorService, _maxReduceThreadsPerQuery,
+        _groupByTrimThreshold);
+  }
+
   public BrokerResponseNative reduceOnDataTable(BrokerRequest brokerRequest,
       Map<ServerRoutingInstance, DataTable> dataTableMap, long reduceTimeOutMs, @Nullable BrokerMetrics brokerMetrics) {
     if (dataTableMap.size() == 0) {
@@ -94,17 +99,8 @@ public class BrokerReduceService {
     }
 
     BrokerResponseNative brokerResponseNative = new BrokerResponseNative();
-    List<QueryProcessingException> processingExceptions = brokerResponseNative.getProcessingExceptions();
-    long numDocsScanned = 0L;
-    long numEntriesScannedInFilter = 0L;
-    long numEntriesScannedPostFilter = 0L;
-    long numSegmentsQueried = 0L;
-    long numSegmentsProcessed = 0L;
-    long numSegmentsMatched = 0L;
-    long numConsumingSegmentsProcessed = 0L;
-    long minConsumingFreshnessTimeMs = Long.MAX_VALUE;
-    long numTotalDocs = 0L;
-    boolean numGroupsLimitReached = false;
+    ExecutionStatsAggregator executionStatsAggregator =
+        new ExecutionStatsAggregator(brokerResponseNative, brokerRequest.isEnableTrace());
 
     // Cache a data schema from data tables (try to cache one with data rows associated with it).
     DataSchema cachedDataSchema = null;
@@ -114,64 +110,7 @@ public class BrokerReduceService {
     while (iterator.hasNext()) {
       Map.Entry<ServerRoutingInstance, DataTable> entry = iterator.next();
       DataTable dataTable = entry.getValue();
-      Map<String, String> metadata = dataTable.getMetadata();
-
-      // Reduce on trace info.
-      if (brokerRequest.isEnableTrace()) {
-        brokerResponseNative.getTraceInfo()
-            .put(entry.getKey().getHostname(), metadata.get(DataTable.TRACE_INFO_METADATA_KEY));
-      }
-
-      // Reduce on exceptions.
-      for (String key : metadata.keySet()) {
-        if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
-          processingExceptions.add(new QueryProcessingException(Integer.parseInt(key.substring(9)), metadata.get(key)));
-        }
-      }
-
-      // Reduce on execution statistics.
-      String numDocsScannedString = metadata.get(DataTable.NUM_DOCS_SCANNED_METADATA_KEY);
-      if (numDocsScannedString != null) {
-        numDocsScanned += Long.parseLong(numDocsScannedString);
-      }
-      String numEntriesScannedInFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY);
-      if (numEntriesScannedInFilterString != null) {
-        numEntriesScannedInFilter += Long.parseLong(numEntriesScannedInFilterString);
-      }
-      String numEntriesScannedPostFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY);
-      if (numEntriesScannedPostFilterString != null) {
-        numEntriesScannedPostFilter += Long.parseLong(numEntriesScannedPostFilterString);
-      }
-      String numSegmentsQueriedString = metadata.get(DataTable.NUM_SEGMENTS_QUERIED);
-      if (numSegmentsQueriedString != null) {
-        numSegmentsQueried += Long.parseLong(numSegmentsQueriedString);
-      }
-
-      String numSegmentsProcessedString = metadata.get(DataTable.NUM_SEGMENTS_PROCESSED);
-      if (numSegmentsProcessedString != null) {
-        numSegmentsProcessed += Long.parseLong(numSegmentsProcessedString);
-      }
-      String numSegmentsMatchedString = metadata.get(DataTable.NUM_SEGMENTS_MATCHED);
-      if (numSegmentsMatchedString != null) {
-        numSegmentsMatched += Long.parseLong(numSegmentsMatchedString);
-      }
-
-      String numConsumingString = metadata.get(DataTable.NUM_CONSUMING_SEGMENTS_PROCESSED);
-      if (numConsumingString != null) {
-        numConsumingSegmentsProcessed += Long.parseLong(numConsumingString);
-      }
-
-      String minConsumingFreshnessTimeMsString = metadata.get(DataTable.MIN_CONSUMING_FRESHNESS_TIME_MS);
-      if (minConsumingFreshnessTimeMsString != null) {
-        minConsumingFreshnessTimeMs =
-            Math.min(Long.parseLong(minConsumingFreshnessTimeMsString), minConsumingFreshnessTimeMs);
-      }
-
-      String numTotalDocsString = metadata.get(DataTable.TOTAL_DOCS_METADATA_KEY);
-      if (numTotalDocsString != null) {
-        numTotalDocs += Long.parseLong(numTotalDocsString);
-      }
-      numGroupsLimitReached |= Boolean.parseBoolean(metadata.get(DataTable.NUM_GROUPS_LIMIT_REACHED_KEY));
+      executionStatsAggregator.aggregate(entry.getKey(), dataTable);
 
       // After processing the metadata, remove data tables without data rows inside.
       DataSchema dataSchema = dataTable.getDataSchema();
@@ -190,35 +129,10 @@ public class BrokerReduceService {
       }
     }
 
-    // Set execution statistics.
-    brokerResponseNative.setNumDocsScanned(numDocsScanned);
-    brokerResponseNative.setNumEntriesScannedInFilter(numEntriesScannedInFilter);
-    brokerResponseNative.setNumEntriesScannedPostFilter(numEntriesScannedPostFilter);
-    brokerResponseNative.setNumSegmentsQueried(numSegmentsQueried);
-    brokerResponseNative.setNumSegmentsProcessed(numSegmentsProcessed);
-    brokerResponseNative.setNumSegmentsMatched(numSegmentsMatched);
-    brokerResponseNative.setTotalDocs(numTotalDocs);
-    brokerResponseNative.setNumGroupsLimitReached(numGroupsLimitReached);
-    if (numConsumingSegmentsProcessed > 0) {
-      brokerResponseNative.setNumConsumingSegmentsQueried(numConsumingSegmentsProcessed);
-      brokerResponseNative.setMinConsumingFreshnessTimeMs(minConsumingFreshnessTimeMs);
-    }
-
-    // Update broker metrics.
+    // Set execution statistics and update broker metrics.
     String tableName = brokerRequest.getQuerySource().getTableName();
     String rawTableName = TableNameBuilder.extractRawTableName(tableName);
-    if (brokerMetrics != null) {
-      brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.DOCUMENTS_SCANNED, numDocsScanned);
-      brokerMetrics
-          .addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_IN_FILTER, numEntriesScannedInFilter);
-      brokerMetrics
-          .addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_POST_FILTER, numEntriesScannedPostFilter);
-
-      if (numConsumingSegmentsProcessed > 0 && minConsumingFreshnessTimeMs > 0) {
-        brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.FRESHNESS_LAG_MS,
-            System.currentTimeMillis() - minConsumingFreshnessTimeMs, TimeUnit.MILLISECONDS);
-      }
-    }
+    executionStatsAggregator.setStats(rawTableName, brokerMetrics);
 
     // NOTE: When there is no cached data schema, that means all servers encountered exception. In such case, return the
     //       response with metadata only.
@@ -235,7 +149,7 @@ public class BrokerReduceService {
     return brokerResponseNative;
   }
 
-  private static void updateAlias(QueryContext queryContext, BrokerResponseNative brokerResponseNative) {
+  static void updateAlias(QueryContext queryContext, BrokerResponseNative brokerResponseNative) {
     ResultTable resultTable = brokerResponseNative.getResultTable();
     if (resultTable == null) {
       return;
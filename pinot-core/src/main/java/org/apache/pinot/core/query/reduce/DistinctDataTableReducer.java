@@ -25,8 +25,12 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.QueryProcessingException;
 import org.apache.pinot.common.response.broker.ResultTable;
 import org.apache.pinot.common.response.broker.SelectionResults;
 import org.apache.pinot.common.utils.DataSchema;
@@ -43,10 +47,13 @@ import org.apache.pinot.core.util.QueryOptions;
 /**
  * Helper class to reduce data tables and set results of distinct query into the BrokerResponseNative
  */
-public class DistinctDataTableReducer implements DataTableReducer {
+public class DistinctDataTableReducer implements StreamingDataTableReducer {
   private final DistinctAggregationFunction _distinctAggregationFunction;
   private final boolean _responseFormatSql;
 
+  // Main DistinctTable for streaming reduce
+  private DistinctTable _mainDistinctTable;
+
   // TODO: queryOptions.isPreserveType() is ignored for DISTINCT queries.
   DistinctDataTableReducer(QueryContext queryContext, DistinctAggregationFunction distinctAggregationFunction) {
     _distinctAggregationFunction = distinctAggregationFunction;
@@ -69,16 +76,36 @@ public class DistinctDataTableReducer implements DataTableReducer {
     // column value should be the serialized DistinctTable -- so essentially it is a DataTable
     // inside a DataTable
 
-    // Gather all non-empty DistinctTables
-    List<DistinctTable> nonEmptyDistinctTables = new ArrayList<>(dataTableMap.size());
-    for (DataTable dataTable : dataTableMap.values()) {
-      DistinctTable distinctTable = dataTable.getObject(0, 0);
-      if (distinctTable.size() > 0) {
-        nonEmptyDistinctTables.add(distinctTable);
-      }
+    // Deserialize and merge all non-empty DistinctTables in parallel, where each thread merges its DistinctTables into
+    // a main DistinctTable (bounded by the limit), and the main DistinctTables are merged pairwise
+    DistinctTable mainDistinctTable;
+    try {
+      mainDistinctTable = ParallelReduceUtils
+          .reduce(new ArrayList<>(dataTableMap.values()), reducerContext, this::reduceDataTables,
+              (distinctTable1, distinctTable2) -> {
+                distinctTable1.mergeMainDistinctTable(distinctTable2);
+                return distinctTable1;
+              });
+    } catch (TimeoutException e) {
+      brokerResponseNative.getProcessingExceptions()
+          .add(new QueryProcessingException(QueryException.BROKER_TIMEOUT_ERROR_CODE, e.getMessage()));
+      mainDistinctTable = null;
     }
+    setResults(mainDistinctTable, brokerResponseNative);
+  }
+
+  @Override
+  public void reduceDataTable(DataTable dataTable) {
+    _mainDistinctTable = mergeDataTable(_mainDistinctTable, dataTable);
+  }
 
-    if (nonEmptyDistinctTables.isEmpty()) {
+  @Override
+  public void setResults(DataSchema dataSchema, BrokerResponseNative brokerResponseNative) {
+    setResults(_mainDistinctTable, brokerResponseNative);
+  }
+
+  private void setResults(@Nullable DistinctTable mainDistinctTable, BrokerResponseNative brokerResponseNative) {
+    if (mainDistinctTable == null) {
       // All the DistinctTables are empty, construct an empty response
       String[] columns = _distinctAggregationFunction.getColumns();
       if (_responseFormatSql) {
@@ -94,13 +121,6 @@ public class DistinctDataTableReducer implements DataTableReducer {
         brokerResponseNative.setSelectionResults(new SelectionResults(Arrays.asList(columns), Collections.emptyList()));
       }
     } else {
-      // Construct a main DistinctTable and merge all non-empty DistinctTables into it
-      DistinctTable mainDistinctTable = new DistinctTable(nonEmptyDistinctTables.get(0).getDataSchema(),
-          _distinctAggregationFunction.getOrderByExpressions(), _distinctAggregationFunction.getLimit());
-      for (DistinctTable distinctTable : nonEmptyDistinctTables) {
-        mainDistinctTable.mergeDeserializedDistinctTable(distinctTable);
-      }
-
       // Up until now, we have treated DISTINCT similar to another aggregation function even in terms
       // of the result from function and merging results.
       // However, the DISTINCT query is just another SELECTION style query from the user's point
@@ -114,6 +134,36 @@ public class DistinctDataTableReducer implements DataTableReducer {
     }
   }
 
+  /**
+   * Deserializes the DistinctTables from the data tables and merges the non-empty ones into a main DistinctTable.
+   * Returns {@code null} if all the DistinctTables are empty.
+   */
+  @Nullable
+  private DistinctTable reduceDataTables(List<DataTable> dataTables) {
+    DistinctTable mainDistinctTable = null;
+    for (DataTable dataTable : dataTables) {
+      mainDistinctTable = mergeDataTable(mainDistinctTable, dataTable);
+    }
+    return mainDistinctTable;
+  }
+
+  /**
+   * Deserializes the DistinctTable from the data table and merges it into the main DistinctTable if it is not empty.
+   * Returns the main DistinctTable, which is created on the first non-empty DistinctTable.
+   */
+  @Nullable
+  private DistinctTable mergeDataTable(@Nullable DistinctTable mainDistinctTable, DataTable dataTable) {
+    DistinctTable distinctTable = dataTable.getObject(0, 0);
+    if (distinctTable.size() > 0) {
+      if (mainDistinctTable == null) {
+        mainDistinctTable = new DistinctTable(distinctTable.getDataSchema(),
+            _distinctAggregationFunction.getOrderByExpressions(), _distinctAggregationFunction.getLimit());
+      }
+      mainDistinctTable.mergeDeserializedDistinctTable(distinctTable);
+    }
+    return mainDistinctTable;
+  }
+
   private SelectionResults reduceToSelectionResult(DistinctTable distinctTable) {
     List<Serializable[]> rows = new ArrayList<>(distinctTable.size());
     DataSchema dataSchema = distinctTable.getDataSchema();
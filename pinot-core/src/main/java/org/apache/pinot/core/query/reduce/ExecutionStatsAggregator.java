@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.metrics.BrokerTimer;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.QueryProcessingException;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+
+
+/**
+ * The {@code ExecutionStatsAggregator} aggregates the trace info, exceptions and execution statistics from the server
+ * response metadata into the {@link BrokerResponseNative}.
+ */
+@NotThreadSafe
+class ExecutionStatsAggregator {
+  private final BrokerResponseNative _brokerResponseNative;
+  private final boolean _enableTrace;
+
+  private long _numDocsScanned = 0L;
+  private long _numEntriesScannedInFilter = 0L;
+  private long _numEntriesScannedPostFilter = 0L;
+  private long _numSegmentsQueried = 0L;
+  private long _numSegmentsProcessed = 0L;
+  private long _numSegmentsMatched = 0L;
+  private long _numConsumingSegmentsProcessed = 0L;
+  private long _minConsumingFreshnessTimeMs = Long.MAX_VALUE;
+  private long _numTotalDocs = 0L;
+  private boolean _numGroupsLimitReached = false;
+
+  ExecutionStatsAggregator(BrokerResponseNative brokerResponseNative, boolean enableTrace) {
+    _brokerResponseNative = brokerResponseNative;
+    _enableTrace = enableTrace;
+  }
+
+  void aggregate(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+    Map<String, String> metadata = dataTable.getMetadata();
+
+    // Reduce on trace info.
+    if (_enableTrace) {
+      _brokerResponseNative.getTraceInfo()
+          .put(serverRoutingInstance.getHostname(), metadata.get(DataTable.TRACE_INFO_METADATA_KEY));
+    }
+
+    // Reduce on exceptions.
+    List<QueryProcessingException> processingExceptions = _brokerResponseNative.getProcessingExceptions();
+    for (String key : metadata.keySet()) {
+      if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
+        processingExceptions.add(new QueryProcessingException(Integer.parseInt(key.substring(9)), metadata.get(key)));
+      }
+    }
+
+    // Reduce on execution statistics.
+    String numDocsScannedString = metadata.get(DataTable.NUM_DOCS_SCANNED_METADATA_KEY);
+    if (numDocsScannedString != null) {
+      _numDocsScanned += Long.parseLong(numDocsScannedString);
+    }
+    String numEntriesScannedInFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_IN_FILTER_METADATA_KEY);
+    if (numEntriesScannedInFilterString != null) {
+      _numEntriesScannedInFilter += Long.parseLong(numEntriesScannedInFilterString);
+    }
+    String numEntriesScannedPostFilterString = metadata.get(DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY);
+    if (numEntriesScannedPostFilterString != null) {
+      _numEntriesScannedPostFilter += Long.parseLong(numEntriesScannedPostFilterString);
+    }
+    String numSegmentsQueriedString = metadata.get(DataTable.NUM_SEGMENTS_QUERIED);
+    if (numSegmentsQueriedString != null) {
+      _numSegmentsQueried += Long.parseLong(numSegmentsQueriedString);
+    }
+
+    String numSegmentsProcessedString = metadata.get(DataTable.NUM_SEGMENTS_PROCESSED);
+    if (numSegmentsProcessedString != null) {
+      _numSegmentsProcessed += Long.parseLong(numSegmentsProcessedString);
+    }
+    String numSegmentsMatchedString = metadata.get(DataTable.NUM_SEGMENTS_MATCHED);
+    if (numSegmentsMatchedString != null) {
+      _numSegmentsMatched += Long.parseLong(numSegmentsMatchedString);
+    }
+
+    String numConsumingString = metadata.get(DataTable.NUM_CONSUMING_SEGMENTS_PROCESSED);
+    if (numConsumingString != null) {
+      _numConsumingSegmentsProcessed += Long.parseLong(numConsumingString);
+    }
+
+    String minConsumingFreshnessTimeMsString = metadata.get(DataTable.MIN_CONSUMING_FRESHNESS_TIME_MS);
+    if (minConsumingFreshnessTimeMsString != null) {
+      _minConsumingFreshnessTimeMs =
+          Math.min(Long.parseLong(minConsumingFreshnessTimeMsString), _minConsumingFreshnessTimeMs);
+    }
+
+    String numTotalDocsString = metadata.get(DataTable.TOTAL_DOCS_METADATA_KEY);
+    if (numTotalDocsString != null) {
+      _numTotalDocs += Long.parseLong(numTotalDocsString);
+    }
+    _numGroupsLimitReached |= Boolean.parseBoolean(metadata.get(DataTable.NUM_GROUPS_LIMIT_REACHED_KEY));
+  }
+
+  /**
+   * Sets the aggregated execution statistics into the broker response, and updates the broker metrics.
+   */
+  void setStats(String rawTableName, @Nullable BrokerMetrics brokerMetrics) {
+    // Set execution statistics.
+    _brokerResponseNative.setNumDocsScanned(_numDocsScanned);
+    _brokerResponseNative.setNumEntriesScannedInFilter(_numEntriesScannedInFilter);
+    _brokerResponseNative.setNumEntriesScannedPostFilter(_numEntriesScannedPostFilter);
+    _brokerResponseNative.setNumSegmentsQueried(_numSegmentsQueried);
+    _brokerResponseNative.setNumSegmentsProcessed(_numSegmentsProcessed);
+    _brokerResponseNative.setNumSegmentsMatched(_numSegmentsMatched);
+    _brokerResponseNative.setTotalDocs(_numTotalDocs);
+    _brokerResponseNative.setNumGroupsLimitReached(_numGroupsLimitReached);
+    if (_numConsumingSegmentsProcessed > 0) {
+      _brokerResponseNative.setNumConsumingSegmentsQueried(_numConsumingSegmentsProcessed);
+      _brokerResponseNative.setMinConsumingFreshnessTimeMs(_minConsumingFreshnessTimeMs);
+    }
+
+    // Update broker metrics.
+    if (brokerMetrics != null) {
+      brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.DOCUMENTS_SCANNED, _numDocsScanned);
+      brokerMetrics
+          .addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_IN_FILTER, _numEntriesScannedInFilter);
+      brokerMetrics
+          .addMeteredTableValue(rawTableName, BrokerMeter.ENTRIES_SCANNED_POST_FILTER, _numEntriesScannedPostFilter);
+
+      if (_numConsumingSegmentsProcessed > 0 && _minConsumingFreshnessTimeMs > 0) {
+        brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.FRESHNESS_LAG_MS,
+            System.currentTimeMillis() - _minConsumingFreshnessTimeMs, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+}
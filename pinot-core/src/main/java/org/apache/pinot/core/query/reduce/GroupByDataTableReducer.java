@@ -41,6 +41,7 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.core.data.table.ColumnarIndexedTable;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.Record;
@@ -268,6 +269,10 @@ public class GroupByDataTableReducer implements DataTableReducer {
   private IndexedTable getIndexedTable(DataSchema dataSchema, Collection<DataTable> dataTablesToReduce,
       DataTableReducerContext reducerContext)
       throws TimeoutException {
+    if (ColumnarIndexedTable.isSupported(dataSchema, _numGroupByExpressions)) {
+      return getColumnarIndexedTable(dataSchema, dataTablesToReduce, reducerContext);
+    }
+
     long start = System.currentTimeMillis();
     int numDataTables = dataTablesToReduce.size();
 
@@ -372,6 +377,86 @@ public class GroupByDataTableReducer implements DataTableReducer {
     return indexedTable;
   }
 
+  /**
+   * Reduces the data tables into a {@link ColumnarIndexedTable}, which can be used when all the group-by columns are
+   * fixed-width. Each reduce thread merges its data tables into its own table without locking, and the tables are
+   * merged after all the data tables are processed. The trim threshold is split among the per-thread tables so that the
+   * total size of all the tables is bounded by the trim threshold.
+   */
+  private IndexedTable getColumnarIndexedTable(DataSchema dataSchema, Collection<DataTable> dataTablesToReduce,
+      DataTableReducerContext reducerContext)
+      throws TimeoutException {
+    long start = System.currentTimeMillis();
+    int numDataTables = dataTablesToReduce.size();
+    int numReduceThreadsToUse = getNumReduceThreadsToUse(numDataTables, reducerContext.getMaxReduceThreadsPerQuery());
+    int trimSize = GroupByUtils.getTableCapacity(_queryContext);
+    int trimThreshold = reducerContext.getGroupByTrimThreshold();
+    int perThreadTrimThreshold = GroupByUtils.getPerThreadTrimThreshold(trimSize, trimThreshold, numReduceThreadsToUse);
+
+    // Create groups of data tables that each thread can process concurrently.
+    ArrayList<DataTable> dataTables = new ArrayList<>(dataTablesToReduce);
+    List<List<DataTable>> reduceGroups = new ArrayList<>(numReduceThreadsToUse);
+    for (int i = 0; i < numReduceThreadsToUse; i++) {
+      reduceGroups.add(new ArrayList<>());
+    }
+    for (int i = 0; i < numDataTables; i++) {
+      reduceGroups.get(i % numReduceThreadsToUse).add(dataTables.get(i));
+    }
+
+    ColumnarIndexedTable[] indexedTables = new ColumnarIndexedTable[numReduceThreadsToUse];
+    Future[] futures = new Future[numReduceThreadsToUse];
+    CountDownLatch countDownLatch = new CountDownLatch(numReduceThreadsToUse);
+    for (int i = 0; i < numReduceThreadsToUse; i++) {
+      List<DataTable> reduceGroup = reduceGroups.get(i);
+      ColumnarIndexedTable indexedTable =
+          new ColumnarIndexedTable(dataSchema, _queryContext, trimSize, perThreadTrimThreshold);
+      indexedTables[i] = indexedTable;
+      futures[i] = reducerContext.getExecutorService().submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          try {
+            for (DataTable dataTable : reduceGroup) {
+              int numRows = dataTable.getNumberOfRows();
+              for (int rowId = 0; rowId < numRows; rowId++) {
+                indexedTable.upsert(dataTable, rowId);
+              }
+            }
+          } finally {
+            countDownLatch.countDown();
+          }
+        }
+      });
+    }
+
+    boolean completed;
+    try {
+      long timeOutMs = reducerContext.getReduceTimeOutMs() - (System.currentTimeMillis() - start);
+      completed = countDownLatch.await(timeOutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      completed = false;
+    }
+    if (!completed) {
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+      throw new TimeoutException("Timed out in broker reduce phase.");
+    }
+
+    ColumnarIndexedTable mergedTable;
+    if (numReduceThreadsToUse == 0) {
+      mergedTable = new ColumnarIndexedTable(dataSchema, _queryContext, trimSize, trimThreshold);
+    } else {
+      mergedTable = indexedTables[0];
+      for (int i = 1; i < numReduceThreadsToUse; i++) {
+        mergedTable.merge(indexedTables[i]);
+      }
+    }
+    mergedTable.finish(true);
+    return mergedTable;
+  }
+
   /**
    * Computes the number of reduce threads to use per query.
    * <ul>
@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.util.trace.TraceRunnable;
+
+
+/**
+ * Utility class to reduce the server responses in parallel on the reduce executor.
+ * <p>The inputs are split into groups, each reduced by a separate thread into a partial result (e.g. a bounded top-N
+ * heap). When a thread finishes its partial result, it merges it pairwise with the pending partial result finished by
+ * another thread (if any), so that the partial results are merged in a tree shape as they become available, without
+ * any thread blocking on another one.
+ */
+class ParallelReduceUtils {
+  private ParallelReduceUtils() {
+  }
+
+  // Minimum number of inputs reduced by each thread, below which the overhead of the parallel reduce is not worth it
+  static final int MIN_INPUTS_PER_THREAD = 4;
+
+  /**
+   * Reduces the inputs into a single result. Returns {@code null} if all the partial results are {@code null}.
+   *
+   * @param inputs Inputs to reduce (e.g. the data tables)
+   * @param reducerContext Context providing the reduce executor, max number of threads and timeout
+   * @param reduceFunction Function to reduce a group of inputs into a partial result, which may return {@code null}
+   * @param mergeFunction Function to merge two non-null partial results, which may reuse either of the results
+   * @throws TimeoutException If the reduce does not finish within the reduce timeout
+   */
+  @Nullable
+  static <I, T> T reduce(List<I> inputs, DataTableReducerContext reducerContext, Function<List<I>, T> reduceFunction,
+      BinaryOperator<T> mergeFunction)
+      throws TimeoutException {
+    long startTimeMs = System.currentTimeMillis();
+    int numInputs = inputs.size();
+    int numThreads = Math.min(reducerContext.getMaxReduceThreadsPerQuery(), numInputs / MIN_INPUTS_PER_THREAD);
+    if (numThreads <= 1) {
+      return reduceFunction.apply(inputs);
+    }
+
+    List<List<I>> inputGroups = new ArrayList<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      inputGroups.add(new ArrayList<>());
+    }
+    for (int i = 0; i < numInputs; i++) {
+      inputGroups.get(i % numThreads).add(inputs.get(i));
+    }
+
+    // At most one partial result is pending at any time, and the final result is pending after all the threads finish
+    Object lock = new Object();
+    AtomicReference<T> pendingResult = new AtomicReference<>();
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    CountDownLatch countDownLatch = new CountDownLatch(numThreads);
+    Future[] futures = new Future[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      List<I> inputGroup = inputGroups.get(i);
+      futures[i] = reducerContext.getExecutorService().submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          try {
+            T result = reduceFunction.apply(inputGroup);
+            while (result != null) {
+              T resultToMerge;
+              synchronized (lock) {
+                resultToMerge = pendingResult.getAndSet(null);
+                if (resultToMerge == null) {
+                  pendingResult.set(result);
+                  break;
+                }
+              }
+              result = mergeFunction.apply(result, resultToMerge);
+            }
+          } catch (Throwable t) {
+            error.compareAndSet(null, t);
+          } finally {
+            countDownLatch.countDown();
+          }
+        }
+      });
+    }
+
+    boolean finished;
+    try {
+      long timeoutMs = reducerContext.getReduceTimeOutMs() - (System.currentTimeMillis() - startTimeMs);
+      finished = countDownLatch.await(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      finished = false;
+    }
+    if (!finished) {
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+      throw new TimeoutException("Timed out in broker reduce phase.");
+    }
+    Throwable t = error.get();
+    if (t != null) {
+      throw new RuntimeException("Caught exception while reducing the server responses", t);
+    }
+    return pendingResult.get();
+  }
+}
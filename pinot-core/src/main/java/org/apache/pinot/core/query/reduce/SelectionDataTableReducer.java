@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
@@ -98,8 +99,25 @@ public class SelectionDataTableReducer implements DataTableReducer {
       int limit = _queryContext.getLimit();
       if (limit > 0 && _queryContext.getOrderByExpressions() != null) {
         // Selection order-by
-        SelectionOperatorService selectionService = new SelectionOperatorService(_queryContext, dataSchema);
-        selectionService.reduceWithOrdering(dataTableMap.values());
+        // Reduce the data tables in parallel, where each thread keeps the top rows of its data tables, and the top rows
+        // are merged pairwise
+        SelectionOperatorService selectionService;
+        try {
+          selectionService =
+              ParallelReduceUtils.reduce(new ArrayList<>(dataTableMap.values()), reducerContext, dataTables -> {
+                SelectionOperatorService partialSelectionService =
+                    new SelectionOperatorService(_queryContext, dataSchema);
+                partialSelectionService.reduceWithOrdering(dataTables);
+                return partialSelectionService;
+              }, (selectionService1, selectionService2) -> {
+                selectionService1.merge(selectionService2);
+                return selectionService1;
+              });
+        } catch (TimeoutException e) {
+          brokerResponseNative.getProcessingExceptions()
+              .add(new QueryProcessingException(QueryException.BROKER_TIMEOUT_ERROR_CODE, e.getMessage()));
+          selectionService = new SelectionOperatorService(_queryContext, dataSchema);
+        }
         if (_responseFormatSql) {
           brokerResponseNative.setResultTable(selectionService.renderResultTableWithOrdering());
         } else {
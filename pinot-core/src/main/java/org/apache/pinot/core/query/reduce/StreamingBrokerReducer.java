@@ -0,0 +1,237 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.BrokerRequestToQueryContextConverter;
+import org.apache.pinot.core.transport.ServerResponseListener;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+
+
+/**
+ * The {@code StreamingBrokerReducer} reduces the data tables of a single query incrementally as the server responses
+ * arrive, so that the reduce overlaps with waiting for the other servers and the broker does not need to hold all the
+ * data tables at once.
+ * <ul>
+ *   <li>
+ *     The data tables are handed over from the netty event loop threads and reduced serially on the reduce executor
+ *     (at most one task per query at any time), so the event loop threads are never blocked by the reduce.
+ *   </li>
+ *   <li>
+ *     The metadata (trace info, exceptions and execution statistics) of all data tables are reduced as they arrive.
+ *     The query results are reduced as they arrive if the {@link DataTableReducer} is a
+ *     {@link StreamingDataTableReducer}, otherwise the data tables with data rows inside are buffered and reduced in
+ *     {@link #reduce(long, BrokerMetrics)}.
+ *   </li>
+ *   <li>
+ *     Data tables arrived after {@link #reduce(long, BrokerMetrics)} is invoked are ignored, and are not counted as
+ *     reduced (see {@link #getServersReduced()}).
+ *   </li>
+ *   <li>
+ *     The final reduce in {@link #reduce(long, BrokerMetrics)} is performed without holding the lock, so that the
+ *     draining tasks still queued on the reduce executor can return immediately.
+ *   </li>
+ * </ul>
+ */
+@ThreadSafe
+public class StreamingBrokerReducer implements ServerResponseListener {
+  private final BrokerRequest _brokerRequest;
+  private final QueryContext _queryContext;
+  private final ExecutorService _executorService;
+  private final int _maxReduceThreadsPerQuery;
+  private final int _groupByTrimThreshold;
+
+  // Data tables to be reduced, and number of pending data tables not yet accounted by the draining task
+  private final ConcurrentLinkedQueue<Pair<ServerRoutingInstance, DataTable>> _pendingDataTables =
+      new ConcurrentLinkedQueue<>();
+  private final AtomicInteger _numPendingDataTables = new AtomicInteger();
+  private volatile boolean _finished;
+
+  // Reduce states guarded by the lock
+  private final Object _lock = new Object();
+  private final BrokerResponseNative _brokerResponseNative = new BrokerResponseNative();
+  private final ExecutionStatsAggregator _executionStatsAggregator;
+  private final DataTableReducer _dataTableReducer;
+  private final Map<ServerRoutingInstance, DataTable> _bufferedDataTableMap = new HashMap<>();
+  private final Set<ServerRoutingInstance> _serversReduced = new HashSet<>();
+  private DataSchema _cachedDataSchema;
+  private RuntimeException _reduceException;
+
+  StreamingBrokerReducer(BrokerRequest brokerRequest, ExecutorService executorService, int maxReduceThreadsPerQuery,
+      int groupByTrimThreshold) {
+    _brokerRequest = brokerRequest;
+    _queryContext = BrokerRequestToQueryContextConverter.convert(brokerRequest);
+    _executorService = executorService;
+    _maxReduceThreadsPerQuery = maxReduceThreadsPerQuery;
+    _groupByTrimThreshold = groupByTrimThreshold;
+    _executionStatsAggregator = new ExecutionStatsAggregator(_brokerResponseNative, brokerRequest.isEnableTrace());
+    _dataTableReducer = ResultReducerFactory.getResultReducer(_queryContext);
+  }
+
+  @Override
+  public void onDataTableReceived(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+    if (_finished) {
+      return;
+    }
+    _pendingDataTables.offer(Pair.of(serverRoutingInstance, dataTable));
+    if (_numPendingDataTables.getAndIncrement() == 0) {
+      try {
+        _executorService.execute(this::drainPendingDataTables);
+      } catch (RejectedExecutionException e) {
+        // The pending data tables will be drained in reduce()
+      }
+    }
+  }
+
+  /**
+   * Reduces the pending data tables until there is no more data table pending. Only one draining task is scheduled at
+   * any time because the task is only scheduled when the number of pending data tables goes from 0 to 1.
+   */
+  private void drainPendingDataTables() {
+    int numPendingDataTables = 1;
+    do {
+      // NOTE: Check the flag before acquiring the lock so that the task does not wait for the final reduce
+      if (_finished) {
+        return;
+      }
+      synchronized (_lock) {
+        if (_finished) {
+          return;
+        }
+        reducePendingDataTables();
+      }
+      numPendingDataTables = _numPendingDataTables.addAndGet(-numPendingDataTables);
+    } while (numPendingDataTables != 0);
+  }
+
+  private void reducePendingDataTables() {
+    Pair<ServerRoutingInstance, DataTable> pendingDataTable;
+    while ((pendingDataTable = _pendingDataTables.poll()) != null) {
+      if (_reduceException == null) {
+        try {
+          reduceDataTable(pendingDataTable.getLeft(), pendingDataTable.getRight());
+        } catch (RuntimeException e) {
+          _reduceException = e;
+        }
+      }
+    }
+  }
+
+  private void reduceDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+    _serversReduced.add(serverRoutingInstance);
+    _executionStatsAggregator.aggregate(serverRoutingInstance, dataTable);
+
+    // After processing the metadata, only reduce the data tables with data rows inside.
+    DataSchema dataSchema = dataTable.getDataSchema();
+    if (dataSchema != null) {
+      // Try to cache a data table with data rows inside, or cache one with data schema inside.
+      if (dataTable.getNumberOfRows() == 0) {
+        if (_cachedDataSchema == null) {
+          _cachedDataSchema = dataSchema;
+        }
+      } else {
+        _cachedDataSchema = dataSchema;
+        if (_dataTableReducer instanceof StreamingDataTableReducer) {
+          ((StreamingDataTableReducer) _dataTableReducer).reduceDataTable(dataTable);
+        } else {
+          _bufferedDataTableMap.put(serverRoutingInstance, dataTable);
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops accepting new data tables, reduces the remaining pending data tables and returns the broker response.
+   * <p>Should be called once after all the server responses are received or the query times out.
+   */
+  public BrokerResponseNative reduce(long reduceTimeOutMs, @Nullable BrokerMetrics brokerMetrics) {
+    _finished = true;
+    synchronized (_lock) {
+      reducePendingDataTables();
+    }
+    // NOTE: Once finished, the draining tasks no longer access the reduce states, so the final reduce can be performed
+    //       without holding the lock.
+    if (_reduceException != null) {
+      throw _reduceException;
+    }
+    if (_serversReduced.isEmpty()) {
+      // Empty response.
+      return BrokerResponseNative.empty();
+    }
+
+    // Set execution statistics and update broker metrics.
+    String rawTableName = TableNameBuilder.extractRawTableName(_brokerRequest.getQuerySource().getTableName());
+    _executionStatsAggregator.setStats(rawTableName, brokerMetrics);
+
+    // NOTE: When there is no cached data schema, that means all servers encountered exception. In such case, return
+    //       the response with metadata only.
+    if (_cachedDataSchema == null) {
+      return _brokerResponseNative;
+    }
+
+    if (_dataTableReducer instanceof StreamingDataTableReducer) {
+      ((StreamingDataTableReducer) _dataTableReducer).setResults(_cachedDataSchema, _brokerResponseNative);
+    } else {
+      _dataTableReducer
+          .reduceAndSetResults(rawTableName, _cachedDataSchema, _bufferedDataTableMap, _brokerResponseNative,
+              new DataTableReducerContext(_executorService, _maxReduceThreadsPerQuery, reduceTimeOutMs,
+                  _groupByTrimThreshold), brokerMetrics);
+    }
+    BrokerReduceService.updateAlias(_queryContext, _brokerResponseNative);
+    return _brokerResponseNative;
+  }
+
+  /**
+   * Returns the number of data tables reduced.
+   * <p>Should be called after calling {@link #reduce(long, BrokerMetrics)}.
+   */
+  public int getNumDataTablesReduced() {
+    synchronized (_lock) {
+      return _serversReduced.size();
+    }
+  }
+
+  /**
+   * Returns the servers whose data table is reduced, which excludes the servers responded after
+   * {@link #reduce(long, BrokerMetrics)} is invoked.
+   * <p>Should be called after calling {@link #reduce(long, BrokerMetrics)}.
+   */
+  public Set<ServerRoutingInstance> getServersReduced() {
+    synchronized (_lock) {
+      return _serversReduced;
+    }
+  }
+}
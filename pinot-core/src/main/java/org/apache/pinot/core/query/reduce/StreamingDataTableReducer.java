@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataTable;
+
+
+/**
+ * Interface for data table reducers that can reduce the data tables one at a time as the server responses arrive,
+ * without holding all the data tables at once.
+ * <p>The reducer keeps the partially reduced results as its state, so each instance should only be used for a single
+ * query, and the calls should be serialized by the caller.
+ */
+interface StreamingDataTableReducer extends DataTableReducer {
+
+  /**
+   * Reduces a data table with data rows inside into the partially reduced results.
+   */
+  void reduceDataTable(DataTable dataTable);
+
+  /**
+   * Sets the partially reduced results of the query into the BrokerResponseNative.
+   * @param dataSchema schema from broker reduce service
+   * @param brokerResponseNative broker response
+   */
+  void setResults(DataSchema dataSchema, BrokerResponseNative brokerResponseNative);
+}
@@ -37,6 +37,7 @@ import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
 import org.apache.pinot.core.query.request.context.predicate.InPredicate;
 import org.apache.pinot.core.query.request.context.predicate.IsNotNullPredicate;
 import org.apache.pinot.core.query.request.context.predicate.IsNullPredicate;
+import org.apache.pinot.core.query.request.context.predicate.JsonMatchPredicate;
 import org.apache.pinot.core.query.request.context.predicate.NotEqPredicate;
 import org.apache.pinot.core.query.request.context.predicate.NotInPredicate;
 import org.apache.pinot.core.query.request.context.predicate.RangePredicate;
@@ -49,6 +50,7 @@ import org.apache.pinot.pql.parsers.pql2.ast.FunctionCallAstNode;
 import org.apache.pinot.pql.parsers.pql2.ast.IdentifierAstNode;
 import org.apache.pinot.pql.parsers.pql2.ast.LiteralAstNode;
 import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
 
 
 public class QueryContextConverterUtils {
@@ -230,6 +232,10 @@ public class QueryContextConverterUtils {
       case TEXT_MATCH:
         return new FilterContext(FilterContext.Type.PREDICATE, null,
             new TextMatchPredicate(getExpression(operands.get(0)), getStringValue(operands.get(1))));
+      case JSON_MATCH:
+        String jsonFilter = getStringValue(operands.get(1));
+        return new FilterContext(FilterContext.Type.PREDICATE, null,
+            new JsonMatchPredicate(getExpression(operands.get(0)), jsonFilter, getJsonMatchFilter(jsonFilter)));
       case IS_NULL:
         return new FilterContext(FilterContext.Type.PREDICATE, null,
             new IsNullPredicate(getExpression(operands.get(0))));
@@ -241,6 +247,23 @@ public class QueryContextConverterUtils {
     }
   }
 
+  /**
+   * Parses the filter expression of a JSON_MATCH predicate (e.g. {@code "a.b" = 'foo' AND "c[*]" IN ('x', 'y')}),
+   * where the identifiers are the json paths to match.
+   */
+  private static FilterContext getJsonMatchFilter(String jsonFilter) {
+    Expression filterExpression;
+    try {
+      filterExpression = CalciteSqlParser.compileToExpression(jsonFilter);
+    } catch (Exception e) {
+      throw new BadQueryRequestException("Caught exception while parsing json match filter: " + jsonFilter, e);
+    }
+    if (filterExpression.getFunctionCall() == null) {
+      throw new BadQueryRequestException("Invalid json match filter: " + jsonFilter);
+    }
+    return getFilter(filterExpression);
+  }
+
   private static String getStringValue(Expression thriftExpression) {
     if (thriftExpression.getType() != ExpressionType.LITERAL) {
       throw new BadQueryRequestException(
@@ -290,6 +313,10 @@ public class QueryContextConverterUtils {
       case TEXT_MATCH:
         return new FilterContext(FilterContext.Type.PREDICATE, null,
             new TextMatchPredicate(getExpression(node.getColumn()), node.getValue().get(0)));
+      case JSON_MATCH:
+        String jsonFilter = node.getValue().get(0);
+        return new FilterContext(FilterContext.Type.PREDICATE, null,
+            new JsonMatchPredicate(getExpression(node.getColumn()), jsonFilter, getJsonMatchFilter(jsonFilter)));
       case IS_NULL:
         return new FilterContext(FilterContext.Type.PREDICATE, null,
             new IsNullPredicate(getExpression(node.getColumn())));
@@ -154,6 +154,17 @@ public class SelectionOperatorService {
     }
   }
 
+  /**
+   * Merges the selection rows of another {@link SelectionOperatorService} (with the same query and data schema) into
+   * this one for selection queries with <code>ORDER BY</code>. (Broker side)
+   * <p>Used to merge the partial results when reducing the {@link DataTable}s in parallel.
+   */
+  public void merge(SelectionOperatorService selectionOperatorService) {
+    for (Object[] row : selectionOperatorService._rows) {
+      SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
+    }
+  }
+
   /**
    * Render the selection rows to a {@link SelectionResults} object for selection queries with
    * <code>ORDER BY</code>. (Broker side)
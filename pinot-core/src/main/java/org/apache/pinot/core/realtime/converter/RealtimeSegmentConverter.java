@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMetrics;
@@ -79,6 +80,20 @@ public class RealtimeSegmentConverter {
 
   public void build(@Nullable SegmentVersion segmentVersion, ServerMetrics serverMetrics)
       throws Exception {
+    build(segmentVersion, serverMetrics, null);
+  }
+
+  /**
+   * Builds the immutable segment from the mutable segment. If the segment build executor is provided, the indexes of
+   * different columns are built in parallel with the executor, reading the values (and dictionary ids) directly from
+   * the mutable segment column by column; otherwise the segment is built row by row on the calling thread.
+   */
+  public void build(@Nullable SegmentVersion segmentVersion, ServerMetrics serverMetrics,
+      @Nullable ExecutorService segmentBuildExecutor)
+      throws Exception {
+    // Publish the pending aggregated metrics so that all the indexed values are included (consumption already stopped)
+    _realtimeSegmentImpl.publishAggregatedMetrics();
+
     // lets create a record reader
     RealtimeSegmentRecordReader reader = new RealtimeSegmentRecordReader(_realtimeSegmentImpl, _sortedColumn);
     SegmentGeneratorConfig genConfig = new SegmentGeneratorConfig(_tableConfig, _dataSchema);
@@ -123,7 +138,11 @@ public class RealtimeSegmentConverter {
     RealtimeSegmentSegmentCreationDataSource dataSource =
         new RealtimeSegmentSegmentCreationDataSource(_realtimeSegmentImpl, reader, _dataSchema);
     driver.init(genConfig, dataSource, CompositeTransformer.getPassThroughTransformer());
-    driver.build();
+    if (segmentBuildExecutor != null) {
+      driver.buildByColumn(_realtimeSegmentImpl, reader.getSortedDocIdIterationOrder(), segmentBuildExecutor);
+    } else {
+      driver.build();
+    }
 
     if (segmentPartitionConfig != null) {
       Map<String, ColumnPartitionConfig> columnPartitionMap = segmentPartitionConfig.getColumnPartitionMap();
@@ -18,7 +18,10 @@
  */
 package org.apache.pinot.core.realtime.impl;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.core.data.partition.PartitionFunction;
@@ -40,6 +43,8 @@ public class RealtimeSegmentConfig {
   private final Set<String> _varLengthDictionaryColumns;
   private final Set<String> _invertedIndexColumns;
   private final Set<String> _textIndexColumns;
+  private final Set<String> _jsonIndexColumns;
+  private final Map<String, Integer> _geoIndexResolutions;
   private final RealtimeSegmentZKMetadata _realtimeSegmentZKMetadata;
   private final boolean _offHeap;
   private final PinotDataBufferMemoryManager _memoryManager;
@@ -48,6 +53,7 @@ public class RealtimeSegmentConfig {
   private final PartitionFunction _partitionFunction;
   private final int _partitionId;
   private final boolean _aggregateMetrics;
+  private final Map<String, String> _metricsAggregators;
   private final boolean _nullHandlingEnabled;
   private final UpsertConfig.Mode _upsertMode;
   private final PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
@@ -57,10 +63,11 @@ public class RealtimeSegmentConfig {
   private RealtimeSegmentConfig(String tableNameWithType, String segmentName, String streamName, Schema schema,
       String timeColumnName, int capacity, int avgNumMultiValues, Set<String> noDictionaryColumns,
       Set<String> varLengthDictionaryColumns, Set<String> invertedIndexColumns, Set<String> textIndexColumns,
+      Set<String> jsonIndexColumns, Map<String, Integer> geoIndexResolutions,
       RealtimeSegmentZKMetadata realtimeSegmentZKMetadata, boolean offHeap, PinotDataBufferMemoryManager memoryManager,
       RealtimeSegmentStatsHistory statsHistory, String partitionColumn, PartitionFunction partitionFunction,
-      int partitionId, boolean aggregateMetrics, boolean nullHandlingEnabled, String consumerDir,
-      UpsertConfig.Mode upsertMode, PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
+      int partitionId, boolean aggregateMetrics, Map<String, String> metricsAggregators, boolean nullHandlingEnabled,
+      String consumerDir, UpsertConfig.Mode upsertMode, PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
     _tableNameWithType = tableNameWithType;
     _segmentName = segmentName;
     _streamName = streamName;
@@ -72,6 +79,8 @@ public class RealtimeSegmentConfig {
     _varLengthDictionaryColumns = varLengthDictionaryColumns;
     _invertedIndexColumns = invertedIndexColumns;
     _textIndexColumns = textIndexColumns;
+    _jsonIndexColumns = jsonIndexColumns;
+    _geoIndexResolutions = geoIndexResolutions;
     _realtimeSegmentZKMetadata = realtimeSegmentZKMetadata;
     _offHeap = offHeap;
     _memoryManager = memoryManager;
@@ -80,6 +89,7 @@ public class RealtimeSegmentConfig {
     _partitionFunction = partitionFunction;
     _partitionId = partitionId;
     _aggregateMetrics = aggregateMetrics;
+    _metricsAggregators = metricsAggregators != null ? metricsAggregators : Collections.emptyMap();
     _nullHandlingEnabled = nullHandlingEnabled;
     _consumerDir = consumerDir;
     _upsertMode = upsertMode != null ? upsertMode : UpsertConfig.Mode.NONE;
@@ -135,6 +145,14 @@ public class RealtimeSegmentConfig {
     return _textIndexColumns;
   }
 
+  public Set<String> getJsonIndexColumns() {
+    return _jsonIndexColumns;
+  }
+
+  public Map<String, Integer> getGeoIndexResolutions() {
+    return _geoIndexResolutions;
+  }
+
   public RealtimeSegmentZKMetadata getRealtimeSegmentZKMetadata() {
     return _realtimeSegmentZKMetadata;
   }
@@ -167,6 +185,10 @@ public class RealtimeSegmentConfig {
     return _aggregateMetrics;
   }
 
+  public Map<String, String> getMetricsAggregators() {
+    return _metricsAggregators;
+  }
+
   public boolean isNullHandlingEnabled() {
     return _nullHandlingEnabled;
   }
@@ -195,6 +217,8 @@ public class RealtimeSegmentConfig {
     private Set<String> _varLengthDictionaryColumns;
     private Set<String> _invertedIndexColumns;
     private Set<String> _textIndexColumns = new HashSet<>();
+    private Set<String> _jsonIndexColumns = new HashSet<>();
+    private Map<String, Integer> _geoIndexResolutions = new HashMap<>();
     private RealtimeSegmentZKMetadata _realtimeSegmentZKMetadata;
     private boolean _offHeap;
     private PinotDataBufferMemoryManager _memoryManager;
@@ -203,6 +227,7 @@ public class RealtimeSegmentConfig {
     private PartitionFunction _partitionFunction;
     private int _partitionId;
     private boolean _aggregateMetrics = false;
+    private Map<String, String> _metricsAggregators;
     private boolean _nullHandlingEnabled = false;
     private String _consumerDir;
     private UpsertConfig.Mode _upsertMode;
@@ -274,6 +299,16 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setJsonIndexColumns(Set<String> jsonIndexColumns) {
+      _jsonIndexColumns = jsonIndexColumns;
+      return this;
+    }
+
+    public Builder setGeoIndexResolutions(Map<String, Integer> geoIndexResolutions) {
+      _geoIndexResolutions = geoIndexResolutions;
+      return this;
+    }
+
     public Builder setRealtimeSegmentZKMetadata(RealtimeSegmentZKMetadata realtimeSegmentZKMetadata) {
       _realtimeSegmentZKMetadata = realtimeSegmentZKMetadata;
       return this;
@@ -314,6 +349,11 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setMetricsAggregators(Map<String, String> metricsAggregators) {
+      _metricsAggregators = metricsAggregators != null ? metricsAggregators : Collections.emptyMap();
+      return this;
+    }
+
     public Builder setNullHandlingEnabled(boolean nullHandlingEnabled) {
       _nullHandlingEnabled = nullHandlingEnabled;
       return this;
@@ -337,9 +377,9 @@ public class RealtimeSegmentConfig {
     public RealtimeSegmentConfig build() {
       return new RealtimeSegmentConfig(_tableNameWithType, _segmentName, _streamName, _schema, _timeColumnName,
           _capacity, _avgNumMultiValues, _noDictionaryColumns, _varLengthDictionaryColumns, _invertedIndexColumns,
-          _textIndexColumns, _realtimeSegmentZKMetadata, _offHeap, _memoryManager, _statsHistory, _partitionColumn,
-          _partitionFunction, _partitionId, _aggregateMetrics, _nullHandlingEnabled, _consumerDir, _upsertMode,
-          _partitionUpsertMetadataManager);
+          _textIndexColumns, _jsonIndexColumns, _geoIndexResolutions, _realtimeSegmentZKMetadata, _offHeap,
+          _memoryManager, _statsHistory, _partitionColumn, _partitionFunction, _partitionId, _aggregateMetrics,
+          _metricsAggregators, _nullHandlingEnabled, _consumerDir, _upsertMode, _partitionUpsertMetadataManager);
     }
   }
 }
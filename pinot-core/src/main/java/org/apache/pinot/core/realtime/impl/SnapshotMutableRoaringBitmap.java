@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantLock;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MappeableContainer;
+import org.roaringbitmap.buffer.MutableRoaringArray;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Thread-safe wrapper of {@link MutableRoaringBitmap} that publishes immutable snapshots for the readers, e.g. the
+ * valid doc ids for upsert which are updated by the consuming thread while being read by the query threads.
+ * <p>The writes are serialized with a lock, and the readers never acquire the lock: they only read the latest published
+ * snapshot from a volatile field. The writer publishes a new snapshot with {@link #publishSnapshot()} after finishing
+ * a group of modifications (e.g. after indexing a batch of records), so that the readers never see a group of
+ * modifications partially applied (e.g. a record removed from a segment but not yet added to the other segment).
+ * <p>The snapshots are copy-on-write at the Roaring container granularity: publishing a new snapshot only clones the
+ * containers (each covering 65536 doc ids) modified since the previous snapshot, and shares the other containers with
+ * the previous snapshot. The snapshots must not be modified by the readers.
+ */
+public class SnapshotMutableRoaringBitmap {
+  private final ReentrantLock _lock = new ReentrantLock();
+  private final MutableRoaringBitmap _mutableRoaringBitmap = new MutableRoaringBitmap();
+  // High 16 bits of the doc ids (keys of the containers) modified since the last published snapshot
+  private final BitSet _modifiedKeys = new BitSet();
+
+  private volatile MutableRoaringBitmap _snapshot = new MutableRoaringBitmap();
+  private volatile int _numPendingModifications;
+
+  public SnapshotMutableRoaringBitmap() {
+  }
+
+  public SnapshotMutableRoaringBitmap(int firstDocId) {
+    add(firstDocId);
+    publishSnapshot();
+  }
+
+  public void add(int docId) {
+    _lock.lock();
+    try {
+      _mutableRoaringBitmap.add(docId);
+      _modifiedKeys.set(docId >>> 16);
+      _numPendingModifications++;
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  public void add(int[] docIds, int offset, int length) {
+    _lock.lock();
+    try {
+      _mutableRoaringBitmap.addN(docIds, offset, length);
+      int end = offset + length;
+      for (int i = offset; i < end; i++) {
+        _modifiedKeys.set(docIds[i] >>> 16);
+      }
+      _numPendingModifications += length;
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  public void remove(int docId) {
+    _lock.lock();
+    try {
+      _mutableRoaringBitmap.remove(docId);
+      _modifiedKeys.set(docId >>> 16);
+      _numPendingModifications++;
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  public boolean contains(int docId) {
+    _lock.lock();
+    try {
+      return _mutableRoaringBitmap.contains(docId);
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  public boolean isEmpty() {
+    _lock.lock();
+    try {
+      return _mutableRoaringBitmap.isEmpty();
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  /**
+   * Returns a mutable copy of the bitmap.
+   */
+  public MutableRoaringBitmap getMutableRoaringBitmap() {
+    _lock.lock();
+    try {
+      return _mutableRoaringBitmap.clone();
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the latest published immutable snapshot of the bitmap without acquiring the lock. The snapshot reflects all
+   * the modifications finished before the latest {@link #publishSnapshot()}.
+   */
+  public ImmutableRoaringBitmap getSnapshot() {
+    return _snapshot;
+  }
+
+  /**
+   * Publishes a new snapshot reflecting all the modifications finished so far if the bitmap is modified after the
+   * latest snapshot is published. Should be called by the writer after finishing a group of modifications.
+   */
+  public void publishSnapshot() {
+    if (_numPendingModifications == 0) {
+      return;
+    }
+    _lock.lock();
+    try {
+      if (_numPendingModifications != 0) {
+        publishSnapshotWithLock();
+      }
+    } finally {
+      _lock.unlock();
+    }
+  }
+
+  /**
+   * Publishes a new snapshot by cloning the modified containers and sharing the unmodified ones with the previous
+   * snapshot. Should be called while holding the lock.
+   */
+  private void publishSnapshotWithLock() {
+    MutableRoaringArray currentArray = _mutableRoaringBitmap.getMappeableRoaringArray();
+    MutableRoaringArray previousArray = _snapshot.getMappeableRoaringArray();
+    int numContainers = currentArray.size();
+    MutableRoaringArray snapshotArray = new MutableRoaringArray(numContainers);
+    for (int i = 0; i < numContainers; i++) {
+      char key = currentArray.getKeyAtIndex(i);
+      MappeableContainer container;
+      if (_modifiedKeys.get(key)) {
+        container = currentArray.getContainerAtIndex(i).clone();
+      } else {
+        // Unmodified container must exist in the previous snapshot with the same content
+        container = previousArray.getContainerAtIndex(previousArray.getIndex(key));
+      }
+      snapshotArray.append(key, container);
+    }
+    _snapshot = new MutableRoaringBitmap(snapshotArray);
+    _modifiedKeys.clear();
+    _numPendingModifications = 0;
+  }
+}
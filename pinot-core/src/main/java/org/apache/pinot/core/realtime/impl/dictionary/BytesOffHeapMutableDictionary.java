@@ -62,7 +62,14 @@ public class BytesOffHeapMutableDictionary extends BaseOffHeapMutableDictionary
 
   @Override
   public int[] index(Object[] values) {
-    throw new UnsupportedOperationException();
+    int numValues = values.length;
+    int[] dictIds = new int[numValues];
+    for (int i = 0; i < numValues; i++) {
+      byte[] bytesValue = (byte[]) values[i];
+      updateMinMax(bytesValue);
+      dictIds[i] = indexValue(new ByteArray(bytesValue), bytesValue);
+    }
+    return dictIds;
   }
 
   @Override
@@ -42,7 +42,14 @@ public class BytesOnHeapMutableDictionary extends BaseOnHeapMutableDictionary {
 
   @Override
   public int[] index(Object[] values) {
-    throw new UnsupportedOperationException();
+    int numValues = values.length;
+    int[] dictIds = new int[numValues];
+    for (int i = 0; i < numValues; i++) {
+      byte[] bytesValue = (byte[]) values[i];
+      updateMinMax(bytesValue);
+      dictIds[i] = indexValue(new ByteArray(bytesValue));
+    }
+    return dictIds;
   }
 
   @Override
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.forward;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.pinot.core.data.aggregator.ValueAggregator;
+import org.apache.pinot.core.segment.index.readers.MutableForwardIndex;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Single-value forward index reader-writer for BYTES metric columns that are aggregated in place with a sketch based
+ * {@link ValueAggregator} (e.g. HyperLogLog, theta sketch) while consuming.
+ * <p>Unlike {@link VarByteSVMutableForwardIndex}, the value of an existing document can be updated. The values are
+ * kept on heap in fixed size chunks: the aggregated state of each document is only accessed by the consuming thread,
+ * and the updated documents are serialized and published for the query threads in {@link #publishAggregatedValues()}
+ * (also automatically every {@link #MAX_NUM_UPDATES_BEFORE_PUBLISH} updates), so that the readers never access a
+ * sketch that is being modified, and a document updated multiple times between two publishes is only serialized once.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class AggregatedBytesSVMutableForwardIndex implements MutableForwardIndex {
+  private static final int CHUNK_SIZE_SHIFT = 14;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SIZE_SHIFT;
+  private static final int CHUNK_OFFSET_MASK = CHUNK_SIZE - 1;
+  // Bound the staleness of the published values when the consuming thread does not publish explicitly
+  static final int MAX_NUM_UPDATES_BEFORE_PUBLISH = 10_000;
+
+  private final ValueAggregator _valueAggregator;
+  // NOTE: The serialized values of the existing documents are updated by the consuming thread and read by the query
+  //       threads, so they are stored in AtomicReferenceArrays for safe publication.
+  private final AtomicReferenceArray<byte[]>[] _serializedValueChunks;
+  private final Object[][] _aggregatedValueChunks;
+  // Documents aggregated since the last publish, only accessed by the consuming thread
+  private final IntOpenHashSet _dirtyDocIds = new IntOpenHashSet();
+  private int _numUpdatesSinceLastPublish;
+  private int _lengthOfShortestElement;
+  private int _lengthOfLongestElement;
+  // Estimated size of the values on heap, where the size of the aggregated state is estimated with its serialized size.
+  // Updated by the consuming thread, and read by the RealtimeConsumptionMemoryGovernor.
+  private volatile long _estimatedOnHeapBytes;
+
+  public AggregatedBytesSVMutableForwardIndex(ValueAggregator valueAggregator, int capacity) {
+    _valueAggregator = valueAggregator;
+    // NOTE: The consuming segment can index one more document than the capacity
+    int numChunks = (capacity >>> CHUNK_SIZE_SHIFT) + 1;
+    _serializedValueChunks = new AtomicReferenceArray[numChunks];
+    _aggregatedValueChunks = new Object[numChunks][];
+    _lengthOfShortestElement = Integer.MAX_VALUE;
+    _lengthOfLongestElement = Integer.MIN_VALUE;
+  }
+
+  @Override
+  public boolean isDictionaryEncoded() {
+    return false;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return true;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return DataType.BYTES;
+  }
+
+  @Override
+  public int getLengthOfShortestElement() {
+    return _lengthOfShortestElement;
+  }
+
+  @Override
+  public int getLengthOfLongestElement() {
+    return _lengthOfLongestElement;
+  }
+
+  /**
+   * Returns the estimated size in bytes of the values kept on heap.
+   */
+  public long getEstimatedOnHeapBytes() {
+    return _estimatedOnHeapBytes;
+  }
+
+  /**
+   * Returns the last published value of the document.
+   */
+  @Override
+  public byte[] getBytes(int docId) {
+    return _serializedValueChunks[docId >>> CHUNK_SIZE_SHIFT].get(docId & CHUNK_OFFSET_MASK);
+  }
+
+  /**
+   * Writes the value of a new document. The aggregated state is only created when the document is first aggregated.
+   */
+  @Override
+  public void setBytes(int docId, byte[] value) {
+    int chunkId = docId >>> CHUNK_SIZE_SHIFT;
+    if (_serializedValueChunks[chunkId] == null) {
+      _aggregatedValueChunks[chunkId] = new Object[CHUNK_SIZE];
+      _serializedValueChunks[chunkId] = new AtomicReferenceArray<>(CHUNK_SIZE);
+    }
+    publish(chunkId, docId & CHUNK_OFFSET_MASK, value, 1);
+  }
+
+  /**
+   * Aggregates the given raw value into the value of an existing document. The updated value is not visible to the
+   * readers until it is published.
+   */
+  public void aggregate(int docId, Object rawValue) {
+    int chunkId = docId >>> CHUNK_SIZE_SHIFT;
+    int chunkOffset = docId & CHUNK_OFFSET_MASK;
+    Object[] aggregatedValues = _aggregatedValueChunks[chunkId];
+    Object aggregatedValue = aggregatedValues[chunkOffset];
+    if (aggregatedValue == null) {
+      byte[] serializedValue = _serializedValueChunks[chunkId].get(chunkOffset);
+      aggregatedValue = _valueAggregator.getInitialAggregatedValue(serializedValue);
+      _estimatedOnHeapBytes += serializedValue.length;
+    }
+    aggregatedValues[chunkOffset] = _valueAggregator.applyRawValue(aggregatedValue, rawValue);
+    _dirtyDocIds.add(docId);
+    if (++_numUpdatesSinceLastPublish >= MAX_NUM_UPDATES_BEFORE_PUBLISH) {
+      publishAggregatedValues();
+    }
+  }
+
+  /**
+   * Serializes and publishes the values of the documents aggregated since the last publish. Should be called by the
+   * consuming thread.
+   */
+  public void publishAggregatedValues() {
+    if (_dirtyDocIds.isEmpty()) {
+      return;
+    }
+    IntIterator iterator = _dirtyDocIds.iterator();
+    while (iterator.hasNext()) {
+      int docId = iterator.nextInt();
+      int chunkId = docId >>> CHUNK_SIZE_SHIFT;
+      int chunkOffset = docId & CHUNK_OFFSET_MASK;
+      // NOTE: Count the size change twice to also account for the aggregated state
+      publish(chunkId, chunkOffset,
+          _valueAggregator.serializeAggregatedValue(_aggregatedValueChunks[chunkId][chunkOffset]), 2);
+    }
+    _dirtyDocIds.clear();
+    _numUpdatesSinceLastPublish = 0;
+  }
+
+  private void publish(int chunkId, int chunkOffset, byte[] value, int sizeMultiplier) {
+    byte[] previousValue = _serializedValueChunks[chunkId].getAndSet(chunkOffset, value);
+    int previousLength = previousValue != null ? previousValue.length : 0;
+    _estimatedOnHeapBytes += (long) sizeMultiplier * (value.length - previousLength);
+    _lengthOfLongestElement = Math.max(_lengthOfLongestElement, value.length);
+    _lengthOfShortestElement = Math.min(_lengthOfShortestElement, value.length);
+  }
+
+  @Override
+  public void close() {
+    for (int i = 0; i < _serializedValueChunks.length; i++) {
+      _serializedValueChunks[i] = null;
+      _aggregatedValueChunks[i] = null;
+    }
+    _dirtyDocIds.clear();
+    _estimatedOnHeapBytes = 0;
+  }
+}
@@ -163,6 +163,24 @@ public class FixedByteSVMutableForwardIndex implements MutableForwardIndex {
     getWriterForRow(docId).setInt(docId, dictId);
   }
 
+  @Override
+  public void setDictIds(int startDocId, int[] dictIds, int length) {
+    if (length == 0) {
+      return;
+    }
+    addBufferIfNeeded(startDocId + length - 1);
+    // Write the dictionary ids chunk by chunk so that the writer is looked up once per chunk
+    int index = 0;
+    while (index < length) {
+      int docId = startDocId + index;
+      WriterWithOffset writer = getWriterForRow(docId);
+      int endIndex = Math.min((getBufferId(docId) + 1) * _numRowsPerChunk - startDocId, length);
+      for (; index < endIndex; index++) {
+        writer.setInt(startDocId + index, dictIds[index]);
+      }
+    }
+  }
+
   @Override
   public void setInt(int docId, int value) {
     addBufferIfNeeded(docId);
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.geo;
+
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.pinot.core.segment.creator.impl.geo.GeoIndexUtils;
+import org.apache.pinot.core.segment.index.readers.geo.BaseGeoIndexReader;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Geo index for the mutable segment which allows adding values on the fly.
+ * <p>This class is thread-safe for single writer multiple readers.
+ */
+public class MutableGeoIndex extends BaseGeoIndexReader {
+  private final int _resolution;
+  private final TreeMap<Long, MutableRoaringBitmap> _postingListMap = new TreeMap<>();
+  private final ReentrantReadWriteLock.ReadLock _readLock;
+  private final ReentrantReadWriteLock.WriteLock _writeLock;
+
+  public MutableGeoIndex(int resolution) {
+    _resolution = resolution;
+    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    _readLock = readWriteLock.readLock();
+    _writeLock = readWriteLock.writeLock();
+  }
+
+  /**
+   * Adds the serialized geometry value of the given document id.
+   */
+  public void add(byte[] serializedGeometry, int docId) {
+    // Compute the cell outside of the lock to keep the critical section small
+    add(getCellId(serializedGeometry), docId);
+  }
+
+  /**
+   * Returns the id of the cell (at the resolution of the index) that contains the serialized geometry value.
+   */
+  public long getCellId(byte[] serializedGeometry) {
+    return GeoIndexUtils.getCellId(serializedGeometry, _resolution);
+  }
+
+  /**
+   * Adds the cell id (as returned by {@link #getCellId(byte[])}) of the given document id.
+   */
+  public void add(long cellId, int docId) {
+    try {
+      _writeLock.lock();
+      _postingListMap.computeIfAbsent(cellId, k -> new MutableRoaringBitmap()).add(docId);
+    } finally {
+      _writeLock.unlock();
+    }
+  }
+
+  @Override
+  protected int getResolution() {
+    return _resolution;
+  }
+
+  @Override
+  protected void orDocIds(long startCellId, long endCellId, MutableRoaringBitmap result) {
+    try {
+      _readLock.lock();
+      for (MutableRoaringBitmap docIds : _postingListMap.subMap(startCellId, true, endCellId, true).values()) {
+        result.or(docIds);
+      }
+    } finally {
+      _readLock.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+}
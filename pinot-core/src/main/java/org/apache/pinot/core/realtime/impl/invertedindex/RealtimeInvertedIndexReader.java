@@ -19,6 +19,7 @@
 package org.apache.pinot.core.realtime.impl.invertedindex;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
@@ -60,6 +61,54 @@ public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableR
     }
   }
 
+  /**
+   * Adds the document ids to the bitmaps of the corresponding dictionary ids (i.e. docIds[i] to the bitmap of
+   * dictIds[i]). Document ids of the same dictionary id are added into the bitmap in bulk, and the new bitmaps are
+   * published under a single write lock.
+   */
+  public void add(int[] dictIds, int[] docIds, int length) {
+    // Sort the (dictId, docId) pairs to group the document ids by dictionary id
+    long[] entries = new long[length];
+    for (int i = 0; i < length; i++) {
+      entries[i] = ((long) dictIds[i] << 32) | docIds[i];
+    }
+    Arrays.sort(entries);
+
+    int numBitmaps = _bitmaps.size();
+    List<ThreadSafeMutableRoaringBitmap> newBitmaps = null;
+    int[] docIdBuffer = new int[length];
+    int index = 0;
+    while (index < length) {
+      int dictId = (int) (entries[index] >>> 32);
+      int numDocIds = 0;
+      while (index < length && (int) (entries[index] >>> 32) == dictId) {
+        docIdBuffer[numDocIds++] = (int) entries[index++];
+      }
+      if (dictId < numBitmaps) {
+        _bitmaps.get(dictId).add(docIdBuffer, 0, numDocIds);
+      } else {
+        if (newBitmaps == null) {
+          newBitmaps = new ArrayList<>();
+        }
+        // Add empty bitmaps for the dictionary ids without any document
+        while (numBitmaps + newBitmaps.size() < dictId) {
+          newBitmaps.add(new ThreadSafeMutableRoaringBitmap());
+        }
+        ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap();
+        bitmap.add(docIdBuffer, 0, numDocIds);
+        newBitmaps.add(bitmap);
+      }
+    }
+    if (newBitmaps != null) {
+      try {
+        _writeLock.lock();
+        _bitmaps.addAll(newBitmaps);
+      } finally {
+        _writeLock.unlock();
+      }
+    }
+  }
+
   @Override
   public MutableRoaringBitmap getDocIds(int dictId) {
     ThreadSafeMutableRoaringBitmap bitmap;
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.json;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.pinot.core.segment.creator.impl.json.JsonIndexUtils;
+import org.apache.pinot.core.segment.index.readers.json.BaseJsonIndexReader;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Json index for the mutable segment which allows adding values on the fly.
+ * <p>This class is thread-safe for single writer multiple readers.
+ */
+public class MutableJsonIndex extends BaseJsonIndexReader {
+  private final TreeMap<String, MutableRoaringBitmap> _postingListMap = new TreeMap<>();
+  private final ReentrantReadWriteLock.ReadLock _readLock;
+  private final ReentrantReadWriteLock.WriteLock _writeLock;
+
+  public MutableJsonIndex() {
+    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    _readLock = readWriteLock.readLock();
+    _writeLock = readWriteLock.writeLock();
+  }
+
+  /**
+   * Adds the json value of the given document id. Values that are not valid json are not indexed.
+   */
+  public void add(String jsonString, int docId) {
+    // Flatten the json outside of the lock to keep the critical section small
+    add(JsonIndexUtils.flatten(jsonString), docId);
+  }
+
+  /**
+   * Adds the flattened keys (as returned by {@link JsonIndexUtils#flatten(String)}) of the given document id.
+   */
+  public void add(List<String> flattenedKeys, int docId) {
+    if (flattenedKeys.isEmpty()) {
+      return;
+    }
+    try {
+      _writeLock.lock();
+      for (String key : flattenedKeys) {
+        _postingListMap.computeIfAbsent(key, k -> new MutableRoaringBitmap()).add(docId);
+      }
+    } finally {
+      _writeLock.unlock();
+    }
+  }
+
+  @Override
+  protected MutableRoaringBitmap getDocIds(String key) {
+    try {
+      _readLock.lock();
+      MutableRoaringBitmap docIds = _postingListMap.get(key);
+      return docIds != null ? docIds.clone() : new MutableRoaringBitmap();
+    } finally {
+      _readLock.unlock();
+    }
+  }
+
+  @Override
+  protected void forEachValue(String path, ValueConsumer consumer) {
+    try {
+      _readLock.lock();
+      for (Map.Entry<String, MutableRoaringBitmap> entry : _postingListMap
+          .subMap(JsonIndexUtils.getPathLowerBound(path), JsonIndexUtils.getPathUpperBound(path)).entrySet()) {
+        consumer.accept(JsonIndexUtils.getValue(entry.getKey(), path), entry.getValue());
+      }
+    } finally {
+      _readLock.unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -22,7 +22,9 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.ConfigurationException;
+import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
@@ -53,6 +55,19 @@ public interface SegmentCreator extends Closeable {
    */
   void indexRow(GenericRow row);
 
+  /**
+   * Adds all the values of a column from an existing index segment (e.g. a mutable segment) to the index, then seals
+   * the indexes of the column. Different columns can be indexed concurrently, but each column must be indexed by a
+   * single thread, and this method must not be mixed with {@link #indexRow(GenericRow)}.
+   *
+   * @param columnName The column to index
+   * @param sortedDocIds The document ids in the order to index them, or null to index them in the segment order
+   * @param indexSegment The index segment to read the column values from
+   * @throws IOException
+   */
+  void indexColumn(String columnName, @Nullable int[] sortedDocIds, IndexSegment indexSegment)
+      throws IOException;
+
   /**
    * Sets the name of the segment.
    *
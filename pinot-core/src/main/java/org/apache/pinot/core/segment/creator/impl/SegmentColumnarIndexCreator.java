@@ -28,11 +28,15 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.pinot.common.utils.FileUtils;
 import org.apache.pinot.core.data.partition.PartitionFunction;
+import org.apache.pinot.core.data.readers.PinotSegmentColumnReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
 import org.apache.pinot.core.io.util.PinotDataBitSet;
@@ -42,6 +46,8 @@ import org.apache.pinot.core.segment.creator.DictionaryBasedInvertedIndexCreator
 import org.apache.pinot.core.segment.creator.ForwardIndexCreator;
 import org.apache.pinot.core.segment.creator.SegmentCreator;
 import org.apache.pinot.core.segment.creator.SegmentIndexCreationInfo;
+import org.apache.pinot.core.segment.creator.GeoIndexCreator;
+import org.apache.pinot.core.segment.creator.JsonIndexCreator;
 import org.apache.pinot.core.segment.creator.TextIndexCreator;
 import org.apache.pinot.core.segment.creator.TextIndexType;
 import org.apache.pinot.core.segment.creator.impl.fwd.MultiValueUnsortedForwardIndexCreator;
@@ -52,7 +58,10 @@ import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndex
 import org.apache.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OnHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.nullvalue.NullValueVectorCreator;
+import org.apache.pinot.core.segment.creator.impl.geo.OnHeapGeoIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.json.OnHeapJsonIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.text.LuceneTextIndexCreator;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
@@ -88,6 +97,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, ForwardIndexCreator> _forwardIndexCreatorMap = new HashMap<>();
   private Map<String, DictionaryBasedInvertedIndexCreator> _invertedIndexCreatorMap = new HashMap<>();
   private Map<String, TextIndexCreator> _textIndexCreatorMap = new HashMap<>();
+  private Map<String, JsonIndexCreator> _jsonIndexCreatorMap = new HashMap<>();
+  private Map<String, GeoIndexCreator> _geoIndexCreatorMap = new HashMap<>();
   private Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
@@ -98,6 +109,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, Map<String, String>> _columnProperties;
 
   private final Set<String> _textIndexColumns = new HashSet<>();
+  // Columns indexed and sealed with indexColumn(), which can be invoked concurrently
+  private final Set<String> _sealedColumns = ConcurrentHashMap.newKeySet();
 
   @Override
   public void init(SegmentGeneratorConfig segmentCreationSpec, SegmentIndexCreationInfo segmentIndexCreationInfo,
@@ -131,6 +144,19 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       _textIndexColumns.add(columnName);
     }
 
+    Set<String> jsonIndexColumns = new HashSet<>();
+    for (String columnName : config.getJsonIndexCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create json index for column: %s because it is not in schema", columnName);
+      jsonIndexColumns.add(columnName);
+    }
+
+    Map<String, Integer> geoIndexResolutions = config.getGeoIndexCreationResolutions();
+    for (String columnName : geoIndexResolutions.keySet()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create geo index for column: %s because it is not in schema", columnName);
+    }
+
     // Initialize creators for dictionary, forward index and inverted index
     for (FieldSpec fieldSpec : fieldSpecs) {
       // Ignore virtual columns
@@ -218,6 +244,25 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             .put(columnName, new LuceneTextIndexCreator(columnName, _indexDir, true /* commitOnClose */));
       }
 
+      if (jsonIndexColumns.contains(columnName)) {
+        // Initialize json index creator
+        Preconditions.checkState(fieldSpec.isSingleValueField(),
+            "Json index is currently only supported on single-value columns");
+        Preconditions.checkState(fieldSpec.getDataType() == DataType.STRING,
+            "Json index is currently only supported on STRING type columns");
+        _jsonIndexCreatorMap.put(columnName, new OnHeapJsonIndexCreator(_indexDir, columnName));
+      }
+
+      Integer geoIndexResolution = geoIndexResolutions.get(columnName);
+      if (geoIndexResolution != null) {
+        // Initialize geo index creator
+        Preconditions.checkState(fieldSpec.isSingleValueField(),
+            "Geo index is currently only supported on single-value columns");
+        Preconditions.checkState(fieldSpec.getDataType() == DataType.BYTES,
+            "Geo index is currently only supported on BYTES type columns");
+        _geoIndexCreatorMap.put(columnName, new OnHeapGeoIndexCreator(_indexDir, columnName, geoIndexResolution));
+      }
+
       _nullHandlingEnabled = config.isNullHandlingEnabled();
       if (_nullHandlingEnabled) {
         // Initialize Null value vector map
@@ -319,79 +364,167 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         throw new RuntimeException("Null value for column:" + columnName);
       }
 
-      boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
-      SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+      indexValue(columnName, forwardIndexCreator, columnValueToIndex);
 
-      if (isSingleValue) {
-        // SV column
-        // text-index enabled SV column
-        if (_textIndexColumns.contains(columnName)) {
-          _textIndexCreatorMap.get(columnName).add((String) columnValueToIndex);
+      if (_nullHandlingEnabled) {
+        // If row has null value for given column name, add to null value vector
+        if (row.isNullValue(columnName)) {
+          _nullValueVectorCreatorMap.get(columnName).setNull(docIdCounter);
         }
-        if (dictionaryCreator != null) {
-          // dictionary encoded SV column
-          // get dictID from dictionary
-          int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
-          // store the docID -> dictID mapping in forward index
-          forwardIndexCreator.putDictId(dictId);
-          DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
-          if (invertedIndexCreator != null) {
-            // if inverted index enabled during segment creation,
-            // then store dictID -> docID mapping in inverted index
-            invertedIndexCreator.add(dictId);
-          }
-        } else {
-          // non-dictionary encoded SV column
-          // store the docId -> raw value mapping in forward index
-          if (_textIndexColumns.contains(columnName) && !shouldStoreRawValueForTextIndex(columnName)) {
-            // for text index on raw columns, check the config to determine if actual raw value should
-            // be stored or not
-            columnValueToIndex = _columnProperties.get(columnName).get(FieldConfig.TEXT_INDEX_RAW_VALUE);
-            if (columnValueToIndex == null) {
-              columnValueToIndex = FieldConfig.TEXT_INDEX_DEFAULT_RAW_VALUE;
+      }
+    }
+    docIdCounter++;
+  }
+
+  @Override
+  public void indexColumn(String columnName, @Nullable int[] sortedDocIds, IndexSegment indexSegment)
+      throws IOException {
+    ForwardIndexCreator forwardIndexCreator = _forwardIndexCreatorMap.get(columnName);
+    Preconditions.checkState(forwardIndexCreator != null, "Cannot find forward index creator for column: %s",
+        columnName);
+    boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+    boolean hasValueBasedIndex = _textIndexCreatorMap.containsKey(columnName) || _jsonIndexCreatorMap
+        .containsKey(columnName) || _geoIndexCreatorMap.containsKey(columnName);
+    NullValueVectorCreator nullValueVectorCreator = _nullValueVectorCreatorMap.get(columnName);
+
+    try (PinotSegmentColumnReader columnReader = new PinotSegmentColumnReader(indexSegment, columnName)) {
+      // When both the source and the destination columns are dictionary-encoded, the sorted values of the destination
+      // dictionary are collected from the source dictionary, so map the source dictionary ids to the destination
+      // dictionary ids once instead of reading and looking up the value for each document
+      int[] dictIdMapping = null;
+      Dictionary sourceDictionary = columnReader.getDictionary();
+      if (dictionaryCreator != null && sourceDictionary != null) {
+        int numDictIds = sourceDictionary.length();
+        dictIdMapping = new int[numDictIds];
+        for (int i = 0; i < numDictIds; i++) {
+          dictIdMapping[i] = dictionaryCreator.indexOfSV(sourceDictionary.get(i));
+        }
+      }
+
+      for (int i = 0; i < totalDocs; i++) {
+        int docId = sortedDocIds != null ? sortedDocIds[i] : i;
+        if (dictIdMapping != null) {
+          if (isSingleValue) {
+            if (hasValueBasedIndex) {
+              addToValueBasedIndexes(columnName, columnReader.getValue(docId));
+            }
+            int dictId = dictIdMapping[columnReader.getDictId(docId)];
+            forwardIndexCreator.putDictId(dictId);
+            if (invertedIndexCreator != null) {
+              invertedIndexCreator.add(dictId);
+            }
+          } else {
+            int[] dictIds = columnReader.getDictIdMV(docId);
+            int numValues = dictIds.length;
+            for (int j = 0; j < numValues; j++) {
+              dictIds[j] = dictIdMapping[dictIds[j]];
+            }
+            forwardIndexCreator.putDictIdMV(dictIds);
+            if (invertedIndexCreator != null) {
+              invertedIndexCreator.add(dictIds, numValues);
             }
           }
-          switch (forwardIndexCreator.getValueType()) {
-            case INT:
-              forwardIndexCreator.putInt((int) columnValueToIndex);
-              break;
-            case LONG:
-              forwardIndexCreator.putLong((long) columnValueToIndex);
-              break;
-            case FLOAT:
-              forwardIndexCreator.putFloat((float) columnValueToIndex);
-              break;
-            case DOUBLE:
-              forwardIndexCreator.putDouble((double) columnValueToIndex);
-              break;
-            case STRING:
-              forwardIndexCreator.putString((String) columnValueToIndex);
-              break;
-            case BYTES:
-              forwardIndexCreator.putBytes((byte[]) columnValueToIndex);
-              break;
-            default:
-              throw new IllegalStateException();
-          }
+        } else {
+          indexValue(columnName, forwardIndexCreator, columnReader.getValue(docId));
         }
-      } else {
-        // MV column (always dictionary encoded)
-        int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
-        forwardIndexCreator.putDictIdMV(dictIds);
-        DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
-        if (invertedIndexCreator != null) {
-          invertedIndexCreator.add(dictIds, dictIds.length);
+        if (nullValueVectorCreator != null && columnReader.isNull(docId)) {
+          nullValueVectorCreator.setNull(i);
         }
       }
+    }
 
-      if (_nullHandlingEnabled) {
-        // If row has null value for given column name, add to null value vector
-        if (row.isNullValue(columnName)) {
-          _nullValueVectorCreatorMap.get(columnName).setNull(docIdCounter);
+    sealColumn(columnName);
+    _sealedColumns.add(columnName);
+  }
+
+  /**
+   * Helper method to add a value of a column to the dictionary, forward index, inverted index and the value based
+   * indexes (text, json and geo index).
+   */
+  private void indexValue(String columnName, ForwardIndexCreator forwardIndexCreator, Object columnValueToIndex) {
+    boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+
+    if (isSingleValue) {
+      // SV column
+      addToValueBasedIndexes(columnName, columnValueToIndex);
+      if (dictionaryCreator != null) {
+        // dictionary encoded SV column
+        // get dictID from dictionary
+        int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
+        // store the docID -> dictID mapping in forward index
+        forwardIndexCreator.putDictId(dictId);
+        DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+        if (invertedIndexCreator != null) {
+          // if inverted index enabled during segment creation,
+          // then store dictID -> docID mapping in inverted index
+          invertedIndexCreator.add(dictId);
+        }
+      } else {
+        // non-dictionary encoded SV column
+        // store the docId -> raw value mapping in forward index
+        if (_textIndexColumns.contains(columnName) && !shouldStoreRawValueForTextIndex(columnName)) {
+          // for text index on raw columns, check the config to determine if actual raw value should
+          // be stored or not
+          columnValueToIndex = _columnProperties.get(columnName).get(FieldConfig.TEXT_INDEX_RAW_VALUE);
+          if (columnValueToIndex == null) {
+            columnValueToIndex = FieldConfig.TEXT_INDEX_DEFAULT_RAW_VALUE;
+          }
         }
+        switch (forwardIndexCreator.getValueType()) {
+          case INT:
+            forwardIndexCreator.putInt((int) columnValueToIndex);
+            break;
+          case LONG:
+            forwardIndexCreator.putLong((long) columnValueToIndex);
+            break;
+          case FLOAT:
+            forwardIndexCreator.putFloat((float) columnValueToIndex);
+            break;
+          case DOUBLE:
+            forwardIndexCreator.putDouble((double) columnValueToIndex);
+            break;
+          case STRING:
+            forwardIndexCreator.putString((String) columnValueToIndex);
+            break;
+          case BYTES:
+            forwardIndexCreator.putBytes((byte[]) columnValueToIndex);
+            break;
+          default:
+            throw new IllegalStateException();
+        }
+      }
+    } else {
+      // MV column (always dictionary encoded)
+      int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
+      forwardIndexCreator.putDictIdMV(dictIds);
+      DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+      if (invertedIndexCreator != null) {
+        invertedIndexCreator.add(dictIds, dictIds.length);
       }
     }
-    docIdCounter++;
+  }
+
+  /**
+   * Helper method to add a value of a single-value column to the text, json and geo index if enabled.
+   */
+  private void addToValueBasedIndexes(String columnName, Object columnValueToIndex) {
+    // text-index enabled SV column
+    if (_textIndexColumns.contains(columnName)) {
+      _textIndexCreatorMap.get(columnName).add((String) columnValueToIndex);
+    }
+    // json-index enabled SV column
+    JsonIndexCreator jsonIndexCreator = _jsonIndexCreatorMap.get(columnName);
+    if (jsonIndexCreator != null) {
+      jsonIndexCreator.add((String) columnValueToIndex);
+    }
+    // geo-index enabled SV column
+    GeoIndexCreator geoIndexCreator = _geoIndexCreatorMap.get(columnName);
+    if (geoIndexCreator != null) {
+      geoIndexCreator.add((byte[]) columnValueToIndex);
+    }
   }
 
   private boolean shouldStoreRawValueForTextIndex(String column) {
@@ -416,16 +549,39 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   @Override
   public void seal()
       throws ConfigurationException, IOException {
-    for (DictionaryBasedInvertedIndexCreator invertedIndexCreator : _invertedIndexCreatorMap.values()) {
+    for (String columnName : _forwardIndexCreatorMap.keySet()) {
+      if (!_sealedColumns.contains(columnName)) {
+        sealColumn(columnName);
+      }
+    }
+    writeMetadata();
+  }
+
+  /**
+   * Helper method to seal the inverted, text, json, geo index and null value vector of a column.
+   */
+  private void sealColumn(String columnName)
+      throws IOException {
+    DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+    if (invertedIndexCreator != null) {
       invertedIndexCreator.seal();
     }
-    for (TextIndexCreator textIndexCreator : _textIndexCreatorMap.values()) {
+    TextIndexCreator textIndexCreator = _textIndexCreatorMap.get(columnName);
+    if (textIndexCreator != null) {
       textIndexCreator.seal();
     }
-    for (NullValueVectorCreator nullValueVectorCreator : _nullValueVectorCreatorMap.values()) {
+    JsonIndexCreator jsonIndexCreator = _jsonIndexCreatorMap.get(columnName);
+    if (jsonIndexCreator != null) {
+      jsonIndexCreator.seal();
+    }
+    GeoIndexCreator geoIndexCreator = _geoIndexCreatorMap.get(columnName);
+    if (geoIndexCreator != null) {
+      geoIndexCreator.seal();
+    }
+    NullValueVectorCreator nullValueVectorCreator = _nullValueVectorCreatorMap.get(columnName);
+    if (nullValueVectorCreator != null) {
       nullValueVectorCreator.seal();
     }
-    writeMetadata();
   }
 
   private void writeMetadata()
@@ -650,6 +806,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       throws IOException {
     FileUtils.close(Iterables
         .concat(_dictionaryCreatorMap.values(), _forwardIndexCreatorMap.values(), _invertedIndexCreatorMap.values(),
-            _textIndexCreatorMap.values(), _nullValueVectorCreatorMap.values()));
+            _textIndexCreatorMap.values(), _jsonIndexCreatorMap.values(), _geoIndexCreatorMap.values(),
+            _nullValueVectorCreatorMap.values()));
   }
 }
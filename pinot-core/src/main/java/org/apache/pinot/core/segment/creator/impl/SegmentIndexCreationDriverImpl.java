@@ -23,6 +23,7 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,11 +31,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.core.data.readers.PinotSegmentRecordReader;
 import org.apache.pinot.core.data.recordtransformer.CompositeTransformer;
 import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
+import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.segment.creator.ColumnIndexCreationInfo;
@@ -235,6 +241,70 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     handlePostCreation();
   }
 
+  /**
+   * Builds the segment from an existing index segment (e.g. a mutable segment) column by column instead of row by row,
+   * where the indexes of different columns are built in parallel with the given executor. The record transformer is not
+   * applied because the values in the index segment are already transformed.
+   *
+   * @param indexSegment The index segment to read the column values from
+   * @param sortedDocIds The document ids in the order to index them, or null to index them in the segment order
+   * @param executorService The executor to build the column indexes
+   */
+  public void buildByColumn(IndexSegment indexSegment, @Nullable int[] sortedDocIds,
+      ExecutorService executorService)
+      throws Exception {
+    // Count the number of documents and gather per-column statistics
+    LOGGER.debug("Start building StatsCollector!");
+    buildIndexCreationInfo();
+    LOGGER.info("Finished building StatsCollector!");
+    LOGGER.info("Collected stats for {} documents", totalDocs);
+
+    try {
+      // Initialize the index creation using the per-column statistics information
+      indexCreator.init(config, segmentIndexCreationInfo, indexCreationInfoMap, dataSchema, tempIndexDir);
+
+      // Build the index for each column in parallel
+      LOGGER.info("Start building IndexCreator by column!");
+      long indexStartTime = System.currentTimeMillis();
+      List<Future<Void>> futures = new ArrayList<>();
+      for (FieldSpec fieldSpec : dataSchema.getAllFieldSpecs()) {
+        if (fieldSpec.isVirtualColumn()) {
+          continue;
+        }
+        String columnName = fieldSpec.getName();
+        futures.add(executorService.submit(() -> {
+          indexCreator.indexColumn(columnName, sortedDocIds, indexSegment);
+          return null;
+        }));
+      }
+      // Wait for all the tasks to finish before handling the failure because the index creators cannot be closed
+      // while they are still in use
+      Exception exception = null;
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (exception == null) {
+            Throwable cause = e.getCause();
+            exception = cause instanceof Exception ? (Exception) cause : e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+      totalIndexTime += System.currentTimeMillis() - indexStartTime;
+    } catch (Exception e) {
+      indexCreator.close();
+      throw e;
+    } finally {
+      recordReader.close();
+    }
+    LOGGER.info("Finished column indexing in IndexCreator!");
+
+    handlePostCreation();
+  }
+
   private void handlePostCreation()
       throws Exception {
     ColumnStatistics timeColumnStatistics = segmentStats.getColumnProfileFor(config.getTimeColumnName());
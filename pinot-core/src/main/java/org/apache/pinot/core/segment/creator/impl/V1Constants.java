@@ -39,6 +39,8 @@ public class V1Constants {
     public static final String BITMAP_RANGE_INDEX_FILE_EXTENSION = ".bitmap.range";
     public static final String BLOOM_FILTER_FILE_EXTENSION = ".bloom";
     public static final String NULLVALUE_VECTOR_FILE_EXTENSION = ".bitmap.nullvalue";
+    public static final String JSON_INDEX_FILE_EXTENSION = ".json.idx";
+    public static final String GEO_INDEX_FILE_EXTENSION = ".geo.idx";
   }
 
   public static class MetadataKeys {
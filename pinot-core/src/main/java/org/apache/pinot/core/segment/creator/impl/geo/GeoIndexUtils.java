@@ -0,0 +1,189 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.geo;
+
+import com.google.common.base.Preconditions;
+import java.util.Map;
+import org.apache.pinot.core.geospatial.GeometryUtils;
+import org.apache.pinot.core.geospatial.serde.GeometrySerializer;
+import org.apache.pinot.spi.config.table.FieldConfig;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+
+
+/**
+ * Utility methods for the geo index.
+ * <p>The geo index splits the longitude/latitude space into a grid of square cells. At resolution {@code r}, there
+ * are {@code 2^r} rows covering latitude [-90, 90] and {@code 2^(r+1)} columns covering longitude [-180, 180], and the
+ * id of a cell is {@code row * numColumns + column}. All the cells within a row have contiguous ids, so a bounding box
+ * can be covered with one cell id range per row.
+ * <p>Only non-empty points within the longitude/latitude range are mapped to cells. All the other values (e.g. empty
+ * geometries, polygons, out-of-range geometry points) are mapped to {@link #UNINDEXED_CELL_ID} and always returned as
+ * candidates.
+ */
+public class GeoIndexUtils {
+  private GeoIndexUtils() {
+  }
+
+  public static final int MIN_RESOLUTION = 1;
+  public static final int MAX_RESOLUTION = 24;
+  // Cell size is about 4.9km at resolution 12
+  public static final int DEFAULT_RESOLUTION = 12;
+  public static final long UNINDEXED_CELL_ID = -1L;
+
+  private static final double MIN_LONGITUDE = -180;
+  private static final double MAX_LONGITUDE = 180;
+  private static final double MIN_LATITUDE = -90;
+  private static final double MAX_LATITUDE = 90;
+
+  /**
+   * Consumer of the cell id ranges (both ends inclusive) covering a bounding box.
+   */
+  public interface CellRangeConsumer {
+    void accept(long startCellId, long endCellId);
+  }
+
+  /**
+   * Returns the geo index resolution configured in the given field config, or the default resolution if not
+   * configured.
+   */
+  public static int getResolution(FieldConfig fieldConfig) {
+    Map<String, String> properties = fieldConfig.getProperties();
+    if (properties == null || !properties.containsKey(FieldConfig.GEO_INDEX_RESOLUTION_KEY)) {
+      return DEFAULT_RESOLUTION;
+    }
+    int resolution = Integer.parseInt(properties.get(FieldConfig.GEO_INDEX_RESOLUTION_KEY));
+    Preconditions.checkArgument(resolution >= MIN_RESOLUTION && resolution <= MAX_RESOLUTION,
+        "Geo index resolution for column: %s must be between %s and %s, got: %s", fieldConfig.getName(),
+        MIN_RESOLUTION, MAX_RESOLUTION, resolution);
+    return resolution;
+  }
+
+  /**
+   * Returns the id of the cell containing the given serialized geometry, or {@link #UNINDEXED_CELL_ID} if the geometry
+   * cannot be mapped to a cell.
+   */
+  public static long getCellId(byte[] serializedGeometry, int resolution) {
+    Geometry geometry;
+    try {
+      geometry = GeometrySerializer.deserialize(serializedGeometry);
+    } catch (Exception e) {
+      return UNINDEXED_CELL_ID;
+    }
+    if (!(geometry instanceof Point) || geometry.isEmpty()) {
+      return UNINDEXED_CELL_ID;
+    }
+    Point point = (Point) geometry;
+    return getCellId(point.getX(), point.getY(), resolution);
+  }
+
+  /**
+   * Returns the id of the cell containing the given longitude (x) and latitude (y), or {@link #UNINDEXED_CELL_ID} if
+   * the coordinate is out of range.
+   */
+  public static long getCellId(double x, double y, int resolution) {
+    if (!(x >= MIN_LONGITUDE && x <= MAX_LONGITUDE && y >= MIN_LATITUDE && y <= MAX_LATITUDE)) {
+      return UNINDEXED_CELL_ID;
+    }
+    int numRows = 1 << resolution;
+    int numColumns = numRows << 1;
+    double cellSize = (MAX_LATITUDE - MIN_LATITUDE) / numRows;
+    int row = Math.min((int) ((y - MIN_LATITUDE) / cellSize), numRows - 1);
+    int column = Math.min((int) ((x - MIN_LONGITUDE) / cellSize), numColumns - 1);
+    return (long) row * numColumns + column;
+  }
+
+  /**
+   * Feeds the cell id ranges covering the given bounding box into the consumer. Longitudes beyond [-180, 180] are
+   * wrapped around the anti-meridian, latitudes beyond [-90, 90] are clamped.
+   */
+  public static void forEachCellRange(double minX, double minY, double maxX, double maxY, int resolution,
+      CellRangeConsumer consumer) {
+    if (minX > maxX || minY > maxY || Double.isNaN(minX) || Double.isNaN(minY)) {
+      return;
+    }
+    minY = Math.max(minY, MIN_LATITUDE);
+    maxY = Math.min(maxY, MAX_LATITUDE);
+    if (minY > maxY) {
+      return;
+    }
+    if (maxX - minX >= MAX_LONGITUDE - MIN_LONGITUDE) {
+      forEachCellRangeWithinBounds(MIN_LONGITUDE, minY, MAX_LONGITUDE, maxY, resolution, consumer);
+    } else if (minX < MIN_LONGITUDE) {
+      forEachCellRangeWithinBounds(MIN_LONGITUDE, minY, maxX, maxY, resolution, consumer);
+      forEachCellRangeWithinBounds(minX + 360, minY, MAX_LONGITUDE, maxY, resolution, consumer);
+    } else if (maxX > MAX_LONGITUDE) {
+      forEachCellRangeWithinBounds(minX, minY, MAX_LONGITUDE, maxY, resolution, consumer);
+      forEachCellRangeWithinBounds(MIN_LONGITUDE, minY, maxX - 360, maxY, resolution, consumer);
+    } else {
+      forEachCellRangeWithinBounds(minX, minY, maxX, maxY, resolution, consumer);
+    }
+  }
+
+  private static void forEachCellRangeWithinBounds(double minX, double minY, double maxX, double maxY,
+      int resolution, CellRangeConsumer consumer) {
+    if (minX > maxX) {
+      return;
+    }
+    long minCellId = getCellId(minX, minY, resolution);
+    long maxCellId = getCellId(maxX, maxY, resolution);
+    int numColumns = 2 << resolution;
+    long minRow = minCellId / numColumns;
+    long maxRow = maxCellId / numColumns;
+    long minColumn = minCellId % numColumns;
+    long maxColumn = maxCellId % numColumns;
+    if (minColumn == 0 && maxColumn == numColumns - 1) {
+      // Full rows, use a single range
+      consumer.accept(minCellId, maxCellId);
+    } else {
+      for (long row = minRow; row <= maxRow; row++) {
+        consumer.accept(row * numColumns + minColumn, row * numColumns + maxColumn);
+      }
+    }
+  }
+
+  /**
+   * Returns the bounding box of all the points within the given distance of the given geometry. For geography, the
+   * distance is in meters and the returned box might be larger than the exact bound (e.g. near the poles); for
+   * geometry, the distance is in the units of the coordinates.
+   */
+  public static Envelope getDistanceEnvelope(Geometry geometry, double distance) {
+    Envelope envelope = new Envelope(geometry.getEnvelopeInternal());
+    if (!GeometryUtils.isGeography(geometry)) {
+      envelope.expandBy(distance);
+      return envelope;
+    }
+    double angularDistance = distance / GeometryUtils.EARTH_RADIUS_M;
+    if (angularDistance >= Math.PI) {
+      return new Envelope(MIN_LONGITUDE, MAX_LONGITUDE, MIN_LATITUDE, MAX_LATITUDE);
+    }
+    double latitudeDelta = Math.toDegrees(angularDistance);
+    double minY = envelope.getMinY() - latitudeDelta;
+    double maxY = envelope.getMaxY() + latitudeDelta;
+    if (minY <= MIN_LATITUDE || maxY >= MAX_LATITUDE) {
+      // Covers a pole, all longitudes are reachable
+      return new Envelope(MIN_LONGITUDE, MAX_LONGITUDE, Math.max(minY, MIN_LATITUDE), Math.min(maxY, MAX_LATITUDE));
+    }
+    // Longitude degrees shrink with the cosine of the latitude, use the latitude closest to the pole to be safe
+    double maxAbsLatitude = Math.max(Math.abs(minY), Math.abs(maxY));
+    double longitudeDelta = Math.min(latitudeDelta / Math.cos(Math.toRadians(maxAbsLatitude)), MAX_LONGITUDE);
+    return new Envelope(envelope.getMinX() - longitudeDelta, envelope.getMaxX() + longitudeDelta, minY, maxY);
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.geo;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.segment.creator.GeoIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Implementation of {@link GeoIndexCreator} that uses on-heap memory.
+ * <p>The geo index file has the following layout:
+ * <ul>
+ *   <li>Header: version, resolution, number of cells (3 ints)</li>
+ *   <li>Cell ids: sorted ids of the non-empty cells (longs)</li>
+ *   <li>Inverted index: bitmap offsets followed by the bitmaps, one for each cell</li>
+ * </ul>
+ * See {@link GeoIndexUtils} for the cell layout.
+ */
+public class OnHeapGeoIndexCreator implements GeoIndexCreator {
+  public static final int VERSION = 1;
+  public static final int HEADER_LENGTH = 3 * Integer.BYTES;
+
+  private final File _indexFile;
+  private final int _resolution;
+  private final TreeMap<Long, MutableRoaringBitmap> _postingListMap = new TreeMap<>();
+  private int _nextDocId;
+
+  public OnHeapGeoIndexCreator(File indexDir, String columnName, int resolution) {
+    _indexFile = new File(indexDir, columnName + V1Constants.Indexes.GEO_INDEX_FILE_EXTENSION);
+    _resolution = resolution;
+  }
+
+  @Override
+  public void add(byte[] serializedGeometry) {
+    long cellId = GeoIndexUtils.getCellId(serializedGeometry, _resolution);
+    _postingListMap.computeIfAbsent(cellId, k -> new MutableRoaringBitmap()).add(_nextDocId++);
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    int numCells = _postingListMap.size();
+    long cellIdsEnd = HEADER_LENGTH + (long) numCells * Long.BYTES;
+    long indexLength = cellIdsEnd + (long) (numCells + 1) * Integer.BYTES;
+    for (MutableRoaringBitmap bitmap : _postingListMap.values()) {
+      bitmap.runOptimize();
+      indexLength += bitmap.serializedSizeInBytes();
+    }
+    Preconditions.checkState(indexLength < Integer.MAX_VALUE, "Geo index file: %s exceeds 2GB limit", _indexFile);
+
+    // Backward-compatible: index file is always big-endian
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer
+        .mapFile(_indexFile, false, 0, indexLength, ByteOrder.BIG_ENDIAN, getClass().getSimpleName())) {
+      // Write header
+      dataBuffer.putInt(0, VERSION);
+      dataBuffer.putInt(Integer.BYTES, _resolution);
+      dataBuffer.putInt(2 * Integer.BYTES, numCells);
+
+      // Write cell ids and inverted index, where the bitmap offsets are relative to the start of the inverted index
+      PinotDataBuffer invertedIndexBuffer = dataBuffer.view(cellIdsEnd, indexLength);
+      int bitmapOffset = (numCells + 1) * Integer.BYTES;
+      invertedIndexBuffer.putInt(0, bitmapOffset);
+      int index = 0;
+      for (Map.Entry<Long, MutableRoaringBitmap> entry : _postingListMap.entrySet()) {
+        dataBuffer.putLong(HEADER_LENGTH + (long) index * Long.BYTES, entry.getKey());
+        MutableRoaringBitmap bitmap = entry.getValue();
+        int bitmapLength = bitmap.serializedSizeInBytes();
+        bitmap.serialize(invertedIndexBuffer.toDirectByteBuffer(bitmapOffset, bitmapLength));
+        bitmapOffset += bitmapLength;
+        invertedIndexBuffer.putInt(++index * Integer.BYTES, bitmapOffset);
+      }
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(_indexFile);
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+}
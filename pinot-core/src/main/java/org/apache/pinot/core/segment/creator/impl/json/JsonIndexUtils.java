@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.spi.utils.JsonUtils;
+
+
+/**
+ * Utility methods shared by the json index creator and readers.
+ * <p>A json document is flattened into a set of keys of the form {@code <path>\0<value>}, one for each leaf value in
+ * the document, where the path uses the dot notation for object fields and {@code [*]} for array elements, e.g.
+ * <pre>
+ *   {"name": "adam", "addresses": [{"street": "foo"}, {"street": "bar"}]}
+ *   -> name\0adam, addresses[*].street\0foo, addresses[*].street\0bar
+ * </pre>
+ * Null values are not indexed. Because the separator sorts before all other characters, all the keys for a path are
+ * stored contiguously in the sorted key space, between {@code <path>\0} and {@code <path>\1}.
+ */
+public class JsonIndexUtils {
+  private JsonIndexUtils() {
+  }
+
+  public static final char KEY_VALUE_SEPARATOR = '\0';
+  public static final char KEY_VALUE_SEPARATOR_END = '\1';
+  public static final String ARRAY_PATH_SUFFIX = "[*]";
+
+  private static final String ROOT_PATH_PREFIX = "$";
+  private static final String ROOT_FIELD_PREFIX = "$.";
+
+  /**
+   * Flattens the given json string into the keys to be indexed, or returns an empty list if the string is not a valid
+   * json.
+   */
+  public static List<String> flatten(String jsonString) {
+    JsonNode jsonNode;
+    try {
+      jsonNode = JsonUtils.stringToJsonNode(jsonString);
+    } catch (Exception e) {
+      return new ArrayList<>(0);
+    }
+    List<String> keys = new ArrayList<>();
+    flatten(jsonNode, "", keys);
+    return keys;
+  }
+
+  private static void flatten(JsonNode jsonNode, String path, List<String> keys) {
+    if (jsonNode.isObject()) {
+      Iterator<Map.Entry<String, JsonNode>> fields = jsonNode.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        String childPath = path.isEmpty() ? field.getKey() : path + '.' + field.getKey();
+        flatten(field.getValue(), childPath, keys);
+      }
+    } else if (jsonNode.isArray()) {
+      String childPath = path + ARRAY_PATH_SUFFIX;
+      for (JsonNode element : jsonNode) {
+        flatten(element, childPath, keys);
+      }
+    } else if (jsonNode.isValueNode() && !jsonNode.isNull() && !path.isEmpty()) {
+      keys.add(getKey(path, jsonNode.asText()));
+    }
+  }
+
+  /**
+   * Normalizes the path used in the json filter by removing the optional leading {@code $} or {@code $.}.
+   */
+  public static String normalizePath(String path) {
+    if (path.startsWith(ROOT_FIELD_PREFIX)) {
+      return path.substring(ROOT_FIELD_PREFIX.length());
+    }
+    if (path.startsWith(ROOT_PATH_PREFIX)) {
+      return path.substring(ROOT_PATH_PREFIX.length());
+    }
+    return path;
+  }
+
+  /**
+   * Returns the key for the given path and value.
+   */
+  public static String getKey(String path, String value) {
+    return path + KEY_VALUE_SEPARATOR + value;
+  }
+
+  /**
+   * Returns the lower bound (inclusive) of the keys for the given path.
+   */
+  public static String getPathLowerBound(String path) {
+    return path + KEY_VALUE_SEPARATOR;
+  }
+
+  /**
+   * Returns the upper bound (exclusive) of the keys for the given path.
+   */
+  public static String getPathUpperBound(String path) {
+    return path + KEY_VALUE_SEPARATOR_END;
+  }
+
+  /**
+   * Returns the value part of the given key.
+   */
+  public static String getValue(String key, String path) {
+    return key.substring(path.length() + 1);
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.json;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.core.io.util.VarLengthBytesValueReaderWriter;
+import org.apache.pinot.core.segment.creator.JsonIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Implementation of {@link JsonIndexCreator} that uses on-heap memory.
+ * <p>The json index file has the following layout:
+ * <ul>
+ *   <li>Header: version, number of keys, max key length in bytes, dictionary length in bytes (4 ints)</li>
+ *   <li>Dictionary: sorted flattened keys stored in the variable length bytes format</li>
+ *   <li>Inverted index: bitmap offsets followed by the bitmaps, one for each key in the dictionary</li>
+ * </ul>
+ * See {@link JsonIndexUtils} for the format of the flattened keys.
+ */
+public class OnHeapJsonIndexCreator implements JsonIndexCreator {
+  public static final int VERSION = 1;
+  public static final int HEADER_LENGTH = 4 * Integer.BYTES;
+
+  private final File _indexFile;
+  private final TreeMap<String, MutableRoaringBitmap> _postingListMap = new TreeMap<>();
+  private int _nextDocId;
+
+  public OnHeapJsonIndexCreator(File indexDir, String columnName) {
+    _indexFile = new File(indexDir, columnName + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+  }
+
+  @Override
+  public void add(String jsonString) {
+    int docId = _nextDocId++;
+    for (String key : JsonIndexUtils.flatten(jsonString)) {
+      _postingListMap.computeIfAbsent(key, k -> new MutableRoaringBitmap()).add(docId);
+    }
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    int numKeys = _postingListMap.size();
+    byte[][] keys = new byte[numKeys][];
+    MutableRoaringBitmap[] bitmaps = new MutableRoaringBitmap[numKeys];
+    int maxKeyLength = 0;
+    int index = 0;
+    for (Map.Entry<String, MutableRoaringBitmap> entry : _postingListMap.entrySet()) {
+      byte[] key = StringUtil.encodeUtf8(entry.getKey());
+      keys[index] = key;
+      maxKeyLength = Math.max(maxKeyLength, key.length);
+      MutableRoaringBitmap bitmap = entry.getValue();
+      bitmap.runOptimize();
+      bitmaps[index++] = bitmap;
+    }
+
+    long dictionaryLength = VarLengthBytesValueReaderWriter.getRequiredSize(keys);
+    long invertedIndexLength = (long) (numKeys + 1) * Integer.BYTES;
+    for (MutableRoaringBitmap bitmap : bitmaps) {
+      invertedIndexLength += bitmap.serializedSizeInBytes();
+    }
+    long indexLength = HEADER_LENGTH + dictionaryLength + invertedIndexLength;
+    Preconditions.checkState(indexLength < Integer.MAX_VALUE, "Json index file: %s exceeds 2GB limit", _indexFile);
+
+    // Backward-compatible: index file is always big-endian
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer
+        .mapFile(_indexFile, false, 0, indexLength, ByteOrder.BIG_ENDIAN, getClass().getSimpleName())) {
+      // Write header
+      dataBuffer.putInt(0, VERSION);
+      dataBuffer.putInt(Integer.BYTES, numKeys);
+      dataBuffer.putInt(2 * Integer.BYTES, maxKeyLength);
+      dataBuffer.putInt(3 * Integer.BYTES, (int) dictionaryLength);
+
+      // Write dictionary
+      long dictionaryEnd = HEADER_LENGTH + dictionaryLength;
+      new VarLengthBytesValueReaderWriter(dataBuffer.view(HEADER_LENGTH, dictionaryEnd), keys);
+
+      // Write inverted index, where the bitmap offsets are relative to the start of the inverted index
+      PinotDataBuffer invertedIndexBuffer = dataBuffer.view(dictionaryEnd, indexLength);
+      int bitmapOffset = (numKeys + 1) * Integer.BYTES;
+      invertedIndexBuffer.putInt(0, bitmapOffset);
+      for (int i = 0; i < numKeys; i++) {
+        MutableRoaringBitmap bitmap = bitmaps[i];
+        int bitmapLength = bitmap.serializedSizeInBytes();
+        bitmap.serialize(invertedIndexBuffer.toDirectByteBuffer(bitmapOffset, bitmapLength));
+        bitmapOffset += bitmapLength;
+        invertedIndexBuffer.putInt((i + 1) * Integer.BYTES, bitmapOffset);
+      }
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(_indexFile);
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+}
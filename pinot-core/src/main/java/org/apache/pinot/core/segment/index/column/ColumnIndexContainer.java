@@ -23,6 +23,8 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.GeoIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
 import org.apache.pinot.core.segment.index.readers.TextIndexReader;
 
@@ -52,6 +54,16 @@ public interface ColumnIndexContainer extends Closeable {
    */
   TextIndexReader getTextIndex();
 
+  /**
+   * Returns the json index for the column, or {@code null} if it does not exist.
+   */
+  JsonIndexReader getJsonIndex();
+
+  /**
+   * Returns the geo index for the column, or {@code null} if it does not exist.
+   */
+  GeoIndexReader getGeoIndex();
+
   /**
    * Returns the dictionary for the column, or {@code null} if it does not exist.
    */
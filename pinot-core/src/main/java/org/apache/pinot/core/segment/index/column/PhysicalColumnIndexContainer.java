@@ -33,6 +33,8 @@ import org.apache.pinot.core.segment.index.readers.FloatDictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.IntDictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.GeoIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.LongDictionary;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
 import org.apache.pinot.core.segment.index.readers.OnHeapDoubleDictionary;
@@ -49,6 +51,8 @@ import org.apache.pinot.core.segment.index.readers.forward.FixedBitMVForwardInde
 import org.apache.pinot.core.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
 import org.apache.pinot.core.segment.index.readers.forward.FixedByteChunkSVForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.geo.ImmutableGeoIndexReader;
+import org.apache.pinot.core.segment.index.readers.json.ImmutableJsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.sorted.SortedIndexReaderImpl;
 import org.apache.pinot.core.segment.index.readers.text.LuceneTextIndexReader;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
@@ -67,6 +71,8 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   private final InvertedIndexReader<?> _invertedIndex;
   private final InvertedIndexReader<?> _rangeIndex;
   private final TextIndexReader _textIndex;
+  private final JsonIndexReader _jsonIndex;
+  private final GeoIndexReader _geoIndex;
   private final BaseImmutableDictionary _dictionary;
   private final BloomFilterReader _bloomFilter;
   private final NullValueVectorReaderImpl _nullValueVectorReader;
@@ -78,6 +84,8 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     boolean loadInvertedIndex = indexLoadingConfig.getInvertedIndexColumns().contains(columnName);
     boolean loadRangeIndex = indexLoadingConfig.getRangeIndexColumns().contains(columnName);
     boolean loadTextIndex = indexLoadingConfig.getTextIndexColumns().contains(columnName);
+    boolean loadJsonIndex = indexLoadingConfig.getJsonIndexColumns().contains(columnName);
+    boolean loadGeoIndex = indexLoadingConfig.getGeoIndexResolutions().containsKey(columnName);
     boolean loadOnHeapDictionary = indexLoadingConfig.getOnHeapDictionaryColumns().contains(columnName);
     BloomFilterConfig bloomFilterConfig = indexLoadingConfig.getBloomFilterConfigs().get(columnName);
 
@@ -97,6 +105,18 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       _textIndex = null;
     }
 
+    if (loadJsonIndex) {
+      _jsonIndex = new ImmutableJsonIndexReader(segmentReader.getIndexFor(columnName, ColumnIndexType.JSON_INDEX));
+    } else {
+      _jsonIndex = null;
+    }
+
+    if (loadGeoIndex && segmentReader.hasIndexFor(columnName, ColumnIndexType.GEO_INDEX)) {
+      _geoIndex = new ImmutableGeoIndexReader(segmentReader.getIndexFor(columnName, ColumnIndexType.GEO_INDEX));
+    } else {
+      _geoIndex = null;
+    }
+
     PinotDataBuffer fwdIndexBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.FORWARD_INDEX);
 
     if (metadata.hasDictionary()) {
@@ -172,6 +192,16 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     return _textIndex;
   }
 
+  @Override
+  public JsonIndexReader getJsonIndex() {
+    return _jsonIndex;
+  }
+
+  @Override
+  public GeoIndexReader getGeoIndex() {
+    return _geoIndex;
+  }
+
   @Override
   public BaseImmutableDictionary getDictionary() {
     return _dictionary;
@@ -261,6 +291,12 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     if (_textIndex != null) {
       _textIndex.close();
     }
+    if (_jsonIndex != null) {
+      _jsonIndex.close();
+    }
+    if (_geoIndex != null) {
+      _geoIndex.close();
+    }
     if (_bloomFilter != null) {
       _bloomFilter.close();
     }
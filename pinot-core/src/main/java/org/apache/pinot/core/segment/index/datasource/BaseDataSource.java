@@ -25,6 +25,8 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.GeoIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
 import org.apache.pinot.core.segment.index.readers.TextIndexReader;
 
@@ -36,19 +38,24 @@ public abstract class BaseDataSource implements DataSource {
   private final InvertedIndexReader<?> _invertedIndex;
   private final InvertedIndexReader<?> _rangeIndex;
   private final TextIndexReader _textIndex;
+  private final JsonIndexReader _jsonIndex;
+  private final GeoIndexReader _geoIndex;
   private final BloomFilterReader _bloomFilter;
   private final NullValueVectorReader _nullValueVector;
 
   public BaseDataSource(DataSourceMetadata dataSourceMetadata, ForwardIndexReader<?> forwardIndex,
       @Nullable Dictionary dictionary, @Nullable InvertedIndexReader<?> invertedIndex,
       @Nullable InvertedIndexReader<?> rangeIndex, @Nullable TextIndexReader textIndex,
-      @Nullable BloomFilterReader bloomFilter, @Nullable NullValueVectorReader nullValueVector) {
+      @Nullable JsonIndexReader jsonIndex, @Nullable GeoIndexReader geoIndex, @Nullable BloomFilterReader bloomFilter,
+      @Nullable NullValueVectorReader nullValueVector) {
     _dataSourceMetadata = dataSourceMetadata;
     _forwardIndex = forwardIndex;
     _dictionary = dictionary;
     _invertedIndex = invertedIndex;
     _rangeIndex = rangeIndex;
     _textIndex = textIndex;
+    _jsonIndex = jsonIndex;
+    _geoIndex = geoIndex;
     _bloomFilter = bloomFilter;
     _nullValueVector = nullValueVector;
   }
@@ -87,6 +94,18 @@ public abstract class BaseDataSource implements DataSource {
     return _textIndex;
   }
 
+  @Nullable
+  @Override
+  public JsonIndexReader getJsonIndex() {
+    return _jsonIndex;
+  }
+
+  @Nullable
+  @Override
+  public GeoIndexReader getGeoIndex() {
+    return _geoIndex;
+  }
+
   @Nullable
   @Override
   public BloomFilterReader getBloomFilter() {
@@ -29,6 +29,7 @@ import javax.annotation.Nullable;
 import org.apache.pinot.common.segment.ReadMode;
 import org.apache.pinot.core.data.manager.config.InstanceDataManagerConfig;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
+import org.apache.pinot.core.segment.creator.impl.geo.GeoIndexUtils;
 import org.apache.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGeneratorMode;
 import org.apache.pinot.spi.config.table.BloomFilterConfig;
 import org.apache.pinot.spi.config.table.FieldConfig;
@@ -49,6 +50,8 @@ public class IndexLoadingConfig {
   private Set<String> _invertedIndexColumns = new HashSet<>();
   private Set<String> _textIndexColumns = new HashSet<>();
   private Set<String> _rangeIndexColumns = new HashSet<>();
+  private Set<String> _jsonIndexColumns = new HashSet<>();
+  private Map<String, Integer> _geoIndexResolutions = new HashMap<>();
   private Set<String> _noDictionaryColumns = new HashSet<>(); // TODO: replace this by _noDictionaryConfig.
   private Map<String, String> _noDictionaryConfig = new HashMap<>();
   private Set<String> _varLengthDictionaryColumns = new HashSet<>();
@@ -97,6 +100,11 @@ public class IndexLoadingConfig {
       _rangeIndexColumns.addAll(rangeIndexColumns);
     }
 
+    List<String> jsonIndexColumns = indexingConfig.getJsonIndexColumns();
+    if (jsonIndexColumns != null) {
+      _jsonIndexColumns.addAll(jsonIndexColumns);
+    }
+
     List<String> bloomFilterColumns = indexingConfig.getBloomFilterColumns();
     if (bloomFilterColumns != null) {
       for (String bloomFilterColumn : bloomFilterColumns) {
@@ -117,6 +125,9 @@ public class IndexLoadingConfig {
     if (fieldConfigList != null) {
       for (FieldConfig fieldConfig : fieldConfigList) {
         _columnProperties.put(fieldConfig.getName(), fieldConfig.getProperties());
+        if (fieldConfig.getIndexType() == FieldConfig.IndexType.GEO) {
+          _geoIndexResolutions.put(fieldConfig.getName(), GeoIndexUtils.getResolution(fieldConfig));
+        }
       }
     }
 
@@ -226,6 +237,17 @@ public class IndexLoadingConfig {
     return _rangeIndexColumns;
   }
 
+  public Set<String> getJsonIndexColumns() {
+    return _jsonIndexColumns;
+  }
+
+  /**
+   * Returns a map from the geo index columns to the resolution of the geo index.
+   */
+  public Map<String, Integer> getGeoIndexResolutions() {
+    return _geoIndexResolutions;
+  }
+
   public Map<String, Map<String, String>> getColumnProperties() {
     return _columnProperties;
   }
@@ -264,6 +286,22 @@ public class IndexLoadingConfig {
     _rangeIndexColumns = rangeIndexColumns;
   }
 
+  /**
+   * For tests only.
+   */
+  @VisibleForTesting
+  public void setJsonIndexColumns(Set<String> jsonIndexColumns) {
+    _jsonIndexColumns = jsonIndexColumns;
+  }
+
+  /**
+   * For tests only.
+   */
+  @VisibleForTesting
+  public void setGeoIndexResolutions(Map<String, Integer> geoIndexResolutions) {
+    _geoIndexResolutions = geoIndexResolutions;
+  }
+
   /**
    * Used directly from text search unit test code since the test code
    * doesn't really have a table config and is directly testing the
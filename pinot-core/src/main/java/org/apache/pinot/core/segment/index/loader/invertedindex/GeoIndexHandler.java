@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.loader.invertedindex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.geo.OnHeapGeoIndexCreator;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.core.segment.index.loader.LoaderUtils;
+import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.core.segment.index.readers.BytesDictionary;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReaderContext;
+import org.apache.pinot.core.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.core.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.sorted.SortedIndexReaderImpl;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.core.segment.store.ColumnIndexType;
+import org.apache.pinot.core.segment.store.SegmentDirectory;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Helper class used by {@link org.apache.pinot.core.segment.index.loader.SegmentPreProcessor} to create geo index for
+ * the existing segments when geo index is enabled on a column after the segment is generated.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class GeoIndexHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GeoIndexHandler.class);
+
+  private final File _indexDir;
+  private final SegmentDirectory.Writer _segmentWriter;
+  private final String _segmentName;
+  private final SegmentVersion _segmentVersion;
+  private final Map<ColumnMetadata, Integer> _geoIndexColumns = new HashMap<>();
+
+  public GeoIndexHandler(File indexDir, SegmentMetadataImpl segmentMetadata, IndexLoadingConfig indexLoadingConfig,
+      SegmentDirectory.Writer segmentWriter) {
+    _indexDir = indexDir;
+    _segmentWriter = segmentWriter;
+    _segmentName = segmentMetadata.getName();
+    _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+
+    // Only create geo index on single-value BYTES columns
+    for (Map.Entry<String, Integer> entry : indexLoadingConfig.getGeoIndexResolutions().entrySet()) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(entry.getKey());
+      if (columnMetadata != null && columnMetadata.isSingleValue()
+          && columnMetadata.getDataType() == DataType.BYTES) {
+        _geoIndexColumns.put(columnMetadata, entry.getValue());
+      }
+    }
+  }
+
+  public void createGeoIndices()
+      throws IOException {
+    for (Map.Entry<ColumnMetadata, Integer> entry : _geoIndexColumns.entrySet()) {
+      createGeoIndexForColumn(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private void createGeoIndexForColumn(ColumnMetadata columnMetadata, int resolution)
+      throws IOException {
+    String column = columnMetadata.getColumnName();
+    File inProgress = new File(_indexDir, column + ".geo.inprogress");
+    File geoIndexFile = new File(_indexDir, column + V1Constants.Indexes.GEO_INDEX_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+
+      if (_segmentWriter.hasIndexFor(column, ColumnIndexType.GEO_INDEX)) {
+        // Skip creating geo index if already exists.
+
+        LOGGER.info("Found geo index for segment: {}, column: {}", _segmentName, column);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+      // Remove geo index if exists.
+      // For v1 and v2, it's the actual geo index. For v3, it's the temporary geo index.
+      FileUtils.deleteQuietly(geoIndexFile);
+    }
+
+    // Create new geo index for the column.
+    LOGGER.info("Creating new geo index for segment: {}, column: {}", _segmentName, column);
+    if (columnMetadata.hasDictionary()) {
+      handleDictionaryBasedColumn(columnMetadata, resolution);
+    } else {
+      handleNonDictionaryBasedColumn(columnMetadata, resolution);
+    }
+
+    // For v3, write the generated geo index file into the single file and remove it.
+    if (_segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(_segmentWriter, column, geoIndexFile, ColumnIndexType.GEO_INDEX);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created geo index for segment: {}, column: {}", _segmentName, column);
+  }
+
+  private void handleDictionaryBasedColumn(ColumnMetadata columnMetadata, int resolution)
+      throws IOException {
+    int numDocs = columnMetadata.getTotalDocs();
+    PinotDataBuffer forwardIndexBuffer =
+        _segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
+    PinotDataBuffer dictionaryBuffer =
+        _segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.DICTIONARY);
+    try (ForwardIndexReader forwardIndexReader = columnMetadata.isSorted() ? new SortedIndexReaderImpl(
+        forwardIndexBuffer, columnMetadata.getCardinality())
+        : new FixedBitSVForwardIndexReaderV2(forwardIndexBuffer, numDocs, columnMetadata.getBitsPerElement());
+        ForwardIndexReaderContext readerContext = forwardIndexReader.createContext();
+        BytesDictionary dictionary = new BytesDictionary(dictionaryBuffer, columnMetadata.getCardinality(),
+            columnMetadata.getColumnMaxLength());
+        OnHeapGeoIndexCreator geoIndexCreator = new OnHeapGeoIndexCreator(_indexDir, columnMetadata.getColumnName(),
+            resolution)) {
+      for (int i = 0; i < numDocs; i++) {
+        geoIndexCreator.add(dictionary.getBytesValue(forwardIndexReader.getDictId(i, readerContext)));
+      }
+      geoIndexCreator.seal();
+    }
+  }
+
+  private void handleNonDictionaryBasedColumn(ColumnMetadata columnMetadata, int resolution)
+      throws IOException {
+    int numDocs = columnMetadata.getTotalDocs();
+    PinotDataBuffer forwardIndexBuffer =
+        _segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
+    try (ForwardIndexReader forwardIndexReader = new VarByteChunkSVForwardIndexReader(forwardIndexBuffer,
+        DataType.BYTES);
+        ForwardIndexReaderContext readerContext = forwardIndexReader.createContext();
+        OnHeapGeoIndexCreator geoIndexCreator = new OnHeapGeoIndexCreator(_indexDir, columnMetadata.getColumnName(),
+            resolution)) {
+      for (int i = 0; i < numDocs; i++) {
+        geoIndexCreator.add(forwardIndexReader.getBytes(i, readerContext));
+      }
+      geoIndexCreator.seal();
+    }
+  }
+}
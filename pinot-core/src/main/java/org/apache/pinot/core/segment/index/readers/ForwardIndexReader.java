@@ -168,6 +168,66 @@ public interface ForwardIndexReader<T extends ForwardIndexReaderContext> extends
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Batch reads the INT type single-values at the given document ids into the passed in value buffer (the buffer size
+   * must be larger than or equal to the length).
+   *
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param valueBuffer Value buffer
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, int[] valueBuffer, T context) {
+    for (int i = 0; i < length; i++) {
+      valueBuffer[i] = getInt(docIds[i], context);
+    }
+  }
+
+  /**
+   * Batch reads the LONG type single-values at the given document ids into the passed in value buffer (the buffer size
+   * must be larger than or equal to the length).
+   *
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param valueBuffer Value buffer
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, long[] valueBuffer, T context) {
+    for (int i = 0; i < length; i++) {
+      valueBuffer[i] = getLong(docIds[i], context);
+    }
+  }
+
+  /**
+   * Batch reads the FLOAT type single-values at the given document ids into the passed in value buffer (the buffer size
+   * must be larger than or equal to the length).
+   *
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param valueBuffer Value buffer
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, float[] valueBuffer, T context) {
+    for (int i = 0; i < length; i++) {
+      valueBuffer[i] = getFloat(docIds[i], context);
+    }
+  }
+
+  /**
+   * Batch reads the DOUBLE type single-values at the given document ids into the passed in value buffer (the buffer size
+   * must be larger than or equal to the length).
+   *
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param valueBuffer Value buffer
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, double[] valueBuffer, T context) {
+    for (int i = 0; i < length; i++) {
+      valueBuffer[i] = getDouble(docIds[i], context);
+    }
+  }
+
   /**
    * MULTI-VALUE COLUMN RAW INDEX APIs
    * TODO: Not supported yet
@@ -102,6 +102,20 @@ public interface MutableForwardIndex extends ForwardIndexReader<ForwardIndexRead
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Writes the dictionary ids for a single-value column into the consecutive document ids starting from the given
+   * document id (i.e. dictIds[i] into document startDocId + i).
+   *
+   * @param startDocId First document id to write
+   * @param dictIds Dictionary ids to write
+   * @param length Number of dictionary ids to write
+   */
+  default void setDictIds(int startDocId, int[] dictIds, int length) {
+    for (int i = 0; i < length; i++) {
+      setDictId(startDocId + i, dictIds[i]);
+    }
+  }
+
   /**
    * Writes the dictionary ids for a multi-value column into the given document id.
    *
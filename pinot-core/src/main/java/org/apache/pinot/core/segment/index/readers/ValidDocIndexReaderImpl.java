@@ -18,19 +18,19 @@
  */
 package org.apache.pinot.core.segment.index.readers;
 
-import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.core.realtime.impl.SnapshotMutableRoaringBitmap;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 
 
 public class ValidDocIndexReaderImpl implements ValidDocIndexReader {
-  private final ThreadSafeMutableRoaringBitmap _validDocBitmap;
+  private final SnapshotMutableRoaringBitmap _validDocBitmap;
 
-  public ValidDocIndexReaderImpl(ThreadSafeMutableRoaringBitmap validDocBitmap) {
+  public ValidDocIndexReaderImpl(SnapshotMutableRoaringBitmap validDocBitmap) {
     _validDocBitmap = validDocBitmap;
   }
 
   @Override
   public ImmutableRoaringBitmap getValidDocBitmap() {
-    return _validDocBitmap.getMutableRoaringBitmap();
+    return _validDocBitmap.getSnapshot();
   }
 }
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.geo;
+
+import org.apache.pinot.core.segment.creator.impl.geo.GeoIndexUtils;
+import org.apache.pinot.core.segment.index.readers.GeoIndexReader;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Base implementation of {@link GeoIndexReader} that covers the bounding box with cell id ranges.
+ */
+public abstract class BaseGeoIndexReader implements GeoIndexReader {
+
+  @Override
+  public MutableRoaringBitmap getCandidateDocIds(double minX, double minY, double maxX, double maxY) {
+    MutableRoaringBitmap candidateDocIds = new MutableRoaringBitmap();
+    // Values not mapped to any cell are always candidates
+    orDocIds(GeoIndexUtils.UNINDEXED_CELL_ID, GeoIndexUtils.UNINDEXED_CELL_ID, candidateDocIds);
+    GeoIndexUtils.forEachCellRange(minX, minY, maxX, maxY, getResolution(),
+        (startCellId, endCellId) -> orDocIds(startCellId, endCellId, candidateDocIds));
+    return candidateDocIds;
+  }
+
+  /**
+   * Returns the resolution of the index.
+   */
+  protected abstract int getResolution();
+
+  /**
+   * Merges the document ids of the cells within the given cell id range (both ends inclusive) into the result.
+   */
+  protected abstract void orDocIds(long startCellId, long endCellId, MutableRoaringBitmap result);
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.geo;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.core.segment.creator.impl.geo.OnHeapGeoIndexCreator;
+import org.apache.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Reader for the geo index created by {@link OnHeapGeoIndexCreator}.
+ */
+public class ImmutableGeoIndexReader extends BaseGeoIndexReader {
+  private final PinotDataBuffer _dataBuffer;
+  private final int _resolution;
+  private final int _numCells;
+  private final BitmapInvertedIndexReader _invertedIndex;
+
+  public ImmutableGeoIndexReader(PinotDataBuffer dataBuffer) {
+    int version = dataBuffer.getInt(0);
+    Preconditions.checkState(version == OnHeapGeoIndexCreator.VERSION, "Unsupported geo index version: %s", version);
+    _dataBuffer = dataBuffer;
+    _resolution = dataBuffer.getInt(Integer.BYTES);
+    _numCells = dataBuffer.getInt(2 * Integer.BYTES);
+
+    long cellIdsEnd = OnHeapGeoIndexCreator.HEADER_LENGTH + (long) _numCells * Long.BYTES;
+    _invertedIndex = new BitmapInvertedIndexReader(dataBuffer.view(cellIdsEnd, dataBuffer.size()), _numCells);
+  }
+
+  @Override
+  protected int getResolution() {
+    return _resolution;
+  }
+
+  @Override
+  protected void orDocIds(long startCellId, long endCellId, MutableRoaringBitmap result) {
+    for (int index = getCellIndexBoundary(startCellId); index < _numCells && getCellId(index) <= endCellId; index++) {
+      result.or(_invertedIndex.getDocIds(index));
+    }
+  }
+
+  private long getCellId(int index) {
+    return _dataBuffer.getLong(OnHeapGeoIndexCreator.HEADER_LENGTH + (long) index * Long.BYTES);
+  }
+
+  /**
+   * Returns the index of the first cell with id greater than or equal to the given cell id.
+   */
+  private int getCellIndexBoundary(long cellId) {
+    int low = 0;
+    int high = _numCells;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (getCellId(mid) < cellId) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+}
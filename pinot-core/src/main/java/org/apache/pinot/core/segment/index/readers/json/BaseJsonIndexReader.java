@@ -0,0 +1,185 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.json;
+
+import com.google.common.base.Preconditions;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.FilterContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.InPredicate;
+import org.apache.pinot.core.query.request.context.predicate.NotEqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.NotInPredicate;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.query.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.query.request.context.predicate.RegexpLikePredicate;
+import org.apache.pinot.core.segment.creator.impl.json.JsonIndexUtils;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Base implementation of {@link JsonIndexReader} which evaluates the json filter on top of the flattened keys (see
+ * {@link JsonIndexUtils}).
+ * <p>Supported predicates:
+ * <ul>
+ *   <li>EQ, IN: look up the posting lists of the keys</li>
+ *   <li>NOT_EQ, NOT_IN, RANGE, REGEXP_LIKE, IS_NOT_NULL: scan the values of the path</li>
+ * </ul>
+ * NOT_EQ and NOT_IN only match the documents with the path. RANGE compares the values numerically when both bounds are
+ * numeric (non-numeric values are skipped), lexicographically otherwise.
+ */
+public abstract class BaseJsonIndexReader implements JsonIndexReader {
+
+  @Override
+  public MutableRoaringBitmap getMatchingDocIds(FilterContext filter) {
+    switch (filter.getType()) {
+      case AND:
+        List<FilterContext> children = filter.getChildren();
+        MutableRoaringBitmap docIds = getMatchingDocIds(children.get(0));
+        int numChildren = children.size();
+        for (int i = 1; i < numChildren; i++) {
+          docIds.and(getMatchingDocIds(children.get(i)));
+        }
+        return docIds;
+      case OR:
+        docIds = new MutableRoaringBitmap();
+        for (FilterContext child : filter.getChildren()) {
+          docIds.or(getMatchingDocIds(child));
+        }
+        return docIds;
+      case PREDICATE:
+        return getMatchingDocIds(filter.getPredicate());
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private MutableRoaringBitmap getMatchingDocIds(Predicate predicate) {
+    ExpressionContext lhs = predicate.getLhs();
+    Preconditions.checkArgument(lhs.getType() == ExpressionContext.Type.IDENTIFIER,
+        "Left-hand side of the json filter must be a json path, got: %s", lhs);
+    String path = JsonIndexUtils.normalizePath(lhs.getIdentifier());
+    Predicate.Type predicateType = predicate.getType();
+    switch (predicateType) {
+      case EQ:
+        return getDocIds(JsonIndexUtils.getKey(path, ((EqPredicate) predicate).getValue()));
+      case IN:
+        MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+        for (String value : ((InPredicate) predicate).getValues()) {
+          docIds.or(getDocIds(JsonIndexUtils.getKey(path, value)));
+        }
+        return docIds;
+      case NOT_EQ:
+        String notEqValue = ((NotEqPredicate) predicate).getValue();
+        return getMatchingDocIds(path, value -> !value.equals(notEqValue));
+      case NOT_IN:
+        Set<String> notInValues = new HashSet<>(((NotInPredicate) predicate).getValues());
+        return getMatchingDocIds(path, value -> !notInValues.contains(value));
+      case RANGE:
+        return getMatchingDocIds(path, getRangeMatcher((RangePredicate) predicate));
+      case REGEXP_LIKE:
+        Pattern pattern = Pattern.compile(((RegexpLikePredicate) predicate).getValue());
+        return getMatchingDocIds(path, value -> pattern.matcher(value).find());
+      case IS_NOT_NULL:
+        return getMatchingDocIds(path, value -> true);
+      default:
+        throw new IllegalStateException("Unsupported json match predicate type: " + predicateType);
+    }
+  }
+
+  private MutableRoaringBitmap getMatchingDocIds(String path, ValueMatcher valueMatcher) {
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    forEachValue(path, (value, valueDocIds) -> {
+      if (valueMatcher.matches(value)) {
+        docIds.or(valueDocIds);
+      }
+    });
+    return docIds;
+  }
+
+  private static ValueMatcher getRangeMatcher(RangePredicate rangePredicate) {
+    String lowerBound = rangePredicate.getLowerBound();
+    String upperBound = rangePredicate.getUpperBound();
+    boolean lowerUnbounded = lowerBound.equals(RangePredicate.UNBOUNDED);
+    boolean upperUnbounded = upperBound.equals(RangePredicate.UNBOUNDED);
+    boolean lowerInclusive = rangePredicate.isLowerInclusive();
+    boolean upperInclusive = rangePredicate.isUpperInclusive();
+    if ((lowerUnbounded || isNumeric(lowerBound)) && (upperUnbounded || isNumeric(upperBound))) {
+      double lower = lowerUnbounded ? Double.NEGATIVE_INFINITY : Double.parseDouble(lowerBound);
+      double upper = upperUnbounded ? Double.POSITIVE_INFINITY : Double.parseDouble(upperBound);
+      return value -> {
+        double doubleValue;
+        try {
+          doubleValue = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+          return false;
+        }
+        return (lowerInclusive ? doubleValue >= lower : doubleValue > lower) && (upperInclusive ? doubleValue <= upper
+            : doubleValue < upper);
+      };
+    } else {
+      return value -> {
+        if (!lowerUnbounded) {
+          int result = value.compareTo(lowerBound);
+          if (lowerInclusive ? result < 0 : result <= 0) {
+            return false;
+          }
+        }
+        if (!upperUnbounded) {
+          int result = value.compareTo(upperBound);
+          return upperInclusive ? result <= 0 : result < 0;
+        }
+        return true;
+      };
+    }
+  }
+
+  private static boolean isNumeric(String value) {
+    try {
+      Double.parseDouble(value);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the document ids for the given key. The returned bitmap is owned by the caller.
+   */
+  protected abstract MutableRoaringBitmap getDocIds(String key);
+
+  /**
+   * Iterates over all the values (and their document ids) of the given path. The bitmaps passed to the consumer should
+   * not be modified or retained after the call.
+   */
+  protected abstract void forEachValue(String path, ValueConsumer consumer);
+
+  protected interface ValueConsumer {
+    void accept(String value, ImmutableRoaringBitmap docIds);
+  }
+
+  private interface ValueMatcher {
+    boolean matches(String value);
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.json;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.core.segment.creator.impl.json.JsonIndexUtils;
+import org.apache.pinot.core.segment.creator.impl.json.OnHeapJsonIndexCreator;
+import org.apache.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.StringDictionary;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Reader for the json index created by {@link OnHeapJsonIndexCreator}.
+ */
+public class ImmutableJsonIndexReader extends BaseJsonIndexReader {
+  private final StringDictionary _dictionary;
+  private final BitmapInvertedIndexReader _invertedIndex;
+
+  public ImmutableJsonIndexReader(PinotDataBuffer dataBuffer) {
+    int version = dataBuffer.getInt(0);
+    Preconditions.checkState(version == OnHeapJsonIndexCreator.VERSION, "Unsupported json index version: %s", version);
+    int numKeys = dataBuffer.getInt(Integer.BYTES);
+    int maxKeyLength = dataBuffer.getInt(2 * Integer.BYTES);
+    int dictionaryLength = dataBuffer.getInt(3 * Integer.BYTES);
+
+    long dictionaryEnd = OnHeapJsonIndexCreator.HEADER_LENGTH + dictionaryLength;
+    _dictionary =
+        new StringDictionary(dataBuffer.view(OnHeapJsonIndexCreator.HEADER_LENGTH, dictionaryEnd), numKeys,
+            maxKeyLength, (byte) 0);
+    _invertedIndex = new BitmapInvertedIndexReader(dataBuffer.view(dictionaryEnd, dataBuffer.size()), numKeys);
+  }
+
+  @Override
+  protected MutableRoaringBitmap getDocIds(String key) {
+    int dictId = _dictionary.indexOf(key);
+    if (dictId >= 0) {
+      return _invertedIndex.getDocIds(dictId).toMutableRoaringBitmap();
+    } else {
+      return new MutableRoaringBitmap();
+    }
+  }
+
+  @Override
+  protected void forEachValue(String path, ValueConsumer consumer) {
+    int startDictId = getDictIdBoundary(JsonIndexUtils.getPathLowerBound(path));
+    int endDictId = getDictIdBoundary(JsonIndexUtils.getPathUpperBound(path));
+    for (int dictId = startDictId; dictId < endDictId; dictId++) {
+      String value = JsonIndexUtils.getValue(_dictionary.getStringValue(dictId), path);
+      consumer.accept(value, _invertedIndex.getDocIds(dictId));
+    }
+  }
+
+  private int getDictIdBoundary(String key) {
+    int insertionIndex = _dictionary.insertionIndexOf(key);
+    return insertionIndex >= 0 ? insertionIndex : -(insertionIndex + 1);
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+}
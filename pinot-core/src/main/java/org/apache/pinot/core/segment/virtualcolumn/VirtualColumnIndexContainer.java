@@ -24,6 +24,8 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.GeoIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
 import org.apache.pinot.core.segment.index.readers.TextIndexReader;
 
@@ -63,6 +65,16 @@ public class VirtualColumnIndexContainer implements ColumnIndexContainer {
     return null;
   }
 
+  @Override
+  public JsonIndexReader getJsonIndex() {
+    return null;
+  }
+
+  @Override
+  public GeoIndexReader getGeoIndex() {
+    return null;
+  }
+
   @Override
   public Dictionary getDictionary() {
     return _dictionary;
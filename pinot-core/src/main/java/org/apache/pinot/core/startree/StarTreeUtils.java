@@ -130,9 +130,10 @@ public class StarTreeUtils {
           switch (predicate.getType()) {
             // Do not use star-tree for the following predicates because:
             //   - REGEXP_LIKE: Need to scan the whole dictionary to gather the matching dictionary ids
-            //   - TEXT_MATCH/IS_NULL/IS_NOT_NULL: No way to gather the matching dictionary ids
+            //   - TEXT_MATCH/JSON_MATCH/IS_NULL/IS_NOT_NULL: No way to gather the matching dictionary ids
             case REGEXP_LIKE:
             case TEXT_MATCH:
+            case JSON_MATCH:
             case IS_NULL:
             case IS_NOT_NULL:
               return null;
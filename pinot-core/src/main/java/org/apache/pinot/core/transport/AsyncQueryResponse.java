@@ -23,6 +23,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.utils.DataTable;
 
@@ -30,6 +31,8 @@ import org.apache.pinot.common.utils.DataTable;
 /**
  * The {@code AsyncQueryResponse} class represents an asynchronous query response.
  * <p>Call {@link #getResponse()} to get the query response asynchronously.
+ * <p>If a {@link ServerResponseListener} is attached, each data table is handed to the listener as soon as it arrives
+ * and is not retained in the {@link ServerResponse}.
  */
 @ThreadSafe
 public class AsyncQueryResponse {
@@ -38,11 +41,17 @@ public class AsyncQueryResponse {
   private final ConcurrentHashMap<ServerRoutingInstance, ServerResponse> _responseMap;
   private final CountDownLatch _countDownLatch;
   private final long _maxEndTimeMs;
+  private final ServerResponseListener _serverResponseListener;
 
   private volatile Exception _brokerRequestSendException;
 
   public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
       long startTimeMs, long timeoutMs) {
+    this(queryRouter, requestId, serversQueried, startTimeMs, timeoutMs, null);
+  }
+
+  public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
+      long startTimeMs, long timeoutMs, @Nullable ServerResponseListener serverResponseListener) {
     _queryRouter = queryRouter;
     _requestId = requestId;
     int numServersQueried = serversQueried.size();
@@ -52,6 +61,7 @@ public class AsyncQueryResponse {
     }
     _countDownLatch = new CountDownLatch(numServersQueried);
     _maxEndTimeMs = startTimeMs + timeoutMs;
+    _serverResponseListener = serverResponseListener;
   }
 
   /**
@@ -86,7 +96,15 @@ public class AsyncQueryResponse {
 
   void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
       int deserializationTimeMs) {
-    _responseMap.get(serverRoutingInstance).receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+    ServerResponse serverResponse = _responseMap.get(serverRoutingInstance);
+    if (_serverResponseListener != null) {
+      // Hand the data table to the listener before counting down so that all the received data tables are consumed by
+      // the listener when getResponse() returns
+      serverResponse.receiveDataTable(null, responseSize, deserializationTimeMs);
+      _serverResponseListener.onDataTableReceived(serverRoutingInstance, dataTable);
+    } else {
+      serverResponse.receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+    }
     _countDownLatch.countDown();
   }
 
@@ -103,7 +121,7 @@ public class AsyncQueryResponse {
    */
   void markServerDown(ServerRoutingInstance serverRoutingInstance) {
     ServerResponse serverResponse = _responseMap.get(serverRoutingInstance);
-    if (serverResponse != null && serverResponse.getDataTable() == null) {
+    if (serverResponse != null && !serverResponse.isResponseReceived()) {
       markQueryFailed();
     }
   }
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import com.google.common.primitives.Ints;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.CorruptedFrameException;
+
+
+/**
+ * The {@code DataTableFrameDecoder} is the Netty inbound handler on Pinot Broker side to split the received bytes into
+ * the length-prefixed serialized data tables sent from Pinot Server.
+ * <p>Different from {@link io.netty.handler.codec.LengthFieldBasedFrameDecoder}, which accumulates the received bytes
+ * into a growing cumulation buffer and slices the frames out of it, this decoder copies the received bytes directly
+ * into a heap array of the frame size, and passes the frame downstream as an unpooled heap buffer wrapping the array.
+ * Each byte is copied only once out of the pooled network buffers, and the data table can reference the frame without
+ * copying because the array is not reused after the frame is released.
+ */
+class DataTableFrameDecoder extends ChannelInboundHandlerAdapter {
+  private final byte[] _lengthBytes = new byte[Integer.BYTES];
+  private int _numLengthBytesRead;
+  private byte[] _frame;
+  private int _numFrameBytesRead;
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) {
+    ByteBuf in = (ByteBuf) msg;
+    try {
+      while (in.isReadable()) {
+        if (_frame == null) {
+          // Read the frame length
+          int numBytesToRead = Math.min(in.readableBytes(), Integer.BYTES - _numLengthBytesRead);
+          in.readBytes(_lengthBytes, _numLengthBytesRead, numBytesToRead);
+          _numLengthBytesRead += numBytesToRead;
+          if (_numLengthBytesRead < Integer.BYTES) {
+            return;
+          }
+          int frameLength = Ints.fromByteArray(_lengthBytes);
+          if (frameLength < 0) {
+            throw new CorruptedFrameException("Negative frame length: " + frameLength);
+          }
+          _numLengthBytesRead = 0;
+          _frame = new byte[frameLength];
+          _numFrameBytesRead = 0;
+        }
+
+        // Read the frame content
+        int numBytesToRead = Math.min(in.readableBytes(), _frame.length - _numFrameBytesRead);
+        in.readBytes(_frame, _numFrameBytesRead, numBytesToRead);
+        _numFrameBytesRead += numBytesToRead;
+        if (_numFrameBytesRead == _frame.length) {
+          ByteBuf frame = Unpooled.wrappedBuffer(_frame);
+          _frame = null;
+          ctx.fireChannelRead(frame);
+        }
+      }
+    } finally {
+      in.release();
+    }
+  }
+}
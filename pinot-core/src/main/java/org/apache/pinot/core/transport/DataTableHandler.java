@@ -64,6 +64,8 @@ public class DataTableHandler extends SimpleChannelInboundHandler<ByteBuf> {
     _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_RECEIVED, responseSize);
     try {
       long deserializationStartTimeMs = System.currentTimeMillis();
+      // NOTE: Data table V3 references the given buffer without copying. The message is a heap buffer exclusively
+      //       owned by the frame (see DataTableFrameDecoder), so the data table can outlive the message.
       DataTable dataTable = DataTableFactory.getDataTable(msg.nioBuffer());
       _queryRouter.receiveDataTable(_serverRoutingInstance, dataTable, responseSize,
           (int) (System.currentTimeMillis() - deserializationStartTimeMs));
@@ -27,7 +27,6 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -82,8 +81,7 @@ public class ServerChannels {
             @Override
             protected void initChannel(SocketChannel ch) {
               ch.pipeline()
-                  .addLast(new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 0, Integer.BYTES, 0, Integer.BYTES),
-                      new LengthFieldPrepender(Integer.BYTES),
+                  .addLast(new DataTableFrameDecoder(), new LengthFieldPrepender(Integer.BYTES),
                       // NOTE: data table de-serialization happens inside this handler
                       // Revisit if this becomes a bottleneck
                       new DataTableHandler(_queryRouter, _serverRoutingInstance, _brokerMetrics));
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.transport;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.utils.DataTable;
 
@@ -38,10 +39,19 @@ public class ServerResponse {
     _startTimeMs = startTimeMs;
   }
 
+  /**
+   * Returns the data table received from the server, or {@code null} if the server has not responded yet or the data
+   * table is consumed by a {@link ServerResponseListener}.
+   */
+  @Nullable
   public DataTable getDataTable() {
     return _dataTable;
   }
 
+  public boolean isResponseReceived() {
+    return _receiveDataTableTimeMs != 0;
+  }
+
   public int getSubmitDelayMs() {
     if (_submitRequestTimeMs != 0) {
       return (int) (_submitRequestTimeMs - _startTimeMs);
@@ -76,7 +86,7 @@ public class ServerResponse {
     _submitRequestTimeMs = System.currentTimeMillis();
   }
 
-  void receiveDataTable(DataTable dataTable, int responseSize, int deserializationTimeMs) {
+  void receiveDataTable(@Nullable DataTable dataTable, int responseSize, int deserializationTimeMs) {
     _receiveDataTableTimeMs = System.currentTimeMillis();
     _dataTable = dataTable;
     _responseSize = responseSize;
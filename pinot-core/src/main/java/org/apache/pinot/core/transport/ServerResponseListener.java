@@ -0,0 +1,36 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import org.apache.pinot.common.utils.DataTable;
+
+
+/**
+ * The {@code ServerResponseListener} is notified by the {@link AsyncQueryResponse} as soon as each server response
+ * arrives, so that the response can be processed while waiting for the other servers.
+ * <p>NOTE: The listener is invoked on the netty event loop threads, possibly concurrently for different servers, so
+ * the implementation should be thread-safe and should not block.
+ */
+public interface ServerResponseListener {
+
+  /**
+   * Invoked when the data table is received from the server.
+   */
+  void onDataTableReceived(ServerRoutingInstance serverRoutingInstance, DataTable dataTable);
+}
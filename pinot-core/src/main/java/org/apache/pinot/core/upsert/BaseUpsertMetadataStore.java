@@ -0,0 +1,327 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+
+
+/**
+ * Base implementation of the {@link UpsertMetadataStore} using open-addressing hash tables with linear probing.
+ * <p>To reduce the memory footprint, the primary key is not stored, and is represented by a 128-bit key instead:
+ * <ul>
+ *   <li>For single INT/LONG primary key, the value is stored as is</li>
+ *   <li>For other primary keys, the 128-bit MurmurHash3 of the values is stored</li>
+ * </ul>
+ * <p>Each entry takes {@link #ENTRY_SIZE} bytes: key (16 bytes), segment id (4 bytes), doc id (4 bytes) and timestamp
+ * (8 bytes). The store is split into {@link #NUM_STRIPES} stripes, each with its own lock and hash table, so that
+ * concurrent updates to different keys are not serialized on a single lock. The storage of the hash tables is provided
+ * by the sub-classes through the table factory.
+ */
+@ThreadSafe
+public abstract class BaseUpsertMetadataStore implements UpsertMetadataStore {
+  public static final int ENTRY_SIZE = 2 * Long.BYTES + 2 * Integer.BYTES + Long.BYTES;
+
+  private static final int NUM_STRIPES_BITS = 4;
+  private static final int NUM_STRIPES = 1 << NUM_STRIPES_BITS;
+  private static final int INITIAL_CAPACITY_PER_STRIPE = 256;
+  private static final double LOAD_FACTOR = 0.75;
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private final IntFunction<Table> _tableFactory;
+  private final Stripe[] _stripes = new Stripe[NUM_STRIPES];
+  // Tracked separately so that the metrics can be read without acquiring the locks of all the stripes
+  private final AtomicInteger _numKeys = new AtomicInteger();
+  private final AtomicLong _sizeInBytes = new AtomicLong();
+
+  /**
+   * @param tableFactory Factory to create a hash table with the given capacity (power of 2) where all the slots are
+   *                     empty
+   */
+  protected BaseUpsertMetadataStore(IntFunction<Table> tableFactory) {
+    _tableFactory = tableFactory;
+    for (int i = 0; i < NUM_STRIPES; i++) {
+      _stripes[i] = new Stripe(tableFactory.apply(INITIAL_CAPACITY_PER_STRIPE));
+    }
+    _sizeInBytes.set((long) NUM_STRIPES * INITIAL_CAPACITY_PER_STRIPE * ENTRY_SIZE);
+  }
+
+  @Override
+  public boolean upsert(PrimaryKey primaryKey, int segmentId, int docId, long timestamp,
+      RecordLocationUpdater updater) {
+    long[] key = toKey(primaryKey);
+    return upsert(key[0], key[1], segmentId, docId, timestamp, updater);
+  }
+
+  @Override
+  public boolean upsert(long keyHigh, long keyLow, int segmentId, int docId, long timestamp,
+      RecordLocationUpdater updater) {
+    Preconditions.checkArgument(segmentId >= 0, "Invalid segment id: %s", segmentId);
+    long hash = hash(keyHigh, keyLow);
+    Stripe stripe = getStripe(hash);
+    synchronized (stripe) {
+      Table table = stripe._table;
+      int mask = table.getCapacity() - 1;
+      int slot = (int) hash & mask;
+      while (!table.isEmpty(slot)) {
+        if (table.getKeyHigh(slot) == keyHigh && table.getKeyLow(slot) == keyLow) {
+          if (updater.onExistingKey(table.getSegmentId(slot), table.getDocId(slot), table.getTimestamp(slot))) {
+            table.setLocation(slot, segmentId, docId, timestamp);
+            return true;
+          } else {
+            return false;
+          }
+        }
+        slot = (slot + 1) & mask;
+      }
+      if (updater.onNewKey()) {
+        table.set(slot, keyHigh, keyLow, segmentId, docId, timestamp);
+        _numKeys.getAndIncrement();
+        if (++stripe._size > stripe._threshold) {
+          stripe.resize();
+        }
+        return true;
+      } else {
+        return false;
+      }
+    }
+  }
+
+  @Override
+  public boolean get(PrimaryKey primaryKey, RecordLocationConsumer consumer) {
+    long[] key = toKey(primaryKey);
+    long hash = hash(key[0], key[1]);
+    Stripe stripe = getStripe(hash);
+    synchronized (stripe) {
+      Table table = stripe._table;
+      int mask = table.getCapacity() - 1;
+      int slot = (int) hash & mask;
+      while (!table.isEmpty(slot)) {
+        if (table.getKeyHigh(slot) == key[0] && table.getKeyLow(slot) == key[1]) {
+          consumer.accept(table.getSegmentId(slot), table.getDocId(slot), table.getTimestamp(slot));
+          return true;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return false;
+    }
+  }
+
+  @Override
+  public void removeSegment(int segmentId) {
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        Table table = stripe._table;
+        int capacity = table.getCapacity();
+        int slot = 0;
+        while (slot < capacity) {
+          if (!table.isEmpty(slot) && table.getSegmentId(slot) == segmentId) {
+            // NOTE: Removing an entry can shift the next entry into the current slot, so check the same slot again.
+            //       Entries shifted from the beginning of the table into the end might be checked twice, which is fine.
+            stripe.remove(slot);
+          } else {
+            slot++;
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return _numKeys.get();
+  }
+
+  @Override
+  public long getSizeInBytes() {
+    return _sizeInBytes.get();
+  }
+
+  @Override
+  public void close() {
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        stripe._table.close();
+      }
+    }
+    _sizeInBytes.set(0);
+  }
+
+  private Stripe getStripe(long hash) {
+    return _stripes[(int) (hash >>> (Long.SIZE - NUM_STRIPES_BITS))];
+  }
+
+  /**
+   * Converts the primary key into a 128-bit key stored as 2 longs.
+   */
+  static long[] toKey(PrimaryKey primaryKey) {
+    Object[] values = primaryKey.getValues();
+    if (values.length == 1) {
+      Object value = values[0];
+      if (value instanceof Integer || value instanceof Long) {
+        return new long[]{((Number) value).longValue(), 0L};
+      }
+    }
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    for (Object value : values) {
+      if (value instanceof Integer) {
+        hasher.putInt((Integer) value);
+      } else if (value instanceof Long) {
+        hasher.putLong((Long) value);
+      } else if (value instanceof Float) {
+        hasher.putFloat((Float) value);
+      } else if (value instanceof Double) {
+        hasher.putDouble((Double) value);
+      } else if (value instanceof byte[]) {
+        byte[] bytes = (byte[]) value;
+        hasher.putInt(bytes.length);
+        hasher.putBytes(bytes);
+      } else {
+        // Put the length before the value to distinguish keys such as ("ab", "c") and ("a", "bc")
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        hasher.putInt(bytes.length);
+        hasher.putBytes(bytes);
+      }
+    }
+    byte[] hashBytes = hasher.hash().asBytes();
+    return new long[]{
+        Longs.fromBytes(hashBytes[0], hashBytes[1], hashBytes[2], hashBytes[3], hashBytes[4], hashBytes[5],
+            hashBytes[6], hashBytes[7]),
+        Longs.fromBytes(hashBytes[8], hashBytes[9], hashBytes[10], hashBytes[11], hashBytes[12], hashBytes[13],
+            hashBytes[14], hashBytes[15])
+    };
+  }
+
+  /**
+   * Mixes the 128-bit key into a well distributed 64-bit hash (MurmurHash3 finalizer). The high bits are used to pick
+   * the stripe, and the low bits are used to pick the slot within the stripe.
+   */
+  static long hash(long keyHigh, long keyLow) {
+    long hash = keyHigh * 0x9E3779B97F4A7C15L ^ keyLow;
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * A stripe of the store, guarded by its own monitor.
+   */
+  private final class Stripe {
+    Table _table;
+    int _size;
+    int _threshold;
+
+    Stripe(Table table) {
+      _table = table;
+      _threshold = (int) (table.getCapacity() * LOAD_FACTOR);
+    }
+
+    /**
+     * Removes the entry in the given slot, and shifts the following entries backward to fill the hole so that no
+     * tombstone is required.
+     */
+    void remove(int slot) {
+      Table table = _table;
+      int mask = table.getCapacity() - 1;
+      int hole = slot;
+      int current = (slot + 1) & mask;
+      while (!table.isEmpty(current)) {
+        int idealSlot = (int) hash(table.getKeyHigh(current), table.getKeyLow(current)) & mask;
+        // Move the entry into the hole if the hole is between its ideal slot and its current slot
+        if (((current - idealSlot) & mask) >= ((current - hole) & mask)) {
+          table.copy(current, hole);
+          hole = current;
+        }
+        current = (current + 1) & mask;
+      }
+      table.clear(hole);
+      _size--;
+      _numKeys.getAndDecrement();
+    }
+
+    /**
+     * Doubles the capacity of the hash table.
+     */
+    void resize() {
+      Table oldTable = _table;
+      int oldCapacity = oldTable.getCapacity();
+      Preconditions.checkState(oldCapacity < (1 << 30), "Too many primary keys in the upsert metadata store");
+      Table newTable = _tableFactory.apply(oldCapacity << 1);
+      int mask = newTable.getCapacity() - 1;
+      for (int i = 0; i < oldCapacity; i++) {
+        if (!oldTable.isEmpty(i)) {
+          long keyHigh = oldTable.getKeyHigh(i);
+          long keyLow = oldTable.getKeyLow(i);
+          int slot = (int) hash(keyHigh, keyLow) & mask;
+          while (!newTable.isEmpty(slot)) {
+            slot = (slot + 1) & mask;
+          }
+          newTable.set(slot, keyHigh, keyLow, oldTable.getSegmentId(i), oldTable.getDocId(i),
+              oldTable.getTimestamp(i));
+        }
+      }
+      _table = newTable;
+      _threshold = (int) (newTable.getCapacity() * LOAD_FACTOR);
+      _sizeInBytes.addAndGet((long) (newTable.getCapacity() - oldCapacity) * ENTRY_SIZE);
+      oldTable.close();
+    }
+  }
+
+  /**
+   * The storage of an open-addressing hash table with a fixed capacity.
+   */
+  protected interface Table {
+
+    int getCapacity();
+
+    boolean isEmpty(int slot);
+
+    long getKeyHigh(int slot);
+
+    long getKeyLow(int slot);
+
+    int getSegmentId(int slot);
+
+    int getDocId(int slot);
+
+    long getTimestamp(int slot);
+
+    void set(int slot, long keyHigh, long keyLow, int segmentId, int docId, long timestamp);
+
+    void setLocation(int slot, int segmentId, int docId, long timestamp);
+
+    void copy(int fromSlot, int toSlot);
+
+    void clear(int slot);
+
+    void close();
+  }
+}
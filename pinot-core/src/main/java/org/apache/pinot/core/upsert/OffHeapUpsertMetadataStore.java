@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+
+
+/**
+ * Off-heap implementation of the {@link UpsertMetadataStore} backed by direct memory {@link PinotDataBuffer}s. The
+ * primary keys do not take any heap memory, and the direct memory is released when the store is closed.
+ * <p>Entry layout: key high (8 bytes) | key low (8 bytes) | segment id + 1 (4 bytes) | doc id (4 bytes) | timestamp
+ * (8 bytes), where segment id + 1 being 0 indicates an empty slot.
+ */
+@ThreadSafe
+public class OffHeapUpsertMetadataStore extends BaseUpsertMetadataStore {
+  private static final int KEY_LOW_OFFSET = Long.BYTES;
+  private static final int SEGMENT_ID_OFFSET = KEY_LOW_OFFSET + Long.BYTES;
+  private static final int DOC_ID_OFFSET = SEGMENT_ID_OFFSET + Integer.BYTES;
+  private static final int TIMESTAMP_OFFSET = DOC_ID_OFFSET + Integer.BYTES;
+
+  /**
+   * @param description Description of the direct memory buffers allocated for the store
+   */
+  public OffHeapUpsertMetadataStore(String description) {
+    super(capacity -> new OffHeapTable(capacity, description));
+  }
+
+  private static class OffHeapTable implements Table {
+    final int _capacity;
+    final PinotDataBuffer _dataBuffer;
+
+    OffHeapTable(int capacity, String description) {
+      _capacity = capacity;
+      _dataBuffer =
+          PinotDataBuffer.allocateDirect((long) capacity * ENTRY_SIZE, PinotDataBuffer.NATIVE_ORDER, description);
+      // NOTE: The contents of the allocated buffer are not defined, so explicitly mark all the slots empty.
+      for (int i = 0; i < capacity; i++) {
+        clear(i);
+      }
+    }
+
+    @Override
+    public int getCapacity() {
+      return _capacity;
+    }
+
+    @Override
+    public boolean isEmpty(int slot) {
+      return _dataBuffer.getInt((long) slot * ENTRY_SIZE + SEGMENT_ID_OFFSET) == 0;
+    }
+
+    @Override
+    public long getKeyHigh(int slot) {
+      return _dataBuffer.getLong((long) slot * ENTRY_SIZE);
+    }
+
+    @Override
+    public long getKeyLow(int slot) {
+      return _dataBuffer.getLong((long) slot * ENTRY_SIZE + KEY_LOW_OFFSET);
+    }
+
+    @Override
+    public int getSegmentId(int slot) {
+      return _dataBuffer.getInt((long) slot * ENTRY_SIZE + SEGMENT_ID_OFFSET) - 1;
+    }
+
+    @Override
+    public int getDocId(int slot) {
+      return _dataBuffer.getInt((long) slot * ENTRY_SIZE + DOC_ID_OFFSET);
+    }
+
+    @Override
+    public long getTimestamp(int slot) {
+      return _dataBuffer.getLong((long) slot * ENTRY_SIZE + TIMESTAMP_OFFSET);
+    }
+
+    @Override
+    public void set(int slot, long keyHigh, long keyLow, int segmentId, int docId, long timestamp) {
+      long offset = (long) slot * ENTRY_SIZE;
+      _dataBuffer.putLong(offset, keyHigh);
+      _dataBuffer.putLong(offset + KEY_LOW_OFFSET, keyLow);
+      setLocation(slot, segmentId, docId, timestamp);
+    }
+
+    @Override
+    public void setLocation(int slot, int segmentId, int docId, long timestamp) {
+      long offset = (long) slot * ENTRY_SIZE;
+      _dataBuffer.putInt(offset + SEGMENT_ID_OFFSET, segmentId + 1);
+      _dataBuffer.putInt(offset + DOC_ID_OFFSET, docId);
+      _dataBuffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+    }
+
+    @Override
+    public void copy(int fromSlot, int toSlot) {
+      _dataBuffer.copyTo((long) fromSlot * ENTRY_SIZE, _dataBuffer, (long) toSlot * ENTRY_SIZE, ENTRY_SIZE);
+    }
+
+    @Override
+    public void clear(int slot) {
+      _dataBuffer.putInt((long) slot * ENTRY_SIZE + SEGMENT_ID_OFFSET, 0);
+    }
+
+    @Override
+    public void close() {
+      try {
+        _dataBuffer.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
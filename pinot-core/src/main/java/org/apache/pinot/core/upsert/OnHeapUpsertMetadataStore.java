@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * On-heap implementation of the {@link UpsertMetadataStore} backed by primitive arrays. Compared to a map from
+ * {@link org.apache.pinot.spi.data.readers.PrimaryKey} to {@link RecordLocation}, no object is allocated per primary
+ * key, which significantly reduces the heap usage and the GC overhead when there are lots of primary keys.
+ */
+@ThreadSafe
+public class OnHeapUpsertMetadataStore extends BaseUpsertMetadataStore {
+
+  public OnHeapUpsertMetadataStore() {
+    super(OnHeapTable::new);
+  }
+
+  private static class OnHeapTable implements Table {
+    final long[] _keyHighs;
+    final long[] _keyLows;
+    // Stores segment id + 1 so that 0 (default value) indicates an empty slot
+    final int[] _segmentIds;
+    final int[] _docIds;
+    final long[] _timestamps;
+
+    OnHeapTable(int capacity) {
+      _keyHighs = new long[capacity];
+      _keyLows = new long[capacity];
+      _segmentIds = new int[capacity];
+      _docIds = new int[capacity];
+      _timestamps = new long[capacity];
+    }
+
+    @Override
+    public int getCapacity() {
+      return _segmentIds.length;
+    }
+
+    @Override
+    public boolean isEmpty(int slot) {
+      return _segmentIds[slot] == 0;
+    }
+
+    @Override
+    public long getKeyHigh(int slot) {
+      return _keyHighs[slot];
+    }
+
+    @Override
+    public long getKeyLow(int slot) {
+      return _keyLows[slot];
+    }
+
+    @Override
+    public int getSegmentId(int slot) {
+      return _segmentIds[slot] - 1;
+    }
+
+    @Override
+    public int getDocId(int slot) {
+      return _docIds[slot];
+    }
+
+    @Override
+    public long getTimestamp(int slot) {
+      return _timestamps[slot];
+    }
+
+    @Override
+    public void set(int slot, long keyHigh, long keyLow, int segmentId, int docId, long timestamp) {
+      _keyHighs[slot] = keyHigh;
+      _keyLows[slot] = keyLow;
+      setLocation(slot, segmentId, docId, timestamp);
+    }
+
+    @Override
+    public void setLocation(int slot, int segmentId, int docId, long timestamp) {
+      _segmentIds[slot] = segmentId + 1;
+      _docIds[slot] = docId;
+      _timestamps[slot] = timestamp;
+    }
+
+    @Override
+    public void copy(int fromSlot, int toSlot) {
+      _keyHighs[toSlot] = _keyHighs[fromSlot];
+      _keyLows[toSlot] = _keyLows[fromSlot];
+      _segmentIds[toSlot] = _segmentIds[fromSlot];
+      _docIds[toSlot] = _docIds[fromSlot];
+      _timestamps[toSlot] = _timestamps[fromSlot];
+    }
+
+    @Override
+    public void clear(int slot) {
+      _segmentIds[slot] = 0;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
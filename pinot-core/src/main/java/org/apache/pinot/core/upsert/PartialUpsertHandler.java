@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.spi.config.table.UpsertConfig;
+import org.apache.pinot.spi.data.readers.GenericRow;
+
+
+/**
+ * Merges a new record with the previous record of the same primary key for partial upsert, based on the merge strategy
+ * of each column configured in the {@link UpsertConfig}. The columns without a merge strategy (including the primary
+ * key and time columns) always take the new value.
+ */
+@ThreadSafe
+public class PartialUpsertHandler {
+  private final Map<String, UpsertConfig.Strategy> _strategies;
+
+  public PartialUpsertHandler(Map<String, UpsertConfig.Strategy> partialUpsertStrategies) {
+    _strategies = partialUpsertStrategies;
+  }
+
+  /**
+   * Merges the previous record into the new record in place, returns the new record.
+   */
+  public GenericRow merge(GenericRow previousRecord, GenericRow newRecord) {
+    for (Map.Entry<String, UpsertConfig.Strategy> entry : _strategies.entrySet()) {
+      String column = entry.getKey();
+      UpsertConfig.Strategy strategy = entry.getValue();
+      if (strategy == UpsertConfig.Strategy.OVERWRITE) {
+        continue;
+      }
+      Object previousValue = previousRecord.getValue(column);
+      if (previousValue == null || previousRecord.isNullValue(column)) {
+        // Nothing to merge with
+        continue;
+      }
+      if (newRecord.getValue(column) == null || newRecord.isNullValue(column)) {
+        // Keep the previous value for all the strategies other than OVERWRITE
+        newRecord.putValue(column, previousValue);
+        newRecord.removeNullValueField(column);
+        continue;
+      }
+      Object newValue = newRecord.getValue(column);
+      switch (strategy) {
+        case IGNORE_NULL:
+          break;
+        case INCREMENT:
+          newRecord.putValue(column, increment((Number) previousValue, (Number) newValue));
+          break;
+        case APPEND:
+          newRecord.putValue(column, append((Object[]) previousValue, (Object[]) newValue));
+          break;
+        case UNION:
+          newRecord.putValue(column, union((Object[]) previousValue, (Object[]) newValue));
+          break;
+        default:
+          throw new IllegalStateException("Unsupported partial upsert strategy: " + strategy);
+      }
+    }
+    return newRecord;
+  }
+
+  /**
+   * Adds the values with the type of the new value, which is the stored type of the column after the record transform.
+   */
+  private static Number increment(Number previousValue, Number newValue) {
+    if (newValue instanceof Integer) {
+      return previousValue.intValue() + newValue.intValue();
+    } else if (newValue instanceof Long) {
+      return previousValue.longValue() + newValue.longValue();
+    } else if (newValue instanceof Float) {
+      return previousValue.floatValue() + newValue.floatValue();
+    } else {
+      return previousValue.doubleValue() + newValue.doubleValue();
+    }
+  }
+
+  private static Object[] append(Object[] previousValues, Object[] newValues) {
+    Object[] values = Arrays.copyOf(previousValues, previousValues.length + newValues.length);
+    System.arraycopy(newValues, 0, values, previousValues.length, newValues.length);
+    return values;
+  }
+
+  private static Object[] union(Object[] previousValues, Object[] newValues) {
+    Set<Object> values = new LinkedHashSet<>(previousValues.length + newValues.length);
+    Collections.addAll(values, previousValues);
+    Collections.addAll(values, newValues);
+    return values.toArray();
+  }
+}
@@ -19,13 +19,22 @@
 package org.apache.pinot.core.upsert;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.utils.LLCSegmentName;
-import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.realtime.impl.SnapshotMutableRoaringBitmap;
+import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.PrimaryKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +42,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Manages the upsert metadata per partition.
+ * <p>The primary key to record location map is kept in an {@link UpsertMetadataStore}, which can be either on-heap or
+ * off-heap.
+ * <p>For partial upsert, the new record is merged with the previous record of the same primary key before being
+ * indexed, where the previous record is read from the segment of the current record location.
  * <p>For multiple records with the same timestamp, the manager will preserve the latest record based on the sequence
  * number of the segment. If 2 records with the same timestamp are in the same segment, the one with larger doc id will
  * be preserved. Note that for tables with sorted column, the records will be re-ordered when committing the segment,
@@ -54,135 +67,400 @@ import org.slf4j.LoggerFactory;
  * </ul>
  */
 @ThreadSafe
-public class PartitionUpsertMetadataManager {
+public class PartitionUpsertMetadataManager implements Closeable {
   private static final Logger LOGGER = LoggerFactory.getLogger(PartitionUpsertMetadataManager.class);
+  // Number of record updates between two metrics updates, so that the metrics (e.g. size of the upsert metadata store)
+  // are not computed for each consumed record
+  private static final int NUM_RECORDS_PER_METRICS_UPDATE = 10_000;
 
   private final String _tableNameWithType;
   private final int _partitionId;
   private final ServerMetrics _serverMetrics;
+  private final UpsertMetadataStore _upsertMetadataStore;
+  private final PartialUpsertHandler _partialUpsertHandler;
+
+  // Each segment (identified by its valid doc ids) is assigned a segment id so that the record locations can be kept as
+  // primitives in the upsert metadata store
+  private final AtomicInteger _nextSegmentId = new AtomicInteger();
+  private final Map<SnapshotMutableRoaringBitmap, Integer> _segmentIdMap = new ConcurrentHashMap<>();
+  private final Map<Integer, SegmentInfo> _segmentInfoMap = new ConcurrentHashMap<>();
+  // Valid doc ids of the existing segments modified by the updates but not published yet
+  private final Set<SnapshotMutableRoaringBitmap> _validDocIdsToPublish = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger _numRecordsSinceLastMetricsUpdate = new AtomicInteger();
 
   public PartitionUpsertMetadataManager(String tableNameWithType, int partitionId, ServerMetrics serverMetrics) {
+    this(tableNameWithType, partitionId, serverMetrics, new OnHeapUpsertMetadataStore(), null);
+  }
+
+  /**
+   * @param partialUpsertHandler Handler to merge the records for partial upsert, or {@code null} for full upsert
+   */
+  public PartitionUpsertMetadataManager(String tableNameWithType, int partitionId, ServerMetrics serverMetrics,
+      UpsertMetadataStore upsertMetadataStore, @Nullable PartialUpsertHandler partialUpsertHandler) {
     _tableNameWithType = tableNameWithType;
     _partitionId = partitionId;
     _serverMetrics = serverMetrics;
+    _upsertMetadataStore = upsertMetadataStore;
+    _partialUpsertHandler = partialUpsertHandler;
   }
 
-  // TODO(upset): consider an off-heap KV store to persist this index to improve the recovery speed.
-  @VisibleForTesting
-  final ConcurrentHashMap<PrimaryKey, RecordLocation> _primaryKeyToRecordLocationMap = new ConcurrentHashMap<>();
-
   /**
    * Initializes the upsert metadata for the given immutable segment, returns the valid doc ids for the segment.
    */
-  public ThreadSafeMutableRoaringBitmap addSegment(String segmentName, Iterator<RecordInfo> recordInfoIterator) {
+  public SnapshotMutableRoaringBitmap addSegment(String segmentName, Iterator<RecordInfo> recordInfoIterator) {
     LOGGER.info("Adding upsert metadata for segment: {}", segmentName);
 
-    ThreadSafeMutableRoaringBitmap validDocIds = new ThreadSafeMutableRoaringBitmap();
+    SnapshotMutableRoaringBitmap validDocIds = new SnapshotMutableRoaringBitmap();
+    int segmentId = getSegmentId(segmentName, validDocIds, null);
     while (recordInfoIterator.hasNext()) {
       RecordInfo recordInfo = recordInfoIterator.next();
-      _primaryKeyToRecordLocationMap.compute(recordInfo._primaryKey, (primaryKey, currentRecordLocation) -> {
-        if (currentRecordLocation != null) {
-          // Existing primary key
+      _upsertMetadataStore.upsert(recordInfo._primaryKey, segmentId, recordInfo._docId, recordInfo._timestamp,
+          getSegmentRecordLocationUpdater(segmentName, validDocIds, recordInfo._docId, recordInfo._timestamp));
+    }
+    validDocIds.publishSnapshot();
+    onSegmentAdded(segmentName, segmentId);
+    return validDocIds;
+  }
 
-          if (segmentName.equals(currentRecordLocation.getSegmentName())) {
-            // The current record location has the same segment name
+  /**
+   * Initializes the upsert metadata for the given immutable segment from its primary key snapshot, returns the valid doc
+   * ids for the segment.
+   * <p>Compared to adding the segment with the records, the primary keys are neither read from the segment nor hashed,
+   * and each primary key is merged only once. The snapshot can be loaded and merged for multiple segments concurrently,
+   * where the merges only contend on the stripes of the upsert metadata store.
+   */
+  public SnapshotMutableRoaringBitmap addSegment(String segmentName, PrimaryKeySnapshot primaryKeySnapshot) {
+    return addSegment(segmentName, null, primaryKeySnapshot);
+  }
 
-            // Update the record location when the new timestamp is greater than or equal to the current timestamp.
-            // There are 2 scenarios:
-            //   1. The current record location is pointing to the same segment (the segment being added). In this case,
-            //      we want to update the record location when there is a tie to keep the newer record. Note that the
-            //      record info iterator will return records with incremental doc ids.
-            //   2. The current record location is pointing to the old segment being replaced. This could happen when
-            //      committing a consuming segment, or reloading a completed segment. In this case, we want to update
-            //      the record location when there is a tie because the record locations should point to the new added
-            //      segment instead of the old segment being replaced. Also, do not update the valid doc ids for the old
-            //      segment because it has not been replaced yet.
-            if (recordInfo._timestamp >= currentRecordLocation.getTimestamp()) {
-              // Only update the valid doc ids for the new segment
-              if (validDocIds == currentRecordLocation.getValidDocIds()) {
-                validDocIds.remove(currentRecordLocation.getDocId());
-              }
-              validDocIds.add(recordInfo._docId);
-              return new RecordLocation(segmentName, recordInfo._docId, recordInfo._timestamp, validDocIds);
-            } else {
-              return currentRecordLocation;
+  /**
+   * Same as {@link #addSegment(String, PrimaryKeySnapshot)}, but also tracks the segment so that the records in the
+   * segment can be read for partial upsert.
+   */
+  public SnapshotMutableRoaringBitmap addSegment(IndexSegment segment, PrimaryKeySnapshot primaryKeySnapshot) {
+    return addSegment(segment.getSegmentName(), segment, primaryKeySnapshot);
+  }
+
+  private SnapshotMutableRoaringBitmap addSegment(String segmentName, @Nullable IndexSegment segment,
+      PrimaryKeySnapshot primaryKeySnapshot) {
+    LOGGER.info("Adding upsert metadata for segment: {} from primary key snapshot with {} primary keys", segmentName,
+        primaryKeySnapshot.getNumEntries());
+
+    SnapshotMutableRoaringBitmap validDocIds = new SnapshotMutableRoaringBitmap();
+    int segmentId = getSegmentId(segmentName, validDocIds, segment);
+    int numEntries = primaryKeySnapshot.getNumEntries();
+    for (int i = 0; i < numEntries; i++) {
+      int docId = primaryKeySnapshot.getDocId(i);
+      long timestamp = primaryKeySnapshot.getTimestamp(i);
+      _upsertMetadataStore.upsert(primaryKeySnapshot.getKeyHigh(i), primaryKeySnapshot.getKeyLow(i), segmentId, docId,
+          timestamp, getSegmentRecordLocationUpdater(segmentName, validDocIds, docId, timestamp));
+    }
+    validDocIds.publishSnapshot();
+    onSegmentAdded(segmentName, segmentId);
+    return validDocIds;
+  }
+
+  /**
+   * Returns the record location updater for a record in the immutable segment being added.
+   */
+  private UpsertMetadataStore.RecordLocationUpdater getSegmentRecordLocationUpdater(String segmentName,
+      SnapshotMutableRoaringBitmap validDocIds, int docId, long timestamp) {
+    return new UpsertMetadataStore.RecordLocationUpdater() {
+      @Override
+      public boolean onNewKey() {
+        validDocIds.add(docId);
+        return true;
+      }
+
+      @Override
+      public boolean onExistingKey(int currentSegmentId, int currentDocId, long currentTimestamp) {
+        SegmentInfo currentSegmentInfo = _segmentInfoMap.get(currentSegmentId);
+        if (currentSegmentInfo == null) {
+          // The current record location is pointing to a removed segment, treat it as a new primary key
+          validDocIds.add(docId);
+          return true;
+        }
+
+        if (segmentName.equals(currentSegmentInfo._segmentName)) {
+          // The current record location has the same segment name
+
+          // Update the record location when the new timestamp is greater than or equal to the current
+          // timestamp. There are 2 scenarios:
+          //   1. The current record location is pointing to the same segment (the segment being added). In this
+          //      case, we want to update the record location when there is a tie to keep the newer record. Note
+          //      that the record info iterator will return records with incremental doc ids.
+          //   2. The current record location is pointing to the old segment being replaced. This could happen
+          //      when committing a consuming segment, or reloading a completed segment. In this case, we want to
+          //      update the record location when there is a tie because the record locations should point to
+          //      the new added segment instead of the old segment being replaced. Also, do not update the valid
+          //      doc ids for the old segment because it has not been replaced yet.
+          if (timestamp >= currentTimestamp) {
+            // Only update the valid doc ids for the new segment
+            if (validDocIds == currentSegmentInfo._validDocIds) {
+              validDocIds.remove(currentDocId);
             }
+            validDocIds.add(docId);
+            return true;
           } else {
-            // The current record location is pointing to a different segment
-
-            // Update the record location when getting a newer timestamp, or the timestamp is the same as the current
-            // timestamp, but the segment has a larger sequence number (the segment is newer than the current segment).
-            if (recordInfo._timestamp > currentRecordLocation.getTimestamp() || (
-                recordInfo._timestamp == currentRecordLocation.getTimestamp()
-                    && LLCSegmentName.getSequenceNumber(segmentName) > LLCSegmentName
-                    .getSequenceNumber(currentRecordLocation.getSegmentName()))) {
-              currentRecordLocation.getValidDocIds().remove(currentRecordLocation.getDocId());
-              validDocIds.add(recordInfo._docId);
-              return new RecordLocation(segmentName, recordInfo._docId, recordInfo._timestamp, validDocIds);
-            } else {
-              return currentRecordLocation;
-            }
+            return false;
           }
         } else {
-          // New primary key
-          validDocIds.add(recordInfo._docId);
-          return new RecordLocation(segmentName, recordInfo._docId, recordInfo._timestamp, validDocIds);
+          // The current record location is pointing to a different segment
+
+          // Update the record location when getting a newer timestamp, or the timestamp is the same as the
+          // current timestamp, but the segment has a larger sequence number (the segment is newer than the
+          // current segment).
+          if (timestamp > currentTimestamp || (timestamp == currentTimestamp
+              && LLCSegmentName.getSequenceNumber(segmentName) > LLCSegmentName
+              .getSequenceNumber(currentSegmentInfo._segmentName))) {
+            currentSegmentInfo._validDocIds.remove(currentDocId);
+            _validDocIdsToPublish.add(currentSegmentInfo._validDocIds);
+            validDocIds.add(docId);
+            return true;
+          } else {
+            return false;
+          }
         }
-      });
-    }
+      }
+    };
+  }
+
+  private void onSegmentAdded(String segmentName, int segmentId) {
+    // All the record locations of the replaced segment (consuming segment being committed or old segment being
+    // reloaded) have been moved to the new segment, so stop tracking the replaced segment. Removing the replaced
+    // segment later becomes a no-op.
+    _segmentInfoMap.forEach((id, segmentInfo) -> {
+      if (id != segmentId && segmentName.equals(segmentInfo._segmentName)) {
+        _segmentIdMap.remove(segmentInfo._validDocIds);
+        _segmentInfoMap.remove(id);
+        segmentInfo.untrackSegment();
+      }
+    });
+
+    // Publish the removals from the valid doc ids of the other segments
+    publishValidDocIdsSnapshots();
+
     // Update metrics
-    _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.UPSERT_PRIMARY_KEYS_COUNT,
-        _primaryKeyToRecordLocationMap.size());
-    return validDocIds;
+    updateMetrics();
   }
 
   /**
    * Updates the upsert metadata for a new consumed record in the given consuming segment.
    */
-  public void updateRecord(String segmentName, RecordInfo recordInfo, ThreadSafeMutableRoaringBitmap validDocIds) {
-    _primaryKeyToRecordLocationMap.compute(recordInfo._primaryKey, (primaryKey, currentRecordLocation) -> {
-      if (currentRecordLocation != null) {
-        // Existing primary key
-
-        // Update the record location when the new timestamp is greater than or equal to the current timestamp. Update
-        // the record location when there is a tie to keep the newer record.
-        if (recordInfo._timestamp >= currentRecordLocation.getTimestamp()) {
-          currentRecordLocation.getValidDocIds().remove(currentRecordLocation.getDocId());
-          validDocIds.add(recordInfo._docId);
-          return new RecordLocation(segmentName, recordInfo._docId, recordInfo._timestamp, validDocIds);
-        } else {
-          return currentRecordLocation;
+  public void updateRecord(String segmentName, RecordInfo recordInfo, SnapshotMutableRoaringBitmap validDocIds) {
+    updateRecord(segmentName, null, recordInfo, validDocIds);
+  }
+
+  /**
+   * Same as {@link #updateRecord(String, RecordInfo, SnapshotMutableRoaringBitmap)}, but also tracks the consuming
+   * segment so that the records in the segment can be read for partial upsert.
+   */
+  public void updateRecord(IndexSegment segment, RecordInfo recordInfo, SnapshotMutableRoaringBitmap validDocIds) {
+    updateRecord(segment.getSegmentName(), segment, recordInfo, validDocIds);
+  }
+
+  private void updateRecord(String segmentName, @Nullable IndexSegment segment, RecordInfo recordInfo,
+      SnapshotMutableRoaringBitmap validDocIds) {
+    int segmentId = getSegmentId(segmentName, validDocIds, segment);
+    _upsertMetadataStore.upsert(recordInfo._primaryKey, segmentId, recordInfo._docId, recordInfo._timestamp,
+        new UpsertMetadataStore.RecordLocationUpdater() {
+          @Override
+          public boolean onNewKey() {
+            validDocIds.add(recordInfo._docId);
+            _validDocIdsToPublish.add(validDocIds);
+            return true;
+          }
+
+          @Override
+          public boolean onExistingKey(int currentSegmentId, int currentDocId, long currentTimestamp) {
+            // Update the record location when the new timestamp is greater than or equal to the current timestamp.
+            // Update the record location when there is a tie to keep the newer record.
+            if (recordInfo._timestamp >= currentTimestamp) {
+              SegmentInfo currentSegmentInfo = _segmentInfoMap.get(currentSegmentId);
+              if (currentSegmentInfo != null) {
+                currentSegmentInfo._validDocIds.remove(currentDocId);
+                _validDocIdsToPublish.add(currentSegmentInfo._validDocIds);
+              }
+              validDocIds.add(recordInfo._docId);
+              _validDocIdsToPublish.add(validDocIds);
+              return true;
+            } else {
+              return false;
+            }
+          }
+        });
+    // Update metrics periodically
+    if (_numRecordsSinceLastMetricsUpdate.incrementAndGet() >= NUM_RECORDS_PER_METRICS_UPDATE) {
+      updateMetrics();
+    }
+  }
+
+  /**
+   * Publishes the snapshots of the valid doc ids modified by the record updates, so that the queries can see the
+   * updates. Should be called after a batch of records is updated, so that the queries never see a record removed from
+   * the previous segment but not yet added to the new segment.
+   */
+  public void publishValidDocIdsSnapshots() {
+    Iterator<SnapshotMutableRoaringBitmap> iterator = _validDocIdsToPublish.iterator();
+    while (iterator.hasNext()) {
+      // Remove before publishing so that a concurrent modification is either published here or marked again
+      SnapshotMutableRoaringBitmap validDocIds = iterator.next();
+      iterator.remove();
+      validDocIds.publishSnapshot();
+    }
+  }
+
+  /**
+   * Returns whether partial upsert is enabled, in which case the records should be merged with the previous records via
+   * {@link #mergeWithPreviousRecord(RecordInfo, GenericRow)} before being indexed.
+   */
+  public boolean isPartialUpsertEnabled() {
+    return _partialUpsertHandler != null;
+  }
+
+  /**
+   * Merges the new record with the previous record of the same primary key for partial upsert, returns the merged
+   * record. The new record is returned as is when there is no previous record, the segment of the previous record is
+   * not tracked, or the new record is older than the previous record (it will not become the latest record anyway).
+   * <p>The previous record is read while holding the lock of the segment info, so that the segment cannot be destroyed
+   * in the middle of the read (segments are untracked under the same lock before being destroyed).
+   */
+  public GenericRow mergeWithPreviousRecord(RecordInfo recordInfo, GenericRow record) {
+    Preconditions.checkState(_partialUpsertHandler != null, "Partial upsert is not enabled for table: %s",
+        _tableNameWithType);
+    int[] currentLocation = new int[2];
+    long[] currentTimestamp = new long[1];
+    int lastSegmentId = -1;
+    while (true) {
+      if (!_upsertMetadataStore.get(recordInfo._primaryKey, (segmentId, docId, timestamp) -> {
+        currentLocation[0] = segmentId;
+        currentLocation[1] = docId;
+        currentTimestamp[0] = timestamp;
+      })) {
+        return record;
+      }
+      if (recordInfo._timestamp < currentTimestamp[0]) {
+        return record;
+      }
+      int segmentId = currentLocation[0];
+      if (segmentId == lastSegmentId) {
+        // The record location still points to the untracked segment
+        return record;
+      }
+      SegmentInfo segmentInfo = _segmentInfoMap.get(segmentId);
+      if (segmentInfo == null) {
+        return record;
+      }
+      synchronized (segmentInfo) {
+        IndexSegment segment = segmentInfo._segment;
+        if (segment != null) {
+          GenericRow previousRecord = segment.getRecord(currentLocation[1], new GenericRow());
+          return _partialUpsertHandler.merge(previousRecord, record);
         }
-      } else {
-        // New primary key
-        validDocIds.add(recordInfo._docId);
-        return new RecordLocation(segmentName, recordInfo._docId, recordInfo._timestamp, validDocIds);
       }
-    });
-    // Update metrics
-    _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.UPSERT_PRIMARY_KEYS_COUNT,
-        _primaryKeyToRecordLocationMap.size());
+      // The segment is not tracked, or was untracked after the record location was looked up (e.g. replaced by the
+      // committed segment). Look up the record location again as it might have been moved to the replacing segment.
+      lastSegmentId = segmentId;
+    }
+  }
+
+  /**
+   * Stops reading the records from the given segment for partial upsert, and waits for the ongoing reads to finish.
+   * The record locations in the segment are kept. It should be called before the segment is destroyed.
+   */
+  public void untrackSegment(IndexSegment segment) {
+    for (SegmentInfo segmentInfo : _segmentInfoMap.values()) {
+      if (segmentInfo._segment == segment) {
+        segmentInfo.untrackSegment();
+      }
+    }
   }
 
   /**
    * Removes the upsert metadata for the given immutable segment. No need to remove the upsert metadata for the
    * consuming segment because it should be replaced by the committed segment.
    */
-  public void removeSegment(String segmentName, ThreadSafeMutableRoaringBitmap validDocIds) {
+  public void removeSegment(String segmentName, SnapshotMutableRoaringBitmap validDocIds) {
     LOGGER.info("Removing upsert metadata for segment: {}", segmentName);
 
-    if (!validDocIds.getMutableRoaringBitmap().isEmpty()) {
-      // Remove all the record locations that point to the valid doc ids of the removed segment.
-      _primaryKeyToRecordLocationMap.forEach((primaryKey, recordLocation) -> {
-        if (recordLocation.getValidDocIds() == validDocIds) {
-          // Check and remove to prevent removing the key that is just updated.
-          _primaryKeyToRecordLocationMap.remove(primaryKey, recordLocation);
-        }
-      });
+    Integer segmentId = _segmentIdMap.remove(validDocIds);
+    if (segmentId != null) {
+      if (!validDocIds.isEmpty()) {
+        // Remove all the record locations that point to the removed segment. The upsert metadata store checks the
+        // segment id while holding the lock to prevent removing the key that is just updated.
+        _upsertMetadataStore.removeSegment(segmentId);
+      }
+      SegmentInfo segmentInfo = _segmentInfoMap.remove(segmentId);
+      if (segmentInfo != null) {
+        segmentInfo.untrackSegment();
+      }
     }
     // Update metrics
+    updateMetrics();
+  }
+
+  /**
+   * Returns the current record location of the given primary key, or {@code null} if the primary key does not exist.
+   */
+  @VisibleForTesting
+  @Nullable
+  RecordLocation getRecordLocation(PrimaryKey primaryKey) {
+    RecordLocation[] recordLocation = new RecordLocation[1];
+    _upsertMetadataStore.get(primaryKey, (segmentId, docId, timestamp) -> {
+      SegmentInfo segmentInfo = _segmentInfoMap.get(segmentId);
+      if (segmentInfo != null) {
+        recordLocation[0] = new RecordLocation(segmentInfo._segmentName, docId, timestamp, segmentInfo._validDocIds);
+      }
+    });
+    return recordLocation[0];
+  }
+
+  @VisibleForTesting
+  UpsertMetadataStore getUpsertMetadataStore() {
+    return _upsertMetadataStore;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _upsertMetadataStore.close();
+  }
+
+  private int getSegmentId(String segmentName, SnapshotMutableRoaringBitmap validDocIds,
+      @Nullable IndexSegment segment) {
+    return _segmentIdMap.computeIfAbsent(validDocIds, k -> {
+      int segmentId = _nextSegmentId.getAndIncrement();
+      _segmentInfoMap.put(segmentId, new SegmentInfo(segmentName, validDocIds, segment));
+      return segmentId;
+    });
+  }
+
+  private void updateMetrics() {
+    _numRecordsSinceLastMetricsUpdate.set(0);
     _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.UPSERT_PRIMARY_KEYS_COUNT,
-        _primaryKeyToRecordLocationMap.size());
+        _upsertMetadataStore.size());
+    _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId,
+        ServerGauge.UPSERT_METADATA_STORE_MEMORY_USED, _upsertMetadataStore.getSizeInBytes());
+  }
+
+  private static final class SegmentInfo {
+    final String _segmentName;
+    final SnapshotMutableRoaringBitmap _validDocIds;
+    // Only tracked for partial upsert to read the previous records, cleared under the lock before being destroyed
+    volatile IndexSegment _segment;
+
+    SegmentInfo(String segmentName, SnapshotMutableRoaringBitmap validDocIds, @Nullable IndexSegment segment) {
+      _segmentName = segmentName;
+      _validDocIds = validDocIds;
+      _segment = segment;
+    }
+
+    /**
+     * Stops tracking the segment after the ongoing read (if any) finishes.
+     */
+    synchronized void untrackSegment() {
+      _segment = null;
+    }
   }
 
   public static final class RecordInfo {
@@ -195,5 +473,17 @@ public class PartitionUpsertMetadataManager {
       _docId = docId;
       _timestamp = timestamp;
     }
+
+    public PrimaryKey getPrimaryKey() {
+      return _primaryKey;
+    }
+
+    public int getDocId() {
+      return _docId;
+    }
+
+    public long getTimestamp() {
+      return _timestamp;
+    }
   }
 }
@@ -0,0 +1,260 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.segment.store.SegmentDirectoryPaths;
+import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager.RecordInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The snapshot of the primary keys of an immutable segment, which can be persisted into the segment directory and
+ * bulk-merged into the {@link PartitionUpsertMetadataManager} when the segment is loaded, instead of reading and
+ * hashing the primary key columns of all the documents again.
+ * <p>The snapshot contains one entry per distinct primary key in the segment, which is the record that wins within the
+ * segment (the largest timestamp, or the largest doc id when there is a tie). The doc ids of the entries are the valid
+ * doc ids of the segment when there is no other segment. The primary keys are kept as the 128-bit keys of the
+ * {@link UpsertMetadataStore}, and the entries are sorted by the hash of the key so that the merge goes through the
+ * stripes of the store one by one.
+ * <p>File layout: version | segment crc | primary key columns | time column | number of docs | number of entries |
+ * entries (key high, key low, doc id, timestamp). The snapshot is ignored when the segment crc or the columns do not
+ * match, so that a stale snapshot left in a replaced segment directory is never used.
+ */
+public class PrimaryKeySnapshot {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PrimaryKeySnapshot.class);
+
+  public static final String FILE_NAME = "upsert.primary_key.snapshot";
+  private static final int VERSION = 1;
+
+  private final int _numDocs;
+  private final int _numEntries;
+  private final long[] _keyHighs;
+  private final long[] _keyLows;
+  private final int[] _docIds;
+  private final long[] _timestamps;
+
+  private PrimaryKeySnapshot(int numDocs, int numEntries, long[] keyHighs, long[] keyLows, int[] docIds,
+      long[] timestamps) {
+    _numDocs = numDocs;
+    _numEntries = numEntries;
+    _keyHighs = keyHighs;
+    _keyLows = keyLows;
+    _docIds = docIds;
+    _timestamps = timestamps;
+  }
+
+  /**
+   * Builds the snapshot from the records of a segment. The record info iterator should return the records with
+   * incremental doc ids.
+   */
+  public static PrimaryKeySnapshot build(Iterator<RecordInfo> recordInfoIterator, int numDocs) {
+    long[] keyHighs = new long[numDocs];
+    long[] keyLows = new long[numDocs];
+    long[] hashes = new long[numDocs];
+    int[] docIds = new int[numDocs];
+    long[] timestamps = new long[numDocs];
+    int numRecords = 0;
+    while (recordInfoIterator.hasNext()) {
+      RecordInfo recordInfo = recordInfoIterator.next();
+      long[] key = BaseUpsertMetadataStore.toKey(recordInfo.getPrimaryKey());
+      keyHighs[numRecords] = key[0];
+      keyLows[numRecords] = key[1];
+      hashes[numRecords] = BaseUpsertMetadataStore.hash(key[0], key[1]);
+      docIds[numRecords] = recordInfo.getDocId();
+      timestamps[numRecords] = recordInfo.getTimestamp();
+      numRecords++;
+    }
+
+    // Sort the records by the hash and key, then the winning record of each key comes last within the key
+    int[] sortedIndexes = new int[numRecords];
+    for (int i = 0; i < numRecords; i++) {
+      sortedIndexes[i] = i;
+    }
+    IntArrays.quickSort(sortedIndexes, (i, j) -> {
+      int result = Long.compareUnsigned(hashes[i], hashes[j]);
+      if (result != 0) {
+        return result;
+      }
+      result = Long.compare(keyHighs[i], keyHighs[j]);
+      if (result != 0) {
+        return result;
+      }
+      result = Long.compare(keyLows[i], keyLows[j]);
+      if (result != 0) {
+        return result;
+      }
+      result = Long.compare(timestamps[i], timestamps[j]);
+      if (result != 0) {
+        return result;
+      }
+      return Integer.compare(docIds[i], docIds[j]);
+    });
+
+    // Keep the last (winning) record of each key
+    long[] sortedKeyHighs = new long[numRecords];
+    long[] sortedKeyLows = new long[numRecords];
+    int[] sortedDocIds = new int[numRecords];
+    long[] sortedTimestamps = new long[numRecords];
+    int numEntries = 0;
+    for (int i = 0; i < numRecords; i++) {
+      int index = sortedIndexes[i];
+      if (i + 1 < numRecords) {
+        int nextIndex = sortedIndexes[i + 1];
+        if (keyHighs[nextIndex] == keyHighs[index] && keyLows[nextIndex] == keyLows[index]) {
+          continue;
+        }
+      }
+      sortedKeyHighs[numEntries] = keyHighs[index];
+      sortedKeyLows[numEntries] = keyLows[index];
+      sortedDocIds[numEntries] = docIds[index];
+      sortedTimestamps[numEntries] = timestamps[index];
+      numEntries++;
+    }
+    return new PrimaryKeySnapshot(numDocs, numEntries, sortedKeyHighs, sortedKeyLows, sortedDocIds, sortedTimestamps);
+  }
+
+  /**
+   * Loads the snapshot from the given segment index directory, returns {@code null} if the snapshot does not exist or
+   * does not match the segment.
+   */
+  @Nullable
+  public static PrimaryKeySnapshot load(File indexDir, String segmentCrc, List<String> primaryKeyColumns,
+      String timeColumn, int numDocs) {
+    File snapshotFile = new File(SegmentDirectoryPaths.findSegmentDirectory(indexDir), FILE_NAME);
+    if (!snapshotFile.exists()) {
+      return null;
+    }
+    try (DataInputStream dataInputStream = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+      if (dataInputStream.readInt() != VERSION || !dataInputStream.readUTF().equals(segmentCrc)) {
+        LOGGER.info("Ignoring stale primary key snapshot: {}", snapshotFile);
+        return null;
+      }
+      int numPrimaryKeyColumns = dataInputStream.readInt();
+      if (numPrimaryKeyColumns != primaryKeyColumns.size()) {
+        LOGGER.info("Ignoring primary key snapshot with different primary key columns: {}", snapshotFile);
+        return null;
+      }
+      for (String primaryKeyColumn : primaryKeyColumns) {
+        if (!dataInputStream.readUTF().equals(primaryKeyColumn)) {
+          LOGGER.info("Ignoring primary key snapshot with different primary key columns: {}", snapshotFile);
+          return null;
+        }
+      }
+      if (!dataInputStream.readUTF().equals(timeColumn) || dataInputStream.readInt() != numDocs) {
+        LOGGER.info("Ignoring primary key snapshot with different time column or number of docs: {}", snapshotFile);
+        return null;
+      }
+      int numEntries = dataInputStream.readInt();
+      long[] keyHighs = new long[numEntries];
+      long[] keyLows = new long[numEntries];
+      int[] docIds = new int[numEntries];
+      long[] timestamps = new long[numEntries];
+      for (int i = 0; i < numEntries; i++) {
+        keyHighs[i] = dataInputStream.readLong();
+        keyLows[i] = dataInputStream.readLong();
+        docIds[i] = dataInputStream.readInt();
+        timestamps[i] = dataInputStream.readLong();
+        if (docIds[i] < 0 || docIds[i] >= numDocs) {
+          LOGGER.warn("Ignoring corrupted primary key snapshot: {}", snapshotFile);
+          return null;
+        }
+      }
+      return new PrimaryKeySnapshot(numDocs, numEntries, keyHighs, keyLows, docIds, timestamps);
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while loading primary key snapshot: {}, ignoring it", snapshotFile, e);
+      return null;
+    }
+  }
+
+  /**
+   * Persists the snapshot into the given segment index directory. The snapshot is written into a temporary file first
+   * and then moved, so that a partially written snapshot is never loaded.
+   */
+  public void persist(File indexDir, String segmentCrc, List<String> primaryKeyColumns, String timeColumn)
+      throws IOException {
+    File segmentDirectory = SegmentDirectoryPaths.findSegmentDirectory(indexDir);
+    File snapshotFile = new File(segmentDirectory, FILE_NAME);
+    File tempFile = new File(segmentDirectory, FILE_NAME + ".tmp");
+    try {
+      try (DataOutputStream dataOutputStream = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        dataOutputStream.writeInt(VERSION);
+        dataOutputStream.writeUTF(segmentCrc);
+        dataOutputStream.writeInt(primaryKeyColumns.size());
+        for (String primaryKeyColumn : primaryKeyColumns) {
+          dataOutputStream.writeUTF(primaryKeyColumn);
+        }
+        dataOutputStream.writeUTF(timeColumn);
+        dataOutputStream.writeInt(_numDocs);
+        dataOutputStream.writeInt(_numEntries);
+        for (int i = 0; i < _numEntries; i++) {
+          dataOutputStream.writeLong(_keyHighs[i]);
+          dataOutputStream.writeLong(_keyLows[i]);
+          dataOutputStream.writeInt(_docIds[i]);
+          dataOutputStream.writeLong(_timestamps[i]);
+        }
+      }
+      Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      FileUtils.deleteQuietly(tempFile);
+    }
+  }
+
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
+  public int getNumEntries() {
+    return _numEntries;
+  }
+
+  public long getKeyHigh(int index) {
+    return _keyHighs[index];
+  }
+
+  public long getKeyLow(int index) {
+    return _keyLows[index];
+  }
+
+  public int getDocId(int index) {
+    return _docIds[index];
+  }
+
+  public long getTimestamp(int index) {
+    return _timestamps[index];
+  }
+}
@@ -18,28 +18,65 @@
  */
 package org.apache.pinot.core.upsert;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.spi.config.table.UpsertConfig;
 
 
 /**
  * The manager of the upsert metadata of a table.
  */
 @ThreadSafe
-public class TableUpsertMetadataManager {
+public class TableUpsertMetadataManager implements Closeable {
   private final Map<Integer, PartitionUpsertMetadataManager> _partitionMetadataManagerMap = new ConcurrentHashMap<>();
   private final String _tableNameWithType;
   private final ServerMetrics _serverMetrics;
+  private final UpsertConfig.MetadataStoreType _metadataStoreType;
+  private final PartialUpsertHandler _partialUpsertHandler;
 
   public TableUpsertMetadataManager(String tableNameWithType, ServerMetrics serverMetrics) {
+    this(tableNameWithType, serverMetrics, UpsertConfig.MetadataStoreType.ON_HEAP, null);
+  }
+
+  /**
+   * @param partialUpsertHandler Handler to merge the records for partial upsert, or {@code null} for full upsert
+   */
+  public TableUpsertMetadataManager(String tableNameWithType, ServerMetrics serverMetrics,
+      UpsertConfig.MetadataStoreType metadataStoreType, @Nullable PartialUpsertHandler partialUpsertHandler) {
     _tableNameWithType = tableNameWithType;
     _serverMetrics = serverMetrics;
+    _metadataStoreType = metadataStoreType;
+    _partialUpsertHandler = partialUpsertHandler;
   }
 
   public PartitionUpsertMetadataManager getOrCreatePartitionManager(int partitionId) {
     return _partitionMetadataManagerMap.computeIfAbsent(partitionId,
-        k -> new PartitionUpsertMetadataManager(_tableNameWithType, k, _serverMetrics));
+        k -> new PartitionUpsertMetadataManager(_tableNameWithType, k, _serverMetrics, createUpsertMetadataStore(k),
+            _partialUpsertHandler));
+  }
+
+  private UpsertMetadataStore createUpsertMetadataStore(int partitionId) {
+    switch (_metadataStoreType) {
+      case ON_HEAP:
+        return new OnHeapUpsertMetadataStore();
+      case OFF_HEAP:
+        return new OffHeapUpsertMetadataStore(
+            String.format("UpsertMetadataStore: %s, partition: %d", _tableNameWithType, partitionId));
+      default:
+        throw new IllegalStateException("Unsupported upsert metadata store type: " + _metadataStoreType);
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    for (PartitionUpsertMetadataManager partitionUpsertMetadataManager : _partitionMetadataManagerMap.values()) {
+      partitionUpsertMetadataManager.close();
+    }
   }
 }
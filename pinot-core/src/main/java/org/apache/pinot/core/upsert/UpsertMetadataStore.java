@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.io.Closeable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+
+
+/**
+ * The store of the primary key to record location map for a partition of an upsert table.
+ * <p>The record location is kept as primitives (segment id, doc id and timestamp) instead of objects so that the store
+ * can be specialized to use primitive arrays or off-heap memory. The segment id is assigned by the
+ * {@link PartitionUpsertMetadataManager} for each segment, and must be non-negative.
+ */
+@ThreadSafe
+public interface UpsertMetadataStore extends Closeable {
+
+  /**
+   * Callback to decide whether to update the record location of an existing primary key. It is invoked while holding
+   * the lock for the primary key, so the side effects (e.g. updating the valid doc ids) are applied atomically with the
+   * update of the record location.
+   */
+  interface RecordLocationUpdater {
+
+    /**
+     * Invoked when the primary key does not exist in the store. Returns {@code true} to put the new record location.
+     */
+    boolean onNewKey();
+
+    /**
+     * Invoked with the current record location when the primary key exists in the store. Returns {@code true} to
+     * replace the current record location with the new one.
+     */
+    boolean onExistingKey(int currentSegmentId, int currentDocId, long currentTimestamp);
+  }
+
+  /**
+   * Consumer of a record location.
+   */
+  interface RecordLocationConsumer {
+
+    void accept(int segmentId, int docId, long timestamp);
+  }
+
+  /**
+   * Puts the new record location for the primary key based on the decision of the given updater, returns whether the
+   * record location is updated.
+   */
+  boolean upsert(PrimaryKey primaryKey, int segmentId, int docId, long timestamp, RecordLocationUpdater updater);
+
+  /**
+   * Same as {@link #upsert(PrimaryKey, int, int, long, RecordLocationUpdater)}, but with the primary key already
+   * converted into the 128-bit key (e.g. read from a {@link PrimaryKeySnapshot}).
+   */
+  boolean upsert(long keyHigh, long keyLow, int segmentId, int docId, long timestamp, RecordLocationUpdater updater);
+
+  /**
+   * Reads the record location for the primary key, returns {@code false} if the primary key does not exist.
+   */
+  boolean get(PrimaryKey primaryKey, RecordLocationConsumer consumer);
+
+  /**
+   * Removes all the primary keys whose record location points to the given segment.
+   */
+  void removeSegment(int segmentId);
+
+  /**
+   * Returns the number of primary keys in the store.
+   */
+  int size();
+
+  /**
+   * Returns the memory used by the store in bytes.
+   */
+  long getSizeInBytes();
+}
@@ -51,4 +51,13 @@ public final class GroupByUtils {
       return limit;
     }
   }
+
+  /**
+   * Returns the trim threshold for each of the per-thread tables when the records are merged into one table per
+   * thread, so that the total size of all the per-thread tables is bounded by the trim threshold. Each per-thread table
+   * keeps at least twice the trim size (bounded by the trim threshold) to avoid trimming too frequently.
+   */
+  public static int getPerThreadTrimThreshold(int trimSize, int trimThreshold, int numThreads) {
+    return (int) Math.min(Math.max(trimThreshold / Math.max(numThreads, 1), 2L * trimSize), trimThreshold);
+  }
 }
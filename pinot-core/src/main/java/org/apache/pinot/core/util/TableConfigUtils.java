@@ -30,11 +30,13 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.common.tier.TierFactory;
 import org.apache.pinot.common.utils.CommonConstants;
 import org.apache.pinot.common.utils.config.TagNameUtils;
 import org.apache.pinot.core.data.function.FunctionEvaluator;
 import org.apache.pinot.core.data.function.FunctionEvaluatorFactory;
+import org.apache.pinot.core.segment.creator.impl.geo.GeoIndexUtils;
 import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.config.table.IndexingConfig;
@@ -48,6 +50,7 @@ import org.apache.pinot.spi.config.table.UpsertConfig;
 import org.apache.pinot.spi.config.table.ingestion.FilterConfig;
 import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
 import org.apache.pinot.spi.config.table.ingestion.TransformConfig;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.ingestion.batch.BatchConfig;
 import org.apache.pinot.spi.stream.StreamConfig;
@@ -278,6 +281,8 @@ public final class TableConfigUtils {
    *  - the primary key exists on the schema
    *  - strict replica-group is configured for routing type
    *  - consumer type must be low-level
+   *  - partial upsert requires null handling so that the missing values are not merged as default values
+   *  - partial upsert strategies are configured on existing non-primary-key columns with compatible types
    */
   protected static void validateUpsertConfig(TableConfig tableConfig, Schema schema) {
     if (tableConfig.getUpsertMode() == UpsertConfig.Mode.NONE) {
@@ -303,6 +308,38 @@ public final class TableConfigUtils {
     Preconditions.checkState(
         CollectionUtils.isEmpty(tableConfig.getIndexingConfig().getStarTreeIndexConfigs()) && !tableConfig
             .getIndexingConfig().isEnableDefaultStarTree(), "The upsert table cannot have star-tree index.");
+    // partial upsert strategies are applicable to the columns
+    if (tableConfig.getUpsertMode() == UpsertConfig.Mode.PARTIAL) {
+      Preconditions.checkState(tableConfig.getIndexingConfig().isNullHandlingEnabled(),
+          "Null handling must be enabled for partial upsert table");
+      validatePartialUpsertStrategies(tableConfig, schema);
+    }
+  }
+
+  private static void validatePartialUpsertStrategies(TableConfig tableConfig, Schema schema) {
+    String timeColumn = tableConfig.getValidationConfig().getTimeColumnName();
+    for (Map.Entry<String, UpsertConfig.Strategy> entry : tableConfig.getUpsertConfig().getPartialUpsertStrategies()
+        .entrySet()) {
+      String column = entry.getKey();
+      UpsertConfig.Strategy strategy = entry.getValue();
+      FieldSpec fieldSpec = schema.getFieldSpecFor(column);
+      Preconditions.checkState(fieldSpec != null, "Failed to find partial upsert column: %s in the schema", column);
+      Preconditions.checkState(!schema.getPrimaryKeyColumns().contains(column) && !column.equals(timeColumn),
+          "Partial upsert strategy cannot be configured for primary key or time column: %s", column);
+      switch (strategy) {
+        case INCREMENT:
+          Preconditions.checkState(fieldSpec.isSingleValueField() && fieldSpec.getDataType().isNumeric(),
+              "INCREMENT partial upsert strategy can only be applied to single-value numeric column: %s", column);
+          break;
+        case APPEND:
+        case UNION:
+          Preconditions.checkState(!fieldSpec.isSingleValueField(),
+              "%s partial upsert strategy can only be applied to multi-value column: %s", strategy, column);
+          break;
+        default:
+          break;
+      }
+    }
   }
 
   /**
@@ -402,6 +439,27 @@ public final class TableConfigUtils {
         columnNameToConfigMap.put(columnName, "Range Column Config");
       }
     }
+    if (indexingConfig.getJsonIndexColumns() != null) {
+      for (String columnName : indexingConfig.getJsonIndexColumns()) {
+        FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
+        if (fieldSpec != null) {
+          Preconditions.checkState(
+              fieldSpec.isSingleValueField() && fieldSpec.getDataType() == FieldSpec.DataType.STRING,
+              "Json index can only be created on single-value STRING column: " + columnName);
+        }
+        columnNameToConfigMap.put(columnName, "Json Index Config");
+      }
+    }
+    if (indexingConfig.getMetricsAggregators() != null) {
+      for (Map.Entry<String, String> entry : indexingConfig.getMetricsAggregators().entrySet()) {
+        String columnName = entry.getKey();
+        FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
+        if (fieldSpec != null) {
+          validateMetricsAggregator(fieldSpec, entry.getValue());
+        }
+        columnNameToConfigMap.put(columnName, "Metrics Aggregators Config");
+      }
+    }
     if (indexingConfig.getSortedColumn() != null) {
       for (String columnName : indexingConfig.getSortedColumn()) {
         columnNameToConfigMap.put(columnName, "Sorted Column Config");
@@ -457,6 +515,35 @@ public final class TableConfigUtils {
     }
   }
 
+  private static void validateMetricsAggregator(FieldSpec fieldSpec, String aggregator) {
+    String columnName = fieldSpec.getName();
+    Preconditions.checkState(fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC && fieldSpec.isSingleValueField(),
+        "Metrics aggregator can only be configured for single-value metric column: " + columnName);
+    AggregationFunctionType aggregationType;
+    try {
+      aggregationType = AggregationFunctionType.getAggregationFunctionType(aggregator);
+    } catch (Exception e) {
+      throw new IllegalStateException("Invalid metrics aggregator: " + aggregator + " for column: " + columnName);
+    }
+    FieldSpec.DataType dataType = fieldSpec.getDataType();
+    switch (aggregationType) {
+      case SUM:
+      case MIN:
+      case MAX:
+      case COUNT:
+        Preconditions.checkState(dataType.isNumeric(),
+            "Metrics aggregator: " + aggregator + " can only be applied to numeric column: " + columnName);
+        break;
+      case DISTINCTCOUNTHLL:
+      case DISTINCTCOUNTTHETASKETCH:
+        Preconditions.checkState(dataType == FieldSpec.DataType.BYTES,
+            "Metrics aggregator: " + aggregator + " can only be applied to BYTES column: " + columnName);
+        break;
+      default:
+        throw new IllegalStateException("Unsupported metrics aggregator: " + aggregator + " for column: " + columnName);
+    }
+  }
+
   /**
    * Validates the Field Config List in the given TableConfig
    * Ensures that every referred column name exists in the corresponding schema
@@ -468,8 +555,14 @@ public final class TableConfigUtils {
 
     for (FieldConfig fieldConfig : fieldConfigList) {
       String columnName = fieldConfig.getName();
-      Preconditions.checkState(schema.getFieldSpecFor(columnName) != null,
+      FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
+      Preconditions.checkState(fieldSpec != null,
           "Column Name " + columnName + " defined in field config list must be a valid column defined in the schema");
+      if (fieldConfig.getIndexType() == FieldConfig.IndexType.GEO) {
+        Preconditions.checkState(fieldSpec.isSingleValueField() && fieldSpec.getDataType() == FieldSpec.DataType.BYTES,
+            "Geo index column: " + columnName + " must be of single-value BYTES type");
+        GeoIndexUtils.getResolution(fieldConfig);
+      }
     }
   }
 
@@ -485,6 +578,7 @@ public final class TableConfigUtils {
     indexingConfig
         .setOnHeapDictionaryColumns(sanitizeListBasedIndexingColumns(indexingConfig.getOnHeapDictionaryColumns()));
     indexingConfig.setRangeIndexColumns(sanitizeListBasedIndexingColumns(indexingConfig.getRangeIndexColumns()));
+    indexingConfig.setJsonIndexColumns(sanitizeListBasedIndexingColumns(indexingConfig.getJsonIndexColumns()));
     indexingConfig.setVarLengthDictionaryColumns(
         sanitizeListBasedIndexingColumns(indexingConfig.getVarLengthDictionaryColumns()));
     return indexingConfig;
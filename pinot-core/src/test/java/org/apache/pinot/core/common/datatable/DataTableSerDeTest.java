@@ -27,6 +27,8 @@ import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.spi.utils.ByteArray;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -58,17 +60,32 @@ public class DataTableSerDeTest {
     String actual = newDataTable.getMetadata()
         .get(DataTable.EXCEPTION_METADATA_KEY + QueryException.QUERY_EXECUTION_ERROR.getErrorCode());
     Assert.assertEquals(actual, expected);
+
+    dataTable = new DataTableImplV3();
+    dataTable.addException(processingException);
+    newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+    Assert.assertTrue(newDataTable instanceof DataTableImplV3);
+    Assert.assertNull(newDataTable.getDataSchema());
+    Assert.assertEquals(newDataTable.getNumberOfRows(), 0);
+    actual = newDataTable.getMetadata()
+        .get(DataTable.EXCEPTION_METADATA_KEY + QueryException.QUERY_EXECUTION_ERROR.getErrorCode());
+    Assert.assertEquals(actual, expected);
   }
 
   @Test
   public void testEmptyStrings()
       throws IOException {
+    testEmptyStrings(DataTableFactory.VERSION_2, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  private void testEmptyStrings(int dataTableVersion, ChunkCompressorFactory.CompressionType compressionType)
+      throws IOException {
     String emptyString = StringUtils.EMPTY;
     String[] emptyStringArray = {StringUtils.EMPTY};
 
     DataSchema dataSchema = new DataSchema(new String[]{"SV", "MV"},
         new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.STRING_ARRAY});
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, dataTableVersion, compressionType);
     for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
       dataTableBuilder.startRow();
       dataTableBuilder.setColumn(0, emptyString);
@@ -90,6 +107,11 @@ public class DataTableSerDeTest {
   @Test
   public void testAllDataTypes()
       throws IOException {
+    testAllDataTypes(DataTableFactory.VERSION_2, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+  }
+
+  private void testAllDataTypes(int dataTableVersion, ChunkCompressorFactory.CompressionType compressionType)
+      throws IOException {
     DataSchema.ColumnDataType[] columnDataTypes = DataSchema.ColumnDataType.values();
     int numColumns = columnDataTypes.length;
     String[] columnNames = new String[numColumns];
@@ -98,13 +120,14 @@ public class DataTableSerDeTest {
     }
     DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
 
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, dataTableVersion, compressionType);
 
     int[] ints = new int[NUM_ROWS];
     long[] longs = new long[NUM_ROWS];
     float[] floats = new float[NUM_ROWS];
     double[] doubles = new double[NUM_ROWS];
     String[] strings = new String[NUM_ROWS];
+    byte[][] bytes = new byte[NUM_ROWS][];
     Object[] objects = new Object[NUM_ROWS];
     int[][] intArrays = new int[NUM_ROWS][];
     long[][] longArrays = new long[NUM_ROWS][];
@@ -136,6 +159,10 @@ public class DataTableSerDeTest {
             strings[rowId] = RandomStringUtils.random(RANDOM.nextInt(20));
             dataTableBuilder.setColumn(colId, strings[rowId]);
             break;
+          case BYTES:
+            bytes[rowId] = RandomStringUtils.random(RANDOM.nextInt(20)).getBytes();
+            dataTableBuilder.setColumn(colId, new ByteArray(bytes[rowId]));
+            break;
           // Just test Double here, all object types will be covered in ObjectCustomSerDeTest.
           case OBJECT:
             objects[rowId] = RANDOM.nextDouble();
@@ -214,6 +241,9 @@ public class DataTableSerDeTest {
           case STRING:
             Assert.assertEquals(newDataTable.getString(rowId, colId), strings[rowId], ERROR_MESSAGE);
             break;
+          case BYTES:
+            Assert.assertEquals(newDataTable.getBytes(rowId, colId).getBytes(), bytes[rowId], ERROR_MESSAGE);
+            break;
           case OBJECT:
             Assert.assertEquals(newDataTable.getObject(rowId, colId), objects[rowId], ERROR_MESSAGE);
             break;
@@ -239,4 +269,49 @@ public class DataTableSerDeTest {
       }
     }
   }
+
+  @Test
+  public void testDataTableV3()
+      throws IOException {
+    Assert.assertTrue(new DataTableBuilder(new DataSchema(new String[0], new DataSchema.ColumnDataType[0]),
+        DataTableFactory.VERSION_3, ChunkCompressorFactory.CompressionType.PASS_THROUGH).build()
+        instanceof DataTableImplV3);
+    testEmptyStrings(DataTableFactory.VERSION_3, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+    testAllDataTypes(DataTableFactory.VERSION_3, ChunkCompressorFactory.CompressionType.PASS_THROUGH);
+    testEmptyStrings(DataTableFactory.VERSION_3, ChunkCompressorFactory.CompressionType.SNAPPY);
+    testAllDataTypes(DataTableFactory.VERSION_3, ChunkCompressorFactory.CompressionType.SNAPPY);
+  }
+
+  @Test
+  public void testDataTableV3Compression()
+      throws IOException {
+    DataSchema dataSchema = new DataSchema(new String[]{"string", "long"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.LONG});
+    byte[] uncompressedBytes =
+        buildRepetitiveDataTable(dataSchema, ChunkCompressorFactory.CompressionType.PASS_THROUGH).toBytes();
+    byte[] compressedBytes =
+        buildRepetitiveDataTable(dataSchema, ChunkCompressorFactory.CompressionType.SNAPPY).toBytes();
+    Assert.assertTrue(compressedBytes.length < uncompressedBytes.length);
+
+    DataTable newDataTable = DataTableFactory.getDataTable(compressedBytes);
+    Assert.assertEquals(newDataTable.getDataSchema(), dataSchema);
+    Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS * 10);
+    for (int rowId = 0; rowId < NUM_ROWS * 10; rowId++) {
+      Assert.assertEquals(newDataTable.getString(rowId, 0), "value_" + rowId % 10);
+      Assert.assertEquals(newDataTable.getLong(rowId, 1), rowId % 10);
+    }
+  }
+
+  private static DataTable buildRepetitiveDataTable(DataSchema dataSchema,
+      ChunkCompressorFactory.CompressionType compressionType)
+      throws IOException {
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, DataTableFactory.VERSION_3, compressionType);
+    for (int rowId = 0; rowId < NUM_ROWS * 10; rowId++) {
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, "value_" + rowId % 10);
+      dataTableBuilder.setColumn(1, (long) (rowId % 10));
+      dataTableBuilder.finishRow();
+    }
+    return dataTableBuilder.build();
+  }
 }
@@ -27,7 +27,12 @@ import java.lang.reflect.Method;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.metadata.instance.InstanceZKMetadata;
@@ -48,6 +53,8 @@ import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.stream.LongMsgOffset;
 import org.apache.pinot.spi.stream.LongMsgOffsetFactory;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.PartitionLevelConsumer;
 import org.apache.pinot.spi.stream.PermanentConsumerException;
 import org.apache.pinot.spi.stream.StreamConfigProperties;
 import org.apache.pinot.spi.stream.StreamPartitionMsgOffset;
@@ -151,10 +158,14 @@ public class LLRealtimeSegmentDataManagerTest {
 
   private FakeLLRealtimeSegmentDataManager createFakeSegmentManager()
       throws Exception {
+    return createFakeSegmentManager(createTableConfig(), createTableDataManager());
+  }
+
+  private FakeLLRealtimeSegmentDataManager createFakeSegmentManager(TableConfig tableConfig,
+      RealtimeTableDataManager tableDataManager)
+      throws Exception {
     LLCRealtimeSegmentZKMetadata segmentZKMetadata = createZkMetadata();
-    TableConfig tableConfig = createTableConfig();
     InstanceZKMetadata instanceZKMetadata = new InstanceZKMetadata();
-    RealtimeTableDataManager tableDataManager = createTableDataManager();
     String resourceDir = _segmentDir;
     LLCSegmentName llcSegmentName = new LLCSegmentName(_segmentNameStr);
     _partitionIdToSemaphoreMap.putIfAbsent(_partitionId, new Semaphore(1));
@@ -765,6 +776,150 @@ public class LLRealtimeSegmentDataManagerTest {
     Assert.assertEquals(secondSegmentDataManager.get().getPartitionConsumerSemaphore().availablePermits(), 1);
   }
 
+  @Test
+  public void testPipelinedConsumption()
+      throws Exception {
+    TableConfig tableConfig = createTableConfig();
+    tableConfig.getIndexingConfig().getStreamConfigs()
+        .put(StreamConfigProperties.REALTIME_CONSUMER_DECODE_NUM_THREADS, "2");
+    RealtimeTableDataManager tableDataManager = createTableDataManager();
+    ExecutorService decodeExecutor = Executors.newFixedThreadPool(2);
+    ExecutorService fetchExecutor = Executors.newFixedThreadPool(2);
+    when(tableDataManager.getConsumerDecodeExecutor()).thenReturn(decodeExecutor);
+    when(tableDataManager.getConsumerFetchExecutor()).thenReturn(fetchExecutor);
+    try {
+      FakeLLRealtimeSegmentDataManager segmentDataManager = createFakeSegmentManager(tableConfig, tableDataManager);
+      segmentDataManager._useDefaultConsumeLoop = true;
+      segmentDataManager._state.set(segmentDataManager, LLRealtimeSegmentDataManager.State.CATCHING_UP);
+
+      // The messages are decoded on the decode executor, and the next batch is prefetched on the fetch executor
+      long firstFinalOffset = _startOffsetValue + 1000;
+      FakeBatchPartitionLevelConsumer firstConsumer = new FakeBatchPartitionLevelConsumer(firstFinalOffset);
+      segmentDataManager.setPartitionLevelConsumer(firstConsumer);
+      segmentDataManager.setFinalOffset(firstFinalOffset);
+      Assert.assertTrue(segmentDataManager.consumeLoop());
+      Assert.assertEquals(((LongMsgOffset) segmentDataManager.getCurrentOffset()).getOffset(), firstFinalOffset);
+      Assert.assertTrue(firstConsumer._numPrefetches.get() > 0);
+
+      // Closing the stream consumers (e.g. when building the segment) should not prevent resuming the consumption
+      segmentDataManager.invokeCloseKafkaConsumers();
+      long secondFinalOffset = firstFinalOffset + 1000;
+      FakeBatchPartitionLevelConsumer secondConsumer = new FakeBatchPartitionLevelConsumer(secondFinalOffset);
+      segmentDataManager.setPartitionLevelConsumer(secondConsumer);
+      segmentDataManager.setFinalOffset(secondFinalOffset);
+      Assert.assertTrue(segmentDataManager.consumeLoop());
+      Assert.assertEquals(((LongMsgOffset) segmentDataManager.getCurrentOffset()).getOffset(), secondFinalOffset);
+      Assert.assertTrue(secondConsumer._numPrefetches.get() > 0);
+
+      // The executors are owned by the table data manager, and should not be shut down by the segment data manager
+      segmentDataManager.destroy();
+      Assert.assertFalse(decodeExecutor.isShutdown());
+      Assert.assertFalse(fetchExecutor.isShutdown());
+    } finally {
+      decodeExecutor.shutdownNow();
+      fetchExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testPrefetchQueuedBehindOtherPartitions()
+      throws Exception {
+    TableConfig tableConfig = createTableConfig();
+    tableConfig.getIndexingConfig().getStreamConfigs()
+        .put(StreamConfigProperties.REALTIME_CONSUMER_DECODE_NUM_THREADS, "1");
+    RealtimeTableDataManager tableDataManager = createTableDataManager();
+    ExecutorService decodeExecutor = Executors.newFixedThreadPool(1);
+    ExecutorService fetchExecutor = Executors.newFixedThreadPool(1);
+    when(tableDataManager.getConsumerDecodeExecutor()).thenReturn(decodeExecutor);
+    when(tableDataManager.getConsumerFetchExecutor()).thenReturn(fetchExecutor);
+    // Occupy the only fetch thread (e.g. with the prefetch of an idle partition)
+    CountDownLatch fetchThreadBlocker = new CountDownLatch(1);
+    fetchExecutor.submit(() -> {
+      fetchThreadBlocker.await();
+      return null;
+    });
+    try {
+      FakeLLRealtimeSegmentDataManager segmentDataManager = createFakeSegmentManager(tableConfig, tableDataManager);
+      segmentDataManager._useDefaultConsumeLoop = true;
+      segmentDataManager._state.set(segmentDataManager, LLRealtimeSegmentDataManager.State.CATCHING_UP);
+
+      // The queued prefetches should be cancelled and the batches fetched inline instead of blocking the consumption
+      long finalOffset = _startOffsetValue + 1000;
+      FakeBatchPartitionLevelConsumer consumer = new FakeBatchPartitionLevelConsumer(finalOffset);
+      segmentDataManager.setPartitionLevelConsumer(consumer);
+      segmentDataManager.setFinalOffset(finalOffset);
+      Assert.assertTrue(segmentDataManager.consumeLoop());
+      Assert.assertEquals(((LongMsgOffset) segmentDataManager.getCurrentOffset()).getOffset(), finalOffset);
+      Assert.assertEquals(consumer._numPrefetches.get(), 0);
+
+      // The cancelled prefetches should not fetch when the fetch thread becomes available
+      fetchThreadBlocker.countDown();
+      segmentDataManager.invokeCloseKafkaConsumers();
+      fetchExecutor.shutdown();
+      Assert.assertTrue(fetchExecutor.awaitTermination(10, TimeUnit.SECONDS));
+      Assert.assertEquals(consumer._numPrefetches.get(), 0);
+      segmentDataManager.destroy();
+    } finally {
+      fetchThreadBlocker.countDown();
+      decodeExecutor.shutdownNow();
+      fetchExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Partition level consumer returning batches of at most 100 messages up to the given end offset, and counting the
+   * fetches not issued from the thread that created it.
+   */
+  private static class FakeBatchPartitionLevelConsumer implements PartitionLevelConsumer {
+    private static final int NUM_MESSAGES_PER_BATCH = 100;
+
+    final long _endOffset;
+    final Thread _consumerThread = Thread.currentThread();
+    final AtomicInteger _numPrefetches = new AtomicInteger();
+
+    FakeBatchPartitionLevelConsumer(long endOffset) {
+      _endOffset = endOffset;
+    }
+
+    @Override
+    public MessageBatch fetchMessages(long startOffset, long endOffset, int timeoutMillis) {
+      if (Thread.currentThread() != _consumerThread) {
+        _numPrefetches.incrementAndGet();
+      }
+      int messageCount = (int) Math.max(Math.min(NUM_MESSAGES_PER_BATCH, _endOffset - startOffset), 0);
+      return new MessageBatch<byte[]>() {
+        @Override
+        public int getMessageCount() {
+          return messageCount;
+        }
+
+        @Override
+        public byte[] getMessageAtIndex(int index) {
+          return new byte[]{(byte) index};
+        }
+
+        @Override
+        public int getMessageOffsetAtIndex(int index) {
+          return 0;
+        }
+
+        @Override
+        public int getMessageLengthAtIndex(int index) {
+          return 1;
+        }
+
+        @Override
+        public long getNextStreamMessageOffsetAtIndex(int index) {
+          return startOffset + index + 1;
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
   public static class FakeLLRealtimeSegmentDataManager extends LLRealtimeSegmentDataManager {
 
     public Field _state;
@@ -781,6 +936,7 @@ public class LLRealtimeSegmentDataManagerTest {
     private boolean _downloadAndReplaceCalled = false;
     public boolean _throwExceptionFromConsume = false;
     public boolean _postConsumeStoppedCalled = false;
+    public boolean _useDefaultConsumeLoop = false;
     public Map<Integer, Semaphore> _semaphoreMap;
 
     private static InstanceDataManagerConfig makeInstanceDataManagerConfig() {
@@ -857,6 +1013,9 @@ public class LLRealtimeSegmentDataManagerTest {
     @Override
     protected boolean consumeLoop()
         throws Exception {
+      if (_useDefaultConsumeLoop) {
+        return super.consumeLoop();
+      }
       if (_throwExceptionFromConsume) {
         throw new PermanentConsumerException(new Throwable("Offset out of range"));
       }
@@ -974,6 +1133,26 @@ public class LLRealtimeSegmentDataManagerTest {
       setInt(numRows, "_segmentMaxRowCount");
     }
 
+    public void setPartitionLevelConsumer(PartitionLevelConsumer partitionLevelConsumer) {
+      try {
+        Field field = LLRealtimeSegmentDataManager.class.getDeclaredField("_partitionLevelConsumer");
+        field.setAccessible(true);
+        field.set(this, partitionLevelConsumer);
+      } catch (NoSuchFieldException | IllegalAccessException e) {
+        Assert.fail();
+      }
+    }
+
+    public void invokeCloseKafkaConsumers() {
+      try {
+        Method closeKafkaConsumers = LLRealtimeSegmentDataManager.class.getDeclaredMethod("closeKafkaConsumers");
+        closeKafkaConsumers.setAccessible(true);
+        closeKafkaConsumers.invoke(this);
+      } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
+        Assert.fail();
+      }
+    }
+
     private void setLong(long value, String fieldName) {
       try {
         Field field = LLRealtimeSegmentDataManager.class.getDeclaredField(fieldName);
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.io.writer.impl.DirectMemoryManager;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class RealtimeConsumptionMemoryGovernorTest {
+  private static final String SEGMENT_1 = "segment1";
+  private static final String SEGMENT_2 = "segment2";
+  private static final String SEGMENT_3 = "segment3";
+
+  @Test
+  public void testForceCommitLargestSegments()
+      throws Exception {
+    // Threshold is 900 bytes
+    RealtimeConsumptionMemoryGovernor memoryGovernor =
+        new RealtimeConsumptionMemoryGovernor(1000L, new ServerMetrics(new MetricsRegistry()));
+    try (DirectMemoryManager memoryManager1 = new DirectMemoryManager(SEGMENT_1);
+        DirectMemoryManager memoryManager2 = new DirectMemoryManager(SEGMENT_2);
+        DirectMemoryManager memoryManager3 = new DirectMemoryManager(SEGMENT_3)) {
+      memoryGovernor.register(SEGMENT_1, memoryManager1);
+      memoryGovernor.register(SEGMENT_2, memoryManager2);
+      memoryGovernor.register(SEGMENT_3, memoryManager3);
+      memoryManager1.allocate(400, "col");
+      memoryManager2.allocate(300, "col");
+      memoryManager3.allocate(100, "col");
+
+      // 800 bytes used, under the threshold
+      memoryGovernor.updateSegmentsToCommit();
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_1));
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_2));
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_3));
+
+      // 1000 bytes used, committing the largest segment is enough to go back under the threshold
+      memoryManager3.allocate(200, "col");
+      memoryGovernor.updateSegmentsToCommit();
+      assertTrue(memoryGovernor.shouldCommit(SEGMENT_1));
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_2));
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_3));
+
+      // Memory of the segment that stopped consuming is going to be released
+      memoryGovernor.stopConsuming(SEGMENT_1);
+      memoryGovernor.updateSegmentsToCommit();
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_1));
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_2));
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_3));
+
+      // 1500 bytes used with 400 bytes releasing
+      memoryManager2.allocate(300, "col");
+      memoryManager3.allocate(200, "col");
+      memoryGovernor.updateSegmentsToCommit();
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_1));
+      assertTrue(memoryGovernor.shouldCommit(SEGMENT_2));
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_3));
+
+      // 2000 bytes used after releasing the memory of the first segment, need to commit both consuming segments
+      memoryGovernor.unregister(SEGMENT_1);
+      memoryManager2.allocate(400, "col");
+      memoryManager3.allocate(500, "col");
+      memoryGovernor.updateSegmentsToCommit();
+      assertTrue(memoryGovernor.shouldCommit(SEGMENT_2));
+      assertTrue(memoryGovernor.shouldCommit(SEGMENT_3));
+    }
+  }
+
+  @Test
+  public void testOnHeapMemoryTracked()
+      throws Exception {
+    // Threshold is 900 bytes
+    RealtimeConsumptionMemoryGovernor memoryGovernor =
+        new RealtimeConsumptionMemoryGovernor(1000L, new ServerMetrics(new MetricsRegistry()));
+    AtomicLong onHeapBytes = new AtomicLong();
+    try (DirectMemoryManager memoryManager1 = new DirectMemoryManager(SEGMENT_1);
+        DirectMemoryManager memoryManager2 = new DirectMemoryManager(SEGMENT_2)) {
+      memoryGovernor.register(SEGMENT_1, memoryManager1, onHeapBytes::get);
+      memoryGovernor.register(SEGMENT_2, memoryManager2);
+      memoryManager1.allocate(300, "col");
+      memoryManager2.allocate(400, "col");
+
+      // 700 bytes used off-heap, under the threshold
+      memoryGovernor.updateSegmentsToCommit();
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_1));
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_2));
+
+      // 1000 bytes used with 300 bytes on heap, the first segment becomes the largest one
+      onHeapBytes.set(300);
+      memoryGovernor.updateSegmentsToCommit();
+      assertTrue(memoryGovernor.shouldCommit(SEGMENT_1));
+      assertFalse(memoryGovernor.shouldCommit(SEGMENT_2));
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class RealtimeConsumptionThrottlerTest {
+  private static final String TABLE_NAME_WITH_TYPE = "testTable_REALTIME";
+
+  @Test
+  public void testMaxConcurrentPartitions()
+      throws Exception {
+    RealtimeConsumptionThrottler throttler =
+        new RealtimeConsumptionThrottler(TABLE_NAME_WITH_TYPE, 2, 0, null, null);
+    assertTrue(throttler.acquire(0));
+    assertTrue(throttler.acquire(0));
+    assertFalse(throttler.acquire(10));
+    throttler.release(10);
+    assertTrue(throttler.acquire(0));
+    throttler.release(10);
+    throttler.release(10);
+  }
+
+  @Test
+  public void testServerThrottler()
+      throws Exception {
+    RealtimeConsumptionThrottler serverThrottler = new RealtimeConsumptionThrottler(1, 0);
+    RealtimeConsumptionThrottler throttler1 =
+        new RealtimeConsumptionThrottler(TABLE_NAME_WITH_TYPE, 1, 0, serverThrottler, null);
+    RealtimeConsumptionThrottler throttler2 =
+        new RealtimeConsumptionThrottler("otherTable_REALTIME", 1, 0, serverThrottler, null);
+    assertTrue(throttler1.acquire(0));
+
+    // Server level slot is taken by the first table, the table level slot should be released on failure
+    assertFalse(throttler2.acquire(10));
+    throttler1.release(10);
+    assertTrue(throttler2.acquire(0));
+    assertFalse(throttler1.acquire(10));
+    throttler2.release(10);
+    assertTrue(throttler1.acquire(0));
+    throttler1.release(10);
+  }
+
+  @Test
+  public void testThrottle() {
+    RealtimeConsumptionThrottler throttler =
+        new RealtimeConsumptionThrottler(TABLE_NAME_WITH_TYPE, 0, 1000, null, null);
+    assertEquals(throttler.throttle(0, () -> false), 0L);
+
+    // The first batch is not throttled, and the next batch has to wait for the permits used by the first batch
+    assertEquals(throttler.throttle(500, () -> false), 0L);
+    long startTimeMs = System.currentTimeMillis();
+    throttler.throttle(100, () -> false);
+    assertTrue(System.currentTimeMillis() - startTimeMs >= 400);
+
+    // No limit
+    RealtimeConsumptionThrottler unlimitedThrottler =
+        new RealtimeConsumptionThrottler(TABLE_NAME_WITH_TYPE, 0, 0, null, null);
+    assertEquals(unlimitedThrottler.throttle(1000000, () -> false), 0L);
+  }
+
+  @Test
+  public void testStopWhileThrottled() {
+    RealtimeConsumptionThrottler throttler =
+        new RealtimeConsumptionThrottler(TABLE_NAME_WITH_TYPE, 0, 10, null, null);
+    assertEquals(throttler.throttle(1000, () -> false), 0L);
+
+    // The next batch would wait for 100 seconds, but should return shortly after the consumption is stopped
+    long startTimeMs = System.currentTimeMillis();
+    throttler.throttle(10, () -> System.currentTimeMillis() - startTimeMs >= 200);
+    assertTrue(System.currentTimeMillis() - startTimeMs < 10_000);
+  }
+}
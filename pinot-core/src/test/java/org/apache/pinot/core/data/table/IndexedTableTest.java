@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -31,6 +32,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.aggregation.function.customobject.AvgPair;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
 import org.testng.Assert;
@@ -53,8 +55,12 @@ public class IndexedTableTest {
         .getQueryContextFromSQL("SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2, d3 ORDER BY SUM(m1)");
     DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "sum(m1)", "max(m2)"},
         new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE});
-    IndexedTable indexedTable = new ConcurrentIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD);
+    testConcurrent(new ConcurrentIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD));
+    testConcurrent(new PartitionedIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD, 4));
+  }
 
+  private void testConcurrent(IndexedTable indexedTable)
+      throws InterruptedException, TimeoutException, ExecutionException {
     // 3 threads upsert together
     // a inserted 6 times (60), b inserted 5 times (50), d inserted 2 times (20)
     // inserting 14 unique records
@@ -132,6 +138,13 @@ public class IndexedTableTest {
     testNonConcurrent(indexedTable, mergeTable);
     indexedTable.finish(true);
     checkSurvivors(indexedTable, survivors);
+
+    // Test PartitionedIndexedTable (use higher trim threshold so that no partition is trimmed before finish)
+    indexedTable = new PartitionedIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD * 2, 2);
+    mergeTable = new SimpleIndexedTable(dataSchema, queryContext, 10, TRIM_THRESHOLD);
+    testNonConcurrent(indexedTable, mergeTable);
+    indexedTable.finish(true);
+    checkSurvivors(indexedTable, survivors);
   }
 
   @DataProvider(name = "initDataProvider")
@@ -247,6 +260,145 @@ public class IndexedTableTest {
 
     indexedTable = new ConcurrentIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD);
     testNoMoreNewRecordsInTable(indexedTable);
+
+    indexedTable = new PartitionedIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD, 4);
+    testNoMoreNewRecordsInTable(indexedTable);
+  }
+
+  @Test
+  public void testPartitionedIndexedTableMaxNumPartitions() {
+    // Total size of all the partitions (2 * trim size each) should not exceed the trim threshold
+    Assert.assertEquals(PartitionedIndexedTable.getMaxNumPartitions(5000, 1_000_000), 64);
+    Assert.assertEquals(PartitionedIndexedTable.getMaxNumPartitions(5000, 20_000), 2);
+    Assert.assertEquals(PartitionedIndexedTable.getMaxNumPartitions(5000, 19_999), 1);
+    // Trim size is bound by trim threshold / 2
+    Assert.assertEquals(PartitionedIndexedTable.getMaxNumPartitions(5000, 10_000), 1);
+    Assert.assertEquals(PartitionedIndexedTable.getMaxNumPartitions(5000, 1), 1);
+  }
+
+  @Test
+  public void testPartitionedIndexedTableBatchUpsert() {
+    QueryContext queryContext = QueryContextConverterUtils
+        .getQueryContextFromSQL("SELECT SUM(m1) FROM testTable GROUP BY d1 ORDER BY SUM(m1) DESC LIMIT 1");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d1", "sum(m1)"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.DOUBLE});
+
+    // Trim size is 5, the 3 partitions are capped to 2 so that each partition is trimmed when reaching 10 records
+    Assert.assertEquals(PartitionedIndexedTable.getMaxNumPartitions(5, TRIM_THRESHOLD), 2);
+    IndexedTable indexedTable = new PartitionedIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD, 3);
+    int numBatches = 10;
+    int numRecordsPerBatch = 100;
+    for (int i = 0; i < numBatches; i++) {
+      List<Key> keys = new ArrayList<>(numRecordsPerBatch);
+      List<Record> records = new ArrayList<>(numRecordsPerBatch);
+      for (int j = 0; j < numRecordsPerBatch; j++) {
+        // Each batch has all the keys, where key 99 has the largest sum
+        keys.add(getKey(new Object[]{j}));
+        records.add(getRecord(new Object[]{j, (double) j}));
+      }
+      indexedTable.upsert(keys, records);
+    }
+    Assert.assertTrue(indexedTable.getNumResizes() > 0);
+
+    indexedTable.finish(true);
+    Assert.assertEquals(indexedTable.size(), 5);
+    Record topRecord = indexedTable.iterator().next();
+    Assert.assertEquals(topRecord.getValues()[0], 99);
+    Assert.assertEquals(topRecord.getValues()[1], 99d * numBatches);
+  }
+
+  @Test
+  public void testColumnarIndexedTable() {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(
+        "SELECT SUM(m1), COUNT(*), MIN(m2), AVG(m3) FROM testTable GROUP BY d1, d2 "
+            + "ORDER BY SUM(m1) DESC, d1, d2 LIMIT 20");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d1", "d2", "sum(m1)", "count(*)", "min(m2)", "avg(m3)"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE, ColumnDataType.LONG,
+            ColumnDataType.DOUBLE, ColumnDataType.OBJECT
+        });
+    Assert.assertTrue(ColumnarIndexedTable.isSupported(dataSchema, 2));
+
+    // Compare with SimpleIndexedTable without trimming during upsert
+    int trimSize = 100;
+    int trimThreshold = 10000;
+    IndexedTable simpleIndexedTable = new SimpleIndexedTable(dataSchema, queryContext, trimSize, trimThreshold);
+    ColumnarIndexedTable columnarIndexedTable =
+        new ColumnarIndexedTable(dataSchema, queryContext, trimSize, trimThreshold);
+    ColumnarIndexedTable mergeTable = new ColumnarIndexedTable(dataSchema, queryContext, trimSize, trimThreshold);
+    Random random = new Random();
+    int numRecords = 1000;
+    for (int i = 0; i < numRecords; i++) {
+      int d1 = random.nextInt(50);
+      double d2 = random.nextInt(4) + 0.5;
+      double m1 = random.nextInt(1000);
+      double m2 = random.nextInt(1000);
+      double m3 = random.nextInt(1000);
+      simpleIndexedTable.upsert(getRecord(new Object[]{d1, d2, m1, 1L, m2, new AvgPair(m3, 1L)}));
+      Record record = getRecord(new Object[]{d1, d2, m1, 1L, m2, new AvgPair(m3, 1L)});
+      if (i % 2 == 0) {
+        columnarIndexedTable.upsert(record);
+      } else {
+        mergeTable.upsert(record);
+      }
+    }
+    columnarIndexedTable.merge(mergeTable);
+    simpleIndexedTable.finish(true);
+    columnarIndexedTable.finish(true);
+
+    Assert.assertEquals(columnarIndexedTable.size(), simpleIndexedTable.size());
+    Iterator<Record> expectedIterator = simpleIndexedTable.iterator();
+    Iterator<Record> actualIterator = columnarIndexedTable.iterator();
+    while (expectedIterator.hasNext()) {
+      Object[] expectedValues = expectedIterator.next().getValues();
+      Object[] actualValues = actualIterator.next().getValues();
+      Assert.assertEquals(Arrays.copyOf(actualValues, 5), Arrays.copyOf(expectedValues, 5));
+      AvgPair expectedAvgPair = (AvgPair) expectedValues[5];
+      AvgPair actualAvgPair = (AvgPair) actualValues[5];
+      Assert.assertEquals(actualAvgPair.getSum(), expectedAvgPair.getSum());
+      Assert.assertEquals(actualAvgPair.getCount(), expectedAvgPair.getCount());
+    }
+    Assert.assertFalse(actualIterator.hasNext());
+  }
+
+  @Test
+  public void testColumnarIndexedTableTrim() {
+    QueryContext queryContext = QueryContextConverterUtils
+        .getQueryContextFromSQL("SELECT SUM(m1) FROM testTable GROUP BY d1 ORDER BY SUM(m1) DESC LIMIT 1");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d1", "sum(m1)"}, new ColumnDataType[]{ColumnDataType.LONG, ColumnDataType.DOUBLE});
+
+    // Trimmed to 5 records when reaching 20 records
+    IndexedTable indexedTable = new ColumnarIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD);
+    for (int i = 0; i < 3; i++) {
+      for (long j = 0; j < 100; j++) {
+        indexedTable.upsert(getRecord(new Object[]{j, (double) j}));
+        Assert.assertTrue(indexedTable.size() <= TRIM_THRESHOLD);
+      }
+    }
+    Assert.assertTrue(indexedTable.getNumResizes() > 0);
+
+    indexedTable.finish(true);
+    Assert.assertEquals(indexedTable.size(), 5);
+    Iterator<Record> iterator = indexedTable.iterator();
+    for (long expectedKey = 99; expectedKey >= 95; expectedKey--) {
+      Object[] values = iterator.next().getValues();
+      Assert.assertEquals(values[0], expectedKey);
+      Assert.assertEquals(values[1], 3d * expectedKey);
+    }
+
+    // Without order by, no more new records are accepted after reaching the trim size
+    queryContext =
+        QueryContextConverterUtils.getQueryContextFromSQL("SELECT SUM(m1) FROM testTable GROUP BY d1 LIMIT 5");
+    indexedTable = new ColumnarIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD);
+    for (long j = 0; j < 10; j++) {
+      indexedTable.upsert(getRecord(new Object[]{j, (double) j}));
+    }
+    indexedTable.upsert(getRecord(new Object[]{0L, 10d}));
+    indexedTable.finish(false);
+    Assert.assertEquals(indexedTable.size(), 5);
+    iterator = indexedTable.iterator();
+    Assert.assertEquals(iterator.next().getValues(), new Object[]{0L, 10d});
   }
 
   private void testNoMoreNewRecordsInTable(IndexedTable indexedTable) {
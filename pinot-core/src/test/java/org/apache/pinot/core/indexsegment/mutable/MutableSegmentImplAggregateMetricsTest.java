@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.indexsegment.mutable;
 
+import com.clearspring.analytics.stream.cardinality.HyperLogLog;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,6 +27,8 @@ import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.RandomStringUtils;
+import org.apache.pinot.common.utils.CommonConstants;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
 import org.apache.pinot.spi.data.DimensionFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.MetricFieldSpec;
@@ -44,6 +47,8 @@ public class MutableSegmentImplAggregateMetricsTest {
   private static final String DIMENSION_2 = "dim2";
   private static final String METRIC = "metric";
   private static final String METRIC_2 = "metric2";
+  private static final String COUNT_METRIC = "countMetric";
+  private static final String HLL_METRIC = "hllMetric";
   private static final String TIME_COLUMN1 = "time1";
   private static final String TIME_COLUMN2 = "time2";
   private static final String KEY_SEPARATOR = "\t\t";
@@ -141,6 +146,80 @@ public class MutableSegmentImplAggregateMetricsTest {
     }
   }
 
+  @Test
+  public void testAggregateMetricsWithAggregators() {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testSchema")
+        .addSingleValueDimension(DIMENSION_1, FieldSpec.DataType.INT)
+        .addSingleValueDimension(DIMENSION_2, FieldSpec.DataType.STRING).addMetric(METRIC, FieldSpec.DataType.LONG)
+        .addMetric(METRIC_2, FieldSpec.DataType.FLOAT).addMetric(COUNT_METRIC, FieldSpec.DataType.LONG)
+        .addMetric(HLL_METRIC, FieldSpec.DataType.BYTES)
+        .addDateTime(TIME_COLUMN1, FieldSpec.DataType.INT, "1:DAYS:EPOCH", "1:DAYS").build();
+    Map<String, String> metricsAggregators = new HashMap<>();
+    metricsAggregators.put(METRIC, "MAX");
+    metricsAggregators.put(METRIC_2, "MIN");
+    metricsAggregators.put(COUNT_METRIC, "COUNT");
+    metricsAggregators.put(HLL_METRIC, "DISTINCTCOUNTHLL");
+    MutableSegmentImpl mutableSegmentImpl = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, new HashSet<>(Arrays.asList(METRIC, METRIC_2, COUNT_METRIC, HLL_METRIC)),
+            Collections.singleton(DIMENSION_2), new HashSet<>(Arrays.asList(DIMENSION_1, DIMENSION_2, TIME_COLUMN1)),
+            metricsAggregators);
+
+    Map<String, Long> expectedMaxValues = new HashMap<>();
+    Map<String, Float> expectedMinValues = new HashMap<>();
+    Map<String, Long> expectedCounts = new HashMap<>();
+    Map<String, HyperLogLog> expectedHyperLogLogs = new HashMap<>();
+    StreamMessageMetadata defaultMetadata = new StreamMessageMetadata(System.currentTimeMillis());
+    Random random = new Random();
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(DIMENSION_1, random.nextInt(10));
+      row.putValue(DIMENSION_2, Integer.toString(random.nextInt(10)));
+      row.putValue(TIME_COLUMN1, random.nextInt(5));
+      long metricValue = random.nextLong();
+      row.putValue(METRIC, metricValue);
+      float metricValueFloat = random.nextFloat();
+      row.putValue(METRIC_2, metricValueFloat);
+      // The value of the COUNT metric should be ignored
+      row.putValue(COUNT_METRIC, 100L);
+      int distinctValue = random.nextInt(100);
+      HyperLogLog hyperLogLog = new HyperLogLog(CommonConstants.Helix.DEFAULT_HYPERLOGLOG_LOG2M);
+      hyperLogLog.offer(distinctValue);
+      row.putValue(HLL_METRIC, ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.serialize(hyperLogLog));
+
+      mutableSegmentImpl.index(row, defaultMetadata);
+
+      String key = row.getValue(DIMENSION_1) + KEY_SEPARATOR + row.getValue(DIMENSION_2) + KEY_SEPARATOR + row
+          .getValue(TIME_COLUMN1);
+      expectedMaxValues.merge(key, metricValue, Math::max);
+      expectedMinValues.merge(key, metricValueFloat, Math::min);
+      expectedCounts.merge(key, 1L, Long::sum);
+      expectedHyperLogLogs.computeIfAbsent(key, k -> new HyperLogLog(CommonConstants.Helix.DEFAULT_HYPERLOGLOG_LOG2M))
+          .offer(distinctValue);
+    }
+
+    int numDocsIndexed = mutableSegmentImpl.getNumDocsIndexed();
+    Assert.assertEquals(numDocsIndexed, expectedCounts.size());
+    Assert.assertTrue(numDocsIndexed < NUM_ROWS);
+
+    // The aggregated sketches are only visible after being published
+    mutableSegmentImpl.publishAggregatedMetrics();
+    Assert.assertTrue(mutableSegmentImpl.getEstimatedOnHeapBytes() > 0);
+
+    GenericRow reuse = new GenericRow();
+    for (int docId = 0; docId < numDocsIndexed; docId++) {
+      GenericRow row = mutableSegmentImpl.getRecord(docId, reuse);
+      String key = row.getValue(DIMENSION_1) + KEY_SEPARATOR + row.getValue(DIMENSION_2) + KEY_SEPARATOR + row
+          .getValue(TIME_COLUMN1);
+      Assert.assertEquals(row.getValue(METRIC), expectedMaxValues.get(key));
+      Assert.assertEquals(row.getValue(METRIC_2), expectedMinValues.get(key));
+      Assert.assertEquals(row.getValue(COUNT_METRIC), expectedCounts.get(key));
+      // Merging HyperLogLogs is equivalent to offering all the values to a single HyperLogLog
+      HyperLogLog hyperLogLog = ObjectSerDeUtils.HYPER_LOG_LOG_SER_DE.deserialize((byte[]) row.getValue(HLL_METRIC));
+      Assert.assertEquals(hyperLogLog.cardinality(), expectedHyperLogLogs.get(key).cardinality());
+    }
+    mutableSegmentImpl.destroy();
+  }
+
   private String buildKey(GenericRow row) {
     return row.getValue(DIMENSION_1) + KEY_SEPARATOR + row.getValue(DIMENSION_2) + KEY_SEPARATOR + row
         .getValue(TIME_COLUMN1) + KEY_SEPARATOR + row.getValue(TIME_COLUMN2);
@@ -0,0 +1,299 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.indexsegment.mutable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.TextIndexReader;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.StreamMessageMetadata;
+import org.apache.pinot.util.TestUtils;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+/**
+ * Tests that indexing rows in batches produces the same segment as indexing the rows one by one.
+ */
+@SuppressWarnings("rawtypes")
+public class MutableSegmentImplBatchIndexTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "MutableSegmentImplBatchIndexTest");
+  private static final String INT_COLUMN = "intColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String BYTES_COLUMN = "bytesColumn";
+  private static final String RAW_LONG_COLUMN = "rawLongColumn";
+  private static final String TEXT_COLUMN = "textColumn";
+  private static final String MV_INT_COLUMN = "mvIntColumn";
+  private static final String MV_STRING_COLUMN = "mvStringColumn";
+  private static final Set<String> NO_DICTIONARY_COLUMNS = new HashSet<>(Arrays.asList(RAW_LONG_COLUMN, TEXT_COLUMN));
+  private static final Set<String> INVERTED_INDEX_COLUMNS =
+      new HashSet<>(Arrays.asList(INT_COLUMN, STRING_COLUMN, BYTES_COLUMN, MV_INT_COLUMN, MV_STRING_COLUMN));
+  private static final int NUM_TEXT_TOKENS = 20;
+  private static final int NUM_ROWS = 10000;
+  private static final int MAX_BATCH_SIZE = 200;
+  private static final Random RANDOM = new Random();
+
+  private final Schema _schema = new Schema.SchemaBuilder().setSchemaName("testSchema")
+      .addSingleValueDimension(INT_COLUMN, FieldSpec.DataType.INT)
+      .addSingleValueDimension(STRING_COLUMN, FieldSpec.DataType.STRING)
+      .addSingleValueDimension(BYTES_COLUMN, FieldSpec.DataType.BYTES)
+      .addSingleValueDimension(TEXT_COLUMN, FieldSpec.DataType.STRING)
+      .addMetric(RAW_LONG_COLUMN, FieldSpec.DataType.LONG)
+      .addMultiValueDimension(MV_INT_COLUMN, FieldSpec.DataType.INT)
+      .addMultiValueDimension(MV_STRING_COLUMN, FieldSpec.DataType.STRING).build();
+
+  @BeforeClass
+  public void setUp() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    // Refresh the realtime text index readers so that the indexed documents become searchable
+    RealtimeLuceneIndexRefreshState.getInstance().start();
+  }
+
+  @DataProvider
+  public static Object[][] offHeapProvider() {
+    return new Object[][]{{false}, {true}};
+  }
+
+  @Test(dataProvider = "offHeapProvider")
+  public void testBatchIndex(boolean offHeap) {
+    File expectedConsumerDir = new File(TEMP_DIR, "expected_" + offHeap);
+    File actualConsumerDir = new File(TEMP_DIR, "actual_" + offHeap);
+    MutableSegmentImpl expectedSegment = createMutableSegment(expectedConsumerDir, offHeap);
+    MutableSegmentImpl actualSegment = createMutableSegment(actualConsumerDir, offHeap);
+
+    StreamMessageMetadata metadata = new StreamMessageMetadata(System.currentTimeMillis());
+    List<GenericRow> batch = new ArrayList<>();
+    int batchSize = 1 + RANDOM.nextInt(MAX_BATCH_SIZE);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = generateRow();
+      assertTrue(expectedSegment.index(row, metadata));
+
+      batch.add(row);
+      if (batch.size() == batchSize || i == NUM_ROWS - 1) {
+        assertTrue(actualSegment.index(batch, metadata));
+        assertEquals(actualSegment.getNumDocsIndexed(), i + 1);
+        batch.clear();
+        batchSize = 1 + RANDOM.nextInt(MAX_BATCH_SIZE);
+      }
+    }
+
+    compareSegments(expectedSegment, actualSegment, true);
+
+    expectedSegment.destroy();
+    actualSegment.destroy();
+    FileUtils.deleteQuietly(expectedConsumerDir);
+    FileUtils.deleteQuietly(actualConsumerDir);
+  }
+
+  @Test
+  public void testInvalidRowInBatch() {
+    File expectedConsumerDir = new File(TEMP_DIR, "expectedInvalid");
+    File actualConsumerDir = new File(TEMP_DIR, "actualInvalid");
+    MutableSegmentImpl expectedSegment = createMutableSegment(expectedConsumerDir, false);
+    MutableSegmentImpl actualSegment = createMutableSegment(actualConsumerDir, false);
+    assertTrue(actualSegment.isBatchIndexingSupported());
+
+    StreamMessageMetadata metadata = new StreamMessageMetadata(System.currentTimeMillis());
+    List<GenericRow> batch = new ArrayList<>();
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = generateRow();
+      assertTrue(expectedSegment.index(row, metadata));
+      batch.add(row);
+      if (batch.size() == MAX_BATCH_SIZE) {
+        // Put an invalid value for the raw column into the middle of the batch, which should fail the batch without
+        // indexing any row
+        GenericRow invalidRow = generateRow();
+        invalidRow.putValue(RAW_LONG_COLUMN, "invalid");
+        batch.add(MAX_BATCH_SIZE / 2, invalidRow);
+        try {
+          actualSegment.index(batch, metadata);
+          fail("Batch with invalid row should fail");
+        } catch (PartiallyIndexedBatchException e) {
+          fail("Batch with invalid row should fail before modifying the indexes", e);
+        } catch (IllegalArgumentException e) {
+          // Expected
+        }
+        assertEquals(actualSegment.getNumDocsIndexed(), i + 1 - MAX_BATCH_SIZE);
+
+        // Index the valid rows again
+        batch.remove(MAX_BATCH_SIZE / 2);
+        assertTrue(actualSegment.index(batch, metadata));
+        assertEquals(actualSegment.getNumDocsIndexed(), i + 1);
+        batch.clear();
+      }
+    }
+    assertTrue(actualSegment.index(batch, metadata));
+
+    // NOTE: The values of the failed batch are added to the dictionaries
+    compareSegments(expectedSegment, actualSegment, false);
+
+    expectedSegment.destroy();
+    actualSegment.destroy();
+    FileUtils.deleteQuietly(expectedConsumerDir);
+    FileUtils.deleteQuietly(actualConsumerDir);
+  }
+
+  private MutableSegmentImpl createMutableSegment(File consumerDir, boolean offHeap) {
+    return MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(_schema, NO_DICTIONARY_COLUMNS, Collections.emptySet(), INVERTED_INDEX_COLUMNS,
+            Collections.singleton(TEXT_COLUMN), consumerDir.getAbsolutePath(), offHeap);
+  }
+
+  private static GenericRow generateRow() {
+    GenericRow row = new GenericRow();
+    row.putValue(INT_COLUMN, RANDOM.nextInt(100));
+    row.putValue(STRING_COLUMN, "value" + RANDOM.nextInt(1000));
+    byte[] bytes = new byte[1 + RANDOM.nextInt(4)];
+    RANDOM.nextBytes(bytes);
+    row.putValue(BYTES_COLUMN, bytes);
+    row.putValue(RAW_LONG_COLUMN, RANDOM.nextLong());
+    row.putValue(TEXT_COLUMN, "token" + RANDOM.nextInt(NUM_TEXT_TOKENS) + " common");
+    int numValues = 1 + RANDOM.nextInt(5);
+    Object[] intValues = new Object[numValues];
+    Object[] stringValues = new Object[numValues];
+    for (int j = 0; j < numValues; j++) {
+      intValues[j] = RANDOM.nextInt(50);
+      stringValues[j] = "value" + RANDOM.nextInt(50);
+    }
+    row.putValue(MV_INT_COLUMN, intValues);
+    row.putValue(MV_STRING_COLUMN, stringValues);
+    return row;
+  }
+
+  /**
+   * Compares the values of all the documents. Dictionary ids are compared by their values so that the comparison
+   * does not depend on the order of the dictionary ids.
+   */
+  private void compareSegments(MutableSegmentImpl expectedSegment, MutableSegmentImpl actualSegment,
+      boolean sameDictionaries) {
+    assertEquals(actualSegment.getNumDocsIndexed(), NUM_ROWS);
+    for (String column : _schema.getPhysicalColumnNames()) {
+      DataSource expectedDataSource = expectedSegment.getDataSource(column);
+      DataSource actualDataSource = actualSegment.getDataSource(column);
+      assertEquals(actualDataSource.getDataSourceMetadata().getNumDocs(), NUM_ROWS);
+      assertEquals(actualDataSource.getDataSourceMetadata().getNumValues(),
+          expectedDataSource.getDataSourceMetadata().getNumValues());
+      assertEquals(actualDataSource.getDataSourceMetadata().getMaxNumValuesPerMVEntry(),
+          expectedDataSource.getDataSourceMetadata().getMaxNumValuesPerMVEntry());
+      if (sameDictionaries || expectedDataSource.getDictionary() == null) {
+        assertEquals(actualDataSource.getDataSourceMetadata().getMinValue(),
+            expectedDataSource.getDataSourceMetadata().getMinValue());
+        assertEquals(actualDataSource.getDataSourceMetadata().getMaxValue(),
+            expectedDataSource.getDataSourceMetadata().getMaxValue());
+      }
+
+      ForwardIndexReader expectedForwardIndex = expectedDataSource.getForwardIndex();
+      ForwardIndexReader actualForwardIndex = actualDataSource.getForwardIndex();
+      if (column.equals(RAW_LONG_COLUMN)) {
+        for (int docId = 0; docId < NUM_ROWS; docId++) {
+          assertEquals(actualForwardIndex.getLong(docId, null), expectedForwardIndex.getLong(docId, null));
+        }
+        continue;
+      }
+      if (column.equals(TEXT_COLUMN)) {
+        for (int docId = 0; docId < NUM_ROWS; docId++) {
+          assertEquals(actualForwardIndex.getString(docId, null), expectedForwardIndex.getString(docId, null));
+        }
+        compareTextIndexes(expectedDataSource.getTextIndex(), actualDataSource.getTextIndex());
+        continue;
+      }
+
+      Dictionary expectedDictionary = expectedDataSource.getDictionary();
+      Dictionary actualDictionary = actualDataSource.getDictionary();
+      if (sameDictionaries) {
+        // Dictionary ids are assigned in the same order for both segments
+        assertEquals(actualDictionary.length(), expectedDictionary.length());
+        for (int dictId = 0; dictId < expectedDictionary.length(); dictId++) {
+          assertEquals(actualDictionary.get(dictId), expectedDictionary.get(dictId));
+        }
+      }
+      InvertedIndexReader expectedInvertedIndex = expectedDataSource.getInvertedIndex();
+      InvertedIndexReader actualInvertedIndex = actualDataSource.getInvertedIndex();
+      if (column.equals(MV_INT_COLUMN) || column.equals(MV_STRING_COLUMN)) {
+        int[] expectedDictIds = new int[5];
+        int[] actualDictIds = new int[5];
+        for (int docId = 0; docId < NUM_ROWS; docId++) {
+          int expectedLength = expectedForwardIndex.getDictIdMV(docId, expectedDictIds, null);
+          int actualLength = actualForwardIndex.getDictIdMV(docId, actualDictIds, null);
+          assertEquals(actualLength, expectedLength);
+          for (int i = 0; i < expectedLength; i++) {
+            assertEquals(actualDictionary.get(actualDictIds[i]), expectedDictionary.get(expectedDictIds[i]));
+            assertTrue(((MutableRoaringBitmap) actualInvertedIndex.getDocIds(actualDictIds[i])).contains(docId));
+          }
+        }
+      } else {
+        for (int docId = 0; docId < NUM_ROWS; docId++) {
+          int expectedDictId = expectedForwardIndex.getDictId(docId, null);
+          int actualDictId = actualForwardIndex.getDictId(docId, null);
+          assertEquals(actualDictionary.get(actualDictId), expectedDictionary.get(expectedDictId));
+          assertTrue(((MutableRoaringBitmap) actualInvertedIndex.getDocIds(actualDictId)).contains(docId));
+        }
+      }
+
+      // Each document should be added to the inverted index exactly once per value
+      long expectedNumEntries = 0;
+      for (int dictId = 0; dictId < expectedDictionary.length(); dictId++) {
+        expectedNumEntries += ((MutableRoaringBitmap) expectedInvertedIndex.getDocIds(dictId)).getCardinality();
+      }
+      long actualNumEntries = 0;
+      for (int dictId = 0; dictId < actualDictionary.length(); dictId++) {
+        actualNumEntries += ((MutableRoaringBitmap) actualInvertedIndex.getDocIds(dictId)).getCardinality();
+      }
+      assertEquals(actualNumEntries, expectedNumEntries);
+    }
+  }
+
+  private static void compareTextIndexes(TextIndexReader expectedTextIndex, TextIndexReader actualTextIndex) {
+    // Wait for the text indexes to be refreshed
+    TestUtils.waitForCondition(aVoid -> expectedTextIndex.getDocIds("common").getCardinality() == NUM_ROWS
+        && actualTextIndex.getDocIds("common").getCardinality() == NUM_ROWS, 10_000L,
+        "Failed to refresh the text indexes");
+    for (int i = 0; i < NUM_TEXT_TOKENS; i++) {
+      String searchQuery = "token" + i;
+      assertEquals(actualTextIndex.getDocIds(searchQuery), expectedTextIndex.getDocIds(searchQuery));
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    RealtimeLuceneIndexRefreshState.getInstance().stop();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
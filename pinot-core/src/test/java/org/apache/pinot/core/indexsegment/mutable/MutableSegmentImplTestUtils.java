@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.core.indexsegment.mutable;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.core.io.writer.impl.DirectMemoryManager;
@@ -57,6 +59,39 @@ public class MutableSegmentImplTestUtils {
       Set<String> varLengthDictionaryColumns, Set<String> invertedIndexColumns, boolean aggregateMetrics,
       boolean nullHandlingEnabled, UpsertConfig upsertConfig, String timeColumnName,
       PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
+    return createMutableSegmentImpl(schema, noDictionaryColumns, varLengthDictionaryColumns, invertedIndexColumns,
+        aggregateMetrics, Collections.emptyMap(), nullHandlingEnabled, upsertConfig, timeColumnName,
+        partitionUpsertMetadataManager);
+  }
+
+  public static MutableSegmentImpl createMutableSegmentImpl(Schema schema, Set<String> noDictionaryColumns,
+      Set<String> varLengthDictionaryColumns, Set<String> invertedIndexColumns,
+      Map<String, String> metricsAggregators) {
+    return createMutableSegmentImpl(schema, noDictionaryColumns, varLengthDictionaryColumns, invertedIndexColumns,
+        true, metricsAggregators, false, null, null, null);
+  }
+
+  public static MutableSegmentImpl createMutableSegmentImpl(Schema schema, Set<String> noDictionaryColumns,
+      Set<String> varLengthDictionaryColumns, Set<String> invertedIndexColumns, Set<String> textIndexColumns,
+      String consumerDir, boolean offHeap) {
+    return createMutableSegmentImpl(schema, noDictionaryColumns, varLengthDictionaryColumns, invertedIndexColumns,
+        textIndexColumns, consumerDir, offHeap, false, Collections.emptyMap(), false, null, null, null);
+  }
+
+  private static MutableSegmentImpl createMutableSegmentImpl(Schema schema, Set<String> noDictionaryColumns,
+      Set<String> varLengthDictionaryColumns, Set<String> invertedIndexColumns, boolean aggregateMetrics,
+      Map<String, String> metricsAggregators, boolean nullHandlingEnabled, UpsertConfig upsertConfig,
+      String timeColumnName, PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
+    return createMutableSegmentImpl(schema, noDictionaryColumns, varLengthDictionaryColumns, invertedIndexColumns,
+        Collections.emptySet(), null, false, aggregateMetrics, metricsAggregators, nullHandlingEnabled, upsertConfig,
+        timeColumnName, partitionUpsertMetadataManager);
+  }
+
+  private static MutableSegmentImpl createMutableSegmentImpl(Schema schema, Set<String> noDictionaryColumns,
+      Set<String> varLengthDictionaryColumns, Set<String> invertedIndexColumns, Set<String> textIndexColumns,
+      String consumerDir, boolean offHeap, boolean aggregateMetrics, Map<String, String> metricsAggregators,
+      boolean nullHandlingEnabled, UpsertConfig upsertConfig, String timeColumnName,
+      PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
     RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
     when(statsHistory.getEstimatedCardinality(anyString())).thenReturn(200);
     when(statsHistory.getEstimatedAvgColSize(anyString())).thenReturn(32);
@@ -67,9 +102,11 @@ public class MutableSegmentImplTestUtils {
             .setStreamName(STEAM_NAME).setSchema(schema).setTimeColumnName(timeColumnName).setCapacity(100000)
             .setAvgNumMultiValues(2).setNoDictionaryColumns(noDictionaryColumns)
             .setVarLengthDictionaryColumns(varLengthDictionaryColumns).setInvertedIndexColumns(invertedIndexColumns)
+            .setTextIndexColumns(textIndexColumns).setConsumerDir(consumerDir).setOffHeap(offHeap)
             .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
             .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME)).setStatsHistory(statsHistory)
-            .setAggregateMetrics(aggregateMetrics).setNullHandlingEnabled(nullHandlingEnabled).setUpsertMode(upsertMode)
+            .setAggregateMetrics(aggregateMetrics).setMetricsAggregators(metricsAggregators)
+            .setNullHandlingEnabled(nullHandlingEnabled).setUpsertMode(upsertMode)
             .setPartitionUpsertMetadataManager(partitionUpsertMetadataManager).build();
     return new MutableSegmentImpl(realtimeSegmentConfig, null);
   }
@@ -18,16 +18,21 @@
  */
 package org.apache.pinot.core.indexsegment.mutable;
 
+import com.yammer.metrics.core.MetricsRegistry;
 import java.io.File;
 import java.net.URL;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.data.recordtransformer.CompositeTransformer;
+import org.apache.pinot.core.upsert.PartialUpsertHandler;
 import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager;
 import org.apache.pinot.core.upsert.TableUpsertMetadataManager;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.config.table.UpsertConfig;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.FileFormat;
 import org.apache.pinot.spi.data.readers.GenericRow;
@@ -87,4 +92,59 @@ public class MutableSegmentImplUpsertTest {
     Assert.assertTrue(bitmap.contains(2));
     Assert.assertFalse(bitmap.contains(3));
   }
+
+  @Test
+  public void testPartialUpsertIngestion() {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension("event_id", FieldSpec.DataType.STRING)
+        .addSingleValueDimension("description", FieldSpec.DataType.STRING)
+        .addMultiValueDimension("tags", FieldSpec.DataType.STRING).addMetric("count", FieldSpec.DataType.INT)
+        .addDateTime("secondsSinceEpoch", FieldSpec.DataType.LONG, "1:SECONDS:EPOCH", "1:SECONDS")
+        .setPrimaryKeyColumns(Collections.singletonList("event_id")).build();
+    Map<String, UpsertConfig.Strategy> strategies = new HashMap<>();
+    strategies.put("description", UpsertConfig.Strategy.IGNORE_NULL);
+    strategies.put("tags", UpsertConfig.Strategy.UNION);
+    strategies.put("count", UpsertConfig.Strategy.INCREMENT);
+    UpsertConfig upsertConfig = new UpsertConfig(UpsertConfig.Mode.PARTIAL, null, strategies);
+    PartitionUpsertMetadataManager partitionUpsertMetadataManager =
+        new TableUpsertMetadataManager("testTable_REALTIME", new ServerMetrics(new MetricsRegistry()),
+            upsertConfig.getMetadataStoreType(), new PartialUpsertHandler(strategies)).getOrCreatePartitionManager(0);
+    MutableSegmentImpl mutableSegment = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, Collections.emptySet(), Collections.emptySet(), Collections.emptySet(),
+            false, true, upsertConfig, "secondsSinceEpoch", partitionUpsertMetadataManager);
+
+    mutableSegment.index(getRow("aa", "first", new Object[]{"x"}, 1, 1567205394L), null);
+    mutableSegment.index(getRow("bb", "first", new Object[]{"y"}, 1, 1567205396L), null);
+    mutableSegment.index(getRow("aa", null, new Object[]{"x", "z"}, 2, 1567205397L), null);
+    // Late arrival is not merged
+    mutableSegment.index(getRow("bb", "late arrival", new Object[]{"z"}, 5, 1567205392L), null);
+
+    ImmutableRoaringBitmap bitmap = mutableSegment.getValidDocIndex().getValidDocBitmap();
+    Assert.assertFalse(bitmap.contains(0));
+    Assert.assertTrue(bitmap.contains(1));
+    Assert.assertTrue(bitmap.contains(2));
+    Assert.assertFalse(bitmap.contains(3));
+
+    GenericRow mergedRow = mutableSegment.getRecord(2, new GenericRow());
+    Assert.assertEquals(mergedRow.getValue("description"), "first");
+    Assert.assertEquals((Object[]) mergedRow.getValue("tags"), new Object[]{"x", "z"});
+    Assert.assertEquals(mergedRow.getValue("count"), 3);
+    GenericRow lateRow = mutableSegment.getRecord(3, new GenericRow());
+    Assert.assertEquals(lateRow.getValue("description"), "late arrival");
+    Assert.assertEquals(lateRow.getValue("count"), 5);
+  }
+
+  private static GenericRow getRow(String eventId, String description, Object[] tags, int count, long timestamp) {
+    GenericRow row = new GenericRow();
+    row.putValue("event_id", eventId);
+    if (description != null) {
+      row.putValue("description", description);
+    } else {
+      row.putDefaultNullValue("description", "null");
+    }
+    row.putValue("tags", tags);
+    row.putValue("count", count);
+    row.putValue("secondsSinceEpoch", timestamp);
+    return row;
+  }
 }
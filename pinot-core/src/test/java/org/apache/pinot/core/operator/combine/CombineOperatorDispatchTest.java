@@ -0,0 +1,271 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.combine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.exception.EarlyTerminationException;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests the dispatching of the operators (segments) to the combine threads through the shared cursor, where there are
+ * more operators than threads. Each operator should be processed at most once, and exactly once unless the query
+ * early-terminates because of an exception or the query timeout.
+ */
+@SuppressWarnings("rawtypes")
+public class CombineOperatorDispatchTest {
+  private static final int NUM_THREADS = CombineOperatorUtils.MAX_NUM_THREADS_PER_QUERY;
+  private static final int NUM_OPERATORS = NUM_THREADS * 10;
+  private static final long TIMEOUT_MS = 10_000L;
+  private static final long SHORT_TIMEOUT_MS = 500L;
+
+  private static final QueryContext AGGREGATION_QUERY_CONTEXT =
+      QueryContextConverterUtils.getQueryContextFromPQL("SELECT COUNT(*) FROM table");
+  private static final QueryContext GROUP_BY_QUERY_CONTEXT =
+      QueryContextConverterUtils.getQueryContextFromPQL("SELECT COUNT(*) FROM table GROUP BY column");
+  private static final DataSchema GROUP_BY_DATA_SCHEMA = new DataSchema(new String[]{"column", "count(*)"},
+      new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.LONG});
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newCachedThreadPool();
+  }
+
+  @Test
+  public void testAggregationOnlyCombineOperator() {
+    List<TestOperator> operators = getAggregationOperators(-1, Integer.MAX_VALUE);
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) new AggregationOnlyCombineOperator(
+        new ArrayList<>(operators), AGGREGATION_QUERY_CONTEXT, _executorService,
+        System.currentTimeMillis() + TIMEOUT_MS).nextBlock();
+    assertNull(resultsBlock.getProcessingExceptions());
+    // Each operator contributes 1 to the count
+    assertEquals(resultsBlock.getAggregationResult().get(0), (long) NUM_OPERATORS);
+    checkProcessedExactlyOnce(operators, NUM_OPERATORS);
+    checkNumThreadsUsed(operators);
+  }
+
+  @Test
+  public void testAggregationOnlyCombineOperatorWithException() {
+    int failedOperatorIndex = NUM_OPERATORS / 2;
+    List<TestOperator> operators = getAggregationOperators(failedOperatorIndex, Integer.MAX_VALUE);
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) new AggregationOnlyCombineOperator(
+        new ArrayList<>(operators), AGGREGATION_QUERY_CONTEXT, _executorService,
+        System.currentTimeMillis() + TIMEOUT_MS).nextBlock();
+    List<ProcessingException> processingExceptions = resultsBlock.getProcessingExceptions();
+    assertNotNull(processingExceptions);
+    assertEquals(processingExceptions.size(), 1);
+    // The other operators might be skipped after the exception, but none of them should be processed more than once
+    assertEquals(operators.get(failedOperatorIndex)._numCalls.get(), 1);
+    checkProcessedExactlyOnce(operators, 0);
+    checkNumThreadsUsed(operators);
+  }
+
+  @Test
+  public void testAggregationOnlyCombineOperatorWithTimeout() {
+    // The last NUM_THREADS operators block until interrupted, so that all the threads are stuck when the query times
+    // out
+    int firstSlowOperatorIndex = NUM_OPERATORS - NUM_THREADS;
+    List<TestOperator> operators = getAggregationOperators(-1, firstSlowOperatorIndex);
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) new AggregationOnlyCombineOperator(
+        new ArrayList<>(operators), AGGREGATION_QUERY_CONTEXT, _executorService,
+        System.currentTimeMillis() + SHORT_TIMEOUT_MS).nextBlock();
+    List<ProcessingException> processingExceptions = resultsBlock.getProcessingExceptions();
+    assertNotNull(processingExceptions);
+    assertEquals(processingExceptions.size(), 1);
+    checkProcessedExactlyOnce(operators, firstSlowOperatorIndex);
+    checkNumThreadsUsed(operators);
+  }
+
+  @Test
+  public void testGroupByOrderByCombineOperator() {
+    List<TestOperator> operators = getGroupByOperators(-1, Integer.MAX_VALUE);
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) new GroupByOrderByCombineOperator(
+        new ArrayList<>(operators), GROUP_BY_QUERY_CONTEXT, _executorService, System.currentTimeMillis() + TIMEOUT_MS,
+        InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD).nextBlock();
+    assertNull(resultsBlock.getProcessingExceptions());
+    checkProcessedExactlyOnce(operators, NUM_OPERATORS);
+    checkNumThreadsUsed(operators);
+  }
+
+  @Test
+  public void testGroupByOrderByCombineOperatorWithException() {
+    // The thread processing the failed operator continues with the remaining operators
+    int failedOperatorIndex = NUM_OPERATORS / 2;
+    List<TestOperator> operators = getGroupByOperators(failedOperatorIndex, Integer.MAX_VALUE);
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) new GroupByOrderByCombineOperator(
+        new ArrayList<>(operators), GROUP_BY_QUERY_CONTEXT, _executorService, System.currentTimeMillis() + TIMEOUT_MS,
+        InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD).nextBlock();
+    List<ProcessingException> processingExceptions = resultsBlock.getProcessingExceptions();
+    assertNotNull(processingExceptions);
+    assertEquals(processingExceptions.size(), 1);
+    checkProcessedExactlyOnce(operators, NUM_OPERATORS);
+    checkNumThreadsUsed(operators);
+  }
+
+  @Test
+  public void testGroupByOrderByCombineOperatorWithTimeout() {
+    int firstSlowOperatorIndex = NUM_OPERATORS - NUM_THREADS;
+    List<TestOperator> operators = getGroupByOperators(-1, firstSlowOperatorIndex);
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) new GroupByOrderByCombineOperator(
+        new ArrayList<>(operators), GROUP_BY_QUERY_CONTEXT, _executorService,
+        System.currentTimeMillis() + SHORT_TIMEOUT_MS, InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD)
+        .nextBlock();
+    List<ProcessingException> processingExceptions = resultsBlock.getProcessingExceptions();
+    assertNotNull(processingExceptions);
+    assertEquals(processingExceptions.size(), 1);
+    checkProcessedExactlyOnce(operators, firstSlowOperatorIndex);
+    checkNumThreadsUsed(operators);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  /**
+   * Checks that the operators before the given index are processed exactly once, and the remaining operators are
+   * processed at most once. When the combine operator returns, no operator should be running.
+   */
+  private static void checkProcessedExactlyOnce(List<TestOperator> operators, int numOperatorsProcessed) {
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      TestOperator operator = operators.get(i);
+      int numCalls = operator._numCalls.get();
+      if (i < numOperatorsProcessed) {
+        assertEquals(numCalls, 1, "Operator: " + i + " should be processed exactly once");
+      } else {
+        assertTrue(numCalls <= 1, "Operator: " + i + " should be processed at most once");
+      }
+      assertFalse(operator._operationInProgress.get());
+    }
+  }
+
+  /**
+   * Checks that the operators are processed by at most {@link #NUM_THREADS} threads.
+   */
+  private static void checkNumThreadsUsed(List<TestOperator> operators) {
+    Set<String> threadNames = ConcurrentHashMap.newKeySet();
+    for (TestOperator operator : operators) {
+      if (operator._threadName != null) {
+        threadNames.add(operator._threadName);
+      }
+    }
+    assertTrue(threadNames.size() <= NUM_THREADS);
+  }
+
+  private static List<TestOperator> getAggregationOperators(int failedOperatorIndex, int firstSlowOperatorIndex) {
+    AggregationFunction[] aggregationFunctions = AGGREGATION_QUERY_CONTEXT.getAggregationFunctions();
+    List<TestOperator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      operators.add(new TestOperator(i == failedOperatorIndex, i >= firstSlowOperatorIndex,
+          () -> new IntermediateResultsBlock(aggregationFunctions, new ArrayList<>(Collections.singletonList(1L)),
+              false)));
+    }
+    return operators;
+  }
+
+  private static List<TestOperator> getGroupByOperators(int failedOperatorIndex, int firstSlowOperatorIndex) {
+    AggregationFunction[] aggregationFunctions = GROUP_BY_QUERY_CONTEXT.getAggregationFunctions();
+    List<TestOperator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      operators.add(new TestOperator(i == failedOperatorIndex, i >= firstSlowOperatorIndex,
+          () -> new IntermediateResultsBlock(aggregationFunctions, null, GROUP_BY_DATA_SCHEMA)));
+    }
+    return operators;
+  }
+
+  private interface ResultsBlockSupplier {
+    IntermediateResultsBlock get();
+  }
+
+  private static class TestOperator extends BaseOperator<IntermediateResultsBlock> {
+    final boolean _fail;
+    final boolean _slow;
+    final ResultsBlockSupplier _resultsBlockSupplier;
+    final AtomicInteger _numCalls = new AtomicInteger();
+    final AtomicBoolean _operationInProgress = new AtomicBoolean();
+    volatile String _threadName;
+
+    TestOperator(boolean fail, boolean slow, ResultsBlockSupplier resultsBlockSupplier) {
+      _fail = fail;
+      _slow = slow;
+      _resultsBlockSupplier = resultsBlockSupplier;
+    }
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      _numCalls.getAndIncrement();
+      _threadName = Thread.currentThread().getName();
+      _operationInProgress.set(true);
+      try {
+        if (_fail) {
+          throw new RuntimeException("Failed to process operator");
+        }
+        if (_slow) {
+          try {
+            Thread.sleep(3_600_000L);
+          } catch (InterruptedException e) {
+            // Thread should be interrupted for early-termination
+            throw new EarlyTerminationException();
+          }
+        }
+        return _resultsBlockSupplier.get();
+      } finally {
+        _operationInProgress.set(false);
+      }
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "TestOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(0, 0, 0, 0);
+    }
+  }
+}
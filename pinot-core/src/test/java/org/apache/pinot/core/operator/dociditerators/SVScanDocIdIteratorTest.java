@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.InPredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.InPredicate;
+import org.apache.pinot.core.query.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.realtime.impl.dictionary.IntOnHeapMutableDictionary;
+import org.apache.pinot.core.realtime.impl.forward.FixedByteSVMutableForwardIndex;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class SVScanDocIdIteratorTest {
+  private static final ExpressionContext COLUMN_EXPRESSION = ExpressionContext.forIdentifier("column");
+  private static final int NUM_DOCS = 1000;
+  private static final int MAX_VALUE = 20;
+  private static final Random RANDOM = new Random();
+
+  private final int[] _values = new int[NUM_DOCS];
+  private PinotDataBufferMemoryManager _memoryManager;
+  private IntOnHeapMutableDictionary _dictionary;
+  private FixedByteSVMutableForwardIndex _dictIdForwardIndex;
+  private FixedByteSVMutableForwardIndex _intForwardIndex;
+  private FixedByteSVMutableForwardIndex _longForwardIndex;
+  private FixedByteSVMutableForwardIndex _doubleForwardIndex;
+
+  @BeforeClass
+  public void setUp() {
+    _memoryManager = new DirectMemoryManager(SVScanDocIdIteratorTest.class.getName());
+    _dictionary = new IntOnHeapMutableDictionary();
+    _dictIdForwardIndex = new FixedByteSVMutableForwardIndex(true, DataType.INT, 100, _memoryManager, "dictId");
+    _intForwardIndex = new FixedByteSVMutableForwardIndex(false, DataType.INT, 100, _memoryManager, "int");
+    _longForwardIndex = new FixedByteSVMutableForwardIndex(false, DataType.LONG, 100, _memoryManager, "long");
+    _doubleForwardIndex = new FixedByteSVMutableForwardIndex(false, DataType.DOUBLE, 100, _memoryManager, "double");
+    for (int i = 0; i < NUM_DOCS; i++) {
+      int value = RANDOM.nextInt(MAX_VALUE);
+      _values[i] = value;
+      _dictIdForwardIndex.setDictId(i, _dictionary.index(value));
+      _intForwardIndex.setInt(i, value);
+      _longForwardIndex.setLong(i, value);
+      _doubleForwardIndex.setDouble(i, value);
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    _dictionary.close();
+    _dictIdForwardIndex.close();
+    _intForwardIndex.close();
+    _longForwardIndex.close();
+    _doubleForwardIndex.close();
+    _memoryManager.close();
+  }
+
+  @Test
+  public void testDictionaryBased() {
+    List<String> inValues = Arrays.asList("1", "5", "7", "19");
+    PredicateEvaluator inPredicateEvaluator = InPredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new InPredicate(COLUMN_EXPRESSION, inValues), _dictionary);
+    verify(inPredicateEvaluator, _dictIdForwardIndex, value -> inValues.contains(Integer.toString(value)));
+
+    PredicateEvaluator eqPredicateEvaluator = EqualsPredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "3"), _dictionary);
+    verify(eqPredicateEvaluator, _dictIdForwardIndex, value -> value == 3);
+
+    PredicateEvaluator rangePredicateEvaluator = RangePredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, "(5\0" + "12]"), _dictionary,
+            DataType.INT);
+    verify(rangePredicateEvaluator, _dictIdForwardIndex, value -> value > 5 && value <= 12);
+  }
+
+  @Test
+  public void testRawValueBased() {
+    PredicateEvaluator intRangePredicateEvaluator = RangePredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, "(5\0" + "12)"), DataType.INT);
+    verify(intRangePredicateEvaluator, _intForwardIndex, value -> value > 5 && value < 12);
+
+    PredicateEvaluator intUnboundedPredicateEvaluator = RangePredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, "[10\0*)"), DataType.INT);
+    verify(intUnboundedPredicateEvaluator, _intForwardIndex, value -> value >= 10);
+
+    PredicateEvaluator intEmptyRangePredicateEvaluator = RangePredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, "(" + Integer.MAX_VALUE + "\0*)"),
+            DataType.INT);
+    verify(intEmptyRangePredicateEvaluator, _intForwardIndex, value -> false);
+
+    PredicateEvaluator longRangePredicateEvaluator = RangePredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, "[3\0" + "3]"), DataType.LONG);
+    verify(longRangePredicateEvaluator, _longForwardIndex, value -> value == 3);
+
+    PredicateEvaluator longEqPredicateEvaluator = EqualsPredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "7"), DataType.LONG);
+    verify(longEqPredicateEvaluator, _longForwardIndex, value -> value == 7);
+
+    PredicateEvaluator doubleRangePredicateEvaluator = RangePredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, "(*\0" + "4.5]"), DataType.DOUBLE);
+    verify(doubleRangePredicateEvaluator, _doubleForwardIndex, value -> value <= 4.5);
+  }
+
+  private void verify(PredicateEvaluator predicateEvaluator, FixedByteSVMutableForwardIndex forwardIndex,
+      IntPredicate expected) {
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (expected.test(_values[i])) {
+        expectedDocIds.add(i);
+      }
+    }
+
+    // Iterate over all the documents
+    SVScanDocIdIterator docIdIterator = new SVScanDocIdIterator(predicateEvaluator, forwardIndex, NUM_DOCS);
+    List<Integer> actualDocIds = new ArrayList<>();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      actualDocIds.add(docId);
+    }
+    assertEquals(actualDocIds, expectedDocIds);
+    assertEquals(docIdIterator.getNumEntriesScanned(), NUM_DOCS);
+
+    // Advance to random target document ids, where only the documents from the target to the returned document should
+    // be counted as scanned
+    docIdIterator = new SVScanDocIdIterator(predicateEvaluator, forwardIndex, NUM_DOCS);
+    long expectedNumEntriesScanned = 0;
+    int targetDocId = 0;
+    while (targetDocId < NUM_DOCS) {
+      int expectedDocId = Constants.EOF;
+      for (int expectedMatch : expectedDocIds) {
+        if (expectedMatch >= targetDocId) {
+          expectedDocId = expectedMatch;
+          break;
+        }
+      }
+      docId = docIdIterator.advance(targetDocId);
+      assertEquals(docId, expectedDocId);
+      if (docId == Constants.EOF) {
+        expectedNumEntriesScanned += NUM_DOCS - targetDocId;
+        break;
+      }
+      expectedNumEntriesScanned += docId - targetDocId + 1;
+      // Mix the advances with next() calls
+      if (RANDOM.nextBoolean()) {
+        int nextDocId = docIdIterator.next();
+        int expectedNextDocId = Constants.EOF;
+        for (int expectedMatch : expectedDocIds) {
+          if (expectedMatch > docId) {
+            expectedNextDocId = expectedMatch;
+            break;
+          }
+        }
+        assertEquals(nextDocId, expectedNextDocId);
+        if (nextDocId == Constants.EOF) {
+          expectedNumEntriesScanned += NUM_DOCS - docId - 1;
+          break;
+        }
+        expectedNumEntriesScanned += nextDocId - docId;
+        docId = nextDocId;
+      }
+      targetDocId = docId + 1 + RANDOM.nextInt(2 * SVScanDocIdIterator.BLOCK_SIZE);
+    }
+    assertEquals(docIdIterator.getNumEntriesScanned(), expectedNumEntriesScanned);
+
+    // Apply AND with random document ids
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (RANDOM.nextBoolean()) {
+        docIds.add(i);
+      }
+    }
+    docIdIterator = new SVScanDocIdIterator(predicateEvaluator, forwardIndex, NUM_DOCS);
+    MutableRoaringBitmap expectedResult = new MutableRoaringBitmap();
+    for (int expectedDocId : expectedDocIds) {
+      if (docIds.contains(expectedDocId)) {
+        expectedResult.add(expectedDocId);
+      }
+    }
+    assertEquals(docIdIterator.applyAnd(docIds), expectedResult);
+    assertEquals(docIdIterator.getNumEntriesScanned(), docIds.getCardinality());
+  }
+
+  private interface IntPredicate {
+    boolean test(int value);
+  }
+}
@@ -18,10 +18,24 @@
  */
 package org.apache.pinot.core.operator.filter;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.realtime.impl.dictionary.IntOnHeapMutableDictionary;
+import org.apache.pinot.core.segment.index.datasource.MutableDataSource;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 
@@ -92,4 +106,69 @@ public class FilterOperatorUtilsTest {
         .getOrFilterOperator(Arrays.asList(MATCH_ALL_FILTER_OPERATOR, REGULAR_FILTER_OPERATOR), NUM_DOCS, null);
     assertTrue(filterOperator instanceof MatchAllFilterOperator);
   }
+
+  @Test
+  public void testReorderScanBasedFilterOperators()
+      throws IOException {
+    ExpressionContext column = ExpressionContext.forIdentifier("column");
+    try (IntOnHeapMutableDictionary highCardinalityDictionary = new IntOnHeapMutableDictionary();
+        IntOnHeapMutableDictionary lowCardinalityDictionary = new IntOnHeapMutableDictionary()) {
+      for (int i = 0; i < 100; i++) {
+        highCardinalityDictionary.index(i);
+      }
+      lowCardinalityDictionary.index(0);
+      lowCardinalityDictionary.index(1);
+
+      // Selectivity: 0.01, cost per doc: 1
+      DataSource highCardinalitySVDataSource =
+          getDataSource(true, NUM_DOCS, null, null, highCardinalityDictionary);
+      BaseFilterOperator highCardinalitySVOperator = new ScanBasedFilterOperator(EqualsPredicateEvaluatorFactory
+          .newDictionaryBasedEvaluator(new EqPredicate(column, "5"), highCardinalityDictionary),
+          highCardinalitySVDataSource, NUM_DOCS);
+      // Selectivity: 0.01, cost per doc: 5
+      DataSource highCardinalityMVDataSource =
+          getDataSource(false, 5 * NUM_DOCS, null, null, highCardinalityDictionary);
+      BaseFilterOperator highCardinalityMVOperator = new ScanBasedFilterOperator(EqualsPredicateEvaluatorFactory
+          .newDictionaryBasedEvaluator(new EqPredicate(column, "5"), highCardinalityDictionary),
+          highCardinalityMVDataSource, NUM_DOCS);
+      // Selectivity: 0.5, cost per doc: 1
+      DataSource lowCardinalityDataSource = getDataSource(true, NUM_DOCS, null, null, lowCardinalityDictionary);
+      BaseFilterOperator lowCardinalityOperator = new ScanBasedFilterOperator(EqualsPredicateEvaluatorFactory
+          .newDictionaryBasedEvaluator(new EqPredicate(column, "1"), lowCardinalityDictionary),
+          lowCardinalityDataSource, NUM_DOCS);
+      // Selectivity: 0.1, cost per doc: 1
+      DataSource rawDataSource = getDataSource(true, NUM_DOCS, 0, 1000, null);
+      BaseFilterOperator rawRangeOperator = new ScanBasedFilterOperator(RangePredicateEvaluatorFactory
+          .newRawValueBasedEvaluator(new RangePredicate(column, "[0\0" + "100]"), DataType.INT), rawDataSource,
+          NUM_DOCS);
+      // Selectivity: 1, cost per doc: 1
+      BaseFilterOperator rawMatchAllRangeOperator = new ScanBasedFilterOperator(RangePredicateEvaluatorFactory
+          .newRawValueBasedEvaluator(new RangePredicate(column, "[-10\0" + "2000]"), DataType.INT), rawDataSource,
+          NUM_DOCS);
+
+      List<BaseFilterOperator> filterOperators = Arrays
+          .asList(rawMatchAllRangeOperator, lowCardinalityOperator, highCardinalityMVOperator,
+              rawRangeOperator, highCardinalitySVOperator);
+      List<BaseFilterOperator> reorderedFilterOperators = new ArrayList<>(filterOperators);
+      FilterOperatorUtils.reorderAndFilterChildOperators(reorderedFilterOperators, null);
+      assertEquals(reorderedFilterOperators, Arrays
+          .asList(highCardinalitySVOperator, rawRangeOperator, lowCardinalityOperator, highCardinalityMVOperator,
+              rawMatchAllRangeOperator));
+
+      // Scan-based filter operators should not be reordered when the optimization is disabled
+      reorderedFilterOperators = new ArrayList<>(filterOperators);
+      FilterOperatorUtils.reorderAndFilterChildOperators(reorderedFilterOperators,
+          Collections.singletonMap(FilterOperatorUtils.USE_SCAN_REORDER_OPTIMIZATION, "false"));
+      assertEquals(reorderedFilterOperators, Arrays
+          .asList(rawMatchAllRangeOperator, lowCardinalityOperator, highCardinalityMVOperator, rawRangeOperator,
+              highCardinalitySVOperator));
+    }
+  }
+
+  private static DataSource getDataSource(boolean isSingleValue, int numValues, Comparable minValue,
+      Comparable maxValue, IntOnHeapMutableDictionary dictionary) {
+    return new MutableDataSource(new DimensionFieldSpec("column", DataType.INT, isSingleValue), NUM_DOCS, numValues,
+        numValues / NUM_DOCS, null, null, minValue, maxValue, null, dictionary, null, null, null, null, null, null,
+        null);
+  }
 }
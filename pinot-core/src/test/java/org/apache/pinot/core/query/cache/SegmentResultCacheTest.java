@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegment;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
+import org.apache.pinot.core.segment.index.readers.ValidDocIndexReader;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SegmentResultCacheTest {
+  private static final String TABLE_NAME_WITH_TYPE = "testTable_OFFLINE";
+
+  @Test
+  public void testQueryFingerprint() {
+    String fingerprint1 = getFingerprint("SELECT COUNT(*), SUM(m1) FROM testTable WHERE d1 = 'a'");
+    String fingerprint2 = getFingerprint("SELECT COUNT(*), SUM(m1) FROM testTable WHERE d1 = 'a' OPTION(timeoutMs=100)");
+    String fingerprint3 = getFingerprint("SELECT COUNT(*), SUM(m1) FROM testTable WHERE d1 = 'b'");
+    String fingerprint4 = getFingerprint("SELECT COUNT(*), MAX(m1) FROM testTable WHERE d1 = 'a'");
+    assertEquals(fingerprint1, fingerprint2);
+    assertNotEquals(fingerprint1, fingerprint3);
+    assertNotEquals(fingerprint1, fingerprint4);
+  }
+
+  @Test
+  public void testIsCacheable() {
+    assertTrue(SegmentResultCache.isCacheable(getImmutableSegment("segment", "123")));
+    assertFalse(SegmentResultCache.isCacheable(getImmutableSegment("segment", null)));
+    assertFalse(SegmentResultCache.isCacheable(mock(MutableSegment.class)));
+
+    ImmutableSegment upsertSegment = getImmutableSegment("segment", "123");
+    when(upsertSegment.getValidDocIndex()).thenReturn(mock(ValidDocIndexReader.class));
+    assertFalse(SegmentResultCache.isCacheable(upsertSegment));
+  }
+
+  @Test
+  public void testGetAndPut() {
+    ServerMetrics serverMetrics = mock(ServerMetrics.class);
+    SegmentResultCache segmentResultCache = new SegmentResultCache(1024 * 1024, serverMetrics);
+    IndexSegment indexSegment = getImmutableSegment("segment", "123");
+    String fingerprint = getFingerprint("SELECT COUNT(*), SUM(m1) FROM testTable");
+
+    assertNull(segmentResultCache.getAggregationResult(TABLE_NAME_WITH_TYPE, indexSegment, fingerprint));
+    List<Object> aggregationResult = Arrays.asList(10L, 123.0);
+    segmentResultCache.putAggregationResult(TABLE_NAME_WITH_TYPE, indexSegment, fingerprint, aggregationResult);
+    assertEquals(segmentResultCache.getNumEntries(), 1);
+
+    // Each get should return a new copy of the result
+    List<Object> cachedResult =
+        segmentResultCache.getAggregationResult(TABLE_NAME_WITH_TYPE, indexSegment, fingerprint);
+    assertEquals(cachedResult, aggregationResult);
+    cachedResult.set(0, 20L);
+    assertEquals(segmentResultCache.getAggregationResult(TABLE_NAME_WITH_TYPE, indexSegment, fingerprint),
+        aggregationResult);
+    assertEquals(segmentResultCache.getNumHits(), 2);
+    assertEquals(segmentResultCache.getNumMisses(), 1);
+    verify(serverMetrics, times(2))
+        .addMeteredTableValue(TABLE_NAME_WITH_TYPE, ServerMeter.SEGMENT_RESULT_CACHE_HITS, 1);
+    verify(serverMetrics).addMeteredTableValue(TABLE_NAME_WITH_TYPE, ServerMeter.SEGMENT_RESULT_CACHE_MISSES, 1);
+
+    // Refreshed segment (different CRC) should not hit the cache
+    assertNull(segmentResultCache
+        .getAggregationResult(TABLE_NAME_WITH_TYPE, getImmutableSegment("segment", "456"), fingerprint));
+    // Different query should not hit the cache
+    assertNull(segmentResultCache.getAggregationResult(TABLE_NAME_WITH_TYPE, indexSegment,
+        getFingerprint("SELECT COUNT(*), SUM(m1) FROM testTable WHERE d1 = 'a'")));
+    // Segment with the same name and CRC in a different table should not hit the cache
+    assertNull(segmentResultCache.getAggregationResult("testTable_REALTIME", indexSegment, fingerprint));
+  }
+
+  private static String getFingerprint(String query) {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(query);
+    return SegmentResultCache.getAggregationQueryFingerprint(queryContext);
+  }
+
+  private static ImmutableSegment getImmutableSegment(String segmentName, String crc) {
+    ImmutableSegment indexSegment = mock(ImmutableSegment.class);
+    when(indexSegment.getSegmentName()).thenReturn(segmentName);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return indexSegment;
+  }
+}
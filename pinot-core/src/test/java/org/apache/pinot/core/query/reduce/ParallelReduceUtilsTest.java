@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+
+public class ParallelReduceUtilsTest {
+  private static final int NUM_THREADS = 4;
+  private static final long REDUCE_TIMEOUT_MS = 10_000L;
+
+  private ExecutorService _executorService;
+  private DataTableReducerContext _reducerContext;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_THREADS);
+    _reducerContext = new DataTableReducerContext(_executorService, NUM_THREADS, REDUCE_TIMEOUT_MS, 0);
+  }
+
+  @Test
+  public void testReduce()
+      throws TimeoutException {
+    // Single thread
+    List<Integer> inputs = getInputs(ParallelReduceUtils.MIN_INPUTS_PER_THREAD);
+    assertEquals(reduceSum(inputs), getExpectedSum(inputs));
+
+    // Multiple threads
+    inputs = getInputs(100);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(reduceSum(inputs), getExpectedSum(inputs));
+    }
+
+    // Null partial results should be skipped
+    Integer result = ParallelReduceUtils.reduce(inputs, _reducerContext,
+        inputGroup -> inputGroup.contains(0) ? inputGroup.size() : null, Integer::sum);
+    assertEquals(result, Integer.valueOf(100 / NUM_THREADS));
+    result = ParallelReduceUtils.reduce(inputs, _reducerContext, inputGroup -> null, Integer::sum);
+    assertNull(result);
+  }
+
+  @Test
+  public void testException()
+      throws TimeoutException {
+    try {
+      ParallelReduceUtils.reduce(getInputs(100), _reducerContext, inputGroup -> {
+        throw new IllegalStateException();
+      }, Integer::sum);
+      fail("Exception should be thrown");
+    } catch (RuntimeException e) {
+      assertEquals(e.getCause().getClass(), IllegalStateException.class);
+    }
+  }
+
+  private Integer reduceSum(List<Integer> inputs)
+      throws TimeoutException {
+    return ParallelReduceUtils.reduce(inputs, _reducerContext, inputGroup -> {
+      int sum = 0;
+      for (int input : inputGroup) {
+        sum += input;
+      }
+      return sum;
+    }, Integer::sum);
+  }
+
+  private static List<Integer> getInputs(int numInputs) {
+    List<Integer> inputs = new ArrayList<>(numInputs);
+    for (int i = 0; i < numInputs; i++) {
+      inputs.add(i);
+    }
+    return inputs;
+  }
+
+  private static Integer getExpectedSum(List<Integer> inputs) {
+    int sum = 0;
+    for (int input : inputs) {
+      sum += input;
+    }
+    return sum;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+}
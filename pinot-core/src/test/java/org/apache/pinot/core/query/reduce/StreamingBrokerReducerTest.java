@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.AggregationResult;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class StreamingBrokerReducerTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final int NUM_SERVERS = 10;
+  private static final int NUM_ROWS_PER_SERVER = 3;
+  private static final long REDUCE_TIMEOUT_MS = 10_000L;
+
+  private BrokerReduceService _brokerReduceService;
+
+  @BeforeClass
+  public void setUp() {
+    _brokerReduceService = new BrokerReduceService(new PinotConfiguration());
+  }
+
+  @Test
+  public void testAggregation()
+      throws IOException {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable");
+    DataSchema dataSchema = new DataSchema(new String[]{"count_star"}, new ColumnDataType[]{ColumnDataType.LONG});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, (long) i);
+      dataTableBuilder.finishRow();
+      putDataTable(dataTableMap, i, dataTableBuilder.build(), i);
+    }
+
+    BrokerResponseNative streamingResponse = streamingReduce(brokerRequest, dataTableMap);
+    BrokerResponseNative expectedResponse =
+        _brokerReduceService.reduceOnDataTable(brokerRequest, dataTableMap, REDUCE_TIMEOUT_MS, null);
+    List<AggregationResult> aggregationResults = streamingResponse.getAggregationResults();
+    List<AggregationResult> expectedAggregationResults = expectedResponse.getAggregationResults();
+    assertEquals(aggregationResults.size(), 1);
+    assertEquals(aggregationResults.get(0).getValue(), expectedAggregationResults.get(0).getValue());
+    assertEquals(streamingResponse.getNumDocsScanned(), expectedResponse.getNumDocsScanned());
+    assertEquals(streamingResponse.getNumDocsScanned(), NUM_SERVERS * (NUM_SERVERS - 1) / 2);
+  }
+
+  @Test
+  public void testSelection()
+      throws IOException {
+    // Selection is not a streaming reducer, the data tables should be buffered and reduced at the end
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT col FROM testTable LIMIT 100");
+    DataSchema dataSchema = new DataSchema(new String[]{"col"}, new ColumnDataType[]{ColumnDataType.STRING});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      for (int j = 0; j < NUM_ROWS_PER_SERVER; j++) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, "value" + i + "_" + j);
+        dataTableBuilder.finishRow();
+      }
+      putDataTable(dataTableMap, i, dataTableBuilder.build(), NUM_ROWS_PER_SERVER);
+    }
+    // Add an empty data table
+    putDataTable(dataTableMap, NUM_SERVERS, new DataTableBuilder(dataSchema).build(), 0);
+
+    BrokerResponseNative streamingResponse = streamingReduce(brokerRequest, dataTableMap);
+    assertEquals(streamingResponse.getSelectionResults().getRows().size(), NUM_SERVERS * NUM_ROWS_PER_SERVER);
+    assertEquals(streamingResponse.getNumDocsScanned(), NUM_SERVERS * NUM_ROWS_PER_SERVER);
+  }
+
+  @Test
+  public void testNoResponse() {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable");
+    StreamingBrokerReducer streamingReducer = _brokerReduceService.createStreamingReducer(brokerRequest);
+    BrokerResponseNative brokerResponse = streamingReducer.reduce(REDUCE_TIMEOUT_MS, null);
+    assertTrue(brokerResponse.getProcessingExceptions().isEmpty());
+    assertEquals(streamingReducer.getNumDataTablesReduced(), 0);
+
+    // Data tables arrived after reduce should be ignored
+    streamingReducer.onDataTableReceived(new ServerRoutingInstance("localhost", 1234, TableType.OFFLINE),
+        new DataTableBuilder(new DataSchema(new String[0], new ColumnDataType[0])).build());
+    assertEquals(streamingReducer.getNumDataTablesReduced(), 0);
+    assertTrue(streamingReducer.getServersReduced().isEmpty());
+  }
+
+  private static void putDataTable(Map<ServerRoutingInstance, DataTable> dataTableMap, int serverId,
+      DataTable dataTable, long numDocsScanned) {
+    dataTable.getMetadata().put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, Long.toString(numDocsScanned));
+    dataTableMap.put(new ServerRoutingInstance("localhost", 1234 + serverId, TableType.OFFLINE), dataTable);
+  }
+
+  private BrokerResponseNative streamingReduce(BrokerRequest brokerRequest,
+      Map<ServerRoutingInstance, DataTable> dataTableMap) {
+    StreamingBrokerReducer streamingReducer = _brokerReduceService.createStreamingReducer(brokerRequest);
+    for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTableMap.entrySet()) {
+      streamingReducer.onDataTableReceived(entry.getKey(), entry.getValue());
+    }
+    BrokerResponseNative brokerResponse = streamingReducer.reduce(REDUCE_TIMEOUT_MS, null);
+    assertEquals(streamingReducer.getNumDataTablesReduced(), dataTableMap.size());
+    assertEquals(streamingReducer.getServersReduced(), dataTableMap.keySet());
+    return brokerResponse;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _brokerReduceService.shutDown();
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class SnapshotMutableRoaringBitmapTest {
+  private static final Random RANDOM = new Random();
+
+  @Test
+  public void testSnapshot() {
+    SnapshotMutableRoaringBitmap bitmap = new SnapshotMutableRoaringBitmap();
+    ImmutableRoaringBitmap emptySnapshot = bitmap.getSnapshot();
+    assertTrue(emptySnapshot.isEmpty());
+    assertTrue(bitmap.isEmpty());
+
+    // Doc ids across 3 containers
+    bitmap.add(1);
+    bitmap.add(new int[]{70000, 70001, 140000}, 0, 3);
+    // Modifications should not be visible before being published
+    assertSame(bitmap.getSnapshot(), emptySnapshot);
+    bitmap.publishSnapshot();
+    ImmutableRoaringBitmap snapshot1 = bitmap.getSnapshot();
+    assertEquals(snapshot1.toArray(), new int[]{1, 70000, 70001, 140000});
+    assertTrue(emptySnapshot.isEmpty());
+    // Snapshot should be reused when there is no modification
+    bitmap.publishSnapshot();
+    assertSame(bitmap.getSnapshot(), snapshot1);
+
+    // Modify the second container only, the published snapshot should not be affected
+    bitmap.remove(70000);
+    assertFalse(bitmap.contains(70000));
+    assertEquals(snapshot1.toArray(), new int[]{1, 70000, 70001, 140000});
+    bitmap.publishSnapshot();
+    ImmutableRoaringBitmap snapshot2 = bitmap.getSnapshot();
+    assertEquals(snapshot2.toArray(), new int[]{1, 70001, 140000});
+
+    // Remove a whole container and add a new one
+    bitmap.remove(1);
+    bitmap.add(300000);
+    bitmap.publishSnapshot();
+    ImmutableRoaringBitmap snapshot3 = bitmap.getSnapshot();
+    assertEquals(snapshot3.toArray(), new int[]{70001, 140000, 300000});
+    assertEquals(snapshot2.toArray(), new int[]{1, 70001, 140000});
+    assertEquals(snapshot1.toArray(), new int[]{1, 70000, 70001, 140000});
+    assertEquals(bitmap.getMutableRoaringBitmap().toArray(), new int[]{70001, 140000, 300000});
+  }
+
+  @Test
+  public void testConcurrentReadWrite()
+      throws Exception {
+    int numDocs = 200_000;
+    SnapshotMutableRoaringBitmap bitmap = new SnapshotMutableRoaringBitmap();
+    MutableRoaringBitmap expected = new MutableRoaringBitmap();
+    for (int i = 0; i < numDocs; i += 2) {
+      bitmap.add(i);
+      expected.add(i);
+    }
+    bitmap.publishSnapshot();
+
+    // Writer keeps moving doc ids (add then remove) and publishes the snapshot after each move, readers should always
+    // see a consistent view with the original cardinality
+    int cardinality = expected.getCardinality();
+    AtomicBoolean stopped = new AtomicBoolean();
+    AtomicReference<String> error = new AtomicReference<>();
+    Thread[] readers = new Thread[4];
+    for (int i = 0; i < readers.length; i++) {
+      readers[i] = new Thread(() -> {
+        while (!stopped.get()) {
+          ImmutableRoaringBitmap snapshot = bitmap.getSnapshot();
+          int snapshotCardinality = snapshot.getCardinality();
+          if (snapshotCardinality != cardinality || snapshot.toArray().length != snapshotCardinality) {
+            error.set("Inconsistent snapshot with cardinality: " + snapshotCardinality);
+          }
+        }
+      });
+      readers[i].start();
+    }
+    for (int i = 0; i < 100_000; i++) {
+      int docIdToRemove;
+      int docIdToAdd;
+      do {
+        docIdToRemove = RANDOM.nextInt(numDocs);
+      } while (!expected.contains(docIdToRemove));
+      do {
+        docIdToAdd = RANDOM.nextInt(numDocs);
+      } while (expected.contains(docIdToAdd));
+      expected.remove(docIdToRemove);
+      expected.add(docIdToAdd);
+      bitmap.add(docIdToAdd);
+      bitmap.remove(docIdToRemove);
+      bitmap.publishSnapshot();
+    }
+    stopped.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    assertNull(error.get());
+    assertEquals(bitmap.getSnapshot(), expected);
+  }
+
+  @Test
+  public void testSnapshotReflectsFinishedModifications()
+      throws Exception {
+    SnapshotMutableRoaringBitmap bitmap = new SnapshotMutableRoaringBitmap();
+    int numDocs = 100_000;
+    AtomicInteger lastAddedDocId = new AtomicInteger(-1);
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < numDocs; i++) {
+        bitmap.add(i);
+        bitmap.publishSnapshot();
+        lastAddedDocId.set(i);
+      }
+    });
+    writer.start();
+
+    // Snapshot should always contain the doc ids published before it is requested, even when the writer is active
+    int docId;
+    do {
+      docId = lastAddedDocId.get();
+      if (docId >= 0) {
+        ImmutableRoaringBitmap snapshot = bitmap.getSnapshot();
+        assertTrue(snapshot.contains(docId), "Snapshot is missing doc id: " + docId);
+        assertTrue(snapshot.getCardinality() > docId);
+      }
+    } while (docId < numDocs - 1);
+    writer.join();
+    assertEquals(bitmap.getSnapshot().getCardinality(), numDocs);
+  }
+}
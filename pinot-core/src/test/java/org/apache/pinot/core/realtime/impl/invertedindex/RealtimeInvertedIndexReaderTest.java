@@ -21,6 +21,7 @@ package org.apache.pinot.core.realtime.impl.invertedindex;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
@@ -103,4 +104,27 @@ public class RealtimeInvertedIndexReaderTest {
     assertFalse(docIds.contains(1));
     assertTrue(docIds.contains(2));
   }
+
+  @Test
+  public void testBulkAdd() {
+    RealtimeInvertedIndexReader realtimeInvertedIndexReader = new RealtimeInvertedIndexReader();
+
+    // Add dictionary ids for the document ids 0-4: [1, 0, 1, 3, 0] (no document for dictionary id 2)
+    realtimeInvertedIndexReader.add(new int[]{1, 0, 1, 3, 0}, new int[]{0, 1, 2, 3, 4}, 5);
+    assertEquals(realtimeInvertedIndexReader.getDocIds(0), MutableRoaringBitmap.bitmapOf(1, 4));
+    assertEquals(realtimeInvertedIndexReader.getDocIds(1), MutableRoaringBitmap.bitmapOf(0, 2));
+    assertTrue(realtimeInvertedIndexReader.getDocIds(2).isEmpty());
+    assertEquals(realtimeInvertedIndexReader.getDocIds(3), MutableRoaringBitmap.bitmapOf(3));
+    assertTrue(realtimeInvertedIndexReader.getDocIds(4).isEmpty());
+
+    // Add existing and new dictionary ids (multi-value) for the document ids 5-6: [[2, 4], [0]]
+    realtimeInvertedIndexReader.add(new int[]{2, 4, 0}, new int[]{5, 5, 6}, 3);
+    assertEquals(realtimeInvertedIndexReader.getDocIds(0), MutableRoaringBitmap.bitmapOf(1, 4, 6));
+    assertEquals(realtimeInvertedIndexReader.getDocIds(2), MutableRoaringBitmap.bitmapOf(5));
+    assertEquals(realtimeInvertedIndexReader.getDocIds(4), MutableRoaringBitmap.bitmapOf(5));
+
+    // Single document add after bulk add
+    realtimeInvertedIndexReader.add(5, 7);
+    assertEquals(realtimeInvertedIndexReader.getDocIds(5), MutableRoaringBitmap.bitmapOf(7));
+  }
 }
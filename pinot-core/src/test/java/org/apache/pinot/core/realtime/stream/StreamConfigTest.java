@@ -195,6 +195,7 @@ public class StreamConfigTest {
     Assert.assertEquals(streamConfig.getFlushThresholdTimeMillis(), StreamConfig.DEFAULT_FLUSH_THRESHOLD_TIME_MILLIS);
     Assert.assertEquals(streamConfig.getFlushThresholdSegmentSizeBytes(),
         StreamConfig.DEFAULT_FLUSH_THRESHOLD_SEGMENT_SIZE_BYTES);
+    Assert.assertEquals(streamConfig.getConsumerDecodeNumThreads(), StreamConfig.DEFAULT_CONSUMER_DECODE_NUM_THREADS);
 
     consumerType = "lowLevel,highLevel";
     String offsetCriteria = "smallest";
@@ -205,6 +206,9 @@ public class StreamConfigTest {
     String flushThresholdTime = "2h";
     String flushThresholdRows = "500";
     String flushSegmentSize = "20M";
+    String decodeNumThreads = "4";
+    String maxConcurrentPartitions = "8";
+    String maxRowsPerSecond = "10000";
     streamConfigMap
         .put(StreamConfigProperties.constructStreamProperty(streamType, StreamConfigProperties.STREAM_CONSUMER_TYPES),
             consumerType);
@@ -222,6 +226,9 @@ public class StreamConfigTest {
     streamConfigMap.put(StreamConfigProperties.SEGMENT_FLUSH_THRESHOLD_ROWS, flushThresholdRows);
     streamConfigMap.put(StreamConfigProperties.SEGMENT_FLUSH_THRESHOLD_TIME, flushThresholdTime);
     streamConfigMap.put(StreamConfigProperties.SEGMENT_FLUSH_THRESHOLD_SEGMENT_SIZE, flushSegmentSize);
+    streamConfigMap.put(StreamConfigProperties.REALTIME_CONSUMER_DECODE_NUM_THREADS, decodeNumThreads);
+    streamConfigMap.put(StreamConfigProperties.REALTIME_CONSUMER_MAX_CONCURRENT_PARTITIONS, maxConcurrentPartitions);
+    streamConfigMap.put(StreamConfigProperties.REALTIME_CONSUMER_MAX_ROWS_PER_SECOND, maxRowsPerSecond);
 
     streamConfig = new StreamConfig(tableName, streamConfigMap);
     Assert.assertEquals(streamConfig.getType(), streamType);
@@ -239,6 +246,9 @@ public class StreamConfigTest {
     Assert.assertEquals(streamConfig.getFlushThresholdTimeMillis(),
         (long) TimeUtils.convertPeriodToMillis(flushThresholdTime));
     Assert.assertEquals(streamConfig.getFlushThresholdSegmentSizeBytes(), DataSizeUtils.toBytes(flushSegmentSize));
+    Assert.assertEquals(streamConfig.getConsumerDecodeNumThreads(), Integer.parseInt(decodeNumThreads));
+    Assert.assertEquals(streamConfig.getConsumerMaxConcurrentPartitions(), Integer.parseInt(maxConcurrentPartitions));
+    Assert.assertEquals(streamConfig.getConsumerMaxRowsPerSecond(), Double.parseDouble(maxRowsPerSecond));
 
     // Backward compatibility check for flushThresholdTime
     flushThresholdTime = "18000000";
@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.geospatial.GeometryUtils;
+import org.apache.pinot.core.geospatial.serde.GeometrySerializer;
+import org.apache.pinot.core.realtime.impl.geo.MutableGeoIndex;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.geo.GeoIndexUtils;
+import org.apache.pinot.core.segment.creator.impl.geo.OnHeapGeoIndexCreator;
+import org.apache.pinot.core.segment.index.readers.GeoIndexReader;
+import org.apache.pinot.core.segment.index.readers.geo.ImmutableGeoIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class GeoIndexTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "GeoIndexTest");
+  private static final String COLUMN_NAME = "testColumn";
+  private static final int NUM_RECORDS = 10000;
+  private static final int NUM_QUERIES = 100;
+  private static final int RESOLUTION = 10;
+  private static final Random RANDOM = new Random();
+
+  private final byte[][] _values = new byte[NUM_RECORDS][];
+  private final Point[] _points = new Point[NUM_RECORDS];
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(INDEX_DIR);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      Geometry geometry;
+      if (i % 100 == 0) {
+        // Values not mapped to any cell
+        geometry = GeometryUtils.GEOGRAPHY_FACTORY.createPolygon(
+            new Coordinate[]{new Coordinate(0, 0), new Coordinate(1, 0), new Coordinate(1, 1), new Coordinate(0, 0)});
+      } else {
+        Point point = GeometryUtils.GEOGRAPHY_FACTORY
+            .createPoint(new Coordinate(RANDOM.nextDouble() * 360 - 180, RANDOM.nextDouble() * 180 - 90));
+        _points[i] = point;
+        geometry = point;
+      }
+      _values[i] = GeometrySerializer.serialize(geometry);
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+
+  @Test
+  public void testGetCellId() {
+    assertEquals(GeoIndexUtils.getCellId(-180, -90, RESOLUTION), 0L);
+    assertEquals(GeoIndexUtils.getCellId(180, 90, RESOLUTION), (1L << (2 * RESOLUTION + 1)) - 1);
+    assertEquals(GeoIndexUtils.getCellId(181, 0, RESOLUTION), GeoIndexUtils.UNINDEXED_CELL_ID);
+    assertEquals(GeoIndexUtils.getCellId(0, -91, RESOLUTION), GeoIndexUtils.UNINDEXED_CELL_ID);
+    assertEquals(GeoIndexUtils.getCellId(
+        GeometrySerializer.serialize(GeometryUtils.GEOGRAPHY_FACTORY.createPoint()), RESOLUTION),
+        GeoIndexUtils.UNINDEXED_CELL_ID);
+  }
+
+  @Test
+  public void testImmutableGeoIndex()
+      throws Exception {
+    try (OnHeapGeoIndexCreator creator = new OnHeapGeoIndexCreator(INDEX_DIR, COLUMN_NAME, RESOLUTION)) {
+      for (byte[] value : _values) {
+        creator.add(value);
+      }
+      creator.seal();
+    }
+    File indexFile = new File(INDEX_DIR, COLUMN_NAME + V1Constants.Indexes.GEO_INDEX_FILE_EXTENSION);
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        ImmutableGeoIndexReader reader = new ImmutableGeoIndexReader(dataBuffer)) {
+      verify(reader);
+    }
+  }
+
+  @Test
+  public void testMutableGeoIndex()
+      throws Exception {
+    try (MutableGeoIndex geoIndex = new MutableGeoIndex(RESOLUTION)) {
+      for (int i = 0; i < NUM_RECORDS; i++) {
+        geoIndex.add(_values[i], i);
+      }
+      verify(geoIndex);
+    }
+  }
+
+  private void verify(GeoIndexReader reader) {
+    // Bounding box queries, including the ones crossing the anti-meridian
+    for (int i = 0; i < NUM_QUERIES; i++) {
+      double minX = RANDOM.nextDouble() * 400 - 200;
+      double maxX = minX + RANDOM.nextDouble() * 20;
+      double minY = RANDOM.nextDouble() * 200 - 100;
+      double maxY = minY + RANDOM.nextDouble() * 20;
+      MutableRoaringBitmap candidateDocIds = reader.getCandidateDocIds(minX, minY, maxX, maxY);
+      for (int docId = 0; docId < NUM_RECORDS; docId++) {
+        Point point = _points[docId];
+        if (point == null) {
+          assertTrue(candidateDocIds.contains(docId));
+        } else {
+          double x = point.getX();
+          double y = point.getY();
+          boolean inBox = y >= minY && y <= maxY && (x >= minX && x <= maxX || x - 360 >= minX && x - 360 <= maxX
+              || x + 360 >= minX && x + 360 <= maxX);
+          if (inBox) {
+            assertTrue(candidateDocIds.contains(docId));
+          }
+        }
+      }
+    }
+
+    // Distance queries
+    for (int i = 0; i < NUM_QUERIES; i++) {
+      Point center = GeometryUtils.GEOGRAPHY_FACTORY
+          .createPoint(new Coordinate(RANDOM.nextDouble() * 360 - 180, RANDOM.nextDouble() * 180 - 90));
+      double distance = RANDOM.nextDouble() * 1_000_000;
+      Envelope envelope = GeoIndexUtils.getDistanceEnvelope(center, distance);
+      MutableRoaringBitmap candidateDocIds =
+          reader.getCandidateDocIds(envelope.getMinX(), envelope.getMinY(), envelope.getMaxX(), envelope.getMaxY());
+      int numMatchingDocs = 0;
+      for (int docId = 0; docId < NUM_RECORDS; docId++) {
+        Point point = _points[docId];
+        if (point == null || greatCircleDistance(center, point) <= distance) {
+          assertTrue(candidateDocIds.contains(docId));
+          numMatchingDocs++;
+        }
+      }
+      // Candidates should be much less than all the documents for small radius
+      if (distance < 100_000) {
+        assertTrue(candidateDocIds.getCardinality() < NUM_RECORDS / 10);
+      }
+      assertTrue(candidateDocIds.getCardinality() >= numMatchingDocs);
+    }
+  }
+
+  private static double greatCircleDistance(Point point1, Point point2) {
+    double latitude1 = Math.toRadians(point1.getY());
+    double latitude2 = Math.toRadians(point2.getY());
+    double deltaLatitude = latitude2 - latitude1;
+    double deltaLongitude = Math.toRadians(point2.getX() - point1.getX());
+    double a = Math.sin(deltaLatitude / 2) * Math.sin(deltaLatitude / 2)
+        + Math.cos(latitude1) * Math.cos(latitude2) * Math.sin(deltaLongitude / 2) * Math.sin(deltaLongitude / 2);
+    return 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a)) * GeometryUtils.EARTH_RADIUS_M;
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.query.request.context.FilterContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.realtime.impl.json.MutableJsonIndex;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.json.OnHeapJsonIndexCreator;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
+import org.apache.pinot.core.segment.index.readers.json.ImmutableJsonIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class JsonIndexTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "JsonIndexTest");
+  private static final String COLUMN_NAME = "testColumn";
+  private static final String[] RECORDS = new String[]{
+      "{\"name\":\"adam\",\"age\":20,\"addresses\":[{\"street\":\"main\",\"zip\":\"95000\"},{\"street\":\"first\"}]}",
+      "{\"name\":\"bob\",\"age\":35,\"addresses\":[{\"street\":\"second\",\"zip\":\"94000\"}],\"tags\":[\"a\",\"b\"]}",
+      "{\"name\":\"charles\",\"age\":7,\"tags\":[\"b\",\"c\"],\"nested\":{\"level\":{\"value\":true}}}",
+      "not a json",
+      "{\"name\":null,\"age\":100}"
+  };
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(INDEX_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+
+  @Test
+  public void testImmutableJsonIndex()
+      throws Exception {
+    try (OnHeapJsonIndexCreator creator = new OnHeapJsonIndexCreator(INDEX_DIR, COLUMN_NAME)) {
+      for (String record : RECORDS) {
+        creator.add(record);
+      }
+      creator.seal();
+    }
+    File indexFile = new File(INDEX_DIR, COLUMN_NAME + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        ImmutableJsonIndexReader reader = new ImmutableJsonIndexReader(dataBuffer)) {
+      verify(reader);
+    }
+  }
+
+  @Test
+  public void testMutableJsonIndex()
+      throws Exception {
+    try (MutableJsonIndex jsonIndex = new MutableJsonIndex()) {
+      for (int i = 0; i < RECORDS.length; i++) {
+        jsonIndex.add(RECORDS[i], i);
+      }
+      verify(jsonIndex);
+    }
+  }
+
+  private void verify(JsonIndexReader reader)
+      throws Exception {
+    assertEquals(getMatchingDocIds(reader, "name = 'adam'"), new int[]{0});
+    assertEquals(getMatchingDocIds(reader, "\"$.name\" = 'bob'"), new int[]{1});
+    assertEquals(getMatchingDocIds(reader, "name IN ('adam', 'charles', 'dave')"), new int[]{0, 2});
+    assertEquals(getMatchingDocIds(reader, "name != 'adam'"), new int[]{1, 2});
+    assertEquals(getMatchingDocIds(reader, "name NOT IN ('adam', 'bob')"), new int[]{2});
+    assertEquals(getMatchingDocIds(reader, "age > 10"), new int[]{0, 1, 4});
+    assertEquals(getMatchingDocIds(reader, "age BETWEEN 7 AND 20"), new int[]{0, 2});
+    assertEquals(getMatchingDocIds(reader, "\"addresses[*].street\" = 'first'"), new int[]{0});
+    assertEquals(getMatchingDocIds(reader, "\"addresses[*].zip\" IS NOT NULL"), new int[]{0, 1});
+    assertEquals(getMatchingDocIds(reader, "\"tags[*]\" = 'b' AND age < 30"), new int[]{2});
+    assertEquals(getMatchingDocIds(reader, "\"tags[*]\" = 'a' OR nested.level.\"value\" = 'true'"), new int[]{1, 2});
+    assertEquals(getMatchingDocIds(reader, "REGEXP_LIKE(name, '^.*a.*$')"), new int[]{0, 2});
+    assertEquals(getMatchingDocIds(reader, "name = 'eve'"), new int[0]);
+    assertEquals(getMatchingDocIds(reader, "missing = 'adam'"), new int[0]);
+  }
+
+  private int[] getMatchingDocIds(JsonIndexReader reader, String filterString)
+      throws Exception {
+    FilterContext filter = QueryContextConverterUtils.getFilter(CalciteSqlParser.compileToExpression(filterString));
+    MutableRoaringBitmap matchingDocIds = reader.getMatchingDocIds(filter);
+    return matchingDocIds.toArray();
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+
+public class DataTableFrameDecoderTest {
+  private static final Random RANDOM = new Random();
+
+  @Test
+  public void testDecodeFrames() {
+    int[] frameLengths = {0, 1, 4, 1000, 100_000};
+    byte[][] frames = new byte[frameLengths.length][];
+    ByteBuf input = Unpooled.buffer();
+    for (int i = 0; i < frameLengths.length; i++) {
+      frames[i] = new byte[frameLengths[i]];
+      RANDOM.nextBytes(frames[i]);
+      input.writeInt(frameLengths[i]);
+      input.writeBytes(frames[i]);
+    }
+
+    // Feed the bytes in random sized chunks so that both the length and the content of the frames are split
+    EmbeddedChannel channel = new EmbeddedChannel(new DataTableFrameDecoder());
+    while (input.isReadable()) {
+      int chunkSize = Math.min(input.readableBytes(), 1 + RANDOM.nextInt(8192));
+      channel.writeInbound(input.readRetainedSlice(chunkSize));
+    }
+    input.release();
+
+    for (byte[] expectedFrame : frames) {
+      ByteBuf frame = channel.readInbound();
+      byte[] actualFrame = new byte[frame.readableBytes()];
+      frame.readBytes(actualFrame);
+      assertEquals(actualFrame, expectedFrame);
+      frame.release();
+    }
+    assertNull(channel.readInbound());
+    assertFalse(channel.finish());
+  }
+}
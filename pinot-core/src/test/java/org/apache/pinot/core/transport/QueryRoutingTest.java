@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.Futures;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
@@ -125,6 +126,38 @@ public class QueryRoutingTest {
     queryServer.shutDown();
   }
 
+  @Test
+  public void testServerResponseListener()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start the server
+    QueryServer queryServer = getQueryServer(0, responseBytes);
+    queryServer.start();
+
+    // Hybrid, data tables should be handed to the listener and not retained in the server responses
+    Map<ServerRoutingInstance, DataTable> receivedDataTableMap = new ConcurrentHashMap<>();
+    AsyncQueryResponse asyncQueryResponse = _queryRouter
+        .submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, BROKER_REQUEST, ROUTING_TABLE, 1_000L,
+            receivedDataTableMap::put);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    assertEquals(receivedDataTableMap.size(), 2);
+    assertEquals(receivedDataTableMap.get(OFFLINE_SERVER_ROUTING_INSTANCE).getMetadata(), dataTable.getMetadata());
+    assertEquals(receivedDataTableMap.get(REALTIME_SERVER_ROUTING_INSTANCE).getMetadata(), dataTable.getMetadata());
+    assertEquals(response.size(), 2);
+    for (ServerResponse serverResponse : response.values()) {
+      assertNull(serverResponse.getDataTable());
+      assertTrue(serverResponse.isResponseReceived());
+      assertEquals(serverResponse.getResponseSize(), responseBytes.length);
+    }
+
+    // Shut down the server
+    queryServer.shutDown();
+  }
+
   @Test
   public void testInvalidResponse()
       throws Exception {
@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.pinot.spi.config.table.UpsertConfig;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class PartialUpsertHandlerTest {
+
+  @Test
+  public void testMerge() {
+    Map<String, UpsertConfig.Strategy> strategies = new HashMap<>();
+    strategies.put("overwrite", UpsertConfig.Strategy.OVERWRITE);
+    strategies.put("ignoreNull", UpsertConfig.Strategy.IGNORE_NULL);
+    strategies.put("intCounter", UpsertConfig.Strategy.INCREMENT);
+    strategies.put("doubleCounter", UpsertConfig.Strategy.INCREMENT);
+    strategies.put("append", UpsertConfig.Strategy.APPEND);
+    strategies.put("union", UpsertConfig.Strategy.UNION);
+    PartialUpsertHandler handler = new PartialUpsertHandler(strategies);
+
+    GenericRow previousRecord = new GenericRow();
+    previousRecord.putValue("pk", 1);
+    previousRecord.putValue("overwrite", "a");
+    previousRecord.putValue("ignoreNull", "b");
+    previousRecord.putValue("intCounter", 10);
+    previousRecord.putValue("doubleCounter", 1.5);
+    previousRecord.putValue("append", new Object[]{"x", "y"});
+    previousRecord.putValue("union", new Object[]{"x", "y"});
+    previousRecord.putValue("unconfigured", "c");
+
+    GenericRow newRecord = new GenericRow();
+    newRecord.putValue("pk", 1);
+    newRecord.putDefaultNullValue("overwrite", "null");
+    newRecord.putDefaultNullValue("ignoreNull", "null");
+    newRecord.putValue("intCounter", 5);
+    newRecord.putValue("doubleCounter", 2.0);
+    newRecord.putValue("append", new Object[]{"y", "z"});
+    newRecord.putValue("union", new Object[]{"y", "z"});
+    newRecord.putValue("unconfigured", "d");
+
+    GenericRow mergedRecord = handler.merge(previousRecord, newRecord);
+    assertEquals(mergedRecord.getValue("pk"), 1);
+    // OVERWRITE takes the new value even if it is null
+    assertEquals(mergedRecord.getValue("overwrite"), "null");
+    assertTrue(mergedRecord.isNullValue("overwrite"));
+    // IGNORE_NULL keeps the previous value when the new value is null
+    assertEquals(mergedRecord.getValue("ignoreNull"), "b");
+    assertFalse(mergedRecord.isNullValue("ignoreNull"));
+    assertEquals(mergedRecord.getValue("intCounter"), 15);
+    assertEquals(mergedRecord.getValue("doubleCounter"), 3.5);
+    assertEquals((Object[]) mergedRecord.getValue("append"), new Object[]{"x", "y", "y", "z"});
+    assertEquals((Object[]) mergedRecord.getValue("union"), new Object[]{"x", "y", "z"});
+    assertEquals(mergedRecord.getValue("unconfigured"), "d");
+
+    // Nothing to merge when the previous value is null
+    previousRecord = new GenericRow();
+    previousRecord.putDefaultNullValue("intCounter", 0);
+    newRecord = new GenericRow();
+    newRecord.putValue("intCounter", 5);
+    assertEquals(handler.merge(previousRecord, newRecord).getValue("intCounter"), 5);
+
+    // Keep the previous value when the new value is null for the strategies other than OVERWRITE
+    previousRecord = new GenericRow();
+    previousRecord.putValue("intCounter", 10);
+    newRecord = new GenericRow();
+    newRecord.putDefaultNullValue("intCounter", 0);
+    mergedRecord = handler.merge(previousRecord, newRecord);
+    assertEquals(mergedRecord.getValue("intCounter"), 10);
+    assertFalse(mergedRecord.isNullValue("intCounter"));
+  }
+}
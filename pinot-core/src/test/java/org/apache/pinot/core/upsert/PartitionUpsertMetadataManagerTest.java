@@ -19,12 +19,15 @@
 package org.apache.pinot.core.upsert;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.utils.LLCSegmentName;
-import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.realtime.impl.SnapshotMutableRoaringBitmap;
 import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager.RecordInfo;
+import org.apache.pinot.spi.config.table.UpsertConfig;
+import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.PrimaryKey;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.mockito.Mockito;
@@ -44,7 +47,6 @@ public class PartitionUpsertMetadataManagerTest {
   public void testAddSegment() {
     PartitionUpsertMetadataManager upsertMetadataManager =
         new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, Mockito.mock(ServerMetrics.class));
-    Map<PrimaryKey, RecordLocation> recordLocationMap = upsertMetadataManager._primaryKeyToRecordLocationMap;
 
     // Add the first segment
     String segment1 = getSegmentName(1);
@@ -55,12 +57,12 @@ public class PartitionUpsertMetadataManagerTest {
     recordInfoList1.add(new RecordInfo(getPrimaryKey(0), 3, 80));
     recordInfoList1.add(new RecordInfo(getPrimaryKey(1), 4, 120));
     recordInfoList1.add(new RecordInfo(getPrimaryKey(0), 5, 100));
-    ThreadSafeMutableRoaringBitmap validDocIds1 =
+    SnapshotMutableRoaringBitmap validDocIds1 =
         upsertMetadataManager.addSegment(segment1, recordInfoList1.iterator());
     // segment1: 0 -> {5, 100}, 1 -> {4, 120}, 2 -> {2, 100}
-    checkRecordLocation(recordLocationMap, 0, segment1, 5, 100);
-    checkRecordLocation(recordLocationMap, 1, segment1, 4, 120);
-    checkRecordLocation(recordLocationMap, 2, segment1, 2, 100);
+    checkRecordLocation(upsertMetadataManager, 0, segment1, 5, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 4, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment1, 2, 100);
     assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{2, 4, 5});
 
     // Add the second segment
@@ -71,43 +73,43 @@ public class PartitionUpsertMetadataManagerTest {
     recordInfoList2.add(new RecordInfo(getPrimaryKey(2), 2, 120));
     recordInfoList2.add(new RecordInfo(getPrimaryKey(3), 3, 80));
     recordInfoList2.add(new RecordInfo(getPrimaryKey(0), 4, 80));
-    ThreadSafeMutableRoaringBitmap validDocIds2 =
+    SnapshotMutableRoaringBitmap validDocIds2 =
         upsertMetadataManager.addSegment(segment2, recordInfoList2.iterator());
     // segment1: 1 -> {4, 120}
     // segment2: 0 -> {0, 100}, 2 -> {2, 120}, 3 -> {3, 80}
-    checkRecordLocation(recordLocationMap, 0, segment2, 0, 100);
-    checkRecordLocation(recordLocationMap, 1, segment1, 4, 120);
-    checkRecordLocation(recordLocationMap, 2, segment2, 2, 120);
-    checkRecordLocation(recordLocationMap, 3, segment2, 3, 80);
+    checkRecordLocation(upsertMetadataManager, 0, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 4, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 2, 120);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 3, 80);
     assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
     assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 2, 3});
 
     // Replace (reload) the first segment
-    ThreadSafeMutableRoaringBitmap newValidDocIds1 =
+    SnapshotMutableRoaringBitmap newValidDocIds1 =
         upsertMetadataManager.addSegment(segment1, recordInfoList1.iterator());
     // original segment1: 1 -> {4, 120}
     // segment2: 0 -> {0, 100}, 2 -> {2, 120}, 3 -> {3, 80}
     // new segment1: 1 -> {4, 120}
-    checkRecordLocation(recordLocationMap, 0, segment2, 0, 100);
-    checkRecordLocation(recordLocationMap, 1, segment1, 4, 120);
-    checkRecordLocation(recordLocationMap, 2, segment2, 2, 120);
-    checkRecordLocation(recordLocationMap, 3, segment2, 3, 80);
+    checkRecordLocation(upsertMetadataManager, 0, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 4, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 2, 120);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 3, 80);
     assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
     assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 2, 3});
     assertEquals(newValidDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
-    assertSame(recordLocationMap.get(getPrimaryKey(1)).getValidDocIds(), newValidDocIds1);
+    assertSame(upsertMetadataManager.getRecordLocation(getPrimaryKey(1)).getValidDocIds(), newValidDocIds1);
 
     // Remove the original segment1
     upsertMetadataManager.removeSegment(segment1, validDocIds1);
     // segment2: 0 -> {0, 100}, 2 -> {2, 120}, 3 -> {3, 80}
     // new segment1: 1 -> {4, 120}
-    checkRecordLocation(recordLocationMap, 0, segment2, 0, 100);
-    checkRecordLocation(recordLocationMap, 1, segment1, 4, 120);
-    checkRecordLocation(recordLocationMap, 2, segment2, 2, 120);
-    checkRecordLocation(recordLocationMap, 3, segment2, 3, 80);
+    checkRecordLocation(upsertMetadataManager, 0, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 4, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 2, 120);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 3, 80);
     assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 2, 3});
     assertEquals(newValidDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
-    assertSame(recordLocationMap.get(getPrimaryKey(1)).getValidDocIds(), newValidDocIds1);
+    assertSame(upsertMetadataManager.getRecordLocation(getPrimaryKey(1)).getValidDocIds(), newValidDocIds1);
   }
 
   private static String getSegmentName(int sequenceNumber) {
@@ -118,9 +120,9 @@ public class PartitionUpsertMetadataManagerTest {
     return new PrimaryKey(new Object[]{value});
   }
 
-  private static void checkRecordLocation(Map<PrimaryKey, RecordLocation> recordLocationMap, int keyValue,
+  private static void checkRecordLocation(PartitionUpsertMetadataManager upsertMetadataManager, int keyValue,
       String segmentName, int docId, long timestamp) {
-    RecordLocation recordLocation = recordLocationMap.get(getPrimaryKey(keyValue));
+    RecordLocation recordLocation = upsertMetadataManager.getRecordLocation(getPrimaryKey(keyValue));
     assertNotNull(recordLocation);
     assertEquals(recordLocation.getSegmentName(), segmentName);
     assertEquals(recordLocation.getDocId(), docId);
@@ -131,7 +133,6 @@ public class PartitionUpsertMetadataManagerTest {
   public void testUpdateRecord() {
     PartitionUpsertMetadataManager upsertMetadataManager =
         new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, Mockito.mock(ServerMetrics.class));
-    Map<PrimaryKey, RecordLocation> recordLocationMap = upsertMetadataManager._primaryKeyToRecordLocationMap;
 
     // Add the first segment
     // segment1: 0 -> {0, 100}, 1 -> {1, 120}, 2 -> {2, 100}
@@ -140,50 +141,50 @@ public class PartitionUpsertMetadataManagerTest {
     recordInfoList1.add(new RecordInfo(getPrimaryKey(0), 0, 100));
     recordInfoList1.add(new RecordInfo(getPrimaryKey(1), 1, 120));
     recordInfoList1.add(new RecordInfo(getPrimaryKey(2), 2, 100));
-    ThreadSafeMutableRoaringBitmap validDocIds1 =
+    SnapshotMutableRoaringBitmap validDocIds1 =
         upsertMetadataManager.addSegment(segment1, recordInfoList1.iterator());
 
     // Update records from the second segment
     String segment2 = getSegmentName(2);
-    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    SnapshotMutableRoaringBitmap validDocIds2 = new SnapshotMutableRoaringBitmap();
 
     upsertMetadataManager.updateRecord(segment2, new RecordInfo(getPrimaryKey(3), 0, 100), validDocIds2);
     // segment1: 0 -> {0, 100}, 1 -> {1, 120}, 2 -> {2, 100}
     // segment2: 3 -> {0, 100}
-    checkRecordLocation(recordLocationMap, 0, segment1, 0, 100);
-    checkRecordLocation(recordLocationMap, 1, segment1, 1, 120);
-    checkRecordLocation(recordLocationMap, 2, segment1, 2, 100);
-    checkRecordLocation(recordLocationMap, 3, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 0, segment1, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment1, 2, 100);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 0, 100);
     assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{0, 1, 2});
     assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0});
 
     upsertMetadataManager.updateRecord(segment2, new RecordInfo(getPrimaryKey(2), 1, 120), validDocIds2);
     // segment1: 0 -> {0, 100}, 1 -> {1, 120}
     // segment2: 2 -> {1, 120}, 3 -> {0, 100}
-    checkRecordLocation(recordLocationMap, 0, segment1, 0, 100);
-    checkRecordLocation(recordLocationMap, 1, segment1, 1, 120);
-    checkRecordLocation(recordLocationMap, 2, segment2, 1, 120);
-    checkRecordLocation(recordLocationMap, 3, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 0, segment1, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 0, 100);
     assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
     assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
 
     upsertMetadataManager.updateRecord(segment2, new RecordInfo(getPrimaryKey(1), 2, 100), validDocIds2);
     // segment1: 0 -> {0, 100}, 1 -> {1, 120}
     // segment2: 2 -> {1, 120}, 3 -> {0, 100}
-    checkRecordLocation(recordLocationMap, 0, segment1, 0, 100);
-    checkRecordLocation(recordLocationMap, 1, segment1, 1, 120);
-    checkRecordLocation(recordLocationMap, 2, segment2, 1, 120);
-    checkRecordLocation(recordLocationMap, 3, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 0, segment1, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 0, 100);
     assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
     assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
 
     upsertMetadataManager.updateRecord(segment2, new RecordInfo(getPrimaryKey(0), 3, 100), validDocIds2);
     // segment1: 1 -> {1, 120}
     // segment2: 0 -> {3, 100}, 2 -> {1, 120}, 3 -> {0, 100}
-    checkRecordLocation(recordLocationMap, 0, segment2, 3, 100);
-    checkRecordLocation(recordLocationMap, 1, segment1, 1, 120);
-    checkRecordLocation(recordLocationMap, 2, segment2, 1, 120);
-    checkRecordLocation(recordLocationMap, 3, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 0, segment2, 3, 100);
+    checkRecordLocation(upsertMetadataManager, 1, segment1, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 1, 120);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 0, 100);
     assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1});
     assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1, 3});
   }
@@ -192,7 +193,6 @@ public class PartitionUpsertMetadataManagerTest {
   public void testRemoveSegment() {
     PartitionUpsertMetadataManager upsertMetadataManager =
         new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, Mockito.mock(ServerMetrics.class));
-    Map<PrimaryKey, RecordLocation> recordLocationMap = upsertMetadataManager._primaryKeyToRecordLocationMap;
 
     // Add 2 segments
     // segment1: 0 -> {0, 100}, 1 -> {1, 100}
@@ -201,22 +201,56 @@ public class PartitionUpsertMetadataManagerTest {
     List<RecordInfo> recordInfoList1 = new ArrayList<>();
     recordInfoList1.add(new RecordInfo(getPrimaryKey(0), 0, 100));
     recordInfoList1.add(new RecordInfo(getPrimaryKey(1), 1, 100));
-    ThreadSafeMutableRoaringBitmap validDocIds1 =
+    SnapshotMutableRoaringBitmap validDocIds1 =
         upsertMetadataManager.addSegment(segment1, recordInfoList1.iterator());
     String segment2 = getSegmentName(2);
     List<RecordInfo> recordInfoList2 = new ArrayList<>();
     recordInfoList2.add(new RecordInfo(getPrimaryKey(2), 0, 100));
     recordInfoList2.add(new RecordInfo(getPrimaryKey(3), 1, 100));
-    ThreadSafeMutableRoaringBitmap validDocIds2 =
+    SnapshotMutableRoaringBitmap validDocIds2 =
         upsertMetadataManager.addSegment(segment2, recordInfoList2.iterator());
 
     // Remove the first segment
     upsertMetadataManager.removeSegment(segment1, validDocIds1);
     // segment2: 2 -> {0, 100}, 3 -> {0, 100}
-    assertNull(recordLocationMap.get(getPrimaryKey(0)));
-    assertNull(recordLocationMap.get(getPrimaryKey(1)));
-    checkRecordLocation(recordLocationMap, 2, segment2, 0, 100);
-    checkRecordLocation(recordLocationMap, 3, segment2, 1, 100);
+    assertNull(upsertMetadataManager.getRecordLocation(getPrimaryKey(0)));
+    assertNull(upsertMetadataManager.getRecordLocation(getPrimaryKey(1)));
+    checkRecordLocation(upsertMetadataManager, 2, segment2, 0, 100);
+    checkRecordLocation(upsertMetadataManager, 3, segment2, 1, 100);
     assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
   }
+
+  @Test
+  public void testMergeWithPreviousRecord() {
+    PartitionUpsertMetadataManager upsertMetadataManager =
+        new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, Mockito.mock(ServerMetrics.class),
+            new OnHeapUpsertMetadataStore(),
+            new PartialUpsertHandler(Collections.singletonMap("count", UpsertConfig.Strategy.INCREMENT)));
+
+    // Consume a record into the consuming segment
+    IndexSegment segment = Mockito.mock(IndexSegment.class);
+    Mockito.when(segment.getSegmentName()).thenReturn(getSegmentName(1));
+    Mockito.when(segment.getRecord(Mockito.anyInt(), Mockito.any(GenericRow.class))).thenAnswer(invocation -> {
+      GenericRow previousRecord = invocation.getArgument(1);
+      previousRecord.putValue("count", 1);
+      return previousRecord;
+    });
+    SnapshotMutableRoaringBitmap validDocIds = new SnapshotMutableRoaringBitmap();
+    upsertMetadataManager.updateRecord(segment, new RecordInfo(getPrimaryKey(0), 0, 100), validDocIds);
+
+    // The new record should be merged with the previous record
+    GenericRow record = new GenericRow();
+    record.putValue("count", 2);
+    assertEquals(upsertMetadataManager.mergeWithPreviousRecord(new RecordInfo(getPrimaryKey(0), 1, 120), record)
+        .getValue("count"), 3);
+    Mockito.verify(segment, Mockito.times(1)).getRecord(Mockito.anyInt(), Mockito.any(GenericRow.class));
+
+    // The records should not be read from the segment after it is untracked (e.g. before being destroyed)
+    upsertMetadataManager.untrackSegment(segment);
+    record = new GenericRow();
+    record.putValue("count", 2);
+    assertEquals(upsertMetadataManager.mergeWithPreviousRecord(new RecordInfo(getPrimaryKey(0), 1, 120), record)
+        .getValue("count"), 2);
+    Mockito.verify(segment, Mockito.times(1)).getRecord(Mockito.anyInt(), Mockito.any(GenericRow.class));
+  }
 }
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.core.realtime.impl.SnapshotMutableRoaringBitmap;
+import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager.RecordInfo;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class PrimaryKeySnapshotTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "PrimaryKeySnapshotTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String REALTIME_TABLE_NAME = TableNameBuilder.REALTIME.tableNameWithType(RAW_TABLE_NAME);
+  private static final List<String> PRIMARY_KEY_COLUMNS = Collections.singletonList("pk");
+  private static final String TIME_COLUMN = "ts";
+  private static final String CRC = "12345";
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @Test
+  public void testBuildPersistAndLoad()
+      throws Exception {
+    List<RecordInfo> recordInfoList = getRecordInfoList1();
+    PrimaryKeySnapshot snapshot = PrimaryKeySnapshot.build(recordInfoList.iterator(), recordInfoList.size());
+    // 0 -> {5, 100}, 1 -> {4, 120}, 2 -> {2, 100}
+    assertEquals(snapshot.getNumDocs(), 6);
+    assertEquals(snapshot.getNumEntries(), 3);
+    int[] docIds = new int[3];
+    for (int i = 0; i < 3; i++) {
+      docIds[i] = snapshot.getDocId(i);
+    }
+    Arrays.sort(docIds);
+    assertEquals(docIds, new int[]{2, 4, 5});
+
+    snapshot.persist(TEMP_DIR, CRC, PRIMARY_KEY_COLUMNS, TIME_COLUMN);
+    PrimaryKeySnapshot loadedSnapshot = PrimaryKeySnapshot.load(TEMP_DIR, CRC, PRIMARY_KEY_COLUMNS, TIME_COLUMN, 6);
+    assertNotNull(loadedSnapshot);
+    assertEquals(loadedSnapshot.getNumEntries(), 3);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(loadedSnapshot.getKeyHigh(i), snapshot.getKeyHigh(i));
+      assertEquals(loadedSnapshot.getKeyLow(i), snapshot.getKeyLow(i));
+      assertEquals(loadedSnapshot.getDocId(i), snapshot.getDocId(i));
+      assertEquals(loadedSnapshot.getTimestamp(i), snapshot.getTimestamp(i));
+    }
+
+    // Stale snapshots should be ignored
+    assertNull(PrimaryKeySnapshot.load(TEMP_DIR, "54321", PRIMARY_KEY_COLUMNS, TIME_COLUMN, 6));
+    assertNull(PrimaryKeySnapshot.load(TEMP_DIR, CRC, Collections.singletonList("otherPk"), TIME_COLUMN, 6));
+    assertNull(PrimaryKeySnapshot.load(TEMP_DIR, CRC, PRIMARY_KEY_COLUMNS, "otherTs", 6));
+    assertNull(PrimaryKeySnapshot.load(TEMP_DIR, CRC, PRIMARY_KEY_COLUMNS, TIME_COLUMN, 7));
+    FileUtils.deleteQuietly(new File(TEMP_DIR, PrimaryKeySnapshot.FILE_NAME));
+    assertNull(PrimaryKeySnapshot.load(TEMP_DIR, CRC, PRIMARY_KEY_COLUMNS, TIME_COLUMN, 6));
+  }
+
+  @Test
+  public void testAddSegmentFromSnapshot() {
+    PartitionUpsertMetadataManager recordManager =
+        new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, new ServerMetrics(new MetricsRegistry()));
+    PartitionUpsertMetadataManager snapshotManager =
+        new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, new ServerMetrics(new MetricsRegistry()));
+
+    // Adding the segments from the snapshots should give the same result as adding them from the records
+    String segment1 = getSegmentName(1);
+    String segment2 = getSegmentName(2);
+    List<RecordInfo> recordInfoList1 = getRecordInfoList1();
+    List<RecordInfo> recordInfoList2 = getRecordInfoList2();
+    SnapshotMutableRoaringBitmap validDocIds1 = recordManager.addSegment(segment1, recordInfoList1.iterator());
+    SnapshotMutableRoaringBitmap validDocIds2 = recordManager.addSegment(segment2, recordInfoList2.iterator());
+    SnapshotMutableRoaringBitmap snapshotValidDocIds1 = snapshotManager.addSegment(segment1,
+        PrimaryKeySnapshot.build(recordInfoList1.iterator(), recordInfoList1.size()));
+    SnapshotMutableRoaringBitmap snapshotValidDocIds2 = snapshotManager.addSegment(segment2,
+        PrimaryKeySnapshot.build(recordInfoList2.iterator(), recordInfoList2.size()));
+    // segment1: 1 -> {4, 120}
+    // segment2: 0 -> {0, 100}, 2 -> {2, 120}, 3 -> {3, 80}
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 2, 3});
+    assertEquals(snapshotValidDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
+    assertEquals(snapshotValidDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 2, 3});
+    for (int i = 0; i < 4; i++) {
+      RecordLocation expected = recordManager.getRecordLocation(getPrimaryKey(i));
+      RecordLocation actual = snapshotManager.getRecordLocation(getPrimaryKey(i));
+      assertNotNull(expected);
+      assertNotNull(actual);
+      assertEquals(actual.getSegmentName(), expected.getSegmentName());
+      assertEquals(actual.getDocId(), expected.getDocId());
+      assertEquals(actual.getTimestamp(), expected.getTimestamp());
+    }
+
+    // Replace (reload) the first segment from the snapshot
+    SnapshotMutableRoaringBitmap newValidDocIds1 = snapshotManager.addSegment(segment1,
+        PrimaryKeySnapshot.build(recordInfoList1.iterator(), recordInfoList1.size()));
+    assertEquals(snapshotValidDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
+    assertEquals(newValidDocIds1.getMutableRoaringBitmap().toArray(), new int[]{4});
+    assertEquals(snapshotValidDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0, 2, 3});
+  }
+
+  private static List<RecordInfo> getRecordInfoList1() {
+    List<RecordInfo> recordInfoList = new ArrayList<>();
+    recordInfoList.add(new RecordInfo(getPrimaryKey(0), 0, 100));
+    recordInfoList.add(new RecordInfo(getPrimaryKey(1), 1, 100));
+    recordInfoList.add(new RecordInfo(getPrimaryKey(2), 2, 100));
+    recordInfoList.add(new RecordInfo(getPrimaryKey(0), 3, 80));
+    recordInfoList.add(new RecordInfo(getPrimaryKey(1), 4, 120));
+    recordInfoList.add(new RecordInfo(getPrimaryKey(0), 5, 100));
+    return recordInfoList;
+  }
+
+  private static List<RecordInfo> getRecordInfoList2() {
+    List<RecordInfo> recordInfoList = new ArrayList<>();
+    recordInfoList.add(new RecordInfo(getPrimaryKey(0), 0, 100));
+    recordInfoList.add(new RecordInfo(getPrimaryKey(1), 1, 100));
+    recordInfoList.add(new RecordInfo(getPrimaryKey(2), 2, 120));
+    recordInfoList.add(new RecordInfo(getPrimaryKey(3), 3, 80));
+    recordInfoList.add(new RecordInfo(getPrimaryKey(0), 4, 80));
+    return recordInfoList;
+  }
+
+  private static String getSegmentName(int sequenceNumber) {
+    return new LLCSegmentName(RAW_TABLE_NAME, 0, sequenceNumber, System.currentTimeMillis()).toString();
+  }
+
+  private static PrimaryKey getPrimaryKey(int value) {
+    return new PrimaryKey(new Object[]{value});
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class UpsertMetadataStoreTest {
+  private static final int NUM_KEYS = 100_000;
+  private static final int NUM_SEGMENTS = 10;
+  private static final Random RANDOM = new Random();
+
+  @DataProvider(name = "upsertMetadataStores")
+  public Object[][] upsertMetadataStores() {
+    return new Object[][]{
+        new Object[]{new OnHeapUpsertMetadataStore()}, new Object[]{new OffHeapUpsertMetadataStore("testStore")}
+    };
+  }
+
+  @Test(dataProvider = "upsertMetadataStores")
+  public void testUpsertMetadataStore(UpsertMetadataStore upsertMetadataStore)
+      throws IOException {
+    try {
+      testUpsertAndRemove(upsertMetadataStore, UpsertMetadataStoreTest::getLongPrimaryKey);
+    } finally {
+      upsertMetadataStore.close();
+    }
+  }
+
+  @Test(dataProvider = "upsertMetadataStores")
+  public void testUpsertMetadataStoreWithCompositeKey(UpsertMetadataStore upsertMetadataStore)
+      throws IOException {
+    try {
+      testUpsertAndRemove(upsertMetadataStore, UpsertMetadataStoreTest::getCompositePrimaryKey);
+    } finally {
+      upsertMetadataStore.close();
+    }
+  }
+
+  private void testUpsertAndRemove(UpsertMetadataStore upsertMetadataStore, PrimaryKeyGenerator primaryKeyGenerator) {
+    long initialSizeInBytes = upsertMetadataStore.getSizeInBytes();
+
+    // Insert the keys, and keep the expected locations in a map: key -> {segmentId, docId, timestamp}
+    Map<Integer, long[]> expectedLocations = new HashMap<>();
+    for (int i = 0; i < NUM_KEYS; i++) {
+      int segmentId = RANDOM.nextInt(NUM_SEGMENTS);
+      long timestamp = RANDOM.nextInt(1000);
+      assertTrue(upsertMetadataStore.upsert(primaryKeyGenerator.generate(i), segmentId, i, timestamp,
+          new AlwaysUpdateUpdater()));
+      expectedLocations.put(i, new long[]{segmentId, i, timestamp});
+    }
+    assertEquals(upsertMetadataStore.size(), NUM_KEYS);
+    // Enough keys to trigger resize
+    assertTrue(upsertMetadataStore.getSizeInBytes() > initialSizeInBytes);
+    checkLocations(upsertMetadataStore, primaryKeyGenerator, expectedLocations);
+
+    // Update the keys only when the timestamp is larger
+    for (int i = 0; i < NUM_KEYS; i++) {
+      int segmentId = RANDOM.nextInt(NUM_SEGMENTS);
+      long timestamp = RANDOM.nextInt(1000);
+      long[] expectedLocation = expectedLocations.get(i);
+      boolean shouldUpdate = timestamp > expectedLocation[2];
+      assertEquals(upsertMetadataStore.upsert(primaryKeyGenerator.generate(i), segmentId, NUM_KEYS + i, timestamp,
+          new UpsertMetadataStore.RecordLocationUpdater() {
+            @Override
+            public boolean onNewKey() {
+              throw new IllegalStateException();
+            }
+
+            @Override
+            public boolean onExistingKey(int currentSegmentId, int currentDocId, long currentTimestamp) {
+              assertEquals(currentSegmentId, expectedLocation[0]);
+              assertEquals(currentDocId, expectedLocation[1]);
+              assertEquals(currentTimestamp, expectedLocation[2]);
+              return timestamp > currentTimestamp;
+            }
+          }), shouldUpdate);
+      if (shouldUpdate) {
+        expectedLocations.put(i, new long[]{segmentId, NUM_KEYS + i, timestamp});
+      }
+    }
+    assertEquals(upsertMetadataStore.size(), NUM_KEYS);
+    checkLocations(upsertMetadataStore, primaryKeyGenerator, expectedLocations);
+
+    // Remove the segments one by one
+    for (int segmentId = 0; segmentId < NUM_SEGMENTS; segmentId++) {
+      upsertMetadataStore.removeSegment(segmentId);
+      int removedSegmentId = segmentId;
+      expectedLocations.values().removeIf(location -> location[0] == removedSegmentId);
+      assertEquals(upsertMetadataStore.size(), expectedLocations.size());
+      checkLocations(upsertMetadataStore, primaryKeyGenerator, expectedLocations);
+    }
+    assertEquals(upsertMetadataStore.size(), 0);
+  }
+
+  private static void checkLocations(UpsertMetadataStore upsertMetadataStore, PrimaryKeyGenerator primaryKeyGenerator,
+      Map<Integer, long[]> expectedLocations) {
+    for (int i = 0; i < NUM_KEYS; i++) {
+      long[] expectedLocation = expectedLocations.get(i);
+      if (expectedLocation != null) {
+        assertTrue(upsertMetadataStore.get(primaryKeyGenerator.generate(i), (segmentId, docId, timestamp) -> {
+          assertEquals(segmentId, expectedLocation[0]);
+          assertEquals(docId, expectedLocation[1]);
+          assertEquals(timestamp, expectedLocation[2]);
+        }));
+      } else {
+        assertFalse(upsertMetadataStore.get(primaryKeyGenerator.generate(i), (segmentId, docId, timestamp) -> {
+          throw new IllegalStateException();
+        }));
+      }
+    }
+  }
+
+  private static PrimaryKey getLongPrimaryKey(int value) {
+    return new PrimaryKey(new Object[]{(long) value});
+  }
+
+  private static PrimaryKey getCompositePrimaryKey(int value) {
+    return new PrimaryKey(new Object[]{"key" + value, value % 7, (double) value});
+  }
+
+  private interface PrimaryKeyGenerator {
+    PrimaryKey generate(int value);
+  }
+
+  private static class AlwaysUpdateUpdater implements UpsertMetadataStore.RecordLocationUpdater {
+
+    @Override
+    public boolean onNewKey() {
+      return true;
+    }
+
+    @Override
+    public boolean onExistingKey(int currentSegmentId, int currentDocId, long currentTimestamp) {
+      return true;
+    }
+  }
+}
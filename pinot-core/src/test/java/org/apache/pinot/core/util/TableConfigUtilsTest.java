@@ -743,6 +743,31 @@ public class TableConfigUtilsTest {
     } catch (Exception e) {
       // expected
     }
+
+    Schema metricSchema =
+        new Schema.SchemaBuilder().setSchemaName(TABLE_NAME).addSingleValueDimension("myCol", FieldSpec.DataType.STRING)
+            .addMetric("myMetric", FieldSpec.DataType.LONG).addMetric("mySketch", FieldSpec.DataType.BYTES).build();
+    Map<String, String> metricsAggregators = new HashMap<>();
+    metricsAggregators.put("myMetric", "MAX");
+    metricsAggregators.put("mySketch", "DISTINCTCOUNTHLL");
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME).build();
+    tableConfig.getIndexingConfig().setMetricsAggregators(metricsAggregators);
+    TableConfigUtils.validate(tableConfig, metricSchema);
+
+    String[][] invalidMetricsAggregators = new String[][]{
+        {"myCol", "MAX"}, {"myMetric", "UNKNOWN"}, {"myMetric", "AVG"}, {"myMetric", "DISTINCTCOUNTTHETASKETCH"},
+        {"mySketch", "SUM"}, {"myMetric2", "SUM"}
+    };
+    for (String[] invalidMetricsAggregator : invalidMetricsAggregators) {
+      tableConfig.getIndexingConfig()
+          .setMetricsAggregators(Collections.singletonMap(invalidMetricsAggregator[0], invalidMetricsAggregator[1]));
+      try {
+        TableConfigUtils.validate(tableConfig, metricSchema);
+        Assert.fail("Should fail for invalid metrics aggregator: " + Arrays.toString(invalidMetricsAggregator));
+      } catch (Exception e) {
+        // expected
+      }
+    }
   }
 
   @Test
@@ -839,5 +864,24 @@ public class TableConfigUtilsTest {
     } catch (Exception e) {
       Assert.assertEquals(e.getMessage(), "The upsert table cannot have star-tree index.");
     }
+    tableConfig = new TableConfigBuilder(TableType.REALTIME).setTableName(TABLE_NAME)
+        .setUpsertConfig(new UpsertConfig(UpsertConfig.Mode.PARTIAL))
+        .setRoutingConfig(new RoutingConfig(null, null, RoutingConfig.STRICT_REPLICA_GROUP_INSTANCE_SELECTOR_TYPE))
+        .setStreamConfigs(streamConfigs).build();
+    try {
+      TableConfigUtils.validateUpsertConfig(tableConfig, schema);
+      Assert.fail("Should fail partial upsert validation without null handling");
+    } catch (Exception e) {
+      Assert.assertEquals(e.getMessage(), "Null handling must be enabled for partial upsert table");
+    }
+    tableConfig = new TableConfigBuilder(TableType.REALTIME).setTableName(TABLE_NAME)
+        .setUpsertConfig(new UpsertConfig(UpsertConfig.Mode.PARTIAL))
+        .setRoutingConfig(new RoutingConfig(null, null, RoutingConfig.STRICT_REPLICA_GROUP_INSTANCE_SELECTOR_TYPE))
+        .setNullHandlingEnabled(true).setStreamConfigs(streamConfigs).build();
+    try {
+      TableConfigUtils.validateUpsertConfig(tableConfig, schema);
+    } catch (Exception e) {
+      Assert.fail("Should not fail partial upsert validation");
+    }
   }
 }
@@ -52,11 +52,15 @@ public class FixedByteChunkSVForwardIndexTest {
   @Test
   public void testWithCompression()
       throws Exception {
-    ChunkCompressorFactory.CompressionType compressionType = ChunkCompressorFactory.CompressionType.SNAPPY;
-    testInt(compressionType);
-    testLong(compressionType);
-    testFloat(compressionType);
-    testDouble(compressionType);
+    for (ChunkCompressorFactory.CompressionType compressionType : new ChunkCompressorFactory.CompressionType[]{
+        ChunkCompressorFactory.CompressionType.SNAPPY, ChunkCompressorFactory.CompressionType.ZSTANDARD,
+        ChunkCompressorFactory.CompressionType.LZ4
+    }) {
+      testInt(compressionType);
+      testLong(compressionType);
+      testFloat(compressionType);
+      testDouble(compressionType);
+    }
   }
 
   @Test
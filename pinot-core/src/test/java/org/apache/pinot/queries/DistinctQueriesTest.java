@@ -357,6 +357,81 @@ public class DistinctQueriesTest extends BaseQueriesTest {
     //@formatter:on
   }
 
+  /**
+   * Test single column DISTINCT query on dictionary-encoded column within a single segment, which is executed on the
+   * dictionary ids.
+   * <p>The following query types are tested:
+   * <ul>
+   *   <li>Selecting STRING column with limit (early termination)</li>
+   *   <li>Selecting INT column order by itself descending (sorted dictionary)</li>
+   *   <li>Selecting BYTES column with filter order by itself</li>
+   *   <li>Selecting LONG column with filter that does not match any record</li>
+   * </ul>
+   */
+  @Test
+  public void testSingleColumnDistinctInnerSegment()
+      throws Exception {
+    _indexSegment = createSegment(0, generateRecords(0));
+    try {
+      {
+        // Test selecting STRING column with limit
+        DistinctTable distinctTable =
+            getDistinctTableInnerSegment("SELECT DISTINCT(stringColumn) FROM testTable LIMIT 10", true);
+        DataSchema dataSchema = distinctTable.getDataSchema();
+        assertEquals(dataSchema.getColumnNames(), new String[]{"stringColumn"});
+        assertEquals(dataSchema.getColumnDataTypes(), new ColumnDataType[]{ColumnDataType.STRING});
+
+        // Check values, where 10 unique values should be returned
+        assertEquals(distinctTable.size(), 10);
+        Set<Integer> actualValues = new HashSet<>();
+        Iterator<Record> iterator = distinctTable.getFinalResult();
+        while (iterator.hasNext()) {
+          int intValue = Integer.parseInt((String) iterator.next().getValues()[0]);
+          assertTrue(intValue >= 0 && intValue < NUM_UNIQUE_RECORDS_PER_SEGMENT);
+          actualValues.add(intValue);
+        }
+        assertEquals(actualValues.size(), 10);
+      }
+      {
+        // Test selecting INT column order by itself descending
+        DistinctTable distinctTable = getDistinctTableInnerSegment(
+            "SELECT DISTINCT(intColumn) FROM testTable ORDER BY intColumn DESC LIMIT 5", true);
+        assertEquals(distinctTable.getDataSchema().getColumnDataTypes(), new ColumnDataType[]{ColumnDataType.INT});
+
+        // Check values, where only 5 top values sorted in descending order should be returned
+        assertEquals(distinctTable.size(), 5);
+        int[] expectedValues = new int[]{99, 98, 97, 96, 95};
+        Iterator<Record> iterator = distinctTable.getFinalResult();
+        for (int i = 0; i < 5; i++) {
+          assertEquals(iterator.next().getValues()[0], expectedValues[i]);
+        }
+      }
+      {
+        // Test selecting BYTES column with filter order by itself
+        DistinctTable distinctTable = getDistinctTableInnerSegment(
+            "SELECT DISTINCT(bytesColumn) FROM testTable WHERE intColumn >= 60 ORDER BY bytesColumn LIMIT 5", true);
+        assertEquals(distinctTable.getDataSchema().getColumnDataTypes(), new ColumnDataType[]{ColumnDataType.BYTES});
+
+        // Check values, where only 5 top values sorted in ByteArray format ascending order should be returned
+        assertEquals(distinctTable.size(), 5);
+        int[] expectedValues = new int[]{60, 61, 62, 63, 64};
+        Iterator<Record> iterator = distinctTable.getFinalResult();
+        for (int i = 0; i < 5; i++) {
+          Object[] values = iterator.next().getValues();
+          assertEquals(Integer.parseInt(StringUtil.decodeUtf8(((ByteArray) values[0]).getBytes())), expectedValues[i]);
+        }
+      }
+      {
+        // Test selecting LONG column with filter that does not match any record
+        DistinctTable distinctTable = getDistinctTableInnerSegment(
+            "SELECT DISTINCT(longColumn) FROM testTable WHERE stringColumn = 'a' LIMIT 10", true);
+        assertEquals(distinctTable.size(), 0);
+      }
+    } finally {
+      _indexSegment.destroy();
+    }
+  }
+
   /**
    * Helper method to get the DistinctTable result for one single segment for the given query.
    */
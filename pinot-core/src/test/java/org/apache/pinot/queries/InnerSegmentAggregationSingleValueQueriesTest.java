@@ -61,7 +61,7 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     aggregationOperator = getOperatorForPqlQueryWithFilter(query);
     resultsBlock = aggregationOperator.nextBlock();
     QueriesTestUtils
-        .testInnerSegmentExecutionStatistics(aggregationOperator.getExecutionStatistics(), 6129L, 84134L, 24516L,
+        .testInnerSegmentExecutionStatistics(aggregationOperator.getExecutionStatistics(), 6129L, 71798L, 24516L,
             30000L);
     QueriesTestUtils
         .testInnerSegmentAggregationResult(resultsBlock.getAggregationResult(), 6129L, 6875947596072L, 999813884,
@@ -86,7 +86,7 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     aggregationGroupByOperator = getOperatorForPqlQueryWithFilter(query);
     resultsBlock = aggregationGroupByOperator.nextBlock();
     QueriesTestUtils
-        .testInnerSegmentExecutionStatistics(aggregationGroupByOperator.getExecutionStatistics(), 6129L, 84134L, 30645L,
+        .testInnerSegmentExecutionStatistics(aggregationGroupByOperator.getExecutionStatistics(), 6129L, 71798L, 30645L,
             30000L);
     QueriesTestUtils
         .testInnerSegmentAggregationGroupByResult(resultsBlock.getAggregationGroupByResult(), "242920", 3L, 4348938306L,
@@ -111,7 +111,7 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     aggregationGroupByOperator = getOperatorForPqlQueryWithFilter(query);
     resultsBlock = aggregationGroupByOperator.nextBlock();
     QueriesTestUtils
-        .testInnerSegmentExecutionStatistics(aggregationGroupByOperator.getExecutionStatistics(), 6129L, 84134L, 42903L,
+        .testInnerSegmentExecutionStatistics(aggregationGroupByOperator.getExecutionStatistics(), 6129L, 71798L, 42903L,
             30000L);
     QueriesTestUtils.testInnerSegmentAggregationGroupByResult(resultsBlock.getAggregationGroupByResult(),
         "1176631727\0P\0KrNxpdycSiwoRohEiTIlLqDHnx", 1L, 716185211L, 489993380, 371110078, 487714191L, 1L);
@@ -135,7 +135,7 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     aggregationGroupByOperator = getOperatorForPqlQueryWithFilter(query);
     resultsBlock = aggregationGroupByOperator.nextBlock();
     QueriesTestUtils
-        .testInnerSegmentExecutionStatistics(aggregationGroupByOperator.getExecutionStatistics(), 6129L, 84134L, 42903L,
+        .testInnerSegmentExecutionStatistics(aggregationGroupByOperator.getExecutionStatistics(), 6129L, 71798L, 42903L,
             30000L);
     QueriesTestUtils.testInnerSegmentAggregationGroupByResult(resultsBlock.getAggregationGroupByResult(),
         "1318761745\000353175528\0001172307870\0P\0HEuxNvH", 2L, 2637523490L, 557154208, 353175528, 2427862396L, 2L);
@@ -159,7 +159,7 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     aggregationGroupByOperator = getOperatorForPqlQueryWithFilter(query);
     resultsBlock = aggregationGroupByOperator.nextBlock();
     QueriesTestUtils
-        .testInnerSegmentExecutionStatistics(aggregationGroupByOperator.getExecutionStatistics(), 6129L, 84134L, 55161L,
+        .testInnerSegmentExecutionStatistics(aggregationGroupByOperator.getExecutionStatistics(), 6129L, 71798L, 55161L,
             30000L);
     QueriesTestUtils.testInnerSegmentAggregationGroupByResult(resultsBlock.getAggregationGroupByResult(),
         "1361199163\000178133991\000296467636\000788414092\0001719301234\0P\0MaztCmmxxgguBUxPti\0001284373442\000752388855",
@@ -229,4 +229,26 @@ public class InnerSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
       Assert.assertEquals(record.getValues().length, 2);
     }
   }
+
+  @Test
+  public void testDistinctEarlyTermination() {
+    // DISTINCT without order-by should stop scanning once LIMIT unique values are collected, i.e. only the first block
+    // of 10000 documents (out of 3 blocks) should be scanned
+    String query = "SELECT DISTINCT(column1) FROM testTable LIMIT 10";
+    AggregationOperator aggregationOperator = getOperatorForPqlQuery(query);
+    IntermediateResultsBlock resultsBlock = aggregationOperator.nextBlock();
+    QueriesTestUtils
+        .testInnerSegmentExecutionStatistics(aggregationOperator.getExecutionStatistics(), 10000L, 0L, 10000L, 30000L);
+    DistinctTable distinctTable = (DistinctTable) resultsBlock.getAggregationResult().get(0);
+    Assert.assertEquals(distinctTable.size(), 10);
+
+    // Same for multiple columns
+    query = "SELECT DISTINCT(column1, column3) FROM testTable LIMIT 10";
+    aggregationOperator = getOperatorForPqlQuery(query);
+    resultsBlock = aggregationOperator.nextBlock();
+    QueriesTestUtils
+        .testInnerSegmentExecutionStatistics(aggregationOperator.getExecutionStatistics(), 10000L, 0L, 20000L, 30000L);
+    distinctTable = (DistinctTable) resultsBlock.getAggregationResult().get(0);
+    Assert.assertEquals(distinctTable.size(), 10);
+  }
 }
@@ -47,7 +47,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
     QueriesTestUtils
-        .testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 0L, 120000L, new String[]{"24516"});
+        .testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 0L, 120000L, new String[]{"24516"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
     QueriesTestUtils
@@ -55,7 +55,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
     QueriesTestUtils
-        .testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 24516L, 120000L, new String[]{"17080"});
+        .testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 24516L, 120000L, new String[]{"17080"});
   }
 
   @Test
@@ -69,7 +69,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146952047.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2146952047.00000", "999813884.00000"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -77,7 +77,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146952047.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2146952047.00000", "999813884.00000"});
   }
 
@@ -92,7 +92,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"240528.00000", "17891.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"101116473.00000", "20396372.00000"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -100,7 +100,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"240528.00000", "17891.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"101116473.00000", "20396372.00000"});
   }
 
@@ -113,7 +113,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"129268741751388.00000", "129156636756600.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"27503790384288.00000", "12429178874916.00000"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -121,7 +121,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"69526727335224.00000", "69225631719808.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"19058003631876.00000", "8606725456500.00000"});
   }
 
@@ -134,7 +134,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1077239514.59490", "1076305306.30500"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1121871038.68037", "506982332.96280"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -142,7 +142,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2142595699.00000", "2141451242.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -157,7 +157,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146711519.00000", "2147401664.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2045835574.00000", "979417512.00000"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -165,7 +165,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146711519.00000", "2146612605.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2044094181.00000", "979417512.00000"});
   }
 
@@ -179,7 +179,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"6582", "21910"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1872", "4556"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -187,7 +187,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"3495", "11961"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"1272", "3289"});
   }
 
@@ -200,7 +200,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"5977", "23825"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1886", "4492"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -208,7 +208,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"3592", "11889"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"1324", "3197"});
   }
 
@@ -225,7 +225,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
     QueriesTestUtils
-        .testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L, cardinalityExtractor,
+        .testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L, cardinalityExtractor,
             new String[]{"1886", "4492"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -235,7 +235,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
     QueriesTestUtils
-        .testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L, cardinalityExtractor,
+        .testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L, cardinalityExtractor,
             new String[]{"1324", "3197"});
   }
 
@@ -252,7 +252,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
           new String[]{"1107310944.00000", "1080136306.00000"});
 
       brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-      QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+      QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
           new String[]{"1139674505.00000", "505053732.00000"});
 
       brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -260,7 +260,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
           new String[]{"2146791843.00000", "2141451242.00000"});
 
       brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-      QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+      QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
           new String[]{"2142595699.00000", "999309554.00000"});
     }
   }
@@ -274,7 +274,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1943040511.00000", "1936611145.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1936730975.00000", "899534534.00000"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -282,7 +282,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2147278341.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -295,7 +295,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2071559385.00000", "2042409652.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2096857943.00000", "947763150.00000"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -303,7 +303,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699.00000", "999309554.00000"});
   }
 
@@ -316,7 +316,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2139354437.00000", "2125299552.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2146232405.00000", "990669195.00000"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -324,7 +324,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843.00000", "2147419555.00000"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2146232405.00000", "999309554.00000"});
   }
 
@@ -337,7 +337,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1107310944", "1082130431"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1139674505", "509607935"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -345,7 +345,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2141451242"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699", "999309554"});
   }
 
@@ -358,7 +358,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"1946157055", "1946157055"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"1939865599", "902299647"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -366,7 +366,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2147278341"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699", "999309554"});
   }
 
@@ -379,7 +379,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2080374783", "2051014655"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2109734911", "950009855"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -387,7 +387,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2147419555"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2142595699", "999309554"});
   }
 
@@ -400,7 +400,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2143289343", "2143289343"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 49032L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 49032L, 120000L,
         new String[]{"2146232405", "991952895"});
 
     brokerResponse = getBrokerResponseForPqlQuery(query + GROUP_BY);
@@ -408,7 +408,7 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
         new String[]{"2146791843", "2147419555"});
 
     brokerResponse = getBrokerResponseForPqlQueryWithFilter(query + GROUP_BY);
-    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
+    QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 287192L, 73548L, 120000L,
         new String[]{"2146232405", "999309554"});
   }
 
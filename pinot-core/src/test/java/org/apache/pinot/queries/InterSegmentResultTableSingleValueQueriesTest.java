@@ -73,7 +73,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{24516L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 0L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 0L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     // group by
@@ -92,7 +92,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"296467636", 17080L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 24516L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 24516L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     // empty results
@@ -129,7 +129,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{2146952047.0, 999813884.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "select max(column1) from testTable";
@@ -147,7 +147,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"296467636", 2146952047.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -175,7 +175,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{101116473.0, 20396372.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT MIN(column3) FROM testTable";
@@ -193,7 +193,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"296467636", 20396372.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -220,7 +220,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{27503790384288.0, 12429178874916.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT SUM(column3) FROM testTable";
@@ -238,7 +238,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"296467636", 8606725456500.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -265,7 +265,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{1121871038.680372, 506982332.9627998});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "select avg(column3) from testTable";
@@ -283,7 +283,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"438926263", 999309554.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -310,7 +310,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{2045835574.0, 979417512.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT MINMAXRANGE(column1) FROM testTable";
@@ -328,7 +328,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"296467636", 2044094181.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -356,7 +356,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{1872, 4556});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT DISTINCTCOUNT(column3) FROM testTable";
@@ -374,7 +374,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"296467636", 3289});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -401,7 +401,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{1886L, 4492L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT DISTINCTCOUNTHLL(column1) FROM testTable";
@@ -419,7 +419,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"296467636", 1324L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -482,7 +482,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     expectedRows = new ArrayList<>();
     expectedRows.add(new Object[]{hexStringHll1, hexStringHll2});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 51796L, 193884L, 103592L, 120000L, expectedRows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 51796L, 173212L, 103592L, 120000L, expectedRows, expectedResultsSize,
             dataSchema);
 
     // verify cardinality
@@ -497,7 +497,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     brokerResponse = getBrokerResponseForSqlQuery(query + filter);
     System.out.println(query + getFilter());
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 51796L, 193884L, 103592L, 120000L, expectedRows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 51796L, 173212L, 103592L, 120000L, expectedRows, expectedResultsSize,
             dataSchema);
 
     // 5. test aggregation + group by query
@@ -551,7 +551,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     dataSchema = new DataSchema(new String[]{"column9", "distinctcountrawhll(column1)"},
         new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.STRING});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 51796L, 193884L, 103592L, 120000L, expectedRows, expectedRows.size(),
+        .testInterSegmentResultTable(brokerResponse, 51796L, 173212L, 103592L, 120000L, expectedRows, expectedRows.size(),
             dataSchema);
     // verify cardinality
     rows = brokerResponse.getResultTable().getRows();
@@ -575,7 +575,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     dataSchema = new DataSchema(new String[]{"column9", "distinctcountrawhll(column1)"},
         new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 51796L, 193884L, 103592L, 120000L, expectedRows, expectedRows.size(),
+        .testInterSegmentResultTable(brokerResponse, 51796L, 173212L, 103592L, 120000L, expectedRows, expectedRows.size(),
             dataSchema);
   }
 
@@ -606,7 +606,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
       rows = new ArrayList<>();
       rows.add(new Object[]{1139674505.0, 505053732.0});
       QueriesTestUtils
-          .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+          .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
               dataSchema);
 
       query = "SELECT PERCENTILE50(column3) FROM testTable";
@@ -624,7 +624,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
       rows = new ArrayList<>();
       rows.add(new Object[]{"438926263", 999309554.0});
       QueriesTestUtils
-          .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+          .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
               dataSchema);
     }
   }
@@ -652,7 +652,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{1936730975.0, 899534534.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT PERCENTILE90(column3) FROM testTable";
@@ -670,7 +670,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"438926263", 999309554.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -697,7 +697,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{2096857943.0, 947763150.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT PERCENTILE95(column3) FROM testTable";
@@ -715,7 +715,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"438926263", 999309554.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -742,7 +742,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{2146232405.0, 990669195.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT PERCENTILE99(column3) FROM testTable";
@@ -760,7 +760,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"438926263", 999309554.0});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -787,7 +787,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{1139674505L, 509607935L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT PERCENTILEEST50(column3) FROM testTable";
@@ -805,7 +805,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"438926263", 999309554L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -832,7 +832,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{1939865599L, 902299647L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT PERCENTILEEST90(column3) FROM testTable";
@@ -850,7 +850,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"438926263", 999309554L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -877,7 +877,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{2109734911L, 950009855L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT PERCENTILEEST95(column3) FROM testTable";
@@ -895,7 +895,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"438926263", 999309554L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
@@ -922,7 +922,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{2146232405L, 991952895L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
 
     query = "SELECT PERCENTILEEST99(column3) FROM testTable";
@@ -940,7 +940,7 @@ public class InterSegmentResultTableSingleValueQueriesTest extends BaseSingleVal
     rows = new ArrayList<>();
     rows.add(new Object[]{"438926263", 999309554L});
     QueriesTestUtils
-        .testInterSegmentResultTable(brokerResponse, 24516L, 336536L, 49032L, 120000L, rows, expectedResultsSize,
+        .testInterSegmentResultTable(brokerResponse, 24516L, 287192L, 49032L, 120000L, rows, expectedResultsSize,
             dataSchema);
   }
 
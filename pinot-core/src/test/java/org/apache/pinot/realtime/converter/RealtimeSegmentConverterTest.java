@@ -18,8 +18,30 @@
  */
 package org.apache.pinot.realtime.converter;
 
+import com.yammer.metrics.core.MetricsRegistry;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImplTestUtils;
 import org.apache.pinot.core.realtime.converter.RealtimeSegmentConverter;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReaderContext;
+import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.virtualcolumn.VirtualColumnProviderFactory;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
@@ -29,12 +51,22 @@ import org.apache.pinot.spi.data.MetricFieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.TimeFieldSpec;
 import org.apache.pinot.spi.data.TimeGranularitySpec;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.StreamMessageMetadata;
 import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 
+@SuppressWarnings("rawtypes")
 public class RealtimeSegmentConverterTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "RealtimeSegmentConverterTest");
+  private static final String SORTED_COLUMN = "sortedColumn";
+  private static final String INT_COLUMN = "intColumn";
+  private static final String RAW_LONG_COLUMN = "rawLongColumn";
+  private static final String MV_INT_COLUMN = "mvIntColumn";
+  private static final int NUM_ROWS = 10000;
+  private static final Random RANDOM = new Random();
 
   @Test
   public void testNoVirtualColumnsInSchema() {
@@ -47,4 +79,114 @@ public class RealtimeSegmentConverterTest {
     Schema newSchema = RealtimeSegmentConverter.getUpdatedSchema(schema);
     Assert.assertEquals(newSchema.getColumnNames().size(), 2);
   }
+
+  @Test
+  public void testBuildByColumn()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension(SORTED_COLUMN, FieldSpec.DataType.STRING)
+        .addSingleValueDimension(INT_COLUMN, FieldSpec.DataType.INT)
+        .addMetric(RAW_LONG_COLUMN, FieldSpec.DataType.LONG)
+        .addMultiValueDimension(MV_INT_COLUMN, FieldSpec.DataType.INT).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.REALTIME).setTableName("testTable").build();
+    List<String> invertedIndexColumns = Arrays.asList(INT_COLUMN, MV_INT_COLUMN);
+    List<String> noDictionaryColumns = Collections.singletonList(RAW_LONG_COLUMN);
+    // The sorted column requires an inverted index in the mutable segment
+    MutableSegmentImpl mutableSegment = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, new HashSet<>(noDictionaryColumns), Collections.emptySet(),
+            new HashSet<>(Arrays.asList(SORTED_COLUMN, INT_COLUMN, MV_INT_COLUMN)), false);
+    StreamMessageMetadata metadata = new StreamMessageMetadata(System.currentTimeMillis());
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(SORTED_COLUMN, "value" + RANDOM.nextInt(100));
+      row.putValue(INT_COLUMN, RANDOM.nextInt(1000));
+      row.putValue(RAW_LONG_COLUMN, RANDOM.nextLong());
+      int numValues = 1 + RANDOM.nextInt(5);
+      Object[] values = new Object[numValues];
+      for (int j = 0; j < numValues; j++) {
+        values[j] = RANDOM.nextInt(50);
+      }
+      row.putValue(MV_INT_COLUMN, values);
+      mutableSegment.index(row, metadata);
+    }
+
+    FileUtils.deleteQuietly(TEMP_DIR);
+    File expectedDir = new File(TEMP_DIR, "expected");
+    File actualDir = new File(TEMP_DIR, "actual");
+    ServerMetrics serverMetrics = new ServerMetrics(new MetricsRegistry());
+    new RealtimeSegmentConverter(mutableSegment, expectedDir.getAbsolutePath(), schema, "testTable", tableConfig,
+        "testSegment", SORTED_COLUMN, invertedIndexColumns, Collections.emptyList(), noDictionaryColumns,
+        Collections.emptyList(), false).build(null, serverMetrics);
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      new RealtimeSegmentConverter(mutableSegment, actualDir.getAbsolutePath(), schema, "testTable", tableConfig,
+          "testSegment", SORTED_COLUMN, invertedIndexColumns, Collections.emptyList(), noDictionaryColumns,
+          Collections.emptyList(), false).build(null, serverMetrics, executorService);
+    } finally {
+      executorService.shutdown();
+    }
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setInvertedIndexColumns(new HashSet<>(invertedIndexColumns));
+    ImmutableSegment expectedSegment =
+        ImmutableSegmentLoader.load(new File(expectedDir, "testSegment"), indexLoadingConfig);
+    ImmutableSegment actualSegment = ImmutableSegmentLoader.load(new File(actualDir, "testSegment"), indexLoadingConfig);
+    try {
+      Assert.assertEquals(actualSegment.getSegmentMetadata().getTotalDocs(), NUM_ROWS);
+      Assert.assertTrue(actualSegment.getDataSource(SORTED_COLUMN).getDataSourceMetadata().isSorted());
+      for (String column : schema.getPhysicalColumnNames()) {
+        DataSource expectedDataSource = expectedSegment.getDataSource(column);
+        DataSource actualDataSource = actualSegment.getDataSource(column);
+        ForwardIndexReader expectedForwardIndex = expectedDataSource.getForwardIndex();
+        ForwardIndexReader actualForwardIndex = actualDataSource.getForwardIndex();
+        try (ForwardIndexReaderContext expectedContext = expectedForwardIndex.createContext();
+            ForwardIndexReaderContext actualContext = actualForwardIndex.createContext()) {
+          if (column.equals(RAW_LONG_COLUMN)) {
+            for (int docId = 0; docId < NUM_ROWS; docId++) {
+              Assert.assertEquals(actualForwardIndex.getLong(docId, actualContext),
+                  expectedForwardIndex.getLong(docId, expectedContext));
+            }
+            continue;
+          }
+
+          Dictionary expectedDictionary = expectedDataSource.getDictionary();
+          Dictionary actualDictionary = actualDataSource.getDictionary();
+          Assert.assertEquals(actualDictionary.length(), expectedDictionary.length());
+          for (int dictId = 0; dictId < expectedDictionary.length(); dictId++) {
+            Assert.assertEquals(actualDictionary.get(dictId), expectedDictionary.get(dictId));
+          }
+          if (column.equals(MV_INT_COLUMN)) {
+            int[] expectedDictIds = new int[5];
+            int[] actualDictIds = new int[5];
+            for (int docId = 0; docId < NUM_ROWS; docId++) {
+              int numValues = expectedForwardIndex.getDictIdMV(docId, expectedDictIds, expectedContext);
+              Assert.assertEquals(actualForwardIndex.getDictIdMV(docId, actualDictIds, actualContext), numValues);
+              for (int i = 0; i < numValues; i++) {
+                Assert.assertEquals(actualDictIds[i], expectedDictIds[i]);
+              }
+            }
+          } else {
+            for (int docId = 0; docId < NUM_ROWS; docId++) {
+              Assert.assertEquals(actualForwardIndex.getDictId(docId, actualContext),
+                  expectedForwardIndex.getDictId(docId, expectedContext));
+            }
+          }
+        }
+
+        if (invertedIndexColumns.contains(column)) {
+          InvertedIndexReader expectedInvertedIndex = expectedDataSource.getInvertedIndex();
+          InvertedIndexReader actualInvertedIndex = actualDataSource.getInvertedIndex();
+          for (int dictId = 0; dictId < expectedDataSource.getDictionary().length(); dictId++) {
+            Assert.assertEquals(actualInvertedIndex.getDocIds(dictId), expectedInvertedIndex.getDocIds(dictId));
+          }
+        }
+      }
+    } finally {
+      expectedSegment.destroy();
+      actualSegment.destroy();
+      mutableSegment.destroy();
+      FileUtils.deleteQuietly(TEMP_DIR);
+    }
+  }
 }
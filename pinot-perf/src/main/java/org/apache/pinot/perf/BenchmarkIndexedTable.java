@@ -35,6 +35,8 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.SimpleIndexedTable;
 import org.apache.pinot.core.query.request.context.QueryContext;
@@ -59,6 +61,7 @@ public class BenchmarkIndexedTable {
   private static final int TRIM_SIZE = 800;
   private static final int TRIM_THRESHOLD = TRIM_SIZE * 4;
   private static final int NUM_RECORDS = 1000;
+  private static final int NUM_PARTITIONS = 16;
   private static final Random RANDOM = new Random();
 
   private QueryContext _queryContext;
@@ -149,6 +152,55 @@ public class BenchmarkIndexedTable {
     }
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void partitionedIndexedTable()
+      throws InterruptedException {
+    int numSegments = 10;
+
+    // make 1 partitioned table
+    IndexedTable partitionedIndexedTable =
+        new PartitionedIndexedTable(_dataSchema, _queryContext, TRIM_SIZE, TRIM_THRESHOLD, NUM_PARTITIONS);
+
+    // 10 parallel threads putting 10k records into the table, each thread upserts its records as a batch
+
+    CountDownLatch operatorLatch = new CountDownLatch(numSegments);
+    Future[] futures = new Future[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      futures[i] = _executorService.submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          List<Key> keys = new ArrayList<>(NUM_RECORDS);
+          List<Record> records = new ArrayList<>(NUM_RECORDS);
+          for (int r = 0; r < NUM_RECORDS; r++) {
+            Record record = getNewRecord();
+            Object[] values = record.getValues();
+            keys.add(new Key(new Object[]{values[0], values[1]}));
+            records.add(record);
+          }
+          partitionedIndexedTable.upsert(keys, records);
+          operatorLatch.countDown();
+        }
+      });
+    }
+
+    try {
+      boolean opCompleted = operatorLatch.await(30, TimeUnit.SECONDS);
+      if (!opCompleted) {
+        System.out.println("Timed out............");
+      }
+      partitionedIndexedTable.finish(false);
+    } finally {
+      // Cancel all ongoing jobs
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+    }
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.writer.impl.BaseChunkSVForwardIndexWriter;
+import org.apache.pinot.core.io.writer.impl.FixedByteChunkSVForwardIndexWriter;
+import org.apache.pinot.core.io.writer.impl.VarByteChunkSVForwardIndexWriter;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
+import org.apache.pinot.core.segment.index.readers.forward.BaseChunkSVForwardIndexReader.ChunkReaderContext;
+import org.apache.pinot.core.segment.index.readers.forward.FixedByteChunkSVForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares the chunk compression codecs for raw (no-dictionary) forward indexes on read throughput. The size of the
+ * index generated with each codec is printed during setup to compare the compression ratio.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@State(Scope.Benchmark)
+public class BenchmarkRawForwardIndexCompression {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkRawForwardIndexCompression");
+  private static final int NUM_VALUES = 1_000_000;
+  private static final int NUM_DOCS_PER_CHUNK = 1000;
+  private static final int MAX_STRING_LENGTH = 100;
+  private static final int NUM_DISTINCT_STRINGS = 1000;
+  private static final int NUM_DOC_IDS = DocIdSetPlanNode.MAX_DOC_PER_CALL;
+  private static final Random RANDOM = new Random();
+
+  @Param({"PASS_THROUGH", "SNAPPY", "ZSTANDARD", "LZ4"})
+  public ChunkCompressorFactory.CompressionType _compressionType;
+
+  private PinotDataBuffer _stringDataBuffer;
+  private PinotDataBuffer _longDataBuffer;
+  private VarByteChunkSVForwardIndexReader _stringReader;
+  private FixedByteChunkSVForwardIndexReader _longReader;
+
+  private final int[] _sequentialDocIds = new int[NUM_DOC_IDS];
+  private final int[] _randomDocIds = new int[NUM_DOC_IDS];
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+    FileUtils.forceMkdir(INDEX_DIR);
+
+    // Use a limited set of distinct values so that the data is compressible, similar to real world string columns
+    String[] distinctStrings = new String[NUM_DISTINCT_STRINGS];
+    int lengthOfLongestEntry = 0;
+    for (int i = 0; i < NUM_DISTINCT_STRINGS; i++) {
+      distinctStrings[i] = RandomStringUtils.randomAlphanumeric(1 + RANDOM.nextInt(MAX_STRING_LENGTH));
+      lengthOfLongestEntry = Math.max(lengthOfLongestEntry, distinctStrings[i].length());
+    }
+    File stringIndexFile = new File(INDEX_DIR, "string-" + _compressionType);
+    try (VarByteChunkSVForwardIndexWriter indexWriter = new VarByteChunkSVForwardIndexWriter(stringIndexFile,
+        _compressionType, NUM_VALUES, NUM_DOCS_PER_CHUNK, lengthOfLongestEntry,
+        BaseChunkSVForwardIndexWriter.DEFAULT_VERSION)) {
+      for (int i = 0; i < NUM_VALUES; i++) {
+        indexWriter.putString(distinctStrings[RANDOM.nextInt(NUM_DISTINCT_STRINGS)]);
+      }
+    }
+
+    File longIndexFile = new File(INDEX_DIR, "long-" + _compressionType);
+    try (FixedByteChunkSVForwardIndexWriter indexWriter = new FixedByteChunkSVForwardIndexWriter(longIndexFile,
+        _compressionType, NUM_VALUES, NUM_DOCS_PER_CHUNK, Long.BYTES, BaseChunkSVForwardIndexWriter.DEFAULT_VERSION)) {
+      // Monotonically increasing values with small deltas, similar to time columns
+      long value = System.currentTimeMillis();
+      for (int i = 0; i < NUM_VALUES; i++) {
+        indexWriter.putLong(value);
+        value += RANDOM.nextInt(1000);
+      }
+    }
+
+    System.out.println(String.format("Compression type: %s, string index size: %d, long index size: %d",
+        _compressionType, stringIndexFile.length(), longIndexFile.length()));
+
+    _stringDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(stringIndexFile);
+    _stringReader = new VarByteChunkSVForwardIndexReader(_stringDataBuffer, DataType.STRING);
+    _longDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(longIndexFile);
+    _longReader = new FixedByteChunkSVForwardIndexReader(_longDataBuffer, DataType.LONG);
+
+    int sequentialDocId = RANDOM.nextInt(NUM_VALUES - NUM_DOC_IDS);
+    for (int i = 0; i < NUM_DOC_IDS; i++) {
+      _sequentialDocIds[i] = sequentialDocId++;
+      _randomDocIds[i] = RANDOM.nextInt(NUM_VALUES);
+    }
+  }
+
+  @TearDown
+  public void tearDown()
+      throws Exception {
+    _stringDataBuffer.close();
+    _longDataBuffer.close();
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+
+  @Benchmark
+  public void stringSequential(Blackhole blackhole)
+      throws Exception {
+    try (ChunkReaderContext context = _stringReader.createContext()) {
+      for (int docId : _sequentialDocIds) {
+        blackhole.consume(_stringReader.getString(docId, context));
+      }
+    }
+  }
+
+  @Benchmark
+  public void stringRandom(Blackhole blackhole)
+      throws Exception {
+    try (ChunkReaderContext context = _stringReader.createContext()) {
+      for (int docId : _randomDocIds) {
+        blackhole.consume(_stringReader.getString(docId, context));
+      }
+    }
+  }
+
+  @Benchmark
+  public long longSequential()
+      throws Exception {
+    long sum = 0;
+    try (ChunkReaderContext context = _longReader.createContext()) {
+      for (int docId : _sequentialDocIds) {
+        sum += _longReader.getLong(docId, context);
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long longRandom()
+      throws Exception {
+    long sum = 0;
+    try (ChunkReaderContext context = _longReader.createContext()) {
+      for (int docId : _randomDocIds) {
+        sum += _longReader.getLong(docId, context);
+      }
+    }
+    return sum;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkRawForwardIndexCompression.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.realtime.impl.SnapshotMutableRoaringBitmap;
+import org.apache.pinot.core.upsert.OffHeapUpsertMetadataStore;
+import org.apache.pinot.core.upsert.OnHeapUpsertMetadataStore;
+import org.apache.pinot.core.upsert.RecordLocation;
+import org.apache.pinot.core.upsert.UpsertMetadataStore;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares the upsert metadata stores against the map from primary key to record location object on update throughput
+ * and memory per primary key. The memory per primary key (excluding the primary key objects, which are shared by all
+ * the store types in this benchmark) is printed during setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@State(Scope.Benchmark)
+public class BenchmarkUpsertMetadataStore {
+  private static final int NUM_KEYS = 5_000_000;
+  private static final int NUM_SEGMENTS = 100;
+  private static final String SEGMENT_NAME = "testTable__0__0__20201201T0000Z";
+  private static final Random RANDOM = new Random();
+
+  @Param({"MAP", "ON_HEAP", "OFF_HEAP"})
+  public String _storeType;
+
+  @Param({"LONG", "STRING"})
+  public String _keyType;
+
+  private PrimaryKey[] _primaryKeys;
+  private SnapshotMutableRoaringBitmap _validDocIds;
+  private Map<PrimaryKey, RecordLocation> _recordLocationMap;
+  private UpsertMetadataStore _upsertMetadataStore;
+
+  @Setup
+  public void setUp() {
+    _primaryKeys = new PrimaryKey[NUM_KEYS];
+    for (int i = 0; i < NUM_KEYS; i++) {
+      _primaryKeys[i] = new PrimaryKey(new Object[]{_keyType.equals("LONG") ? (Object) (long) i : "key_" + i});
+    }
+    _validDocIds = new SnapshotMutableRoaringBitmap();
+
+    long heapUsedBefore = getHeapUsed();
+    switch (_storeType) {
+      case "MAP":
+        _recordLocationMap = new ConcurrentHashMap<>();
+        break;
+      case "ON_HEAP":
+        _upsertMetadataStore = new OnHeapUpsertMetadataStore();
+        break;
+      case "OFF_HEAP":
+        _upsertMetadataStore = new OffHeapUpsertMetadataStore("BenchmarkUpsertMetadataStore");
+        break;
+      default:
+        throw new IllegalStateException("Unsupported store type: " + _storeType);
+    }
+    for (int i = 0; i < NUM_KEYS; i++) {
+      upsert(_primaryKeys[i], i % NUM_SEGMENTS, i, i);
+    }
+    long heapUsed = getHeapUsed() - heapUsedBefore;
+    long offHeapUsed = _storeType.equals("OFF_HEAP") ? _upsertMetadataStore.getSizeInBytes() : 0;
+    System.out.println(
+        String.format("Store type: %s, key type: %s, heap bytes per key: %.1f, off-heap bytes per key: %.1f",
+            _storeType, _keyType, (double) heapUsed / NUM_KEYS, (double) offHeapUsed / NUM_KEYS));
+  }
+
+  @TearDown
+  public void tearDown()
+      throws IOException {
+    if (_upsertMetadataStore != null) {
+      _upsertMetadataStore.close();
+    }
+  }
+
+  @Benchmark
+  public boolean upsert() {
+    int index = RANDOM.nextInt(NUM_KEYS);
+    return upsert(_primaryKeys[index], index % NUM_SEGMENTS, index, System.currentTimeMillis());
+  }
+
+  private boolean upsert(PrimaryKey primaryKey, int segmentId, int docId, long timestamp) {
+    if (_recordLocationMap != null) {
+      // Same as the record location creation in the upsert metadata manager before introducing the stores
+      _recordLocationMap.compute(primaryKey, (key, currentRecordLocation) -> {
+        if (currentRecordLocation == null || timestamp >= currentRecordLocation.getTimestamp()) {
+          return new RecordLocation(SEGMENT_NAME, docId, timestamp, _validDocIds);
+        } else {
+          return currentRecordLocation;
+        }
+      });
+      return true;
+    } else {
+      return _upsertMetadataStore.upsert(primaryKey, segmentId, docId, timestamp,
+          new UpsertMetadataStore.RecordLocationUpdater() {
+            @Override
+            public boolean onNewKey() {
+              return true;
+            }
+
+            @Override
+            public boolean onExistingKey(int currentSegmentId, int currentDocId, long currentTimestamp) {
+              return timestamp >= currentTimestamp;
+            }
+          });
+    }
+  }
+
+  private static long getHeapUsed() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkUpsertMetadataStore.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.realtime.impl.SnapshotMutableRoaringBitmap;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Measures the contention between the consuming thread updating the valid doc ids for upsert and the query threads
+ * reading them, comparing the bitmap cloned under the lock against the published copy-on-write snapshot.
+ * <p>The writer thread keeps invalidating a random doc and validating another one (same as updating a primary key), and
+ * the reader threads get the valid doc ids and count them (a cheap stand-in for the filter on the valid doc ids).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@State(Scope.Group)
+public class BenchmarkValidDocIdsSnapshot {
+  private static final int NUM_DOCS = 5_000_000;
+
+  @Param({"LOCKED_CLONE", "SNAPSHOT"})
+  public String _bitmapType;
+
+  private ThreadSafeMutableRoaringBitmap _threadSafeBitmap;
+  private SnapshotMutableRoaringBitmap _snapshotBitmap;
+
+  @Setup
+  public void setUp() {
+    switch (_bitmapType) {
+      case "LOCKED_CLONE":
+        _threadSafeBitmap = new ThreadSafeMutableRoaringBitmap();
+        break;
+      case "SNAPSHOT":
+        _snapshotBitmap = new SnapshotMutableRoaringBitmap();
+        break;
+      default:
+        throw new IllegalStateException("Unsupported bitmap type: " + _bitmapType);
+    }
+    // Half of the docs are valid
+    for (int i = 0; i < NUM_DOCS; i += 2) {
+      add(i);
+    }
+    publish();
+  }
+
+  @Benchmark
+  @Group("contention")
+  @GroupThreads(1)
+  public void update() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    remove(random.nextInt(NUM_DOCS));
+    add(random.nextInt(NUM_DOCS));
+    publish();
+  }
+
+  @Benchmark
+  @Group("contention")
+  @GroupThreads(4)
+  public int query() {
+    ImmutableRoaringBitmap validDocIds =
+        _snapshotBitmap != null ? _snapshotBitmap.getSnapshot() : _threadSafeBitmap.getMutableRoaringBitmap();
+    return validDocIds.getCardinality();
+  }
+
+  private void add(int docId) {
+    if (_snapshotBitmap != null) {
+      _snapshotBitmap.add(docId);
+    } else {
+      _threadSafeBitmap.add(docId);
+    }
+  }
+
+  private void publish() {
+    if (_snapshotBitmap != null) {
+      _snapshotBitmap.publishSnapshot();
+    }
+  }
+
+  private void remove(int docId) {
+    if (_snapshotBitmap != null) {
+      _snapshotBitmap.remove(docId);
+    } else {
+      _threadSafeBitmap.remove(docId);
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkValidDocIdsSnapshot.class.getSimpleName()).build()).run();
+  }
+}
@@ -37,6 +37,7 @@ import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.Record;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.pinot.spi.data.readers.GenericRow;
@@ -72,6 +73,14 @@ public class KafkaAvroMessageDecoder implements StreamMessageDecoder<byte[]> {
   private DecoderFactory _decoderFactory;
   private RecordExtractor<GenericData.Record> _avroRecordExtractor;
 
+  // Reusable Avro reader, decoder and record for the schema of the last decoded message. Messages in a stream usually
+  // share the same schema, so this avoids creating a datum reader (which resolves the schema) and allocating a new
+  // decoder and record for every message.
+  private org.apache.avro.Schema _lastAvroSchema;
+  private DatumReader<Record> _datumReaderToReuse;
+  private BinaryDecoder _binaryDecoderToReuse;
+  private Record _avroRecordToReuse;
+
   private static final int MAGIC_BYTE_LENGTH = 1;
   private static final int SCHEMA_HASH_LENGTH = 16;
   private static final int HEADER_LENGTH = MAGIC_BYTE_LENGTH + SCHEMA_HASH_LENGTH;
@@ -162,11 +171,16 @@ public class KafkaAvroMessageDecoder implements StreamMessageDecoder<byte[]> {
         }
       }
     }
-    DatumReader<Record> reader = new GenericDatumReader<Record>(schema);
+    if (schema != _lastAvroSchema) {
+      _lastAvroSchema = schema;
+      _datumReaderToReuse = new GenericDatumReader<>(schema);
+      _avroRecordToReuse = null;
+    }
+    _binaryDecoderToReuse = _decoderFactory
+        .binaryDecoder(payload, HEADER_LENGTH + offset, length - HEADER_LENGTH, _binaryDecoderToReuse);
     try {
-      GenericData.Record avroRecord = reader.read(null,
-          _decoderFactory.createBinaryDecoder(payload, HEADER_LENGTH + offset, length - HEADER_LENGTH, null));
-      return _avroRecordExtractor.extract(avroRecord, destination);
+      _avroRecordToReuse = _datumReaderToReuse.read(_avroRecordToReuse, _binaryDecoderToReuse);
+      return _avroRecordExtractor.extract(_avroRecordToReuse, destination);
     } catch (IOException e) {
       LOGGER.error("Caught exception while reading message using schema {}{}",
           (schema == null ? "null" : schema.getName()),
@@ -112,6 +112,10 @@ public class KafkaConfluentSchemaRegistryAvroMessageDecoder implements StreamMes
 
   @Override
   public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
+    // The deserializer only takes the whole byte array, so only copy when the message is a slice of the array
+    if (offset == 0 && length == payload.length) {
+      return decode(payload, destination);
+    }
     return decode(Arrays.copyOfRange(payload, offset, offset + length), destination);
   }
 }
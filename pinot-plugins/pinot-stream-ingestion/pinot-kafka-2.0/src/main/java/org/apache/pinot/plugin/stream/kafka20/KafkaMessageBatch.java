@@ -18,44 +18,45 @@
  */
 package org.apache.pinot.plugin.stream.kafka20;
 
-import java.util.ArrayList;
+import com.google.common.collect.Lists;
 import java.util.List;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.utils.Bytes;
-import org.apache.pinot.plugin.stream.kafka.MessageAndOffset;
 import org.apache.pinot.spi.stream.LongMsgOffset;
 import org.apache.pinot.spi.stream.MessageBatch;
 import org.apache.pinot.spi.stream.StreamPartitionMsgOffset;
 
 
+/**
+ * Message batch backed by the records fetched by the Kafka consumer. The payload of each message is the byte array
+ * deserialized by the consumer, which is returned as is without copying or wrapping it per message.
+ */
 public class KafkaMessageBatch implements MessageBatch<byte[]> {
 
-  private List<MessageAndOffset> messageList = new ArrayList<>();
+  private final List<ConsumerRecord<String, Bytes>> _records;
 
   public KafkaMessageBatch(Iterable<ConsumerRecord<String, Bytes>> iterable) {
-    for (ConsumerRecord<String, Bytes> record : iterable) {
-      messageList.add(new MessageAndOffset(record.value().get(), record.offset()));
-    }
+    _records = Lists.newArrayList(iterable);
   }
 
   @Override
   public int getMessageCount() {
-    return messageList.size();
+    return _records.size();
   }
 
   @Override
   public byte[] getMessageAtIndex(int index) {
-    return messageList.get(index).getMessage().array();
+    return _records.get(index).value().get();
   }
 
   @Override
   public int getMessageOffsetAtIndex(int index) {
-    return messageList.get(index).getMessage().arrayOffset();
+    return 0;
   }
 
   @Override
   public int getMessageLengthAtIndex(int index) {
-    return messageList.get(index).payloadSize();
+    return _records.get(index).value().get().length;
   }
 
   @Override
@@ -65,6 +66,6 @@ public class KafkaMessageBatch implements MessageBatch<byte[]> {
 
   @Override
   public StreamPartitionMsgOffset getNextStreamParitionMsgOffsetAtIndex(int index) {
-    return new LongMsgOffset(messageList.get(index).getNextOffset());
+    return new LongMsgOffset(_records.get(index).offset() + 1);
   }
 }
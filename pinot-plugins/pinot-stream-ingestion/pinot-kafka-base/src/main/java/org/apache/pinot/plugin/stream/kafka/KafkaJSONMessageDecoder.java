@@ -18,17 +18,18 @@
  */
 package org.apache.pinot.plugin.stream.kafka;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordExtractor;
 import org.apache.pinot.spi.plugin.PluginManager;
 import org.apache.pinot.spi.stream.StreamMessageDecoder;
-import org.apache.pinot.spi.utils.JsonUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +44,8 @@ public class KafkaJSONMessageDecoder implements StreamMessageDecoder<byte[]> {
       "org.apache.pinot.plugin.inputformat.json.JSONRecordExtractor";
 
   private RecordExtractor<Map<String, Object>> _jsonRecordExtractor;
+  // Top-level fields to read from the message, or null to read all the fields
+  private Set<String> _fieldsToRead;
 
   @Override
   public void init(Map<String, String> props, Set<String> fieldsToRead, String topicName)
@@ -56,24 +59,49 @@ public class KafkaJSONMessageDecoder implements StreamMessageDecoder<byte[]> {
     }
     _jsonRecordExtractor = PluginManager.get().createInstance(recordExtractorClass);
     _jsonRecordExtractor.init(fieldsToRead, null);
+    _fieldsToRead = fieldsToRead != null && !fieldsToRead.isEmpty() ? fieldsToRead : null;
   }
 
   @Override
   public GenericRow decode(byte[] payload, GenericRow destination) {
+    return decode(payload, 0, payload.length, destination);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The message is parsed in place without copying the payload, and the values of the top-level fields that are not
+   * needed are skipped without being materialized.
+   */
+  @Override
+  public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
     try {
-      JsonNode message = JsonUtils.bytesToJsonNode(payload);
-      Map<String, Object> from = OBJECT_MAPPER.convertValue(message, new TypeReference<Map<String, Object>>() {
-      });
-      _jsonRecordExtractor.extract(from, destination);
+      _jsonRecordExtractor.extract(parse(payload, offset, length), destination);
       return destination;
     } catch (Exception e) {
-      LOGGER.error("Caught exception while decoding row, discarding row. Payload is {}", new String(payload), e);
+      LOGGER.error("Caught exception while decoding row, discarding row. Payload is {}",
+          new String(payload, offset, length, StandardCharsets.UTF_8), e);
       return null;
     }
   }
 
-  @Override
-  public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
-    return decode(Arrays.copyOfRange(payload, offset, offset + length), destination);
+  private Map<String, Object> parse(byte[] payload, int offset, int length)
+      throws IOException {
+    try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(payload, offset, length)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expecting JSON object, got: " + parser.getCurrentToken());
+      }
+      Map<String, Object> from = new HashMap<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        if (_fieldsToRead == null || _fieldsToRead.contains(fieldName)) {
+          from.put(fieldName, OBJECT_MAPPER.readValue(parser, Object.class));
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return from;
+    }
   }
 }
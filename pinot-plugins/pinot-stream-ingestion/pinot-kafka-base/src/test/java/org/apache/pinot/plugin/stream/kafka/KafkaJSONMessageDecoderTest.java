@@ -23,6 +23,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -78,6 +80,20 @@ public class KafkaJSONMessageDecoderTest {
     testJsonDecoder(sourceFields);
   }
 
+  @Test
+  public void testJsonDecoderWithOffsetAndLength()
+      throws Exception {
+    KafkaJSONMessageDecoder decoder = new KafkaJSONMessageDecoder();
+    decoder.init(new HashMap<>(), Collections.singleton("a"), "testTopic");
+    byte[] message = "{\"a\":1,\"b\":{\"c\":[1,2]}}".getBytes(StandardCharsets.UTF_8);
+    byte[] payload = new byte[message.length + 10];
+    System.arraycopy(message, 0, payload, 5, message.length);
+    GenericRow row = decoder.decode(payload, 5, message.length, new GenericRow());
+    Assert.assertNotNull(row);
+    Assert.assertEquals(row.getValue("a"), 1);
+    Assert.assertNull(row.getValue("b"));
+  }
+
   private void testJsonDecoder(Map<String, FieldSpec.DataType> sourceFields)
       throws Exception {
     try (BufferedReader reader = new BufferedReader(
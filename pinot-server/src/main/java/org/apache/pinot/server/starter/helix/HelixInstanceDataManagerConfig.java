@@ -66,6 +66,18 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   // Unlimited parallel builds can cause high GC pauses during segment builds, causing
   // response times to suffer.
   private static final String MAX_PARALLEL_SEGMENT_BUILDS = "realtime.max.parallel.segment.builds";
+  // Number of threads shared across all realtime tables to build the indexes of different columns in parallel when
+  // converting the consuming segments into immutable segments (0 means building the segments on the consuming threads)
+  private static final String SEGMENT_BUILD_NUM_THREADS = "realtime.segment.build.num.threads";
+  // Off-heap memory budget (e.g. 10G) shared by all the consuming segments, where the largest consuming segments are
+  // committed early when the budget is approached (not set means no budget)
+  private static final String REALTIME_CONSUMPTION_MEMORY_BUDGET = "realtime.consumption.memory.budget";
+  // Max number of partitions (across all realtime tables) indexing message batches at the same time, which bounds the
+  // CPU used by the consumption so that it does not starve the query execution (0 means no limit)
+  private static final String REALTIME_CONSUMPTION_MAX_CONCURRENT_PARTITIONS =
+      "realtime.consumption.max.concurrent.partitions";
+  // Max number of rows per second consumed across all realtime tables (0 means no limit)
+  private static final String REALTIME_CONSUMPTION_MAX_ROWS_PER_SECOND = "realtime.consumption.max.rows.per.second";
 
   // Key of whether to enable split commit
   private static final String ENABLE_SPLIT_COMMIT = "enable.split.commit";
@@ -194,6 +206,26 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getProperty(MAX_PARALLEL_SEGMENT_BUILDS, 0);
   }
 
+  @Override
+  public int getSegmentBuildNumThreads() {
+    return _instanceDataManagerConfiguration.getProperty(SEGMENT_BUILD_NUM_THREADS, 0);
+  }
+
+  @Override
+  public String getRealtimeConsumptionMemoryBudget() {
+    return _instanceDataManagerConfiguration.getProperty(REALTIME_CONSUMPTION_MEMORY_BUDGET);
+  }
+
+  @Override
+  public int getRealtimeConsumptionMaxConcurrentPartitions() {
+    return _instanceDataManagerConfiguration.getProperty(REALTIME_CONSUMPTION_MAX_CONCURRENT_PARTITIONS, 0);
+  }
+
+  @Override
+  public double getRealtimeConsumptionMaxRowsPerSecond() {
+    return _instanceDataManagerConfiguration.getProperty(REALTIME_CONSUMPTION_MAX_ROWS_PER_SECOND, 0.0);
+  }
+
   @Override
   public String toString() {
     String configString = "";
@@ -57,7 +57,9 @@ import org.apache.pinot.common.utils.NetUtil;
 import org.apache.pinot.common.utils.ServiceStatus;
 import org.apache.pinot.common.utils.ServiceStatus.Status;
 import org.apache.pinot.common.utils.config.TagNameUtils;
+import org.apache.pinot.core.common.datatable.DataTableFactory;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.apache.pinot.server.api.access.AccessControlFactory;
@@ -310,6 +312,14 @@ public class HelixServerStarter implements ServiceStartable {
     ServerSegmentCompletionProtocolHandler
         .init(_serverConf.subset(SegmentCompletionProtocol.PREFIX_OF_CONFIG_OF_SEGMENT_UPLOADER));
     ServerConf serverInstanceConfig = DefaultHelixStarterServerConfig.getDefaultHelixServerConfig(_serverConf);
+    int dataTableVersion =
+        _serverConf.getProperty(Server.CONFIG_OF_DATA_TABLE_VERSION, Server.DEFAULT_DATA_TABLE_VERSION);
+    String dataTableCompressionTypeString = _serverConf
+        .getProperty(Server.CONFIG_OF_DATA_TABLE_COMPRESSION_TYPE, Server.DEFAULT_DATA_TABLE_COMPRESSION_TYPE);
+    ChunkCompressorFactory.CompressionType dataTableCompressionType =
+        ChunkCompressorFactory.CompressionType.valueOf(dataTableCompressionTypeString.toUpperCase());
+    LOGGER.info("Setting data table version: {}, compression type: {}", dataTableVersion, dataTableCompressionType);
+    DataTableFactory.init(dataTableVersion, dataTableCompressionType);
     _serverInstance = new ServerInstance(serverInstanceConfig, _helixManager);
     ServerMetrics serverMetrics = _serverInstance.getServerMetrics();
     InstanceDataManager instanceDataManager = _serverInstance.getInstanceDataManager();
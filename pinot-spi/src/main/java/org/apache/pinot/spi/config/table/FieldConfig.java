@@ -31,6 +31,7 @@ public class FieldConfig extends BaseJsonConfig {
   private final String _name;
   private final EncodingType _encodingType;
   private final IndexType _indexType;
+  private final CompressionCodec _compressionCodec;
   private final Map<String, String> _properties;
 
   public static String BLOOM_FILTER_COLUMN_KEY = "createBloomFilter";
@@ -48,15 +49,25 @@ public class FieldConfig extends BaseJsonConfig {
   public static String TEXT_INDEX_RAW_VALUE = "rawValueForTextIndex";
   public static String TEXT_INDEX_DEFAULT_RAW_VALUE = "n";
 
+  // Resolution of the geo index grid, see GeoIndexUtils for the cell size at each resolution
+  public static String GEO_INDEX_RESOLUTION_KEY = "geoIndexResolution";
+
+  public FieldConfig(String name, @Nullable EncodingType encodingType, @Nullable IndexType indexType,
+      @Nullable Map<String, String> properties) {
+    this(name, encodingType, indexType, null, properties);
+  }
+
   @JsonCreator
   public FieldConfig(@JsonProperty(value = "name", required = true) String name,
       @JsonProperty(value = "encodingType") @Nullable EncodingType encodingType,
       @JsonProperty(value = "indexType") @Nullable IndexType indexType,
+      @JsonProperty(value = "compressionCodec") @Nullable CompressionCodec compressionCodec,
       @JsonProperty(value = "properties") @Nullable Map<String, String> properties) {
     Preconditions.checkArgument(name != null, "'name' must be configured");
     _name = name;
     _encodingType = encodingType;
     _indexType = indexType;
+    _compressionCodec = compressionCodec;
     _properties = properties;
   }
 
@@ -67,7 +78,13 @@ public class FieldConfig extends BaseJsonConfig {
 
   // If null, there won't be any index
   public enum IndexType {
-    INVERTED, SORTED, TEXT
+    INVERTED, SORTED, TEXT, GEO
+  }
+
+  // Compression codec for the raw (no-dictionary) forward index
+  // If null, SNAPPY is used for dimension columns and PASS_THROUGH for metric columns
+  public enum CompressionCodec {
+    PASS_THROUGH, SNAPPY, ZSTANDARD, LZ4
   }
 
   public String getName() {
@@ -84,6 +101,11 @@ public class FieldConfig extends BaseJsonConfig {
     return _indexType;
   }
 
+  @Nullable
+  public CompressionCodec getCompressionCodec() {
+    return _compressionCodec;
+  }
+
   @Nullable
   public Map<String, String> getProperties() {
     return _properties;
@@ -28,6 +28,7 @@ import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
 public class IndexingConfig extends BaseJsonConfig {
   private List<String> _invertedIndexColumns;
   private List<String> _rangeIndexColumns;
+  private List<String> _jsonIndexColumns;
   private boolean _autoGeneratedInvertedIndex;
   private boolean _createInvertedIndexDuringSegmentGeneration;
   private List<String> _sortedColumn;
@@ -47,6 +48,9 @@ public class IndexingConfig extends BaseJsonConfig {
   private boolean _enableDynamicStarTreeCreation;
   private SegmentPartitionConfig _segmentPartitionConfig;
   private boolean _aggregateMetrics;
+  // Aggregation function (e.g. SUM, MIN, MAX, COUNT, DISTINCTCOUNTHLL, DISTINCTCOUNTTHETASKETCH) for each metric column
+  // when metrics are aggregated in the consuming segment, where the metrics not configured are summed
+  private Map<String, String> _metricsAggregators;
   private boolean _nullHandlingEnabled;
 
   /**
@@ -73,6 +77,15 @@ public class IndexingConfig extends BaseJsonConfig {
     _rangeIndexColumns = rangeIndexColumns;
   }
 
+  @Nullable
+  public List<String> getJsonIndexColumns() {
+    return _jsonIndexColumns;
+  }
+
+  public void setJsonIndexColumns(List<String> jsonIndexColumns) {
+    _jsonIndexColumns = jsonIndexColumns;
+  }
+
   public boolean isAutoGeneratedInvertedIndex() {
     return _autoGeneratedInvertedIndex;
   }
@@ -233,6 +246,15 @@ public class IndexingConfig extends BaseJsonConfig {
     _aggregateMetrics = value;
   }
 
+  @Nullable
+  public Map<String, String> getMetricsAggregators() {
+    return _metricsAggregators;
+  }
+
+  public void setMetricsAggregators(Map<String, String> metricsAggregators) {
+    _metricsAggregators = metricsAggregators;
+  }
+
   public boolean isNullHandlingEnabled() {
     return _nullHandlingEnabled;
   }
@@ -38,14 +38,29 @@ public class QueryConfig extends BaseJsonConfig {
   // because by the time the server times out, the broker should already timed out and returned the response.
   private final Long _timeoutMs;
 
+  // Whether to cache the results of the offline part of the queries on the broker side. The cached results are
+  // invalidated when the segments of the offline table change. The real-time part of the queries (after the time
+  // boundary for hybrid table) is never cached.
+  private final boolean _resultCacheEnabled;
+
+  public QueryConfig(@Nullable Long timeoutMs) {
+    this(timeoutMs, null);
+  }
+
   @JsonCreator
-  public QueryConfig(@JsonProperty("timeoutMs") @Nullable Long timeoutMs) {
+  public QueryConfig(@JsonProperty("timeoutMs") @Nullable Long timeoutMs,
+      @JsonProperty("resultCacheEnabled") @Nullable Boolean resultCacheEnabled) {
     Preconditions.checkArgument(timeoutMs == null || timeoutMs > 0, "Invalid 'timeoutMs': %s", timeoutMs);
     _timeoutMs = timeoutMs;
+    _resultCacheEnabled = resultCacheEnabled != null && resultCacheEnabled;
   }
 
   @Nullable
   public Long getTimeoutMs() {
     return _timeoutMs;
   }
+
+  public boolean isResultCacheEnabled() {
+    return _resultCacheEnabled;
+  }
 }
@@ -21,6 +21,9 @@ package org.apache.pinot.spi.config.table;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
+import java.util.Collections;
+import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.pinot.spi.config.BaseJsonConfig;
 
 
@@ -30,16 +33,63 @@ public class UpsertConfig extends BaseJsonConfig {
     FULL, PARTIAL, NONE
   }
 
+  // Where to keep the primary key to record location map on the server
+  public enum MetadataStoreType {
+    ON_HEAP, OFF_HEAP
+  }
+
+  // How to merge the value of a column with the value of the previous record of the same primary key for partial upsert
+  public enum Strategy {
+    // Take the new value
+    OVERWRITE,
+    // Take the new value, or keep the previous value if the new value is null
+    IGNORE_NULL,
+    // Add the new value to the previous value (single-value numeric column)
+    INCREMENT,
+    // Append the new values to the previous values (multi-value column)
+    APPEND,
+    // Add the new values that do not exist in the previous values (multi-value column)
+    UNION
+  }
+
   private final Mode _mode;
+  private final MetadataStoreType _metadataStoreType;
+  private final Map<String, Strategy> _partialUpsertStrategies;
+
+  public UpsertConfig(Mode mode) {
+    this(mode, null);
+  }
 
+  public UpsertConfig(Mode mode, @Nullable MetadataStoreType metadataStoreType) {
+    this(mode, metadataStoreType, null);
+  }
+
+  /**
+   * @param partialUpsertStrategies Merge strategy for each column for partial upsert, where the columns not configured
+   *                                use {@link Strategy#OVERWRITE}
+   */
   @JsonCreator
-  public UpsertConfig(@JsonProperty(value = "mode", required = true) Mode mode) {
+  public UpsertConfig(@JsonProperty(value = "mode", required = true) Mode mode,
+      @JsonProperty(value = "metadataStoreType") @Nullable MetadataStoreType metadataStoreType,
+      @JsonProperty(value = "partialUpsertStrategies") @Nullable Map<String, Strategy> partialUpsertStrategies) {
     Preconditions.checkArgument(mode != null, "Upsert mode must be configured");
-    Preconditions.checkArgument(mode != Mode.PARTIAL, "Partial upsert mode is not supported");
+    Preconditions.checkArgument(
+        mode == Mode.PARTIAL || partialUpsertStrategies == null || partialUpsertStrategies.isEmpty(),
+        "Partial upsert strategies can only be configured for partial upsert mode");
     _mode = mode;
+    _metadataStoreType = metadataStoreType != null ? metadataStoreType : MetadataStoreType.ON_HEAP;
+    _partialUpsertStrategies = partialUpsertStrategies != null ? partialUpsertStrategies : Collections.emptyMap();
   }
 
   public Mode getMode() {
     return _mode;
   }
+
+  public MetadataStoreType getMetadataStoreType() {
+    return _metadataStoreType;
+  }
+
+  public Map<String, Strategy> getPartialUpsertStrategies() {
+    return _partialUpsertStrategies;
+  }
 }
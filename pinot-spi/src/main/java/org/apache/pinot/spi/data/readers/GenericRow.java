@@ -111,6 +111,14 @@ public class GenericRow {
     return _nullValueFields.contains(fieldName);
   }
 
+  /**
+   * Removes the {@code nullField} for the given field, which should be called when the default null value of the field is
+   * replaced with a non-null value.
+   */
+  public void removeNullValueField(String fieldName) {
+    _nullValueFields.remove(fieldName);
+  }
+
   /**
    * Returns whether this row has null values for any of the columns
    */
@@ -48,6 +48,9 @@ public class StreamConfig {
   public static final long DEFAULT_FLUSH_THRESHOLD_TIME_MILLIS = TimeUnit.MILLISECONDS.convert(6, TimeUnit.HOURS);
   public static final long DEFAULT_FLUSH_THRESHOLD_SEGMENT_SIZE_BYTES = 200 * 1024 * 1024; // 200M
   public static final int DEFAULT_FLUSH_AUTOTUNE_INITIAL_ROWS = 100_000;
+  public static final int DEFAULT_CONSUMER_DECODE_NUM_THREADS = 0;
+  public static final int DEFAULT_CONSUMER_MAX_CONCURRENT_PARTITIONS = 0;
+  public static final double DEFAULT_CONSUMER_MAX_ROWS_PER_SECOND = 0;
 
   public static final String DEFAULT_CONSUMER_FACTORY_CLASS_NAME_STRING =
       "org.apache.pinot.plugin.stream.kafka09.KafkaConsumerFactory";
@@ -74,6 +77,10 @@ public class StreamConfig {
   private final long _flushThresholdSegmentSizeBytes;
   private final int _flushAutotuneInitialRows; // initial num rows to use for SegmentSizeBasedFlushThresholdUpdater
 
+  private final int _consumerDecodeNumThreads;
+  private final int _consumerMaxConcurrentPartitions;
+  private final double _consumerMaxRowsPerSecond;
+
   private final String _groupId;
 
   private final Map<String, String> _streamConfigMap = new HashMap<>();
@@ -178,6 +185,47 @@ public class StreamConfig {
     }
     _flushAutotuneInitialRows = autotuneInitialRows > 0 ? autotuneInitialRows : DEFAULT_FLUSH_AUTOTUNE_INITIAL_ROWS;
 
+    int consumerDecodeNumThreads = DEFAULT_CONSUMER_DECODE_NUM_THREADS;
+    String decodeNumThreadsValue = streamConfigMap.get(StreamConfigProperties.REALTIME_CONSUMER_DECODE_NUM_THREADS);
+    if (decodeNumThreadsValue != null) {
+      try {
+        consumerDecodeNumThreads = Integer.parseInt(decodeNumThreadsValue);
+      } catch (Exception e) {
+        LOGGER.warn("Invalid config {}: {}, defaulting to: {}",
+            StreamConfigProperties.REALTIME_CONSUMER_DECODE_NUM_THREADS, decodeNumThreadsValue,
+            DEFAULT_CONSUMER_DECODE_NUM_THREADS);
+      }
+    }
+    _consumerDecodeNumThreads = Math.max(consumerDecodeNumThreads, DEFAULT_CONSUMER_DECODE_NUM_THREADS);
+
+    int consumerMaxConcurrentPartitions = DEFAULT_CONSUMER_MAX_CONCURRENT_PARTITIONS;
+    String maxConcurrentPartitionsValue =
+        streamConfigMap.get(StreamConfigProperties.REALTIME_CONSUMER_MAX_CONCURRENT_PARTITIONS);
+    if (maxConcurrentPartitionsValue != null) {
+      try {
+        consumerMaxConcurrentPartitions = Integer.parseInt(maxConcurrentPartitionsValue);
+      } catch (Exception e) {
+        LOGGER.warn("Invalid config {}: {}, defaulting to: {}",
+            StreamConfigProperties.REALTIME_CONSUMER_MAX_CONCURRENT_PARTITIONS, maxConcurrentPartitionsValue,
+            DEFAULT_CONSUMER_MAX_CONCURRENT_PARTITIONS);
+      }
+    }
+    _consumerMaxConcurrentPartitions =
+        Math.max(consumerMaxConcurrentPartitions, DEFAULT_CONSUMER_MAX_CONCURRENT_PARTITIONS);
+
+    double consumerMaxRowsPerSecond = DEFAULT_CONSUMER_MAX_ROWS_PER_SECOND;
+    String maxRowsPerSecondValue = streamConfigMap.get(StreamConfigProperties.REALTIME_CONSUMER_MAX_ROWS_PER_SECOND);
+    if (maxRowsPerSecondValue != null) {
+      try {
+        consumerMaxRowsPerSecond = Double.parseDouble(maxRowsPerSecondValue);
+      } catch (Exception e) {
+        LOGGER.warn("Invalid config {}: {}, defaulting to: {}",
+            StreamConfigProperties.REALTIME_CONSUMER_MAX_ROWS_PER_SECOND, maxRowsPerSecondValue,
+            DEFAULT_CONSUMER_MAX_ROWS_PER_SECOND);
+      }
+    }
+    _consumerMaxRowsPerSecond = Math.max(consumerMaxRowsPerSecond, DEFAULT_CONSUMER_MAX_ROWS_PER_SECOND);
+
     String groupIdKey = StreamConfigProperties.constructStreamProperty(_type, StreamConfigProperties.GROUP_ID);
     _groupId = streamConfigMap.get(groupIdKey);
 
@@ -313,6 +361,18 @@ public class StreamConfig {
     return _flushAutotuneInitialRows;
   }
 
+  public int getConsumerDecodeNumThreads() {
+    return _consumerDecodeNumThreads;
+  }
+
+  public int getConsumerMaxConcurrentPartitions() {
+    return _consumerMaxConcurrentPartitions;
+  }
+
+  public double getConsumerMaxRowsPerSecond() {
+    return _consumerMaxRowsPerSecond;
+  }
+
   public String getGroupId() {
     return _groupId;
   }
@@ -332,7 +392,9 @@ public class StreamConfig {
         + _offsetCriteria + '\'' + ", _connectionTimeoutMillis=" + _connectionTimeoutMillis + ", _fetchTimeoutMillis="
         + _fetchTimeoutMillis + ", _flushThresholdRows=" + _flushThresholdRows + ", _flushThresholdTimeMillis="
         + _flushThresholdTimeMillis + ", _flushSegmentDesiredSizeBytes=" + _flushThresholdSegmentSizeBytes
-        + ", _flushAutotuneInitialRows=" + _flushAutotuneInitialRows + ", _decoderClass='" + _decoderClass + '\''
+        + ", _flushAutotuneInitialRows=" + _flushAutotuneInitialRows + ", _consumerDecodeNumThreads="
+        + _consumerDecodeNumThreads + ", _consumerMaxConcurrentPartitions=" + _consumerMaxConcurrentPartitions
+        + ", _consumerMaxRowsPerSecond=" + _consumerMaxRowsPerSecond + ", _decoderClass='" + _decoderClass + '\''
         + ", _decoderProperties=" + _decoderProperties + ", _groupId='" + _groupId + ", _tableNameWithType='"
         + _tableNameWithType + '}';
   }
@@ -354,7 +416,10 @@ public class StreamConfig {
         .isEqual(_flushThresholdRows, that._flushThresholdRows) && EqualityUtils
         .isEqual(_flushThresholdTimeMillis, that._flushThresholdTimeMillis) && EqualityUtils
         .isEqual(_flushThresholdSegmentSizeBytes, that._flushThresholdSegmentSizeBytes) && EqualityUtils
-        .isEqual(_flushAutotuneInitialRows, that._flushAutotuneInitialRows) && EqualityUtils.isEqual(_type, that._type)
+        .isEqual(_flushAutotuneInitialRows, that._flushAutotuneInitialRows) && EqualityUtils
+        .isEqual(_consumerDecodeNumThreads, that._consumerDecodeNumThreads) && EqualityUtils
+        .isEqual(_consumerMaxConcurrentPartitions, that._consumerMaxConcurrentPartitions) && EqualityUtils
+        .isEqual(_consumerMaxRowsPerSecond, that._consumerMaxRowsPerSecond) && EqualityUtils.isEqual(_type, that._type)
         && EqualityUtils.isEqual(_topicName, that._topicName) && EqualityUtils
         .isEqual(_consumerTypes, that._consumerTypes) && EqualityUtils
         .isEqual(_consumerFactoryClassName, that._consumerFactoryClassName) && EqualityUtils
@@ -377,6 +442,9 @@ public class StreamConfig {
     result = EqualityUtils.hashCodeOf(result, _flushThresholdTimeMillis);
     result = EqualityUtils.hashCodeOf(result, _flushThresholdSegmentSizeBytes);
     result = EqualityUtils.hashCodeOf(result, _flushAutotuneInitialRows);
+    result = EqualityUtils.hashCodeOf(result, _consumerDecodeNumThreads);
+    result = EqualityUtils.hashCodeOf(result, _consumerMaxConcurrentPartitions);
+    result = EqualityUtils.hashCodeOf(result, _consumerMaxRowsPerSecond);
     result = EqualityUtils.hashCodeOf(result, _decoderClass);
     result = EqualityUtils.hashCodeOf(result, _decoderProperties);
     result = EqualityUtils.hashCodeOf(result, _groupId);
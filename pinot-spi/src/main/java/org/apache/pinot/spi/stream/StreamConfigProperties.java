@@ -103,6 +103,27 @@ public class StreamConfigProperties {
   // Time threshold that controller will wait for the segment to be built by the server
   public static final String SEGMENT_COMMIT_TIMEOUT_SECONDS = "realtime.segment.commit.timeoutSeconds";
 
+  /**
+   * Number of threads used to decode and transform the fetched messages in parallel with indexing. The threads are
+   * shared by all the consuming partitions of the table on a server. When set to a positive value, the next batch of
+   * messages is also prefetched (on as many shared threads) while the current one is being indexed. By default (0),
+   * messages are decoded, transformed and indexed sequentially on the consuming thread.
+   */
+  public static final String REALTIME_CONSUMER_DECODE_NUM_THREADS = "realtime.consumer.decode.numThreads";
+
+  /**
+   * Maximum number of partitions of the table that can index messages at the same time on a server. The partitions
+   * beyond the limit wait between two batches of messages for another partition to finish its batch. By default (0),
+   * the number of concurrent partitions is not limited.
+   */
+  public static final String REALTIME_CONSUMER_MAX_CONCURRENT_PARTITIONS = "realtime.consumer.maxConcurrentPartitions";
+
+  /**
+   * Maximum number of rows per second consumed by all the partitions of the table on a server. By default (0), the
+   * consumption rate is not limited.
+   */
+  public static final String REALTIME_CONSUMER_MAX_ROWS_PER_SECOND = "realtime.consumer.maxRowsPerSecond";
+
   /**
    * Helper method to create a stream specific property
    */
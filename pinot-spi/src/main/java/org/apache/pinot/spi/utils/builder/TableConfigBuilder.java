@@ -87,6 +87,7 @@ public class TableConfigBuilder {
   private List<String> _onHeapDictionaryColumns;
   private List<String> _bloomFilterColumns;
   private List<String> _rangeIndexColumns;
+  private List<String> _jsonIndexColumns;
   private Map<String, String> _streamConfigs;
   private SegmentPartitionConfig _segmentPartitionConfig;
   private boolean _nullHandlingEnabled;
@@ -250,6 +251,11 @@ public class TableConfigBuilder {
     return this;
   }
 
+  public TableConfigBuilder setJsonIndexColumns(List<String> jsonIndexColumns) {
+    _jsonIndexColumns = jsonIndexColumns;
+    return this;
+  }
+
   public TableConfigBuilder setVarLengthDictionaryColumns(List<String> varLengthDictionaryColumns) {
     _varLengthDictionaryColumns = varLengthDictionaryColumns;
     return this;
@@ -368,6 +374,7 @@ public class TableConfigBuilder {
     indexingConfig.setOnHeapDictionaryColumns(_onHeapDictionaryColumns);
     indexingConfig.setBloomFilterColumns(_bloomFilterColumns);
     indexingConfig.setRangeIndexColumns(_rangeIndexColumns);
+    indexingConfig.setJsonIndexColumns(_jsonIndexColumns);
     indexingConfig.setStreamConfigs(_streamConfigs);
     indexingConfig.setSegmentPartitionConfig(_segmentPartitionConfig);
     indexingConfig.setNullHandlingEnabled(_nullHandlingEnabled);
@@ -38,6 +38,10 @@ public class IndexingConfigTest {
     IndexingConfig indexingConfig = new IndexingConfig();
     indexingConfig.setLoadMode("MMAP");
     indexingConfig.setAggregateMetrics(true);
+    Map<String, String> metricsAggregators = new HashMap<>();
+    metricsAggregators.put("m1", "MAX");
+    metricsAggregators.put("m2", "DISTINCTCOUNTHLL");
+    indexingConfig.setMetricsAggregators(metricsAggregators);
     List<String> invertedIndexColumns = Arrays.asList("a", "b", "c");
     indexingConfig.setInvertedIndexColumns(invertedIndexColumns);
     List<String> sortedColumn = Arrays.asList("d", "e", "f");
@@ -57,6 +61,7 @@ public class IndexingConfigTest {
 
     assertEquals(indexingConfig.getLoadMode(), "MMAP");
     assertTrue(indexingConfig.isAggregateMetrics());
+    assertEquals(indexingConfig.getMetricsAggregators(), metricsAggregators);
     assertEquals(indexingConfig.getInvertedIndexColumns(), invertedIndexColumns);
     assertEquals(indexingConfig.getSortedColumn(), sortedColumn);
     assertEquals(indexingConfig.getOnHeapDictionaryColumns(), onHeapDictionaryColumns);
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.spi.config.table;
 
+import java.util.Collections;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
@@ -30,10 +31,18 @@ public class UpsertConfigTest {
   public void testUpsertConfig() {
     UpsertConfig upsertConfig = new UpsertConfig(UpsertConfig.Mode.FULL);
     assertEquals(upsertConfig.getMode(), UpsertConfig.Mode.FULL);
+    assertEquals(upsertConfig.getPartialUpsertStrategies(), Collections.emptyMap());
+
+    upsertConfig = new UpsertConfig(UpsertConfig.Mode.PARTIAL, null,
+        Collections.singletonMap("myCol", UpsertConfig.Strategy.INCREMENT));
+    assertEquals(upsertConfig.getMode(), UpsertConfig.Mode.PARTIAL);
+    assertEquals(upsertConfig.getPartialUpsertStrategies(),
+        Collections.singletonMap("myCol", UpsertConfig.Strategy.INCREMENT));
 
     // Test illegal arguments
     try {
-      new UpsertConfig(UpsertConfig.Mode.PARTIAL);
+      new UpsertConfig(UpsertConfig.Mode.FULL, null,
+          Collections.singletonMap("myCol", UpsertConfig.Strategy.INCREMENT));
       fail();
     } catch (IllegalArgumentException e) {
       // Expected